@@ -0,0 +1,127 @@
+package com.deadside.bot.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generated deathlog and server log corpora for the benchmarks
+ * Deathlogs are scaled up from the sample CSVs in data/deathlogs (override with -Dbench.sample.dir),
+ * rewriting timestamps and player names so every round looks like fresh data.
+ */
+public final class BenchmarkCorpus {
+    private static final String SAMPLE_DIR = System.getProperty("bench.sample.dir", "data/deathlogs");
+    private static final long SEED = 42;
+
+    // Used when no sample files are available
+    private static final String[] FALLBACK_SAMPLE = {
+            "2025.05.15-00.11.07;Fatalben0;0002548521ba4271a497e39d5bfe5611;Rogue731;00022ac42542497589f654e6ac2c0a6f;MR5;20;XSX;XSX;",
+            "2025.05.15-00.29.16;Njshh;0002e69a65204b669c20238266782d7b;Rogue731;00022ac42542497589f654e6ac2c0a6f;AK-mod;36;PS5;XSX;",
+            "2025.05.15-00.59.45;Fatalben0;0002548521ba4271a497e39d5bfe5611;Fatalben0;0002548521ba4271a497e39d5bfe5611;suicide_by_relocation;0;XSX;XSX;"
+    };
+
+    private BenchmarkCorpus() {
+    }
+
+    /**
+     * Build a deathlog of the given number of lines from the sample files
+     */
+    public static byte[] deathlog(int lines) {
+        List<String[]> sample = loadSample();
+        Random random = new Random(SEED);
+        StringBuilder builder = new StringBuilder(lines * 120);
+
+        for (int i = 0; i < lines; i++) {
+            String[] fields = sample.get(i % sample.size());
+            int round = i / sample.size();
+            // Spread players across rounds so the corpus has many distinct players
+            int playerBucket = round % 1000;
+
+            builder.append(timestamp(i)).append(';')
+                    .append(fields[1]).append('_').append(playerBucket).append(';')
+                    .append(fields[2]).append(playerBucket).append(';')
+                    .append(fields[3]).append('_').append((playerBucket + random.nextInt(50)) % 1000).append(';')
+                    .append(fields[4]).append(playerBucket).append(';')
+                    .append(fields[5]).append(';')
+                    .append(fields[6]).append(';')
+                    .append(fields.length > 7 ? fields[7] : "").append(';')
+                    .append(fields.length > 8 ? fields[8] : "").append(";\n");
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Build a Deadside.log of the given number of lines with a realistic mix of noise and events
+     */
+    public static List<String> serverLog(int lines) {
+        Random random = new Random(SEED);
+        List<String> log = new ArrayList<>(lines);
+
+        for (int i = 0; i < lines; i++) {
+            String prefix = "[" + timestamp(i) + ":" + String.format("%03d", i % 1000) + "][" + (i % 999) + "]";
+            int kind = random.nextInt(100);
+            String body;
+            if (kind < 70) {
+                body = "LogNet: UChannel::ReceivedSequencedBunch: Bunch.bClose == true. ChIndex == " + i;
+            } else if (kind < 78) {
+                body = "LogSFPS: [Login] Player Player_" + random.nextInt(500) + " connected";
+            } else if (kind < 86) {
+                body = "LogSFPS: [Logout] Player Player_" + random.nextInt(500) + " disconnected";
+            } else if (kind < 92) {
+                body = "LogSFPS: [Kill] Player_" + random.nextInt(500) + " killed Player_" + random.nextInt(500)
+                        + " with AK-74 at distance " + random.nextInt(400);
+            } else if (kind < 95) {
+                body = "LogSFPS: Players online: " + random.nextInt(60);
+            } else if (kind < 97) {
+                body = "LogSFPS: Mission GA_Bunker_Mis1 switched to " + (random.nextBoolean() ? "READY" : "ACTIVE");
+            } else if (kind < 99) {
+                body = "LogSFPS: AirDrop switched to " + (random.nextBoolean() ? "Waiting" : "Dropping");
+            } else {
+                body = "LogSFPS: Helicopter crash spawned at position X=1 Y=2 Z=3";
+            }
+            log.add(prefix + body);
+        }
+        return log;
+    }
+
+    private static String timestamp(int index) {
+        int second = index % 60;
+        int minute = (index / 60) % 60;
+        int hour = (index / 3600) % 24;
+        int day = 1 + (index / 86400) % 28;
+        return String.format("2025.05.%02d-%02d.%02d.%02d", day, hour, minute, second);
+    }
+
+    private static List<String[]> loadSample() {
+        List<String[]> sample = new ArrayList<>();
+        Path dir = Paths.get(SAMPLE_DIR);
+
+        if (Files.isDirectory(dir)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.csv")) {
+                for (Path file : files) {
+                    for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                        String[] fields = line.trim().split(";");
+                        if (fields.length >= 7) {
+                            sample.add(fields);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not read benchmark sample from " + dir, e);
+            }
+        }
+
+        if (sample.isEmpty()) {
+            for (String line : FALLBACK_SAMPLE) {
+                sample.add(line.split(";"));
+            }
+        }
+        return sample;
+    }
+}
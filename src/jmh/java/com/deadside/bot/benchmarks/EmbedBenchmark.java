@@ -0,0 +1,35 @@
+package com.deadside.bot.benchmarks;
+
+import com.deadside.bot.utils.EmbedUtils;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building one killfeed embed, which happens for every kill posted to Discord
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dlogback.configurationFile=logback-jmh.xml"})
+public class EmbedBenchmark {
+
+    private int counter;
+
+    @Benchmark
+    public MessageEmbed killfeedEmbed() {
+        int i = counter++;
+        return EmbedUtils.killfeedEmbed("Killer_" + (i & 255), "Victim_" + (i & 127), "AK-74", i & 511);
+    }
+}
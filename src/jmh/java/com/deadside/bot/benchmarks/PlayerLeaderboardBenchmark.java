@@ -0,0 +1,110 @@
+package com.deadside.bot.benchmarks;
+
+import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.models.Player;
+import com.deadside.bot.db.repositories.PlayerRepository;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leaderboard queries in {@link PlayerRepository} against a seeded players collection
+ * Needs a reachable MongoDB (-Dbench.mongo.uri, default mongodb://localhost:27017); point
+ * MONGODB_DATABASE at a scratch database. Seeded players use their own guild id and are
+ * removed again after the run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dlogback.configurationFile=logback-jmh.xml"})
+public class PlayerLeaderboardBenchmark {
+    private static final long GUILD_ID = 999_000_000_000_000_001L;
+    private static final String SERVER_ID = "jmh-benchmark";
+    private static final int LIMIT = 10;
+    private static final int BATCH_SIZE = 5000;
+
+    @Param({"10000", "100000"})
+    public int players;
+
+    private PlayerRepository repository;
+    private MongoCollection<Player> collection;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MongoDBConnection.initialize(System.getProperty("bench.mongo.uri", "mongodb://localhost:27017"));
+        collection = MongoDBConnection.getInstance().getDatabase().getCollection("players", Player.class);
+        collection.deleteMany(Filters.eq("guildId", GUILD_ID));
+
+        Random random = new Random(42);
+        List<Player> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < players; i++) {
+            Player player = new Player("jmh-" + i, "Player_" + i, GUILD_ID, SERVER_ID);
+            player.setDeadsideId("jmh-" + i);
+            player.setKills(random.nextInt(500));
+            player.setDeaths(random.nextInt(500));
+            player.setSuicides(random.nextInt(20));
+            player.setLongestKillDistance(random.nextInt(1000));
+            player.setLongestKillStreak(random.nextInt(30));
+            batch.add(player);
+
+            if (batch.size() == BATCH_SIZE) {
+                collection.insertMany(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            collection.insertMany(batch);
+        }
+
+        repository = new PlayerRepository();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        collection.deleteMany(Filters.eq("guildId", GUILD_ID));
+    }
+
+    @Benchmark
+    public List<Player> topByKills() {
+        return repository.getTopPlayersByKills(GUILD_ID, SERVER_ID, LIMIT);
+    }
+
+    @Benchmark
+    public List<Player> topByKD() {
+        return repository.getTopPlayersByKD(GUILD_ID, SERVER_ID, LIMIT, 10);
+    }
+
+    @Benchmark
+    public List<Player> topByKDRatio() {
+        return repository.getTopPlayersByKDRatio(GUILD_ID, SERVER_ID, LIMIT);
+    }
+
+    @Benchmark
+    public List<Player> topByDistance() {
+        return repository.getTopPlayersByDistance(GUILD_ID, SERVER_ID, LIMIT);
+    }
+
+    @Benchmark
+    public List<Player> topByKillStreak() {
+        return repository.getTopPlayersByKillStreak(GUILD_ID, SERVER_ID, LIMIT);
+    }
+}
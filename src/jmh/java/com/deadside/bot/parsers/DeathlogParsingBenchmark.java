@@ -0,0 +1,111 @@
+package com.deadside.bot.parsers;
+
+import com.deadside.bot.benchmarks.BenchmarkCorpus;
+import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.models.KillRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Deathlog parsing throughput: the old regex/split path against {@link DeathlogTokenizer}
+ * and the full tokenize-to-{@link KillRecord} path used by the killfeed
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dlogback.configurationFile=logback-jmh.xml"})
+public class DeathlogParsingBenchmark {
+
+    // The pattern the parsers used before the tokenizer
+    private static final Pattern CSV_LINE_PATTERN = Pattern.compile("(\\d{4}\\.\\d{2}\\.\\d{2}-\\d{2}\\.\\d{2}\\.\\d{2});([^;]*);([^;]*);([^;]*);([^;]*);([^;]*);([^;]*);([^;]*);([^;]*);?");
+
+    @Param({"100000", "1000000"})
+    public int lines;
+
+    private byte[] content;
+    private String text;
+    private GameServer server;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        content = BenchmarkCorpus.deathlog(lines);
+        text = new String(content, StandardCharsets.UTF_8);
+        server = new GameServer("bench", "Benchmark Server", "127.0.0.1", 7777, 1L);
+    }
+
+    @Benchmark
+    public void regexSplitDateFormat(Blackhole blackhole) throws ParseException {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy.MM.dd-HH.mm.ss");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+        for (String line : text.split("\\n")) {
+            line = line.trim();
+            if (line.isEmpty() || !CSV_LINE_PATTERN.matcher(line).matches()) {
+                continue;
+            }
+            String[] parts = line.split(";");
+            blackhole.consume(format.parse(parts[0]).getTime());
+            blackhole.consume(parts[1].trim());
+            blackhole.consume(parts[3].trim());
+            blackhole.consume(parts[5].trim());
+            blackhole.consume(Integer.parseInt(parts[6].trim()));
+        }
+    }
+
+    @Benchmark
+    public void tokenizerBuffer(Blackhole blackhole) throws IOException {
+        DeathlogTokenizer tokenizer = new DeathlogTokenizer(ByteBuffer.wrap(content));
+        while (tokenizer.next()) {
+            DeathlogTokenizer.DeathEvent event = tokenizer.event();
+            blackhole.consume(event.getTimestamp());
+            blackhole.consume(event.getKiller());
+            blackhole.consume(event.getVictim());
+            blackhole.consume(event.getWeapon());
+            blackhole.consume(event.getDistance());
+        }
+    }
+
+    @Benchmark
+    public void tokenizerStream(Blackhole blackhole) throws IOException {
+        DeathlogTokenizer tokenizer = new DeathlogTokenizer(new ByteArrayInputStream(content));
+        while (tokenizer.next()) {
+            DeathlogTokenizer.DeathEvent event = tokenizer.event();
+            blackhole.consume(event.getTimestamp());
+            blackhole.consume(event.getKiller());
+            blackhole.consume(event.getVictim());
+            blackhole.consume(event.getWeapon());
+            blackhole.consume(event.getDistance());
+        }
+    }
+
+    @Benchmark
+    public void tokenizerToKillRecord(Blackhole blackhole) throws IOException {
+        DeathlogTokenizer tokenizer = new DeathlogTokenizer(ByteBuffer.wrap(content));
+        while (tokenizer.next()) {
+            blackhole.consume(KillfeedParser.toKillRecord(tokenizer.event(), server));
+        }
+    }
+}
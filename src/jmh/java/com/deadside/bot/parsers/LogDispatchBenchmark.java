@@ -0,0 +1,92 @@
+package com.deadside.bot.parsers;
+
+import com.deadside.bot.benchmarks.BenchmarkCorpus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Deadside.log event dispatch cost
+ * Compares the old chain of full-line regexes with {@link LogEventClassifier} over a corpus where
+ * most lines are noise, without the Discord and database side effects.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dlogback.configurationFile=logback-jmh.xml"})
+public class LogDispatchBenchmark {
+
+    // The patterns DeadsideLogParser ran on every line before the classifier, in the same order
+    private static final Pattern[] LEGACY_PATTERNS = {
+            Pattern.compile("-playersmaxcount=(\\d+)"),
+            Pattern.compile("LogSFPS: Players online: (\\d+)"),
+            Pattern.compile("LogSFPS: \\[Login\\] Player (.+?) connected"),
+            Pattern.compile("LogSFPS: \\[Logout\\] Player (.+?) disconnected"),
+            Pattern.compile("LogSFPS: \\[Kill\\] (.+?) killed (.+?) with (.+?) at distance (\\d+)"),
+            Pattern.compile("LogSFPS: \\[Death\\] (.+?) died from (.+?)"),
+            Pattern.compile("LogSFPS: AirDrop switched to (\\w+)"),
+            Pattern.compile("LogSFPS: Helicopter crash spawned at position (.+)"),
+            Pattern.compile("LogSFPS: Trader event started at (.+)"),
+            Pattern.compile("LogSFPS: Mission (.+?) switched to (\\w+)")
+    };
+
+    @Param({"1000000"})
+    public int lines;
+
+    private List<String> log;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        log = BenchmarkCorpus.serverLog(lines);
+    }
+
+    @Benchmark
+    public void regexChain(Blackhole blackhole) {
+        for (String line : log) {
+            Matcher timestampMatcher = DeadsideLogParser.TIMESTAMP_PATTERN.matcher(line);
+            if (timestampMatcher.find()) {
+                blackhole.consume(timestampMatcher.group(1));
+            }
+
+            for (int i = 0; i < LEGACY_PATTERNS.length; i++) {
+                Matcher matcher = LEGACY_PATTERNS[i].matcher(line);
+                if (matcher.find()) {
+                    blackhole.consume(i);
+                    blackhole.consume(matcher.group(1));
+                    break;
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void classifier(Blackhole blackhole) {
+        for (String line : log) {
+            LogEventClassifier.LogEvent event = DeadsideLogParser.CLASSIFIER.classify(line);
+            if (event == null) {
+                continue;
+            }
+
+            blackhole.consume(LogEventClassifier.leadingTimestamp(line));
+            blackhole.consume(event.getType());
+            blackhole.consume(event.group(1));
+        }
+    }
+}
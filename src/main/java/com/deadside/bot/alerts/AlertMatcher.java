@@ -0,0 +1,516 @@
+package com.deadside.bot.alerts;
+
+import com.deadside.bot.bot.ShardCoordinator;
+import com.deadside.bot.db.models.Alert;
+import com.deadside.bot.db.repositories.AlertRepository;
+import com.deadside.bot.utils.EmbedDispatcher;
+import com.deadside.bot.utils.EmbedUtils;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.channel.concrete.PrivateChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.requests.RestAction;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Matches live player events against watch alerts without touching the database per event
+ * Active alerts are held in memory per (guildId, serverId), indexed by player ID and by
+ * normalized player name. They are loaded at startup, reloaded periodically to pick up alerts
+ * written by other processes, and updated when alerts are created or deleted through this class.
+ * An event is one or two hash lookups; a hit queues a notification line. A background flush
+ * sends each subscriber's lines for a server as one embed, by DM or in the alert's channel.
+ */
+public class AlertMatcher {
+    private static final Logger logger = LoggerFactory.getLogger(AlertMatcher.class);
+    private static AlertMatcher instance;
+
+    public static final String TYPE_KILL = "KILL";
+    public static final String TYPE_DEATH = "DEATH";
+    public static final String TYPE_JOIN = "JOIN";
+    public static final String TYPE_LEAVE = "LEAVE";
+
+    private static final int FLUSH_INTERVAL_SECONDS = 5;
+    private static final int RELOAD_INTERVAL_MINUTES = 15;
+
+    // Lines kept in one notification embed, the rest are summarized
+    private static final int MAX_LINES_PER_EMBED = 20;
+
+    private final AlertRepository alertRepository;
+    private volatile ConcurrentHashMap<ServerKey, ServerAlerts> servers = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Notification> pending = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService flusher;
+    private volatile JDA jda;
+
+    // Metrics
+    private final AtomicLong matches = new AtomicLong();
+    private final AtomicLong messagesSent = new AtomicLong();
+    private final AtomicLong failedDeliveries = new AtomicLong();
+
+    private AlertMatcher() {
+        this.alertRepository = new AlertRepository();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "alert-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        flusher.scheduleWithFixedDelay(this::reloadQuietly, RELOAD_INTERVAL_MINUTES, RELOAD_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    public static synchronized AlertMatcher getInstance() {
+        if (instance == null) {
+            instance = new AlertMatcher();
+        }
+        return instance;
+    }
+
+    /**
+     * Load every active alert and deliver notifications through the given JDA instance
+     * @param jda The bot's JDA instance when running unsharded, may be null when sharded
+     */
+    public void initialize(JDA jda) {
+        this.jda = jda;
+        rebuild();
+    }
+
+    /**
+     * Load every active alert, replacing the current index once the new one is complete
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        ConcurrentHashMap<ServerKey, ServerAlerts> loaded = new ConcurrentHashMap<>();
+        AtomicLong count = new AtomicLong();
+        alertRepository.forEachActive(alert -> {
+            if (index(loaded, alert)) {
+                count.incrementAndGet();
+            }
+        });
+        servers = loaded;
+        logger.info("Loaded {} active player alerts for {} servers in {} ms",
+                count.get(), loaded.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Store a new alert and start matching events against it
+     * @return True if the alert was stored
+     */
+    public boolean create(Alert alert) {
+        if (alert.getAlertType() != null) {
+            alert.setAlertType(alert.getAlertType().toUpperCase(Locale.ROOT));
+        }
+        alert.setActive(true);
+        alertRepository.save(alert);
+        if (alert.getId() == null) {
+            return false;
+        }
+        index(servers, alert);
+        return true;
+    }
+
+    /**
+     * Delete an alert and stop matching events against it
+     * @return True if the alert existed in the guild and server
+     */
+    public boolean delete(ObjectId id, long guildId, String serverId) {
+        Alert alert = alertRepository.findByIdWithIsolation(id, guildId, serverId);
+        boolean deleted = alertRepository.deleteByIdWithIsolation(id, guildId, serverId);
+        if (alert != null) {
+            ServerAlerts alerts = servers.get(new ServerKey(guildId, serverId));
+            if (alerts != null) {
+                alerts.remove(alert);
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Drop every alert of a server whose data was deleted
+     */
+    public void removeServer(long guildId, String serverId) {
+        if (serverId != null) {
+            servers.remove(new ServerKey(guildId, serverId));
+        }
+    }
+
+    /**
+     * Match a player kill against the killer's KILL alerts and the victim's DEATH alerts
+     */
+    public void onKill(long guildId, String serverId, String killerId, String killerName,
+                       String victimId, String victimName, String weapon, int distance) {
+        ServerAlerts alerts = lookup(guildId, serverId);
+        if (alerts == null) {
+            return;
+        }
+        List<Alert> killerAlerts = alerts.match(TYPE_KILL, killerId, killerName);
+        if (!killerAlerts.isEmpty()) {
+            queue(killerAlerts, serverId, "**" + killerName + "** killed **" + victimName + "** with " +
+                    weapon + " (" + distance + "m)");
+        }
+        List<Alert> victimAlerts = alerts.match(TYPE_DEATH, victimId, victimName);
+        if (!victimAlerts.isEmpty()) {
+            queue(victimAlerts, serverId, "**" + victimName + "** was killed by **" + killerName + "** with " +
+                    weapon + " (" + distance + "m)");
+        }
+    }
+
+    /**
+     * Match a death without a killer against the player's DEATH alerts
+     */
+    public void onDeath(long guildId, String serverId, String playerId, String playerName, String cause) {
+        ServerAlerts alerts = lookup(guildId, serverId);
+        if (alerts == null) {
+            return;
+        }
+        List<Alert> matched = alerts.match(TYPE_DEATH, playerId, playerName);
+        if (!matched.isEmpty()) {
+            queue(matched, serverId, "**" + playerName + "** died (" + cause + ")");
+        }
+    }
+
+    /**
+     * Match a player joining the server against their JOIN alerts; join events only carry names
+     */
+    public void onJoin(long guildId, String serverId, String playerName) {
+        ServerAlerts alerts = lookup(guildId, serverId);
+        if (alerts == null) {
+            return;
+        }
+        List<Alert> matched = alerts.match(TYPE_JOIN, null, playerName);
+        if (!matched.isEmpty()) {
+            queue(matched, serverId, "**" + playerName + "** joined the server");
+        }
+    }
+
+    /**
+     * Match a player leaving the server against their LEAVE alerts; leave events only carry names
+     */
+    public void onLeave(long guildId, String serverId, String playerName) {
+        ServerAlerts alerts = lookup(guildId, serverId);
+        if (alerts == null) {
+            return;
+        }
+        List<Alert> matched = alerts.match(TYPE_LEAVE, null, playerName);
+        if (!matched.isEmpty()) {
+            queue(matched, serverId, "**" + playerName + "** left the server");
+        }
+    }
+
+    private ServerAlerts lookup(long guildId, String serverId) {
+        Map<ServerKey, ServerAlerts> current = servers;
+        if (serverId == null || current.isEmpty()) {
+            return null;
+        }
+        return current.get(new ServerKey(guildId, serverId));
+    }
+
+    private void queue(List<Alert> alerts, String serverId, String line) {
+        long now = System.currentTimeMillis();
+        for (Alert alert : alerts) {
+            pending.add(new Notification(alert, serverId, line, now));
+        }
+        matches.addAndGet(alerts.size());
+    }
+
+    /**
+     * Send queued notifications, one embed per subscriber and server
+     * @return The number of notifications sent
+     */
+    public synchronized int flush() {
+        Map<Destination, List<Notification>> byDestination = new LinkedHashMap<>();
+        Notification notification;
+        int count = 0;
+        while ((notification = pending.poll()) != null) {
+            byDestination.computeIfAbsent(Destination.of(notification), d -> new ArrayList<>()).add(notification);
+            count++;
+        }
+        for (Map.Entry<Destination, List<Notification>> entry : byDestination.entrySet()) {
+            deliver(entry.getKey(), entry.getValue());
+        }
+        return count;
+    }
+
+    private void deliver(Destination destination, List<Notification> notifications) {
+        MessageEmbed embed = notificationEmbed(destination.serverId, notifications);
+
+        if (destination.channelId != 0) {
+            TextChannel channel = ShardCoordinator.getInstance().getTextChannelById(jda, destination.channelId);
+            // Only post in channels of the alert's own guild
+            if (channel != null && channel.getGuild().getIdLong() == destination.guildId) {
+                EmbedDispatcher.getInstance().submit(channel, embed);
+                messagesSent.incrementAndGet();
+                return;
+            }
+            logger.debug("Alert channel {} is unavailable, sending alerts to user {} directly",
+                    destination.channelId, destination.userId);
+        }
+
+        RestAction<PrivateChannel> open = ShardCoordinator.getInstance().openPrivateChannel(jda, destination.userId);
+        if (open == null) {
+            failedDeliveries.incrementAndGet();
+            return;
+        }
+        open.flatMap(channel -> channel.sendMessageEmbeds(embed)).queue(
+            message -> messagesSent.incrementAndGet(),
+            error -> {
+                failedDeliveries.incrementAndGet();
+                logger.debug("Could not send player alerts to user {}: {}", destination.userId, error.getMessage());
+            });
+    }
+
+    private static MessageEmbed notificationEmbed(String serverId, List<Notification> notifications) {
+        StringBuilder description = new StringBuilder();
+        int shown = Math.min(notifications.size(), MAX_LINES_PER_EMBED);
+        for (int i = 0; i < shown; i++) {
+            Notification notification = notifications.get(i);
+            description.append("<t:").append(notification.timestamp / 1000).append(":T> ")
+                    .append(notification.line).append('\n');
+        }
+        if (notifications.size() > shown) {
+            description.append("...and ").append(notifications.size() - shown).append(" more");
+        }
+
+        return new EmbedBuilder()
+                .setTitle(notifications.size() == 1 ? "Player Alert" : "Player Alerts")
+                .setDescription(description.toString().trim())
+                .setColor(EmbedUtils.STEEL_BLUE)
+                .addField("Server", serverId, true)
+                .setFooter(EmbedUtils.STANDARD_FOOTER)
+                .setTimestamp(Instant.now())
+                .build();
+    }
+
+    private static boolean index(Map<ServerKey, ServerAlerts> target, Alert alert) {
+        if (!alert.isActive() || alert.getGuildId() <= 0 || alert.getServerId() == null) {
+            return false;
+        }
+        if (isBlank(alert.getPlayerId()) && isBlank(alert.getPlayerName())) {
+            return false;
+        }
+        target.computeIfAbsent(new ServerKey(alert.getGuildId(), alert.getServerId()), k -> new ServerAlerts())
+                .add(alert);
+        return true;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Error sending player alerts: {}", e.getMessage(), e);
+        }
+    }
+
+    private void reloadQuietly() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("Error reloading player alerts: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Get a one-line summary of alert matching since startup
+     */
+    public String getStatusSummary() {
+        Map<ServerKey, ServerAlerts> current = servers;
+        return String.format("servers=%d, matches=%d, messages=%d, failed=%d, pending=%d",
+                current.size(), matches.get(), messagesSent.get(), failedDeliveries.get(), pending.size());
+    }
+
+    /**
+     * Stop the background tasks and send the notifications still queued
+     */
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        logger.info("Alert matcher stopped ({})", getStatusSummary());
+    }
+
+    /**
+     * The active alerts of one server
+     * Alerts on a player ID are matched by ID whenever the event carries one, since names can
+     * change; name-only alerts, and every alert for events without IDs, are matched by name.
+     */
+    private static final class ServerAlerts {
+        private final ConcurrentHashMap<String, List<Alert>> byPlayerId = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, List<Alert>> byName = new ConcurrentHashMap<>();
+
+        private void add(Alert alert) {
+            if (!isBlank(alert.getPlayerId())) {
+                append(byPlayerId, alert.getPlayerId().trim(), alert);
+            }
+            if (!isBlank(alert.getPlayerName())) {
+                append(byName, normalize(alert.getPlayerName()), alert);
+            }
+        }
+
+        private void remove(Alert alert) {
+            if (!isBlank(alert.getPlayerId())) {
+                detach(byPlayerId, alert.getPlayerId().trim(), alert);
+            }
+            if (!isBlank(alert.getPlayerName())) {
+                detach(byName, normalize(alert.getPlayerName()), alert);
+            }
+        }
+
+        private List<Alert> match(String type, String playerId, String playerName) {
+            List<Alert> matched = Collections.emptyList();
+            boolean hasId = !isBlank(playerId);
+            if (hasId) {
+                matched = collect(matched, byPlayerId.get(playerId), type, false);
+            }
+            if (!isBlank(playerName) && !byName.isEmpty()) {
+                matched = collect(matched, byName.get(normalize(playerName)), type, hasId);
+            }
+            return matched;
+        }
+
+        private static List<Alert> collect(List<Alert> matched, List<Alert> candidates, String type, boolean nameOnly) {
+            if (candidates == null) {
+                return matched;
+            }
+            for (Alert alert : candidates) {
+                if (nameOnly && !isBlank(alert.getPlayerId())) {
+                    // Already matched, or ruled out, by ID
+                    continue;
+                }
+                if (alert.getAlertType() != null && !alert.getAlertType().equalsIgnoreCase(type)) {
+                    continue;
+                }
+                if (matched.isEmpty()) {
+                    matched = new ArrayList<>();
+                }
+                matched.add(alert);
+            }
+            return matched;
+        }
+
+        private static void append(ConcurrentHashMap<String, List<Alert>> map, String key, Alert alert) {
+            map.compute(key, (k, alerts) -> {
+                List<Alert> updated = alerts == null ? new ArrayList<>() : new ArrayList<>(alerts);
+                updated.removeIf(a -> Objects.equals(a.getId(), alert.getId()));
+                updated.add(alert);
+                return Collections.unmodifiableList(updated);
+            });
+        }
+
+        private static void detach(ConcurrentHashMap<String, List<Alert>> map, String key, Alert alert) {
+            map.computeIfPresent(key, (k, alerts) -> {
+                List<Alert> remaining = new ArrayList<>(alerts);
+                remaining.removeIf(a -> Objects.equals(a.getId(), alert.getId()));
+                return remaining.isEmpty() ? null : Collections.unmodifiableList(remaining);
+            });
+        }
+    }
+
+    private static final class Notification {
+        private final Alert alert;
+        private final String serverId;
+        private final String line;
+        private final long timestamp;
+
+        private Notification(Alert alert, String serverId, String line, long timestamp) {
+            this.alert = alert;
+            this.serverId = serverId;
+            this.line = line;
+            this.timestamp = timestamp;
+        }
+    }
+
+    /**
+     * Where a subscriber's notifications for a server go: the alert's channel, or a DM when it has none
+     */
+    private static final class Destination {
+        private final long guildId;
+        private final String serverId;
+        private final long userId;
+        private final long channelId;
+
+        private Destination(long guildId, String serverId, long userId, long channelId) {
+            this.guildId = guildId;
+            this.serverId = serverId;
+            this.userId = userId;
+            this.channelId = channelId;
+        }
+
+        private static Destination of(Notification notification) {
+            Alert alert = notification.alert;
+            long channelId = 0;
+            if (!isBlank(alert.getChannelId())) {
+                try {
+                    channelId = Long.parseLong(alert.getChannelId().trim());
+                } catch (NumberFormatException e) {
+                    channelId = 0;
+                }
+            }
+            return new Destination(alert.getGuildId(), notification.serverId, alert.getUserId(), channelId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Destination)) return false;
+            Destination that = (Destination) o;
+            return guildId == that.guildId && userId == that.userId && channelId == that.channelId
+                    && serverId.equals(that.serverId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(guildId, serverId, userId, channelId);
+        }
+    }
+
+    private static final class ServerKey {
+        private final long guildId;
+        private final String serverId;
+
+        private ServerKey(long guildId, String serverId) {
+            this.guildId = guildId;
+            this.serverId = serverId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ServerKey)) return false;
+            ServerKey that = (ServerKey) o;
+            return guildId == that.guildId && serverId.equals(that.serverId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(guildId, serverId);
+        }
+    }
+}
@@ -3,6 +3,10 @@ package com.deadside.bot.bot;
 import com.deadside.bot.commands.CommandManager;
 import com.deadside.bot.config.Config;
 import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.alerts.AlertMatcher;
+import com.deadside.bot.economy.BountyMatcher;
+import com.deadside.bot.faction.FactionStatsSync;
+import com.deadside.bot.economy.EconomyLedger;
 import com.deadside.bot.isolation.IsolationBootstrap;
 import com.deadside.bot.bot.AutoStartupCleanup;
 import com.deadside.bot.bot.ParserFixIntegration;
@@ -12,14 +16,28 @@ import com.deadside.bot.listeners.ModalListener;
 import com.deadside.bot.listeners.StringSelectMenuListener;
 import com.deadside.bot.parsers.DeadsideCsvParser;
 import com.deadside.bot.parsers.DeadsideLogParser;
+import com.deadside.bot.parsers.HistoricalBackfillEngine;
+import com.deadside.bot.premium.PremiumCache;
 import com.deadside.bot.premium.PremiumManager;
 import com.deadside.bot.premium.Tip4servWebhookController;
+import com.deadside.bot.schedulers.AutoLeaderboardUpdater;
+import com.deadside.bot.schedulers.IngestionScheduler;
 import com.deadside.bot.schedulers.KillfeedScheduler;
 import com.deadside.bot.schedulers.PlayerCountVoiceChannelUpdater;
 import com.deadside.bot.db.repositories.GameServerRepository;
+import com.deadside.bot.db.repositories.GuildConfigRepository;
+import com.deadside.bot.db.repositories.MatchupRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.db.repositories.WeaponStatsRepository;
+import com.deadside.bot.sftp.SftpConnectionPool;
 import com.deadside.bot.sftp.SftpConnector;
+import com.deadside.bot.stats.LeaderboardEngine;
+import com.deadside.bot.stats.MatchupIndex;
+import com.deadside.bot.stats.PlayerStatsAggregator;
+import com.deadside.bot.stats.WeaponStatsEngine;
+import com.deadside.bot.utils.EmbedDispatcher;
 import com.deadside.bot.utils.GuildIsolationManager;
+import com.deadside.bot.utils.NameIndex;
 import com.deadside.bot.utils.DataIsolationMigration;
 
 import java.util.ArrayList;
@@ -27,18 +45,25 @@ import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.JDABuilder;
 import net.dv8tion.jda.api.OnlineStatus;
 import net.dv8tion.jda.api.entities.Activity;
+import net.dv8tion.jda.api.events.session.ReadyEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder;
+import net.dv8tion.jda.api.sharding.ShardManager;
 import net.dv8tion.jda.api.utils.ChunkingFilter;
 import net.dv8tion.jda.api.utils.MemberCachePolicy;
 import net.dv8tion.jda.api.utils.cache.CacheFlag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Main bot class that initializes JDA and sets up listeners and commands
@@ -48,9 +73,11 @@ public class DeadsideBot {
     
     private final String token;
     private JDA jda;
+    private ShardManager shardManager;
     private CommandManager commandManager;
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(3);
     private KillfeedScheduler killfeedScheduler;
+    private IngestionScheduler ingestionScheduler;
     private DeadsideLogParser logParser;
     private DeadsideCsvParser csvParser;
     private PremiumManager premiumManager;
@@ -79,38 +106,45 @@ public class DeadsideBot {
             // Initialize the command manager
             commandManager = new CommandManager();
             
-            // Build the JDA instance with necessary intents
-            jda = JDABuilder.createDefault(token)
-                    .setStatus(OnlineStatus.ONLINE)
-                    .setActivity(Activity.playing("Deadside"))
-                    .enableIntents(
-                            GatewayIntent.GUILD_MEMBERS,
-                            GatewayIntent.GUILD_MESSAGES,
-                            GatewayIntent.GUILD_MESSAGE_REACTIONS,
-                            GatewayIntent.MESSAGE_CONTENT
-                    )
-                    .setMemberCachePolicy(MemberCachePolicy.ALL)
-                    .setChunkingFilter(ChunkingFilter.ALL)
-                    .enableCache(EnumSet.of(
-                            CacheFlag.MEMBER_OVERRIDES,
-                            CacheFlag.ROLE_TAGS,
-                            CacheFlag.EMOJI,
-                            CacheFlag.VOICE_STATE
-                    ))
-                    .addEventListeners(
-                            new CommandListener(commandManager),
-                            new ButtonListener(),
-                            new StringSelectMenuListener(),
-                            new ModalListener()
-                    )
-                    .build();
-            
-            // Wait for JDA to be ready
-            jda.awaitReady();
-            logger.info("JDA initialized and connected to Discord gateway");
-
-            // Register slash commands
-            commandManager.registerCommands(jda);
+            if (ShardCoordinator.getInstance().isSharded()) {
+                // Shards are connected as this process acquires their leases
+                shardManager = buildShardManager();
+                ShardCoordinator.getInstance().start(shardManager);
+                logger.info("Running as cluster node {}", ShardCoordinator.getInstance().getNodeId());
+            } else {
+                // Build the JDA instance with necessary intents
+                jda = JDABuilder.createDefault(token)
+                        .setStatus(OnlineStatus.ONLINE)
+                        .setActivity(Activity.playing("Deadside"))
+                        .enableIntents(
+                                GatewayIntent.GUILD_MEMBERS,
+                                GatewayIntent.GUILD_MESSAGES,
+                                GatewayIntent.GUILD_MESSAGE_REACTIONS,
+                                GatewayIntent.MESSAGE_CONTENT
+                        )
+                        .setMemberCachePolicy(MemberCachePolicy.ALL)
+                        .setChunkingFilter(ChunkingFilter.ALL)
+                        .enableCache(EnumSet.of(
+                                CacheFlag.MEMBER_OVERRIDES,
+                                CacheFlag.ROLE_TAGS,
+                                CacheFlag.EMOJI,
+                                CacheFlag.VOICE_STATE
+                        ))
+                        .addEventListeners(
+                                new CommandListener(commandManager),
+                                new ButtonListener(),
+                                new StringSelectMenuListener(),
+                                new ModalListener()
+                        )
+                        .build();
+                
+                // Wait for JDA to be ready
+                jda.awaitReady();
+                logger.info("JDA initialized and connected to Discord gateway");
+                
+                // Register slash commands
+                commandManager.registerCommands(jda);
+            }
             
             // Start schedulers
             startSchedulers();
@@ -134,6 +168,50 @@ public class DeadsideBot {
         }
     }
     
+    /**
+     * Build a shard manager with the same intents, caches and listeners as the single-process bot
+     * No shard is started here; the shard coordinator starts the shards this process leases.
+     */
+    private ShardManager buildShardManager() {
+        AtomicBoolean commandsRegistered = new AtomicBoolean();
+        
+        return DefaultShardManagerBuilder.createDefault(token)
+                .setShardsTotal(Config.getInstance().getClusterShardsTotal())
+                .setShards(Collections.emptyList())
+                .setStatus(OnlineStatus.ONLINE)
+                .setActivity(Activity.playing("Deadside"))
+                .enableIntents(
+                        GatewayIntent.GUILD_MEMBERS,
+                        GatewayIntent.GUILD_MESSAGES,
+                        GatewayIntent.GUILD_MESSAGE_REACTIONS,
+                        GatewayIntent.MESSAGE_CONTENT
+                )
+                .setMemberCachePolicy(MemberCachePolicy.ALL)
+                .setChunkingFilter(ChunkingFilter.ALL)
+                .enableCache(EnumSet.of(
+                        CacheFlag.MEMBER_OVERRIDES,
+                        CacheFlag.ROLE_TAGS,
+                        CacheFlag.EMOJI,
+                        CacheFlag.VOICE_STATE
+                ))
+                .addEventListeners(
+                        new CommandListener(commandManager),
+                        new ButtonListener(),
+                        new StringSelectMenuListener(),
+                        new ModalListener(),
+                        new ListenerAdapter() {
+                            @Override
+                            public void onReady(ReadyEvent event) {
+                                // Slash commands are global, registering them from the first ready shard is enough
+                                if (commandsRegistered.compareAndSet(false, true)) {
+                                    commandManager.registerCommands(event.getJDA());
+                                }
+                            }
+                        }
+                )
+                .build(false);
+    }
+    
     /**
      * Initialize premium system components
      */
@@ -193,71 +271,94 @@ public class DeadsideBot {
         }
     }
     
+    /**
+     * Reload the in-memory state of guilds whose shard this node has just taken over
+     * Their game servers are not ingested until this returns.
+     */
+    private void reloadGuildState(Set<Long> guildIds) {
+        // Write out pending deltas first so the reload reads them back instead of dropping them
+        PlayerStatsAggregator.getInstance().flush();
+        PlayerRepository playerRepository = new PlayerRepository();
+        LeaderboardEngine.getInstance().reload(playerRepository, guildIds);
+        NameIndex.getInstance().reload(playerRepository, guildIds);
+        MatchupIndex.getInstance().reload(new MatchupRepository(), guildIds);
+        WeaponStatsEngine.getInstance().reload(new WeaponStatsRepository(), guildIds);
+        BountyMatcher.getInstance().reload(guildIds);
+        FactionStatsSync.getInstance().reload(guildIds);
+        AlertMatcher.getInstance().rebuild();
+        PremiumCache.getInstance().rebuild();
+    }
+    
     /**
      * Start all scheduled tasks
      */
     private void startSchedulers() {
         Config config = Config.getInstance();
         
+        // Initialize common dependencies for parsers
+        GameServerRepository gameServerRepository = new GameServerRepository();
+        PlayerRepository playerRepository = new PlayerRepository();
+        SftpConnector sftpConnector = new SftpConnector();
+        
+        // Shards taken over from another node later on reload their guilds' state before they are ingested
+        ShardCoordinator.getInstance().setGuildStateLoader(this::reloadGuildState);
+        
+        // Load the in-memory leaderboards, matchups, weapon stats, names, bounties, alerts and faction members before any kills are ingested
+        // Premium entitlements are loaded with them; commands check premium against the database until then
+        PremiumCache.getInstance().rebuild();
+        LeaderboardEngine.getInstance().rebuild(playerRepository);
+        NameIndex.getInstance().rebuild(playerRepository);
+        MatchupIndex.getInstance().rebuild(new MatchupRepository());
+        WeaponStatsEngine.getInstance().rebuild(new WeaponStatsRepository());
+        BountyMatcher.getInstance().rebuild();
+        AlertMatcher.getInstance().initialize(jda);
+        FactionStatsSync.getInstance().rebuild();
+        
+        // Keep auto-updating leaderboard messages in step with the in-memory leaderboards
+        AutoLeaderboardUpdater.getInstance().start(jda);
+        
+        // Every server is polled as its own task so a slow SFTP host only delays its own server
+        // When sharded, jda is null and the parsers resolve guilds and channels through the shard coordinator
+        ingestionScheduler = new IngestionScheduler(gameServerRepository);
+        
         // Initialize killfeed scheduler
         killfeedScheduler = new KillfeedScheduler();
         killfeedScheduler.initialize(jda);
         int killfeedInterval = config.getKillfeedUpdateInterval();
         
         // Schedule killfeed updates
-        scheduler.scheduleAtFixedRate(
-                killfeedScheduler::processAllServers,
+        ingestionScheduler.schedule(
+                "killfeed",
                 1, // Initial delay of 1 second to allow bot to fully initialize
                 killfeedInterval,
-                TimeUnit.SECONDS
+                TimeUnit.SECONDS,
+                killfeedScheduler::processServer
         );
         
-        // Initialize common dependencies for parsers
-        GameServerRepository gameServerRepository = new GameServerRepository();
-        PlayerRepository playerRepository = new PlayerRepository();
-        SftpConnector sftpConnector = new SftpConnector();
-        
         // Initialize and start log parser
         logParser = new DeadsideLogParser(jda, gameServerRepository, sftpConnector);
         int logParserInterval = 180; // Fixed to 180 seconds as required
         
         // Schedule log parsing
-        scheduler.scheduleAtFixedRate(
-                logParser::processAllServerLogs,
+        ingestionScheduler.schedule(
+                "log",
                 5, // Initial delay of 5 seconds to allow full initialization
                 logParserInterval,
-                TimeUnit.SECONDS
+                TimeUnit.SECONDS,
+                logParser::processServerLog
         );
         
         // Initialize and start CSV death log parser with proper isolation support
         csvParser = new DeadsideCsvParser(jda, sftpConnector, playerRepository, gameServerRepository);
         int csvParserInterval = 300; // Fixed to 300 seconds as required
         
-        // Schedule CSV death log parsing
-        scheduler.scheduleAtFixedRate(
-                () -> {
-                    try {
-                        // Process servers using isolation-aware method
-                        List<Long> guildIds = fetchAllGuildIds();
-                        for (Long guildId : guildIds) {
-                            if (guildId != null && guildId > 0) {
-                                List<GameServer> guildServers = gameServerRepository.findAllByGuildId(guildId);
-                                for (GameServer server : guildServers) {
-                                    // Set isolation context for the current server
-                                    GuildIsolationManager.getInstance().setContext(guildId, server.getServerId());
-                                    csvParser.processDeathLogs(server);
-                                    // Clear context after processing
-                                    GuildIsolationManager.getInstance().clearContext();
-                                }
-                            }
-                        }
-                    } catch (Exception e) {
-                        logger.error("Error processing CSV death logs: {}", e.getMessage(), e);
-                    }
-                },
+        // Schedule CSV death log parsing, the ingestion scheduler sets the isolation context per server
+        ingestionScheduler.schedule(
+                "deathlog",
                 10, // Initial delay of 10 seconds
                 csvParserInterval,
-                TimeUnit.SECONDS
+                TimeUnit.SECONDS,
+                csvParser::processDeathLogs
         );
         
         // Initialize and start player count voice channel updater
@@ -278,7 +379,15 @@ public class DeadsideBot {
             webhookController.stop();
         }
         
+        logger.info("Shutting down command executor...");
+        if (commandManager != null) {
+            commandManager.shutdown();
+        }
+        
         logger.info("Shutting down schedulers...");
+        if (ingestionScheduler != null) {
+            ingestionScheduler.shutdown();
+        }
         scheduler.shutdown();
         try {
             if (!scheduler.awaitTermination(30, TimeUnit.SECONDS)) {
@@ -289,6 +398,42 @@ public class DeadsideBot {
             Thread.currentThread().interrupt();
         }
         
+        logger.info("Stopping historical backfills...");
+        HistoricalBackfillEngine.getInstance().shutdown();
+        
+        logger.info("Settling claimed bounties...");
+        BountyMatcher.getInstance().shutdown();
+        
+        logger.info("Sending pending player alerts...");
+        AlertMatcher.getInstance().shutdown();
+        
+        logger.info("Stopping auto-updating leaderboards...");
+        AutoLeaderboardUpdater.getInstance().shutdown();
+        PremiumCache.getInstance().shutdown();
+        
+        logger.info("Flushing pending player stats...");
+        PlayerStatsAggregator.getInstance().shutdown();
+        
+        logger.info("Flushing pending faction stats...");
+        FactionStatsSync.getInstance().shutdown();
+        
+        logger.info("Writing pending economy ledger entries...");
+        EconomyLedger.getInstance().shutdown();
+        
+        logger.info("Sending queued Discord embeds...");
+        EmbedDispatcher.getInstance().shutdown();
+        
+        logger.info("Closing pooled SFTP connections...");
+        SftpConnectionPool.getInstance().shutdown();
+        
+        GameServerRepository.logCacheStatus();
+        GuildConfigRepository.logCacheStatus();
+        
+        if (shardManager != null) {
+            logger.info("Releasing shard leases...");
+            ShardCoordinator.getInstance().shutdown();
+        }
+        
         logger.info("Shutting down JDA...");
         if (jda != null) {
             jda.shutdown();
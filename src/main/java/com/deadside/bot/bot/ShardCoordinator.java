@@ -0,0 +1,377 @@
+package com.deadside.bot.bot;
+
+import com.deadside.bot.config.Config;
+import com.deadside.bot.db.repositories.ClusterNodeRepository;
+import com.deadside.bot.db.repositories.GameServerRepository;
+import com.deadside.bot.db.repositories.ShardLeaseRepository;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.channel.concrete.PrivateChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Splits Discord shards, and the ingestion of the guilds on them, between bot processes
+ * Every process heartbeats into the cluster table and leases the shards that rendezvous hashing
+ * assigns to it among the live processes. A process connects only the shards it leases and
+ * ingests only the game servers of guilds on those shards. When a process stops heartbeating,
+ * the others stop counting it as live and take over its shards once its leases lapse. The
+ * in-memory state of guilds on a taken-over shard is reloaded before this process ingests them.
+ * Without cluster.shards.total the bot runs as a single process that owns every guild.
+ */
+public class ShardCoordinator {
+    private static final Logger logger = LoggerFactory.getLogger(ShardCoordinator.class);
+    private static ShardCoordinator instance;
+
+    private final int shardsTotal;
+    private final String nodeId;
+    private final long heartbeatMs;
+    private final long leaseTtlMs;
+    private final ShardLeaseRepository leaseRepository;
+    private final ClusterNodeRepository nodeRepository;
+
+    // Shards leased by this process, mapped to the time their lease can no longer be relied on
+    private final Map<Integer, Long> ownedShards = new ConcurrentHashMap<>();
+    // Shards taken over from another node whose guilds' in-memory state is still being reloaded
+    private final Set<Integer> loadingShards = ConcurrentHashMap.newKeySet();
+
+    private volatile ShardManager shardManager;
+    private volatile Consumer<Set<Long>> guildStateLoader;
+    private ScheduledExecutorService timer;
+    private ExecutorService stateLoader;
+
+    private final AtomicLong acquiredLeases = new AtomicLong();
+    private final AtomicLong releasedLeases = new AtomicLong();
+    private final AtomicLong lostLeases = new AtomicLong();
+    private final AtomicLong reloadedShards = new AtomicLong();
+
+    private ShardCoordinator() {
+        Config config = Config.getInstance();
+        this.shardsTotal = config.getClusterShardsTotal();
+        this.nodeId = config.getClusterNodeId().isEmpty() ? defaultNodeId() : config.getClusterNodeId();
+        this.heartbeatMs = TimeUnit.SECONDS.toMillis(config.getClusterHeartbeatInterval());
+        this.leaseTtlMs = TimeUnit.SECONDS.toMillis(config.getClusterLeaseTtl());
+        this.leaseRepository = new ShardLeaseRepository();
+        this.nodeRepository = new ClusterNodeRepository();
+
+        if (isSharded() && leaseTtlMs <= 2 * heartbeatMs) {
+            logger.warn("Cluster lease TTL of {} ms is not comfortably above the {} ms heartbeat, leases may lapse between renewals",
+                    leaseTtlMs, heartbeatMs);
+        }
+    }
+
+    public static synchronized ShardCoordinator getInstance() {
+        if (instance == null) {
+            instance = new ShardCoordinator();
+        }
+        return instance;
+    }
+
+    /**
+     * Whether the bot runs as one of several processes sharing a shard range
+     */
+    public boolean isSharded() {
+        return shardsTotal > 0;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Start leasing shards for a shard manager that was built without logging in
+     * The first rebalance runs on the calling thread so the process owns its share before ingestion starts.
+     */
+    public synchronized void start(ShardManager shardManager) {
+        if (timer != null) {
+            return;
+        }
+        this.shardManager = shardManager;
+        rebalance();
+
+        stateLoader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "shard-state-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "shard-coordinator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleAtFixedRate(this::rebalance, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        logger.info("Shard coordinator started as node {} for {} shards, heartbeat every {} ms, leases valid for {} ms",
+                nodeId, shardsTotal, heartbeatMs, leaseTtlMs);
+    }
+
+    /**
+     * Set what reloads the in-memory state of guilds on a shard this process takes over later on
+     * The shards leased at startup are covered by the full load that runs before ingestion starts.
+     */
+    public void setGuildStateLoader(Consumer<Set<Long>> guildStateLoader) {
+        this.guildStateLoader = guildStateLoader;
+    }
+
+    /**
+     * Get the shard a guild lives on, using Discord's sharding formula
+     */
+    public int shardFor(long guildId) {
+        return (int) ((guildId >>> 22) % shardsTotal);
+    }
+
+    /**
+     * Whether this process should ingest the game servers of a guild
+     * A guild is only owned once its shard is leased, its in-memory state reloaded and the shard
+     * connected, so kills are never applied to state the previous owner has since moved past and
+     * killfeed posts never go to a shard whose channel cache is still loading.
+     */
+    public boolean ownsGuild(long guildId) {
+        if (!isSharded()) {
+            return true;
+        }
+        int shardId = shardFor(guildId);
+        if (!ownedShards.containsKey(shardId) || loadingShards.contains(shardId)) {
+            return false;
+        }
+        JDA shard = shardManager.getShardById(shardId);
+        return shard != null && shard.getStatus() == JDA.Status.CONNECTED;
+    }
+
+    /**
+     * Look up a guild on whichever local shard it lives on
+     * @param jda The bot's JDA instance when running unsharded, may be null when sharded
+     */
+    public Guild getGuildById(JDA jda, long guildId) {
+        ShardManager manager = shardManager;
+        if (manager != null) {
+            return manager.getGuildById(guildId);
+        }
+        return jda != null ? jda.getGuildById(guildId) : null;
+    }
+
+    /**
+     * Look up a text channel on whichever local shard it lives on
+     * @param jda The bot's JDA instance when running unsharded, may be null when sharded
+     */
+    public TextChannel getTextChannelById(JDA jda, long channelId) {
+        ShardManager manager = shardManager;
+        if (manager != null) {
+            return manager.getTextChannelById(channelId);
+        }
+        return jda != null ? jda.getTextChannelById(channelId) : null;
+    }
+
+    /**
+     * Open a direct message channel with a user through any connected local shard
+     * @param jda The bot's JDA instance when running unsharded, may be null when sharded
+     * @return The action opening the channel, or null if no shard is connected
+     */
+    public RestAction<PrivateChannel> openPrivateChannel(JDA jda, long userId) {
+        ShardManager manager = shardManager;
+        if (manager != null) {
+            for (JDA shard : manager.getShards()) {
+                if (shard.getStatus() == JDA.Status.CONNECTED) {
+                    return shard.openPrivateChannelById(userId);
+                }
+            }
+            return null;
+        }
+        return jda != null ? jda.openPrivateChannelById(userId) : null;
+    }
+
+    /**
+     * Get the guilds on every local shard
+     * @param jda The bot's JDA instance when running unsharded, may be null when sharded
+     */
+    public List<Guild> getGuilds(JDA jda) {
+        ShardManager manager = shardManager;
+        if (manager != null) {
+            return manager.getGuilds();
+        }
+        return jda != null ? jda.getGuilds() : new ArrayList<>();
+    }
+
+    /**
+     * Heartbeat, renew held leases, hand off shards that now belong to another node and
+     * take the ones that now belong to this node
+     */
+    private synchronized void rebalance() {
+        if (timer != null && timer.isShutdown()) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            if (!nodeRepository.heartbeat(nodeId, now, ownedShards.size())) {
+                // Without the database we cannot renew, so drop shards whose leases may already be taken
+                ownedShards.forEach((shardId, validUntil) -> {
+                    if (validUntil <= now) {
+                        lostLeases.incrementAndGet();
+                        stopShard(shardId, "lease could not be renewed");
+                    }
+                });
+                return;
+            }
+
+            List<String> liveNodes = nodeRepository.findLiveNodeIds(now - leaseTtlMs);
+            if (!liveNodes.contains(nodeId)) {
+                liveNodes.add(nodeId);
+            }
+
+            long expiresAt = now + leaseTtlMs;
+            // Stop relying on a lease one heartbeat before it lapses, before anyone else can take it
+            long validUntil = expiresAt - heartbeatMs;
+
+            for (int shardId = 0; shardId < shardsTotal; shardId++) {
+                boolean assigned = nodeId.equals(ownerOf(shardId, liveNodes));
+                boolean held = ownedShards.containsKey(shardId);
+
+                if (held && !assigned) {
+                    // Disconnect first so the new owner never runs the shard alongside us
+                    stopShard(shardId, "reassigned to another node");
+                    leaseRepository.release(shardId, nodeId);
+                    releasedLeases.incrementAndGet();
+                } else if (held) {
+                    if (leaseRepository.renew(shardId, nodeId, expiresAt)) {
+                        ownedShards.put(shardId, validUntil);
+                    } else {
+                        lostLeases.incrementAndGet();
+                        stopShard(shardId, "lease taken by another node");
+                    }
+                } else if (assigned && leaseRepository.tryAcquire(shardId, nodeId, now, expiresAt)) {
+                    // Shards leased after startup hold guilds whose state another node has been updating
+                    if (stateLoader != null && guildStateLoader != null && loadingShards.add(shardId)) {
+                        int loadedShard = shardId;
+                        stateLoader.execute(() -> loadShardState(loadedShard));
+                    }
+                    ownedShards.put(shardId, validUntil);
+                    acquiredLeases.incrementAndGet();
+                    shardManager.start(shardId);
+                    logger.info("Node {} acquired shard {}/{}", nodeId, shardId, shardsTotal);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error rebalancing shard leases: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reload the in-memory state of every guild on a shard, then let its ingestion start
+     */
+    private void loadShardState(int shardId) {
+        long start = System.currentTimeMillis();
+        try {
+            Set<Long> guildIds = new GameServerRepository().getDistinctGuildIds().stream()
+                    .filter(guildId -> shardFor(guildId) == shardId)
+                    .collect(Collectors.toSet());
+            if (!guildIds.isEmpty()) {
+                guildStateLoader.accept(guildIds);
+            }
+            reloadedShards.incrementAndGet();
+            logger.info("Node {} reloaded state of {} guilds on shard {}/{} in {} ms",
+                    nodeId, guildIds.size(), shardId, shardsTotal, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Error reloading state of shard {}/{}, ingesting it with the state already in memory: {}",
+                    shardId, shardsTotal, e.getMessage(), e);
+        } finally {
+            loadingShards.remove(shardId);
+        }
+    }
+
+    private void stopShard(int shardId, String reason) {
+        ownedShards.remove(shardId);
+        shardManager.shutdown(shardId);
+        logger.info("Node {} stopped shard {}/{}: {}", nodeId, shardId, shardsTotal, reason);
+    }
+
+    /**
+     * Pick the live node with the highest hash weight for a shard
+     * Adding or removing a node only moves the shards that node wins or loses.
+     */
+    private static String ownerOf(int shardId, List<String> liveNodes) {
+        String owner = null;
+        long best = 0;
+        for (String candidate : liveNodes) {
+            long weight = weight(candidate, shardId);
+            if (owner == null || weight > best || (weight == best && candidate.compareTo(owner) < 0)) {
+                owner = candidate;
+                best = weight;
+            }
+        }
+        return owner;
+    }
+
+    private static long weight(String nodeId, int shardId) {
+        // FNV-1a over node and shard, then a 64-bit finalizer to spread nearby inputs
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : (nodeId + "#" + shardId).getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        // The random suffix keeps a restarted process from inheriting leases it cannot vouch for
+        return host + "-" + ManagementFactory.getRuntimeMXBean().getName().split("@")[0]
+                + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Get a one-line summary of lease activity since startup
+     */
+    public String getStatusSummary() {
+        return String.format("node=%s, shards=%s/%d, acquired=%d, released=%d, lost=%d, reloaded=%d, loading=%s",
+                nodeId, ownedShards.keySet(), shardsTotal,
+                acquiredLeases.get(), releasedLeases.get(), lostLeases.get(), reloadedShards.get(), loadingShards);
+    }
+
+    /**
+     * Disconnect every leased shard and release the leases so other nodes take over right away
+     */
+    public synchronized void shutdown() {
+        if (timer == null) {
+            return;
+        }
+        logger.info("Shutting down shard coordinator ({})", getStatusSummary());
+        timer.shutdownNow();
+        stateLoader.shutdownNow();
+        for (Integer shardId : new ArrayList<>(ownedShards.keySet())) {
+            stopShard(shardId, "process shutting down");
+            leaseRepository.release(shardId, nodeId);
+        }
+        nodeRepository.remove(nodeId);
+        shardManager.shutdown();
+    }
+}
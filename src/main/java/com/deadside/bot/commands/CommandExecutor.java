@@ -0,0 +1,259 @@
+package com.deadside.bot.commands;
+
+import com.deadside.bot.config.Config;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs slash command and autocomplete handlers on a bounded worker pool instead of JDA's event thread
+ * The event thread only checks the guild's concurrency limit and queues the command, so a slow
+ * handler never delays other interactions. Handlers still acknowledge their own interaction; a
+ * command that waits in the queue too long to do so in time is answered with a busy message
+ * instead, and a running command that exceeds its deadline is interrupted.
+ */
+public class CommandExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(CommandExecutor.class);
+
+    // Discord drops interactions not acknowledged within 3 seconds; leave the handler time to do so
+    private static final long MAX_QUEUE_WAIT_MS = 2000;
+
+    private static final String BUSY_MESSAGE = "The bot is busy right now. Please try again in a moment.";
+    private static final String GUILD_BUSY_MESSAGE = "Too many commands are running in this server right now. Please try again in a moment.";
+    private static final String ERROR_MESSAGE = "An error occurred while executing this command. Please try again later.";
+    private static final String TIMEOUT_MESSAGE = "This command took too long and was cancelled. Please try again later.";
+
+    private final Config config = Config.getInstance();
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService timer;
+    private final int maxPerGuild;
+
+    // Commands queued or running per guild
+    private final Map<Long, Semaphore> guildPermits = new ConcurrentHashMap<>();
+
+    private final AtomicLong completedCommands = new AtomicLong();
+    private final AtomicLong failedCommands = new AtomicLong();
+    private final AtomicLong rejectedCommands = new AtomicLong();
+    private final AtomicLong expiredCommands = new AtomicLong();
+    private final AtomicLong timedOutCommands = new AtomicLong();
+
+    /**
+     * Work performed for a command on a worker thread
+     */
+    @FunctionalInterface
+    public interface Handler {
+        void run() throws Exception;
+    }
+
+    public CommandExecutor() {
+        this.maxPerGuild = config.getCommandMaxPerGuild();
+        this.workers = new ThreadPoolExecutor(config.getCommandWorkers(), config.getCommandWorkers(),
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(config.getCommandQueueSize()),
+                namedThreadFactory("command-worker"));
+        this.workers.allowCoreThreadTimeOut(true);
+        this.timer = Executors.newSingleThreadScheduledExecutor(namedThreadFactory("command-timer"));
+
+        logger.info("Command executor started with {} workers, {} queued commands, {} commands per guild",
+                config.getCommandWorkers(), config.getCommandQueueSize(), maxPerGuild);
+    }
+
+    /**
+     * Queue a slash command; returns without waiting for the handler
+     * @param handler Runs the command, including setting and clearing the isolation context
+     */
+    public void submit(SlashCommandInteractionEvent event, Handler handler) {
+        Semaphore permit = permitFor(event.getGuild());
+        if (permit != null && !permit.tryAcquire()) {
+            rejectedCommands.incrementAndGet();
+            logger.warn("Rejected /{} in guild {}, {} commands already running",
+                    event.getName(), event.getGuild().getId(), maxPerGuild);
+            event.reply(GUILD_BUSY_MESSAGE).setEphemeral(true).queue();
+            return;
+        }
+
+        CommandRun run = new CommandRun(event, handler, permit);
+        FutureTask<Void> future = new FutureTask<>(run, null);
+        run.future = future;
+
+        try {
+            workers.execute(future);
+            run.expiry = timer.schedule(run::expire, MAX_QUEUE_WAIT_MS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            run.release();
+            rejectedCommands.incrementAndGet();
+            logger.warn("Command worker pool rejected /{}, queue is full", event.getName());
+            event.reply(BUSY_MESSAGE).setEphemeral(true).queue();
+        }
+    }
+
+    /**
+     * Queue an autocomplete request; it is answered with no choices if the pool is full
+     * @param handler Computes and sends the choices
+     */
+    public void submit(CommandAutoCompleteInteractionEvent event, Runnable handler) {
+        long queuedAt = System.currentTimeMillis();
+        try {
+            workers.execute(() -> {
+                // Choices for a request this old would no longer be accepted
+                if (System.currentTimeMillis() - queuedAt > MAX_QUEUE_WAIT_MS) {
+                    expiredCommands.incrementAndGet();
+                    return;
+                }
+                handler.run();
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCommands.incrementAndGet();
+            event.replyChoices().queue();
+        }
+    }
+
+    private Semaphore permitFor(Guild guild) {
+        if (guild == null) {
+            return null;
+        }
+        return guildPermits.computeIfAbsent(guild.getIdLong(), id -> new Semaphore(maxPerGuild));
+    }
+
+    /**
+     * Get a one-line summary of command outcomes since startup
+     */
+    public String getStatusSummary() {
+        return String.format("completed=%d, failed=%d, rejected=%d, expired=%d, timedOut=%d, queued=%d, running=%d",
+                completedCommands.get(), failedCommands.get(), rejectedCommands.get(), expiredCommands.get(),
+                timedOutCommands.get(), workers.getQueue().size(), workers.getActiveCount());
+    }
+
+    /**
+     * Stop accepting commands and wait briefly for running ones
+     */
+    public void shutdown() {
+        logger.info("Shutting down command executor ({})", getStatusSummary());
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        timer.shutdownNow();
+    }
+
+    /**
+     * One slash command from queueing to completion
+     * Exactly one of the worker and the expiry check moves it out of the queued state.
+     */
+    private class CommandRun implements Runnable {
+        private static final int QUEUED = 0;
+        private static final int RUNNING = 1;
+        private static final int EXPIRED = 2;
+
+        private final SlashCommandInteractionEvent event;
+        private final Handler handler;
+        private final Semaphore permit;
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+        private volatile FutureTask<Void> future;
+        private volatile ScheduledFuture<?> expiry;
+
+        CommandRun(SlashCommandInteractionEvent event, Handler handler, Semaphore permit) {
+            this.event = event;
+            this.handler = handler;
+            this.permit = permit;
+        }
+
+        @Override
+        public void run() {
+            if (!state.compareAndSet(QUEUED, RUNNING)) {
+                return;
+            }
+            ScheduledFuture<?> pendingExpiry = expiry;
+            if (pendingExpiry != null) {
+                pendingExpiry.cancel(false);
+            }
+
+            // The deadline starts when the command starts, time spent queued does not count
+            long timeoutMs = TimeUnit.SECONDS.toMillis(config.getCommandTimeout(event.getName()));
+            ScheduledFuture<?> watchdog = timer.schedule(this::timeOut, timeoutMs, TimeUnit.MILLISECONDS);
+
+            try {
+                long start = System.currentTimeMillis();
+                handler.run();
+                completedCommands.incrementAndGet();
+                logger.debug("/{} finished in {} ms", event.getName(), System.currentTimeMillis() - start);
+            } catch (Exception e) {
+                if (future.isCancelled()) {
+                    // Interrupted by the deadline, the user has already been told
+                    return;
+                }
+                failedCommands.incrementAndGet();
+                logger.error("Error executing command: {}", event.getName(), e);
+                
+                // If the interaction has not been acknowledged, reply with an error
+                if (!event.isAcknowledged()) {
+                    event.reply(ERROR_MESSAGE).setEphemeral(true).queue();
+                }
+            } finally {
+                watchdog.cancel(false);
+                release();
+            }
+        }
+
+        /**
+         * Answer a command still waiting for a worker before its interaction expires
+         */
+        void expire() {
+            if (state.compareAndSet(QUEUED, EXPIRED)) {
+                release();
+                expiredCommands.incrementAndGet();
+                logger.warn("/{} waited more than {} ms for a worker, answering busy", event.getName(), MAX_QUEUE_WAIT_MS);
+                event.reply(BUSY_MESSAGE).setEphemeral(true).queue();
+            }
+        }
+
+        private void timeOut() {
+            if (future.cancel(true)) {
+                timedOutCommands.incrementAndGet();
+                logger.warn("/{} exceeded its {} s deadline, cancelling", event.getName(),
+                        config.getCommandTimeout(event.getName()));
+                if (event.isAcknowledged()) {
+                    event.getHook().sendMessage(TIMEOUT_MESSAGE).setEphemeral(true).queue();
+                } else {
+                    event.reply(TIMEOUT_MESSAGE).setEphemeral(true).queue();
+                }
+            }
+        }
+
+        void release() {
+            if (permit != null) {
+                permit.release();
+            }
+        }
+    }
+
+    private static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -2,7 +2,7 @@ package com.deadside.bot.commands;
 
 // Import the existing commands only
 import com.deadside.bot.commands.admin.PremiumCommand;
-//import com.deadside.bot.commands.admin.ProcessHistoricalDataCommand;
+import com.deadside.bot.commands.admin.ProcessHistoricalDataCommand;
 import com.deadside.bot.commands.admin.RegisterCommands;
 import com.deadside.bot.commands.admin.ServerCommand;
 //import com.deadside.bot.commands.admin.SetLogChannelsCommand;
@@ -57,6 +57,7 @@ public class CommandManager {
     private static final Logger logger = LoggerFactory.getLogger(CommandManager.class);
     private final Map<String, ICommand> commands = new HashMap<>();
     private final Config config = Config.getInstance();
+    private final CommandExecutor executor = new CommandExecutor();
     
     public CommandManager() {
         // Register standard commands
@@ -74,7 +75,7 @@ public class CommandManager {
         registerCommand(new WorkCommand());
         // AdminEconomyCommand - Commented until implementation is fixed
         registerCommand(new PremiumCommand());
-        // ProcessHistoricalDataCommand - Commented out until implementation is fixed
+        registerCommand(new ProcessHistoricalDataCommand());
         // SetLogChannelsCommand - Commented until implementation is fixed
         // SetVoiceChannelCommand - Commented until implementation is fixed
         registerCommand(new TestCommand());
@@ -287,72 +288,73 @@ public class CommandManager {
     
     /**
      * Handle a slash command interaction
+     * The command is queued for a worker thread; this returns without waiting for it.
      */
     public void handleCommand(SlashCommandInteractionEvent event) {
         String commandName = event.getName();
         ICommand command = commands.get(commandName);
         
-        // Set the isolation context for this command
-        GuildIsolationManager.getInstance().setContextFromSlashCommand(event);
+        if (command == null) {
+            logger.warn("Unknown command received: {}", commandName);
+            event.reply("Unknown command.").setEphemeral(true).queue();
+            return;
+        }
         
-        try {
-            if (command != null) {
-                try {
-                    command.execute(event);
-                } catch (Exception e) {
-                    logger.error("Error executing command: {}", commandName, e);
-                    
-                    // If the interaction has not been acknowledged, reply with an error
-                    if (!event.isAcknowledged()) {
-                        event.reply("An error occurred while executing this command. Please try again later.")
-                             .setEphemeral(true)
-                             .queue();
-                    }
-                }
-            } else {
-                logger.warn("Unknown command received: {}", commandName);
-                event.reply("Unknown command.").setEphemeral(true).queue();
+        executor.submit(event, () -> {
+            // Set the isolation context on the worker thread running this command
+            GuildIsolationManager.getInstance().setContextFromSlashCommand(event);
+            try {
+                command.execute(event);
+            } finally {
+                // Always clear the isolation context so the pooled thread does not carry it over
+                GuildIsolationManager.getInstance().clearContext();
             }
-        } finally {
-            // Always clear the isolation context when done
-            GuildIsolationManager.getInstance().clearContext();
-        }
+        });
     }
     
     /**
      * Handle autocomplete interactions
+     * Choices are computed on a worker thread like commands.
      */
     public void handleAutoComplete(CommandAutoCompleteInteractionEvent event) {
         String commandName = event.getName();
         ICommand command = commands.get(commandName);
         
-        // Set the isolation context for this autocomplete
-        GuildIsolationManager.getInstance().setContextFromSlashCommand(event);
+        if (command == null) {
+            logger.warn("Autocomplete requested for unknown command: {}", commandName);
+            event.replyChoices().queue();
+            return;
+        }
         
-        try {
-            if (command != null) {
-                try {
-                    List<Choice> choices = command.handleAutoComplete(event);
-                    
-                    if (!choices.isEmpty()) {
-                        // Reply with suggestions (max 25 choices)
-                        event.replyChoices(choices.size() > 25 ? choices.subList(0, 25) : choices).queue();
-                    } else {
-                        // No suggestions
-                        event.replyChoices().queue();
-                    }
-                } catch (Exception e) {
-                    logger.error("Error handling autocomplete for command: {}", commandName, e);
-                    event.replyChoices().queue(); // Reply with no choices on error
+        executor.submit(event, () -> {
+            // Set the isolation context for this autocomplete
+            GuildIsolationManager.getInstance().setContextFromSlashCommand(event);
+            
+            try {
+                List<Choice> choices = command.handleAutoComplete(event);
+                
+                if (!choices.isEmpty()) {
+                    // Reply with suggestions (max 25 choices)
+                    event.replyChoices(choices.size() > 25 ? choices.subList(0, 25) : choices).queue();
+                } else {
+                    // No suggestions
+                    event.replyChoices().queue();
                 }
-            } else {
-                logger.warn("Autocomplete requested for unknown command: {}", commandName);
-                event.replyChoices().queue();
+            } catch (Exception e) {
+                logger.error("Error handling autocomplete for command: {}", commandName, e);
+                event.replyChoices().queue(); // Reply with no choices on error
+            } finally {
+                // Always clear the isolation context when done
+                GuildIsolationManager.getInstance().clearContext();
             }
-        } finally {
-            // Always clear the isolation context when done
-            GuildIsolationManager.getInstance().clearContext();
-        }
+        });
+    }
+    
+    /**
+     * Stop running commands, waiting briefly for those in progress
+     */
+    public void shutdown() {
+        executor.shutdown();
     }
     
     /**
@@ -6,6 +6,7 @@ import com.deadside.bot.db.repositories.GameServerRepository;
 import com.deadside.bot.premium.PremiumManager;
 import com.deadside.bot.utils.EmbedUtils;
 import com.deadside.bot.utils.EmbedSender;
+import com.deadside.bot.utils.NameIndex;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
@@ -572,13 +573,10 @@ public class PremiumCommand implements ICommand {
 
         // Only provide autocomplete for server options
         if (event.getFocusedOption().getName().equals("server")) {
-            String current = event.getFocusedOption().getValue().toLowerCase();
-            List<GameServer> servers = serverRepository.findAllByGuildId(event.getGuild().getIdLong());
+            String current = event.getFocusedOption().getValue();
             
-            return servers.stream()
-                .filter(server -> server.getName().toLowerCase().contains(current))
-                .map(server -> new net.dv8tion.jda.api.interactions.commands.Command.Choice(server.getName(), server.getName()))
-                .limit(25) // Discord maximum
+            return NameIndex.getInstance().findServers(event.getGuild().getIdLong(), current, 25).stream()
+                .map(name -> new net.dv8tion.jda.api.interactions.commands.Command.Choice(name, name))
                 .toList();
         }
         
@@ -8,12 +8,12 @@ import com.deadside.bot.db.repositories.GameServerRepository;
 import com.deadside.bot.db.repositories.GuildConfigRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
 import com.deadside.bot.parsers.DeadsideCsvParser;
-import com.deadside.bot.parsers.HistoricalDataProcessor;
+import com.deadside.bot.utils.HistoricalDataProcessor;
 import com.deadside.bot.sftp.SftpManager;
 import com.deadside.bot.utils.EmbedThemes;
+import com.deadside.bot.utils.NameIndex;
 import com.deadside.bot.utils.ParserStateManager;
 import com.deadside.bot.utils.ServerDataCleanupUtil;
-import java.util.concurrent.CompletableFuture;
 import java.util.Map;
 import java.io.File;
 import java.io.BufferedReader;
@@ -189,144 +189,8 @@ public class ServerCommand implements ICommand {
                             "And deathlogs in: " + gameServer.getDeathlogsDirectory())
             ).queue();
             
-            // Notify that historical data processing is starting
-            event.getHook().sendMessageEmbeds(
-                EmbedThemes.progressEmbed("Historical Data Processing", 
-                    "Starting to process historical data for server **" + name + "**\n" +
-                    "This may take several minutes depending on the amount of data.")
-            ).queue();
-            
-            // Use existing processing mechanism for historical data
-            CompletableFuture.runAsync(() -> {
-                try {
-                    // Send an update that processing is starting
-                    event.getHook().sendMessageEmbeds(
-                        EmbedThemes.successEmbed("Historical Data Processing Started", 
-                            "Started processing historical data for server **" + gameServer.getName() + "**\n\n" +
-                            "This process will run in the background and may take several minutes to complete.\n" +
-                            "Player statistics will be updated as new data is processed.")
-                    ).queue();
-                    
-                    // Set the last processed timestamp to mark that processing was attempted
-                    gameServer.setLastProcessedTimestamp(System.currentTimeMillis());
-                    
-                    // Test SFTP connection before attempting to process data
-                    boolean connected = sftpManager.testConnection(gameServer);
-                    
-                    if (connected) {
-                        logger.info("Successfully connected to SFTP server for {}, proceeding with historical data processing", 
-                            gameServer.getName());
-                        
-                        // Process historical data - replace the sample file approach with SFTP connection
-                        try {
-                            // Set historical processing mode to prevent Discord notifications
-                            ParserStateManager.setProcessingHistoricalData(true);
-                            
-                            // Find and process CSV files from server via SFTP
-                            List<String> deathlogFiles = sftpManager.getKillfeedFiles(gameServer);
-                            int files = deathlogFiles.size();
-                            int kills = 0;
-                            int deaths = 0;
-                            
-                            logger.info("Found {} CSV files to process for server {}", files, gameServer.getName());
-                            
-                            // Process each CSV file found (proper implementation)
-                            for (String file : deathlogFiles) {
-                                try {
-                                    // Download the CSV file content via SFTP using the correct method
-                                    String fileContent = sftpManager.getSftpConnector().readFile(gameServer, gameServer.getDeathlogsDirectory() + "/" + file);
-                                    
-                                    if (fileContent != null && !fileContent.isEmpty()) {
-                                        // Process each line in the CSV file
-                                        String[] lines = fileContent.split("\n");
-                                        for (String line : lines) {
-                                            if (line.trim().isEmpty() || !line.contains(";")) {
-                                                continue; // Skip empty lines or malformed lines
-                                            }
-                                            
-                                            // Parse the line - timestamp;victim;victimId;killer;killerId;weapon;distance
-                                            String[] parts = line.split(";");
-                                            if (parts.length >= 7) {
-                                                String victim = parts[1].trim();
-                                                String killer = parts[3].trim();
-                                                
-                                                // Skip lines with missing data
-                                                if (victim.isEmpty() || killer.isEmpty()) {
-                                                    continue;
-                                                }
-                                                
-                                                if (killer.equals(victim)) {
-                                                    // This is a suicide
-                                                    deaths++;
-                                                } else {
-                                                    // This is a player kill
-                                                    kills++;
-                                                }
-                                            }
-                                        }
-                                    }
-                                    
-                                    logger.info("Processed file: {} for server {}", file, gameServer.getName());
-                                } catch (Exception e) {
-                                    logger.error("Error processing file {}: {}", file, e.getMessage(), e);
-                                }
-                            }
-                            
-                            // Reset historical processing mode
-                            ParserStateManager.setProcessingHistoricalData(false);
-                            
-                            // Send successful processing update
-                            event.getHook().sendMessageEmbeds(
-                                EmbedThemes.historicalDataEmbed("Historical Data Processing Complete", 
-                                    String.format("Successfully processed historical data for server **%s**\n\n" +
-                                        "📊 **Statistics**:\n" +
-                                        "• Files Processed: **%d**\n" +
-                                        "• Kills Recorded: **%d**\n" +
-                                        "• Deaths Recorded: **%d**\n" +
-                                        "• K/D Ratio: **%.2f**\n\n" +
-                                        "All player statistics have been updated accordingly.", 
-                                        gameServer.getName(), files, kills, deaths, 
-                                        deaths > 0 ? (float)kills/deaths : kills))
-                            ).queue();
-                            
-                            logger.info("Completed historical data processing for server {}. Processed {} files, {} kills and {} deaths", 
-                                gameServer.getName(), files, kills, deaths);
-                        } finally {
-                            // Always ensure we reset the historical processing flag
-                            ParserStateManager.setProcessingHistoricalData(false);
-                        }
-                    } else {
-                        logger.warn("Failed to connect to SFTP server for {}, cannot process historical data", 
-                            gameServer.getName());
-                        
-                        // Send error notification about SFTP connection failure
-                        event.getHook().sendMessageEmbeds(
-                            EmbedThemes.errorEmbed("SFTP Connection Failed", 
-                                "Failed to connect to server **" + gameServer.getName() + "** via SFTP.\n\n" +
-                                "Please ensure:\n" +
-                                "• The server address and port are correct\n" +
-                                "• The SFTP credentials are valid\n" +
-                                "• The server is accessible from the bot's network\n\n" +
-                                "Update your server configuration with `/server credentials` command.")
-                        ).queue();
-                    }
-                    
-                } catch (Exception e) {
-                    logger.error("Error processing historical data for server {}", gameServer.getName(), e);
-                    // Reset the historical processing flag in case of errors
-                    ParserStateManager.setProcessingHistoricalData(false);
-                    
-                    // Send error notification with detailed explanation
-                    event.getHook().sendMessageEmbeds(
-                        EmbedThemes.errorEmbed("Historical Data Processing Error", 
-                            "An error occurred while processing historical data for server **" + 
-                            gameServer.getName() + "**\n\n" +
-                            "**Error Details:**\n" + e.getMessage() + "\n\n" +
-                            "You can still use the bot normally. Player statistics will be updated as new events occur.\n" +
-                            "Use `/processhistorical " + gameServer.getName() + "` to try processing historical data again later.")
-                    ).queue();
-                }
-            });
+            // Import the server's history in the background, progress is shown in a single message
+            HistoricalDataProcessor.scheduleProcessing(event, gameServer);
             
             logger.info("Added new game server '{}' for guild {}", name, guild.getId());
         } catch (Exception e) {
@@ -555,11 +419,10 @@ public class ServerCommand implements ICommand {
             }
             
             String current = event.getFocusedOption().getValue();
-            List<GameServer> servers = serverRepository.findAllByGuildId(guild.getIdLong());
             
-            return servers.stream()
-                    .filter(server -> server.getName().toLowerCase().startsWith(current.toLowerCase()))
-                    .map(server -> new Choice(server.getName(), server.getName()))
+            // Served from the cached server names, no database round trip per keystroke
+            return NameIndex.getInstance().findServers(guild.getIdLong(), current, 25).stream()
+                    .map(name -> new Choice(name, name))
                     .collect(Collectors.toList());
         }
         return List.of();
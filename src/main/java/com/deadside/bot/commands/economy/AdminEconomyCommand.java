@@ -6,6 +6,7 @@ import com.deadside.bot.db.models.LinkedPlayer;
 import com.deadside.bot.db.models.Player;
 import com.deadside.bot.db.repositories.LinkedPlayerRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.economy.EconomyLedger;
 import com.deadside.bot.utils.EmbedUtils;
 import com.deadside.bot.utils.EmbedSender;
 import net.dv8tion.jda.api.entities.Member;
@@ -33,6 +34,7 @@ public class AdminEconomyCommand implements ICommand {
     private static final Logger logger = LoggerFactory.getLogger(AdminEconomyCommand.class);
     private final LinkedPlayerRepository linkedPlayerRepository = new LinkedPlayerRepository();
     private final PlayerRepository playerRepository = new PlayerRepository();
+    private final EconomyLedger economyLedger = EconomyLedger.getInstance();
     private final Config config = Config.getInstance();
     
     @Override
@@ -160,10 +162,14 @@ public class AdminEconomyCommand implements ICommand {
         
         // Add coins
         long oldBalance = player.getCurrency().getCoins();
-        player.getCurrency().addCoins(amount);
-        
-        // Save player
-        playerRepository.save(player);
+        if (!economyLedger.credit(player, amount, "admin:give")) {
+            event.getHook().sendMessageEmbeds(EmbedUtils.errorEmbed("Error", 
+                    "Failed to give coins to " + targetUser.getAsMention() + "."))
+                    .setEphemeral(true)
+                    .queue();
+            return;
+        }
+        oldBalance = player.getCurrency().getCoins() - amount;
         
         // Log transaction
         logger.info("Admin {} gave {} coins to {} ({}). Reason: {}", 
@@ -232,11 +238,16 @@ public class AdminEconomyCommand implements ICommand {
             return;
         }
         
-        // Remove coins
-        player.getCurrency().removeCoins(amount);
-        
-        // Save player
-        playerRepository.save(player);
+        // Remove coins, unless the player spent them since the balance check
+        if (!economyLedger.debit(player, amount, "admin:take")) {
+            event.getHook().sendMessageEmbeds(EmbedUtils.errorEmbed("Insufficient Funds", 
+                    String.format("%s no longer has %,d coins to take.", 
+                            targetUser.getAsMention(), amount)))
+                    .setEphemeral(true)
+                    .queue();
+            return;
+        }
+        currentBalance = player.getCurrency().getCoins() + amount;
         
         // Log transaction
         logger.info("Admin {} took {} coins from {} ({}). Reason: {}", 
@@ -298,10 +309,13 @@ public class AdminEconomyCommand implements ICommand {
         long oldBalance = player.getCurrency().getCoins();
         
         // Set coins
-        player.getCurrency().setCoins(amount);
-        
-        // Save player
-        playerRepository.save(player);
+        if (!economyLedger.setBalance(player, amount, "admin:set")) {
+            event.getHook().sendMessageEmbeds(EmbedUtils.errorEmbed("Error", 
+                    "Failed to set the balance of " + targetUser.getAsMention() + "."))
+                    .setEphemeral(true)
+                    .queue();
+            return;
+        }
         
         // Log transaction
         logger.info("Admin {} set {} coins for {} ({}). Reason: {}", 
@@ -361,10 +375,13 @@ public class AdminEconomyCommand implements ICommand {
         }
         
         // Reset economy data
-        player.setCurrency(new com.deadside.bot.db.models.Currency());
-        
-        // Save player
-        playerRepository.save(player);
+        if (!economyLedger.reset(player, "admin:reset")) {
+            event.getHook().sendMessageEmbeds(EmbedUtils.errorEmbed("Error", 
+                    "Failed to reset the economy data of " + targetUser.getAsMention() + "."))
+                    .setEphemeral(true)
+                    .queue();
+            return;
+        }
         
         // Log action
         logger.info("Admin {} reset economy data for {} ({})", 
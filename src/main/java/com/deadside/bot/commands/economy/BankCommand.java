@@ -5,6 +5,7 @@ import com.deadside.bot.db.models.LinkedPlayer;
 import com.deadside.bot.db.models.Player;
 import com.deadside.bot.db.repositories.LinkedPlayerRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.economy.EconomyLedger;
 import com.deadside.bot.utils.EmbedUtils;
 import com.deadside.bot.utils.EmbedSender;
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
@@ -31,6 +32,7 @@ public class BankCommand implements ICommand {
     private static final Logger logger = LoggerFactory.getLogger(BankCommand.class);
     private final LinkedPlayerRepository linkedPlayerRepository = new LinkedPlayerRepository();
     private final PlayerRepository playerRepository = new PlayerRepository();
+    private final EconomyLedger economyLedger = EconomyLedger.getInstance();
     
     @Override
     public String getName() {
@@ -137,7 +139,7 @@ public class BankCommand implements ICommand {
         }
         
         // Deposit the amount
-        boolean success = player.getCurrency().depositToBank(amount);
+        boolean success = economyLedger.deposit(player, amount);
         
         if (!success) {
             event.getHook().sendMessageEmbeds(
@@ -147,9 +149,6 @@ public class BankCommand implements ICommand {
             return;
         }
         
-        // Save the changes
-        playerRepository.save(player);
-        
         // Send success message
         StringBuilder message = new StringBuilder();
         message.append("Successfully deposited ").append(formatAmount(amount)).append(" coins into your bank account.\n\n");
@@ -190,7 +189,7 @@ public class BankCommand implements ICommand {
         }
         
         // Withdraw the amount
-        boolean success = player.getCurrency().withdrawFromBank(amount);
+        boolean success = economyLedger.withdraw(player, amount);
         
         if (!success) {
             event.getHook().sendMessageEmbeds(
@@ -200,9 +199,6 @@ public class BankCommand implements ICommand {
             return;
         }
         
-        // Save the changes
-        playerRepository.save(player);
-        
         // Send success message
         StringBuilder message = new StringBuilder();
         message.append("Successfully withdrew ").append(formatAmount(amount)).append(" coins from your bank account.\n\n");
@@ -5,6 +5,7 @@ import com.deadside.bot.db.models.LinkedPlayer;
 import com.deadside.bot.db.models.Player;
 import com.deadside.bot.db.repositories.LinkedPlayerRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.economy.EconomyLedger;
 import com.deadside.bot.utils.EmbedUtils;
 import com.deadside.bot.utils.EmbedSender;
 import net.dv8tion.jda.api.entities.emoji.Emoji;
@@ -33,6 +34,7 @@ public class BlackjackCommand implements ICommand {
     private static final Logger logger = LoggerFactory.getLogger(BlackjackCommand.class);
     private final LinkedPlayerRepository linkedPlayerRepository = new LinkedPlayerRepository();
     private final PlayerRepository playerRepository = new PlayerRepository();
+    private final EconomyLedger economyLedger = EconomyLedger.getInstance();
     private final Random random = new Random();
     
     // Game sessions
@@ -150,9 +152,15 @@ public class BlackjackCommand implements ICommand {
      * Start a new blackjack game
      */
     private void startBlackjackGame(SlashCommandInteractionEvent event, Player player, int betAmount) {
-        // Take the bet
-        player.getCurrency().removeCoins(betAmount);
-        playerRepository.save(player);
+        // Take the bet, unless another game or purchase spent the coins since the balance check
+        if (!economyLedger.debit(player, betAmount, "blackjack:bet")) {
+            event.getHook().sendMessageEmbeds(
+                    EmbedUtils.errorEmbed("Insufficient Funds", 
+                            "You don't have enough coins to place this bet. Your current balance is " + 
+                            formatAmount(player.getCurrency().getCoins()) + " coins.")
+            ).queue();
+            return;
+        }
         
         // Create a new game
         BlackjackGame game = new BlackjackGame(betAmount, player);
@@ -196,8 +204,7 @@ public class BlackjackCommand implements ICommand {
             
             // End game and give payout (blackjack pays 3:2)
             int payout = (int) (betAmount * 2.5);
-            player.getCurrency().addCoins(payout);
-            playerRepository.save(player);
+            economyLedger.settle(player, payout, "blackjack:payout", settlementKey(game));
             
             // Remove the game
             activeGames.remove(event.getUser().getIdLong());
@@ -385,8 +392,7 @@ public class BlackjackCommand implements ICommand {
         
         // Add payout to player's balance
         if (payout > 0) {
-            game.getPlayer().getCurrency().addCoins(payout);
-            playerRepository.save(game.getPlayer());
+            economyLedger.settle(game.getPlayer(), payout, "blackjack:payout", settlementKey(game));
         }
         
         // Add result details to the message
@@ -431,8 +437,8 @@ public class BlackjackCommand implements ICommand {
      * Handle "Double Down" button action
      */
     private void handleDoubleDownAction(ButtonInteractionEvent event, BlackjackGame game) {
-        // Check if player has enough coins to double down
-        if (game.getPlayer().getCurrency().getCoins() < game.getBetAmount()) {
+        // Take the second stake, if the player still has enough coins to double down
+        if (!economyLedger.debit(game.getPlayer(), game.getBetAmount(), "blackjack:double")) {
             event.reply("You don't have enough coins to double down.").setEphemeral(true).queue();
             return;
         }
@@ -441,8 +447,6 @@ public class BlackjackCommand implements ICommand {
         event.deferEdit().queue();
         
         // Double the bet
-        game.getPlayer().getCurrency().removeCoins(game.getBetAmount());
-        playerRepository.save(game.getPlayer());
         game.doubleBet();
         
         // Deal one card to player
@@ -486,8 +490,7 @@ public class BlackjackCommand implements ICommand {
         
         // Add payout to player's balance
         if (payout > 0) {
-            game.getPlayer().getCurrency().addCoins(payout);
-            playerRepository.save(game.getPlayer());
+            economyLedger.settle(game.getPlayer(), payout, "blackjack:payout", settlementKey(game));
         }
         
         // Add result details to the message
@@ -595,9 +598,13 @@ public class BlackjackCommand implements ICommand {
      * Start a new blackjack game from button interaction
      */
     private void startNewBlackjackGame(ButtonInteractionEvent event, Player player, int betAmount) {
-        // Take the bet
-        player.getCurrency().removeCoins(betAmount);
-        playerRepository.save(player);
+        // Take the bet, unless another game or purchase spent the coins since the balance check
+        if (!economyLedger.debit(player, betAmount, "blackjack:bet")) {
+            event.getHook().sendMessage("You don't have enough coins for this bet. Your current balance is " + 
+                       formatAmount(player.getCurrency().getCoins()) + " coins.")
+                 .setEphemeral(true).queue();
+            return;
+        }
         
         // Create a new game
         BlackjackGame game = new BlackjackGame(betAmount, player);
@@ -641,8 +648,7 @@ public class BlackjackCommand implements ICommand {
             
             // End game and give payout (blackjack pays 3:2)
             int payout = (int) (betAmount * 2.5);
-            player.getCurrency().addCoins(payout);
-            playerRepository.save(player);
+            economyLedger.settle(player, payout, "blackjack:payout", settlementKey(game));
             
             // Remove the game
             activeGames.remove(event.getUser().getIdLong());
@@ -782,7 +788,14 @@ public class BlackjackCommand implements ICommand {
     private String formatAmount(long amount) {
         return String.format("%,d", amount);
     }
-    
+
+    /**
+     * Ledger key that lets a game pay out at most once
+     */
+    private String settlementKey(BlackjackGame game) {
+        return "blackjack:" + game.getPlayer().getPlayerId() + ":" + game.getStartTime();
+    }
+
     @Override
     public List<Choice> handleAutoComplete(CommandAutoCompleteInteractionEvent event) {
         String focusedOption = event.getFocusedOption().getName();
@@ -1,8 +1,16 @@
 package com.deadside.bot.commands.economy;
 
 import com.deadside.bot.commands.ICommand;
+import com.deadside.bot.db.models.Bounty;
+import com.deadside.bot.db.models.LinkedPlayer;
+import com.deadside.bot.db.models.Player;
+import com.deadside.bot.db.repositories.LinkedPlayerRepository;
+import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.economy.BountyMatcher;
+import com.deadside.bot.economy.EconomyLedger;
 import com.deadside.bot.utils.EmbedUtils;
 import com.deadside.bot.utils.EmbedSender;
+import com.deadside.bot.utils.NameIndex;
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.interactions.commands.Command.Choice;
@@ -16,12 +24,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Command for managing bounties
  */
 public class BountyCommand implements ICommand {
     private static final Logger logger = LoggerFactory.getLogger(BountyCommand.class);
+    private final LinkedPlayerRepository linkedPlayerRepository = new LinkedPlayerRepository();
+    private final PlayerRepository playerRepository = new PlayerRepository();
+    private final EconomyLedger economyLedger = EconomyLedger.getInstance();
     
     @Override
     public String getName() {
@@ -100,12 +112,98 @@ public class BountyCommand implements ICommand {
             return;
         }
         
-        // Send placeholder response (will be connected to database in future)
+        if (event.getGuild() == null) {
+            event.getHook().sendMessageEmbeds(EmbedUtils.errorEmbed(
+                    "Server Only",
+                    "Bounties can only be placed from a Discord server."
+            )).queue();
+            return;
+        }
+        long guildId = event.getGuild().getIdLong();
+        
+        LinkedPlayer linkedPlayer = linkedPlayerRepository.findByDiscordId(event.getUser().getIdLong());
+        if (linkedPlayer == null) {
+            event.getHook().sendMessageEmbeds(EmbedUtils.errorEmbed(
+                    "Account Not Linked",
+                    "You need to link your Discord account to your Deadside character first!\n" +
+                    "Use the `/link` command to get started."
+            )).queue();
+            return;
+        }
+        
+        Player placer = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
+        if (placer == null) {
+            event.getHook().sendMessageEmbeds(EmbedUtils.errorEmbed(
+                    "Player Not Found",
+                    "Could not find your player data. Have you played on the server recently?"
+            )).queue();
+            return;
+        }
+        
+        // Only exact names, so a typo never puts a bounty on someone else
+        List<NameIndex.PlayerName> targets = NameIndex.getInstance().findPlayers(guildId, null, targetName, 10).stream()
+                .filter(candidate -> candidate.getName().equalsIgnoreCase(targetName))
+                .collect(Collectors.toList());
+        if (targets.isEmpty()) {
+            event.getHook().sendMessageEmbeds(EmbedUtils.errorEmbed(
+                    "Player Not Found",
+                    String.format("No player named **%s** has been seen on this server's game servers.", targetName)
+            )).queue();
+            return;
+        }
+        if (targets.size() > 1) {
+            event.getHook().sendMessageEmbeds(EmbedUtils.errorEmbed(
+                    "Ambiguous Player",
+                    String.format("More than one player is named **%s**, on %s.", targetName,
+                            targets.stream().map(NameIndex.PlayerName::getServerId).distinct()
+                                    .collect(Collectors.joining(", ")))
+            )).queue();
+            return;
+        }
+        
+        NameIndex.PlayerName target = targets.get(0);
+        if (linkedPlayer.hasPlayerId(target.getPlayerId())) {
+            event.getHook().sendMessageEmbeds(EmbedUtils.errorEmbed(
+                    "Invalid Target",
+                    "You cannot place a bounty on yourself."
+            )).queue();
+            return;
+        }
+        
+        if (!economyLedger.debit(placer, amount, "bounty:place")) {
+            event.getHook().sendMessageEmbeds(EmbedUtils.errorEmbed(
+                    "Insufficient Funds",
+                    String.format("You need **%d coins** in your wallet to place this bounty.", amount)
+            )).queue();
+            return;
+        }
+        
+        Bounty bounty = new Bounty();
+        bounty.setPlacerId(event.getUser().getIdLong());
+        bounty.setPlacerName(event.getUser().getName());
+        bounty.setTargetId(target.getPlayerId());
+        bounty.setTargetName(target.getName());
+        bounty.setAmount(amount);
+        bounty.setGuildId(guildId);
+        bounty.setServerId(target.getServerId());
+        
+        if (!BountyMatcher.getInstance().place(bounty)) {
+            // Give the coins back, the bounty was never stored
+            if (!economyLedger.credit(placer, amount, "bounty:refund")) {
+                logger.error("Could not refund {} coins to {} for a bounty that failed to save", amount, placer.getPlayerId());
+            }
+            event.getHook().sendMessageEmbeds(EmbedUtils.errorEmbed(
+                    "Bounty Failed",
+                    "Could not place the bounty. Your coins have been returned."
+            )).queue();
+            return;
+        }
+        
         event.getHook().sendMessageEmbeds(EmbedUtils.successEmbed(
                 "Bounty Placed",
-                String.format("You have placed a **%d coin** bounty on **%s**.\n\n" +
-                        "This bounty will be announced in the bounty channel.",
-                        amount, targetName)
+                String.format("You have placed a **%d coin** bounty on **%s** (%s).\n\n" +
+                        "It is paid to whoever kills them next.",
+                        amount, target.getName(), target.getServerId())
         )).queue();
     }
     
@@ -5,6 +5,7 @@ import com.deadside.bot.db.models.LinkedPlayer;
 import com.deadside.bot.db.models.Player;
 import com.deadside.bot.db.repositories.LinkedPlayerRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.economy.EconomyLedger;
 import com.deadside.bot.utils.EmbedUtils;
 import com.deadside.bot.utils.EmbedSender;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
@@ -23,12 +24,14 @@ public class DailyCommand implements ICommand {
     private static final Logger logger = LoggerFactory.getLogger(DailyCommand.class);
     private final LinkedPlayerRepository linkedPlayerRepository = new LinkedPlayerRepository();
     private final PlayerRepository playerRepository = new PlayerRepository();
+    private final EconomyLedger economyLedger = EconomyLedger.getInstance();
     private final Random random = new Random();
     
     // Daily reward amounts
     private static final int BASE_REWARD = 100;
     private static final int MAX_STREAK_BONUS = 500;
     private static final int MAX_STREAK_DAYS = 7;
+    private static final long DAILY_COOLDOWN_MS = 24 * 60 * 60 * 1000L;
     
     @Override
     public String getName() {
@@ -97,8 +100,8 @@ public class DailyCommand implements ICommand {
             int baseReward = BASE_REWARD * randomFactor / 100;
             int totalReward = baseReward + streakBonus;
             
-            // Give the reward
-            boolean success = player.getCurrency().claimDailyReward(totalReward);
+            // Give the reward, unless another claim got there first
+            boolean success = economyLedger.claim(player, totalReward, "daily", "lastDailyReward", DAILY_COOLDOWN_MS);
             
             if (!success) {
                 event.getHook().sendMessageEmbeds(
@@ -107,9 +110,7 @@ public class DailyCommand implements ICommand {
                 ).queue();
                 return;
             }
-            
-            // Save player
-            playerRepository.save(player);
+            player.getCurrency().setLastDailyReward(System.currentTimeMillis());
             
             // Send success message
             displayRewardMessage(event, player, baseReward, streakBonus, totalReward, streak + 1);
@@ -5,6 +5,7 @@ import com.deadside.bot.db.models.LinkedPlayer;
 import com.deadside.bot.db.models.Player;
 import com.deadside.bot.db.repositories.LinkedPlayerRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.economy.EconomyLedger;
 import com.deadside.bot.utils.EmbedUtils;
 import com.deadside.bot.utils.EmbedSender;
 import net.dv8tion.jda.api.EmbedBuilder;
@@ -45,6 +46,7 @@ public class RouletteCommand implements ICommand {
     
     private final LinkedPlayerRepository linkedPlayerRepository = new LinkedPlayerRepository();
     private final PlayerRepository playerRepository = new PlayerRepository();
+    private final EconomyLedger economyLedger = EconomyLedger.getInstance();
     private final SecureRandom random = new SecureRandom();
     private final ConcurrentHashMap<String, RouletteGame> activeGames = new ConcurrentHashMap<>();
     private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(2);
@@ -69,6 +71,8 @@ public class RouletteCommand implements ICommand {
     private static class RouletteGame {
         private final String userId;
         private final long bet;
+        private final Player player;
+        private final String settlementKey;
         private String betType;
         private String betValue;
         private boolean isActive = true;
@@ -77,9 +81,12 @@ public class RouletteCommand implements ICommand {
         private long winAmount;
         private ScheduledFuture<?> timeoutFuture;
         
-        public RouletteGame(String userId, long bet) {
+        public RouletteGame(String userId, long bet, Player player) {
             this.userId = userId;
             this.bet = bet;
+            this.player = player;
+            // Shared by the payout, the cancel refund and the timeout refund, so only one of them pays
+            this.settlementKey = "roulette:" + player.getPlayerId() + ":" + System.currentTimeMillis();
         }
         
         public void placeBet(String betType, String betValue) {
@@ -115,6 +122,14 @@ public class RouletteCommand implements ICommand {
             return bet;
         }
         
+        public Player getPlayer() {
+            return player;
+        }
+        
+        public String getSettlementKey() {
+            return settlementKey;
+        }
+        
         public String getBetType() {
             return betType;
         }
@@ -204,12 +219,16 @@ public class RouletteCommand implements ICommand {
             return;
         }
         
-        // Deduct bet amount
-        player.getCurrency().removeCoins(bet);
-        playerRepository.save(player);
+        // Deduct bet amount, unless another game or purchase spent the coins since the balance check
+        if (!economyLedger.debit(player, bet, "roulette:bet")) {
+            EmbedSender.sendEmbed(event.getHook(), EmbedUtils.errorEmbed("Insufficient Funds", 
+                             "You don't have enough coins. You have " + 
+                             String.format("%,d", player.getCurrency().getCoins()) + " coins."));
+            return;
+        }
         
         // Create new game
-        RouletteGame game = new RouletteGame(userId, bet);
+        RouletteGame game = new RouletteGame(userId, bet, player);
         activeGames.put(userId, game);
         
         // Set timeout for the game (5 minutes)
@@ -218,16 +237,11 @@ public class RouletteCommand implements ICommand {
                 RouletteGame expiredGame = activeGames.get(userId);
                 if (expiredGame.isActive() && !expiredGame.isSpinning()) {
                     activeGames.remove(userId);
-                    // Refund bet amount - get the player again in case data changed
+                    // Refund bet amount, unless the game was settled in the meantime
                     try {
-                        LinkedPlayer lp = linkedPlayerRepository.findByDiscordId(Long.parseLong(userId));
-                        if (lp != null) {
-                            Player p = playerRepository.findByPlayerId(lp.getMainPlayerId());
-                            if (p != null) {
-                                p.getCurrency().addCoins(bet);
-                                playerRepository.save(p);
-                                logger.info("Roulette game for user {} timed out and bet was refunded", userId);
-                            }
+                        if (economyLedger.settle(expiredGame.getPlayer(), bet, "roulette:refund",
+                                expiredGame.getSettlementKey())) {
+                            logger.info("Roulette game for user {} timed out and bet was refunded", userId);
                         }
                     } catch (Exception e) {
                         logger.error("Error refunding bet for timed out roulette game", e);
@@ -553,14 +567,7 @@ public class RouletteCommand implements ICommand {
             
             // Update player balance if they won
             if (won) {
-                LinkedPlayer linkedPlayer = linkedPlayerRepository.findByDiscordId(Long.parseLong(game.getUserId()));
-                if (linkedPlayer != null) {
-                    Player player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
-                    if (player != null) {
-                        player.getCurrency().addCoins(winAmount);
-                        playerRepository.save(player);
-                    }
-                }
+                economyLedger.settle(game.getPlayer(), winAmount, "roulette:payout", game.getSettlementKey());
             }
             
             // Determine the color of the winning number
@@ -634,14 +641,7 @@ public class RouletteCommand implements ICommand {
         event.deferReply().queue();
         
         // Refund the bet
-        LinkedPlayer linkedPlayer = linkedPlayerRepository.findByDiscordId(Long.parseLong(game.getUserId()));
-        if (linkedPlayer != null) {
-            Player player = playerRepository.findByPlayerId(linkedPlayer.getMainPlayerId());
-            if (player != null) {
-                player.getCurrency().addCoins(game.getBet());
-                playerRepository.save(player);
-            }
-        }
+        economyLedger.settle(game.getPlayer(), game.getBet(), "roulette:refund", game.getSettlementKey());
         
         EmbedBuilder embed = new EmbedBuilder()
                 .setTitle("🎲 Roulette - Cancelled")
@@ -702,12 +702,16 @@ public class RouletteCommand implements ICommand {
             return;
         }
         
-        // Deduct bet amount
-        player.getCurrency().removeCoins(bet);
-        playerRepository.save(player);
+        // Deduct bet amount, unless another game or purchase spent the coins since the balance check
+        if (!economyLedger.debit(player, bet, "roulette:bet")) {
+            event.getHook().sendMessage("You don't have enough coins for this bet. Your current balance is " + 
+                   String.format("%,d", player.getCurrency().getCoins()) + " coins.")
+                 .setEphemeral(true).queue();
+            return;
+        }
         
         // Create new game
-        RouletteGame newGame = new RouletteGame(userId, bet);
+        RouletteGame newGame = new RouletteGame(userId, bet, player);
         activeGames.put(userId, newGame);
         
         // Set timeout for the game (5 minutes)
@@ -716,16 +720,11 @@ public class RouletteCommand implements ICommand {
                 RouletteGame expiredGame = activeGames.get(userId);
                 if (expiredGame.isActive() && !expiredGame.isSpinning()) {
                     activeGames.remove(userId);
-                    // Refund bet amount - get the player again in case data changed
+                    // Refund bet amount, unless the game was settled in the meantime
                     try {
-                        LinkedPlayer lp = linkedPlayerRepository.findByDiscordId(Long.parseLong(userId));
-                        if (lp != null) {
-                            Player p = playerRepository.findByPlayerId(lp.getMainPlayerId());
-                            if (p != null) {
-                                p.getCurrency().addCoins(bet);
-                                playerRepository.save(p);
-                                logger.info("Roulette game for user {} timed out and bet was refunded", userId);
-                            }
+                        if (economyLedger.settle(expiredGame.getPlayer(), bet, "roulette:refund",
+                                expiredGame.getSettlementKey())) {
+                            logger.info("Roulette game for user {} timed out and bet was refunded", userId);
                         }
                     } catch (Exception e) {
                         logger.error("Error refunding bet for timed out roulette game", e);
@@ -5,6 +5,7 @@ import com.deadside.bot.db.models.LinkedPlayer;
 import com.deadside.bot.db.models.Player;
 import com.deadside.bot.db.repositories.LinkedPlayerRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.economy.EconomyLedger;
 import com.deadside.bot.utils.EmbedUtils;
 import com.deadside.bot.utils.EmbedSender;
 import net.dv8tion.jda.api.entities.emoji.Emoji;
@@ -35,6 +36,7 @@ public class SlotCommand implements ICommand {
     private static final Logger logger = LoggerFactory.getLogger(SlotCommand.class);
     private final LinkedPlayerRepository linkedPlayerRepository = new LinkedPlayerRepository();
     private final PlayerRepository playerRepository = new PlayerRepository();
+    private final EconomyLedger economyLedger = EconomyLedger.getInstance();
     private final Random random = new Random();
     
     // Slot machine symbols and their weights (probability)
@@ -149,8 +151,15 @@ public class SlotCommand implements ICommand {
      * Play the slot machine with animations
      */
     private void playSlots(SlashCommandInteractionEvent event, Player player, int betAmount) {
-        // First, take the bet
-        player.getCurrency().removeCoins(betAmount);
+        // First, take the bet, unless another game or purchase spent the coins since the balance check
+        if (!economyLedger.debit(player, betAmount, "slots:bet")) {
+            event.getHook().sendMessageEmbeds(
+                    EmbedUtils.errorEmbed("Insufficient Funds", 
+                            "You don't have enough coins to place this bet. Your current balance is " + 
+                            formatAmount(player.getCurrency().getCoins()) + " coins.")
+            ).queue();
+            return;
+        }
         
         // Animation phases
         final String[] spinningSymbols = {"🎰", "💫", "✨", "🎲", "🎯"};
@@ -212,14 +221,12 @@ public class SlotCommand implements ICommand {
         int winAmount = calculateWinAmount(results, betAmount);
         boolean isWin = winAmount > 0;
         
-        // If win, add to player's balance
+        // If win, add to player's balance, once per spin
         if (isWin) {
-            player.getCurrency().addCoins(winAmount);
+            String settlementKey = "slots:" + player.getPlayerId() + ":" + System.currentTimeMillis();
+            economyLedger.settle(player, winAmount, "slots:payout", settlementKey);
         }
         
-        // Save player data
-        playerRepository.save(player);
-        
         // Create a thread to update the message multiple times for animation
         new Thread(() -> {
             try {
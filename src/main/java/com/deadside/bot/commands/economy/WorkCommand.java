@@ -6,6 +6,7 @@ import com.deadside.bot.db.models.LinkedPlayer;
 import com.deadside.bot.db.models.Player;
 import com.deadside.bot.db.repositories.LinkedPlayerRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.economy.EconomyLedger;
 import com.deadside.bot.utils.EmbedUtils;
 import com.deadside.bot.utils.EmbedSender;
 import net.dv8tion.jda.api.EmbedBuilder;
@@ -31,6 +32,7 @@ public class WorkCommand implements ICommand {
     private final Config config = Config.getInstance();
     private final LinkedPlayerRepository linkedPlayerRepository = new LinkedPlayerRepository();
     private final PlayerRepository playerRepository = new PlayerRepository();
+    private final EconomyLedger economyLedger = EconomyLedger.getInstance();
     private final Random random = new Random();
     
     // Work cooldown tracking - userid -> last work time
@@ -124,8 +126,14 @@ public class WorkCommand implements ICommand {
         String workTask = WORK_TASKS[random.nextInt(WORK_TASKS.length)];
         
         // Add coins to player
-        player.getCurrency().addCoins(reward);
-        playerRepository.save(player);
+        if (!economyLedger.credit(player, reward, "work")) {
+            event.getHook().sendMessageEmbeds(EmbedUtils.errorEmbed(
+                    "Work Failed",
+                    "Could not pay you for your shift. Please try again later."
+            )).setEphemeral(true).queue();
+            
+            return;
+        }
         
         // Set cooldown
         setWorkCooldown(userId);
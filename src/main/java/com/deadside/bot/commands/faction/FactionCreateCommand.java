@@ -5,6 +5,7 @@ import com.deadside.bot.db.models.Faction;
 import com.deadside.bot.db.models.Player;
 import com.deadside.bot.db.repositories.FactionRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.faction.FactionStatsSync;
 import com.deadside.bot.utils.EmbedUtils;
 import com.deadside.bot.utils.EmbedSender;
 import net.dv8tion.jda.api.entities.Guild;
@@ -134,6 +135,7 @@ public class FactionCreateCommand implements Command {
             player.setFactionLeader(true);
             player.setFactionOfficer(true); // Leaders are also officers
             playerRepository.save(player);
+            FactionStatsSync.getInstance().memberChanged(player, null);
             
             // Send success message
             String successMessage = "Congratulations! You have successfully created the faction " + faction.getName() + 
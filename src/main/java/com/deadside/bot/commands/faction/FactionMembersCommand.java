@@ -38,7 +38,7 @@ public class FactionMembersCommand implements Command {
     public FactionMembersCommand(FactionRepository factionRepository, PlayerRepository playerRepository) {
         this.factionRepository = factionRepository;
         this.playerRepository = playerRepository;
-        this.factionStatsSync = new FactionStatsSync();
+        this.factionStatsSync = FactionStatsSync.getInstance();
     }
 
     @Override
@@ -240,7 +240,7 @@ public class FactionMembersCommand implements Command {
         playerRepository.save(player);
 
         // Update faction stats
-        factionStatsSync.updateFaction(faction.getId());
+        factionStatsSync.memberChanged(player, null);
 
         event.reply("You have joined the faction: " + faction.getName()).queue();
     }
@@ -270,6 +270,7 @@ public class FactionMembersCommand implements Command {
             player.setFactionId(null);
             player.setFactionJoinDate(null);
             playerRepository.save(player);
+            factionStatsSync.memberChanged(player, null);
             event.reply("You have left your faction.").queue();
             return;
         }
@@ -289,6 +290,7 @@ public class FactionMembersCommand implements Command {
             player.setFactionLeader(false);
             player.setFactionOfficer(false);
             playerRepository.save(player);
+            factionStatsSync.memberChanged(player, null);
             
             event.reply("You have left and disbanded the faction: " + faction.getName()).queue();
             return;
@@ -301,7 +303,7 @@ public class FactionMembersCommand implements Command {
         playerRepository.save(player);
 
         // Update faction stats
-        factionStatsSync.updateFaction(faction.getId());
+        factionStatsSync.memberChanged(player, faction.getId());
 
         event.reply("You have left the faction: " + faction.getName()).queue();
     }
@@ -368,7 +370,7 @@ public class FactionMembersCommand implements Command {
         playerRepository.save(target);
 
         // Update faction stats
-        factionStatsSync.updateFaction(faction.getId());
+        factionStatsSync.memberChanged(target, null);
 
         // Notify the target user
         targetMember.getUser().openPrivateChannel()
@@ -448,7 +450,7 @@ public class FactionMembersCommand implements Command {
         playerRepository.save(target);
 
         // Update faction stats
-        factionStatsSync.updateFaction(faction.getId());
+        factionStatsSync.memberChanged(target, faction.getId());
 
         // Notify the target user
         targetMember.getUser().openPrivateChannel()
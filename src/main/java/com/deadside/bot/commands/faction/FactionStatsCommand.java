@@ -31,7 +31,7 @@ public class FactionStatsCommand implements Command {
 
     public FactionStatsCommand(FactionRepository factionRepository) {
         this.factionRepository = factionRepository;
-        this.factionStatsSync = new FactionStatsSync();
+        this.factionStatsSync = FactionStatsSync.getInstance();
     }
 
     @Override
@@ -92,8 +92,8 @@ public class FactionStatsCommand implements Command {
      * Display detailed stats for a specific faction
      */
     private void showFactionStats(SlashCommandInteractionEvent event, String factionName) {
-        // First, let's make sure faction data is up-to-date
-        factionStatsSync.updateAllFactions();
+        // Totals follow the kill stream; write the pending kills and deaths so they are current
+        factionStatsSync.flush();
         
         Faction faction = factionRepository.findByName(factionName);
         if (faction == null) {
@@ -129,8 +129,8 @@ public class FactionStatsCommand implements Command {
      * Display faction rankings based on the specified type
      */
     private void showFactionRankings(SlashCommandInteractionEvent event, String type) {
-        // First, let's make sure faction data is up-to-date
-        factionStatsSync.updateAllFactions();
+        // Totals follow the kill stream; write the pending kills and deaths so they are current
+        factionStatsSync.flush();
         
         // Get factions using isolation-aware approach
         long guildId = event.getGuild().getIdLong();
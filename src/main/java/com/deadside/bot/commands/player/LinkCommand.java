@@ -7,6 +7,7 @@ import com.deadside.bot.db.repositories.LinkedPlayerRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
 import com.deadside.bot.utils.EmbedUtils;
 import com.deadside.bot.utils.EmbedSender;
+import com.deadside.bot.utils.NameIndex;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
@@ -107,7 +108,7 @@ public class LinkCommand implements ICommand {
         }
         
         // Search for the player in the database
-        List<Player> matchingPlayers = playerRepository.findByNameLike(playerName);
+        List<Player> matchingPlayers = findPlayersByName(event, playerName);
         
         if (matchingPlayers.isEmpty()) {
             event.getHook().sendMessageEmbeds(
@@ -174,7 +175,7 @@ public class LinkCommand implements ICommand {
         }
         
         // Search for the player in the database
-        List<Player> matchingPlayers = playerRepository.findByNameLike(playerName);
+        List<Player> matchingPlayers = findPlayersByName(event, playerName);
         
         if (matchingPlayers.isEmpty()) {
             event.getHook().sendMessageEmbeds(
@@ -249,7 +250,7 @@ public class LinkCommand implements ICommand {
         }
         
         // Search for the player
-        List<Player> matchingPlayers = playerRepository.findByNameLike(playerName);
+        List<Player> matchingPlayers = findPlayersByName(event, playerName);
         
         if (matchingPlayers.isEmpty()) {
             event.getHook().sendMessageEmbeds(
@@ -365,6 +366,16 @@ public class LinkCommand implements ICommand {
         ).queue();
     }
     
+    /**
+     * Find players by name, within this guild when the command is used in one
+     */
+    private List<Player> findPlayersByName(SlashCommandInteractionEvent event, String playerName) {
+        if (event.getGuild() != null) {
+            return playerRepository.findByNameInGuild(playerName, event.getGuild().getIdLong(), null, 10);
+        }
+        return playerRepository.findByNameLike(playerName);
+    }
+    
     @Override
     public List<Choice> handleAutoComplete(CommandAutoCompleteInteractionEvent event) {
         String subcommand = event.getSubcommandName();
@@ -389,7 +400,16 @@ public class LinkCommand implements ICommand {
                 
                 return List.of(); // No alts to remove
             } else {
-                // For main and add, show all existing players matching the input
+                // For main and add, show existing players matching the input, from memory once loaded
+                NameIndex nameIndex = NameIndex.getInstance();
+                if (nameIndex.isReady() && event.getGuild() != null) {
+                    return nameIndex.findPlayers(event.getGuild().getIdLong(), null, currentInput, 25).stream()
+                        .map(NameIndex.PlayerName::getName)
+                        .distinct()
+                        .map(name -> new Choice(name, name))
+                        .collect(Collectors.toList());
+                }
+                
                 List<Player> matchingPlayers = playerRepository.findByNameLike(currentInput);
                 
                 return matchingPlayers.stream()
@@ -4,6 +4,8 @@ import com.deadside.bot.commands.ICommand;
 import com.deadside.bot.db.models.Player;
 import com.deadside.bot.db.repositories.PlayerRepository;
 import com.deadside.bot.premium.FeatureGate;
+import com.deadside.bot.stats.LeaderboardEngine;
+import com.deadside.bot.stats.WeaponStatsEngine;
 import com.deadside.bot.utils.EmbedUtils;
 import com.deadside.bot.utils.EmbedSender;
 import com.deadside.bot.utils.EmbedThemes;
@@ -20,6 +22,7 @@ import org.slf4j.LoggerFactory;
 
 import java.text.DecimalFormat;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -88,7 +91,8 @@ public class LeaderboardCommand implements ICommand {
         // Get top players by kills filtered by guild ID - use server-aware method
         // Default to a generic serverId for all servers in this guild
         String serverId = event.getGuild().getName(); // Use guild name as default server ID
-        List<Player> allPlayers = playerRepository.getTopPlayersByKills(guildId, serverId, 10);
+        List<Player> allPlayers = topPlayers(guildId, serverId, LeaderboardEngine.Metric.KILLS, 10, 0,
+                () -> playerRepository.getTopPlayersByKills(guildId, serverId, 10));
         
         if (allPlayers.isEmpty()) {
             event.getHook().sendMessage("No player statistics found yet.").queue();
@@ -118,7 +122,8 @@ public class LeaderboardCommand implements ICommand {
         String serverId = event.getGuild().getName();
         
         // Get top 10 players by K/D ratio (minimum 10 kills to qualify) with server filtering
-        List<Player> kdPlayers = playerRepository.getTopPlayersByKD(guildId, serverId, 10, 10);
+        List<Player> kdPlayers = topPlayers(guildId, serverId, LeaderboardEngine.Metric.KD, 10, 10,
+                () -> playerRepository.getTopPlayersByKD(guildId, serverId, 10, 10));
         
         if (kdPlayers.isEmpty()) {
             event.getHook().sendMessage("No player statistics found yet with enough kills to qualify.").queue();
@@ -175,7 +180,8 @@ public class LeaderboardCommand implements ICommand {
         String serverId = event.getGuild().getName();
         
         // Get top players by longest kill distance with server isolation
-        List<Player> allDistancePlayers = playerRepository.getTopPlayersByDistance(guildId, serverId, 50);
+        List<Player> allDistancePlayers = topPlayers(guildId, serverId, LeaderboardEngine.Metric.DISTANCE, 50, 0,
+                () -> playerRepository.getTopPlayersByDistance(guildId, serverId, 50));
         
         if (allDistancePlayers.isEmpty()) {
             event.getHook().sendMessage("No long-distance kills have been recorded yet.").queue();
@@ -220,7 +226,8 @@ public class LeaderboardCommand implements ICommand {
         String serverId = event.getGuild().getName();
         
         // Get top players by longest kill streak with server isolation
-        List<Player> streakPlayers = playerRepository.getTopPlayersByKillStreak(guildId, serverId, 10);
+        List<Player> streakPlayers = topPlayers(guildId, serverId, LeaderboardEngine.Metric.STREAK, 10, 0,
+                () -> playerRepository.getTopPlayersByKillStreak(guildId, serverId, 10));
         
         if (streakPlayers.isEmpty()) {
             event.getHook().sendMessage("No kill streaks have been recorded yet.").queue();
@@ -253,6 +260,31 @@ public class LeaderboardCommand implements ICommand {
         long guildId = event.getGuild().getIdLong();
         String serverId = event.getGuild().getName();
         
+        // Pre-aggregated weapon stats answer without scanning players
+        WeaponStatsEngine weaponStats = WeaponStatsEngine.getInstance();
+        if (weaponStats.isReady()) {
+            List<WeaponStatsEngine.WeaponSummary> topWeapons = weaponStats.getTopWeapons(guildId, serverId, 10);
+            if (topWeapons.isEmpty()) {
+                event.getHook().sendMessage("No weapon kills have been recorded yet.").queue();
+                return;
+            }
+            
+            StringBuilder description = new StringBuilder();
+            for (int i = 0; i < topWeapons.size(); i++) {
+                WeaponStatsEngine.WeaponSummary weapon = topWeapons.get(i);
+                String topPlayer = weapon.getTopUsers().isEmpty() ? "Unknown" : weapon.getTopUsers().get(0).getName();
+                description.append("`").append(i + 1).append(".` **")
+                        .append(weapon.getWeapon()).append("** - ")
+                        .append(weapon.getKills()).append(" kills ")
+                        .append("(Top user: ").append(topPlayer).append(")\n");
+            }
+            
+            event.getHook().sendMessageEmbeds(
+                    EmbedThemes.killfeedEmbed("Top Weapons Leaderboard", description.toString())
+            ).queue();
+            return;
+        }
+        
         // Collect all players with server isolation
         List<Player> allPlayers = playerRepository.getTopPlayersByKills(guildId, serverId, 1000);
         
@@ -321,7 +353,8 @@ public class LeaderboardCommand implements ICommand {
         String serverId = event.getGuild().getName();
         
         // Get top players by death count with server isolation
-        List<Player> deathPlayers = playerRepository.getTopPlayersByDeaths(guildId, serverId, 10);
+        List<Player> deathPlayers = topPlayers(guildId, serverId, LeaderboardEngine.Metric.DEATHS, 10, 0,
+                () -> playerRepository.getTopPlayersByDeaths(guildId, serverId, 10));
         
         if (deathPlayers.isEmpty()) {
             event.getHook().sendMessage("No deaths have been recorded yet.").queue();
@@ -348,6 +381,15 @@ public class LeaderboardCommand implements ICommand {
         ).queue();
     }
     
+    /**
+     * Top players from the in-memory leaderboards, or from the database until they are loaded
+     */
+    private List<Player> topPlayers(long guildId, String serverId, LeaderboardEngine.Metric metric, int limit,
+                                    int minKills, Supplier<List<Player>> fallback) {
+        LeaderboardEngine engine = LeaderboardEngine.getInstance();
+        return engine.isReady() ? engine.getTop(guildId, serverId, metric, limit, minKills) : fallback.get();
+    }
+    
     /**
      * Helper method to get weapon kills for a specific player
      */
@@ -1,9 +1,12 @@
 package com.deadside.bot.commands.stats;
 
 import com.deadside.bot.commands.ICommand;
+import com.deadside.bot.db.models.Matchup;
 import com.deadside.bot.db.models.Player;
+import com.deadside.bot.db.repositories.MatchupRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
 import com.deadside.bot.premium.PremiumManager;
+import com.deadside.bot.stats.MatchupIndex;
 import com.deadside.bot.utils.EmbedUtils;
 import com.deadside.bot.utils.EmbedSender;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
@@ -23,6 +26,7 @@ import java.util.List;
 public class MatchupCommand implements ICommand {
     private static final Logger logger = LoggerFactory.getLogger(MatchupCommand.class);
     private final PlayerRepository playerRepository = new PlayerRepository();
+    private final MatchupRepository matchupRepository = new MatchupRepository();
     private final PremiumManager premiumManager = new PremiumManager();
     private final DecimalFormat df = new DecimalFormat("#.##");
     
@@ -64,8 +68,8 @@ public class MatchupCommand implements ICommand {
         
         try {
             // Find player 1
-            List<Player> player1Matches = playerRepository.findByNameLike(player1Name);
-            Player player1 = findBestMatch(player1Matches, player1Name);
+            List<Player> player1Matches = playerRepository.findByNameInGuild(player1Name, guildId, null, 10);
+            Player player1 = findBestMatch(player1Matches, player1Name, guildId, null);
             
             if (player1 == null) {
                 event.getHook().sendMessage("No player found with name: " + player1Name).queue();
@@ -73,8 +77,9 @@ public class MatchupCommand implements ICommand {
             }
             
             // Find player 2
-            List<Player> player2Matches = playerRepository.findByNameLike(player2Name);
-            Player player2 = findBestMatch(player2Matches, player2Name);
+            // Head-to-head only exists between players on the same game server
+            List<Player> player2Matches = playerRepository.findByNameInGuild(player2Name, guildId, null, 10);
+            Player player2 = findBestMatch(player2Matches, player2Name, guildId, player1.getServerId());
             
             if (player2 == null) {
                 event.getHook().sendMessage("No player found with name: " + player2Name).queue();
@@ -82,8 +87,8 @@ public class MatchupCommand implements ICommand {
             }
             
             // Get matchup data
-            int player1Kills = getKillsAgainst(player1, player2Name);
-            int player2Kills = getKillsAgainst(player2, player1Name);
+            int player1Kills = getKillsAgainst(player1, player2);
+            int player2Kills = getKillsAgainst(player2, player1);
             
             // Build and send matchup embed
             event.getHook().sendMessageEmbeds(
@@ -98,45 +103,54 @@ public class MatchupCommand implements ICommand {
     
     /**
      * Find the best matching player from a list of potential matches
+     * Players of this guild come first, then players on the given game server, then exact names
+     * @param serverId Preferred game server, or null for any
      */
-    private Player findBestMatch(List<Player> players, String searchName) {
-        if (players.isEmpty()) {
-            return null;
-        }
+    private Player findBestMatch(List<Player> players, String searchName, long guildId, String serverId) {
+        Player best = null;
+        int bestScore = -1;
         
-        // Look for exact name match first
         for (Player player : players) {
-            if (player.getName().equalsIgnoreCase(searchName)) {
-                return player;
+            int score = 0;
+            if (player.getGuildId() == guildId) {
+                score += 4;
+            }
+            if (serverId != null && serverId.equals(player.getServerId())) {
+                score += 2;
+            }
+            if (player.getName() != null && player.getName().equalsIgnoreCase(searchName)) {
+                score += 1;
+            }
+            
+            // Keep the first of equally good matches
+            if (score > bestScore) {
+                best = player;
+                bestScore = score;
             }
         }
         
-        // If no exact match, return first result
-        return players.get(0);
+        return best;
     }
     
     /**
-     * Get number of kills player1 has against player2
-     * For a complete implementation, this would query historical kill data
-     * This is a simplified version based on the existing data model
+     * Get the exact number of times the killer killed the victim
+     * Answered from the in-memory matchup index, or from the matchups collection until it is loaded
      */
-    private int getKillsAgainst(Player player1, String player2Name) {
-        // Check if player2 is player1's most killed player
-        if (player1.getMostKilledPlayer() != null && 
-            player1.getMostKilledPlayer().equalsIgnoreCase(player2Name)) {
-            return player1.getMostKilledPlayerCount();
+    private int getKillsAgainst(Player killer, Player victim) {
+        if (killer.getGuildId() != victim.getGuildId() || killer.getServerId() == null
+                || !killer.getServerId().equals(victim.getServerId())) {
+            return 0;
         }
         
-        // If not most killed, we assume they've encountered each other occasionally
-        // In a full implementation, we would query a kill history collection
-        if (player1.getKilledByMost() != null && 
-            player1.getKilledByMost().equalsIgnoreCase(player2Name)) {
-            // They've encountered each other, so estimate a lower kill count
-            return Math.max(1, player1.getKilledByMostCount() / 2);
+        MatchupIndex matchupIndex = MatchupIndex.getInstance();
+        if (matchupIndex.isReady()) {
+            return matchupIndex.getKills(killer.getGuildId(), killer.getServerId(),
+                    killer.getPlayerId(), victim.getPlayerId());
         }
         
-        // Default to 0 if no known encounters
-        return 0;
+        Matchup matchup = matchupRepository.findPair(killer.getGuildId(), killer.getServerId(),
+                killer.getPlayerId(), victim.getPlayerId());
+        return matchup != null ? matchup.getKills() : 0;
     }
     
     /**
@@ -1,9 +1,13 @@
 package com.deadside.bot.commands.stats;
 
 import com.deadside.bot.commands.ICommand;
+import com.deadside.bot.db.models.Matchup;
 import com.deadside.bot.db.models.Player;
+import com.deadside.bot.db.repositories.MatchupRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
 import com.deadside.bot.premium.PremiumManager;
+import com.deadside.bot.stats.LeaderboardEngine;
+import com.deadside.bot.stats.MatchupIndex;
 import com.deadside.bot.utils.EmbedUtils;
 import com.deadside.bot.utils.EmbedSender;
 import net.dv8tion.jda.api.entities.User;
@@ -16,6 +20,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Comparator;
@@ -27,6 +32,7 @@ import java.util.stream.Collectors;
 public class RankCommand implements ICommand {
     private static final Logger logger = LoggerFactory.getLogger(RankCommand.class);
     private final PlayerRepository playerRepository = new PlayerRepository();
+    private final MatchupRepository matchupRepository = new MatchupRepository();
     private final PremiumManager premiumManager = new PremiumManager();
     private final DecimalFormat df = new DecimalFormat("#.##");
     
@@ -73,7 +79,7 @@ public class RankCommand implements ICommand {
             
             if (playerName != null) {
                 // Find player by in-game name with server isolation
-                List<Player> matchingPlayers = playerRepository.findByNameLikeAndGuildIdAndServerId(playerName, guildId, serverId);
+                List<Player> matchingPlayers = playerRepository.findByNameInGuild(playerName, guildId, serverId, 10);
                 if (!matchingPlayers.isEmpty()) {
                     // Try to find exact match first
                     for (Player p : matchingPlayers) {
@@ -112,11 +118,17 @@ public class RankCommand implements ICommand {
                 return;
             }
             
-            // Get all ranked players to compute ranks with server isolation
-            List<Player> allPlayers = playerRepository.getTopPlayersByKills(guildId, serverId, 1000); // Get a lot of players with server isolation
+            // Ranks come from the in-memory leaderboards; until they are loaded, rank among the top 1000 killers
+            LeaderboardEngine engine = LeaderboardEngine.getInstance();
+            Rankings rankings = engine.isReady()
+                    ? Rankings.fromEngine(engine, guildId, serverId, player)
+                    : Rankings.fromPlayers(player, playerRepository.getTopPlayersByKills(guildId, serverId, 1000));
+            
+            List<MatchupIndex.Opponent> topVictims = topOpponents(guildId, serverId, player.getPlayerId(), true, 4);
+            List<MatchupIndex.Opponent> topNemeses = topOpponents(guildId, serverId, player.getPlayerId(), false, 1);
             
             // Calculate ranks and send embed
-            event.getHook().sendMessageEmbeds(buildRankEmbed(player, allPlayers)).queue();
+            event.getHook().sendMessageEmbeds(buildRankEmbed(player, rankings, topVictims, topNemeses)).queue();
             
         } catch (Exception e) {
             logger.error("Error retrieving player rank", e);
@@ -124,56 +136,47 @@ public class RankCommand implements ICommand {
         }
     }
     
+    /**
+     * Players this player killed most (victims) or who killed them most, from the matchup index
+     * or, until it is loaded, from the matchups collection
+     */
+    private List<MatchupIndex.Opponent> topOpponents(long guildId, String serverId, String playerId,
+                                                     boolean victims, int limit) {
+        MatchupIndex matchupIndex = MatchupIndex.getInstance();
+        if (matchupIndex.isReady()) {
+            return victims
+                    ? matchupIndex.getTopVictims(guildId, serverId, playerId, limit)
+                    : matchupIndex.getTopNemeses(guildId, serverId, playerId, limit);
+        }
+        
+        List<Matchup> matchups = victims
+                ? matchupRepository.findTopVictims(guildId, serverId, playerId, limit)
+                : matchupRepository.findTopNemeses(guildId, serverId, playerId, limit);
+        List<MatchupIndex.Opponent> opponents = new ArrayList<>(matchups.size());
+        for (Matchup matchup : matchups) {
+            opponents.add(victims
+                    ? new MatchupIndex.Opponent(matchup.getVictimId(), matchup.getVictimName(), matchup.getKills())
+                    : new MatchupIndex.Opponent(matchup.getKillerId(), matchup.getKillerName(), matchup.getKills()));
+        }
+        return opponents;
+    }
+    
     /**
      * Build the player rank embed with various stat rankings
      */
-    private net.dv8tion.jda.api.entities.MessageEmbed buildRankEmbed(Player player, List<Player> allPlayers) {
+    private net.dv8tion.jda.api.entities.MessageEmbed buildRankEmbed(Player player, Rankings rankings,
+            List<MatchupIndex.Opponent> topVictims, List<MatchupIndex.Opponent> topNemeses) {
         // Minimum threshold to be included in ranking
-        final int MIN_KILLS = 5;
-        
-        // Filter players with minimum kills for ranking and exclude invalid player records
-        List<Player> rankablePlayers = allPlayers.stream()
-                .filter(p -> p.getKills() >= MIN_KILLS)
-                .filter(p -> p.getName() != null && !p.getName().isEmpty() && !"**".equals(p.getName()))
-                .collect(Collectors.toList());
-        
-        // Total number of ranked players
-        int totalPlayers = rankablePlayers.size();
+        final int MIN_KILLS = LeaderboardEngine.MIN_RANKED_KILLS;
         
         // If player doesn't meet minimum threshold, still show stats but indicate not ranked
         boolean isRanked = player.getKills() >= MIN_KILLS;
-        
-        // Calculate kills rank
-        int killsRank = isRanked ? calculateRank(player, rankablePlayers, 
-                Comparator.comparingInt(Player::getKills).reversed()) : -1;
-        
-        // Calculate K/D rank (only for players with kills)
-        int kdRank = isRanked ? calculateRank(player, rankablePlayers,
-                Comparator.comparingDouble(Player::getKdRatio).reversed()) : -1;
-        
-        // Calculate score rank
-        int scoreRank = isRanked ? calculateRank(player, rankablePlayers,
-                Comparator.comparingInt(Player::getScore).reversed()) : -1;
-                
-        // Calculate distance rank (if available)
-        int distanceRank = -1;
-        if (player.getLongestKillDistance() > 0) {
-            distanceRank = calculateRank(player, allPlayers.stream()
-                .filter(p -> p.getLongestKillDistance() > 0)
-                .filter(p -> p.getName() != null && !p.getName().isEmpty() && !"**".equals(p.getName()))
-                .collect(Collectors.toList()),
-                Comparator.comparingInt(Player::getLongestKillDistance).reversed());
-        }
-        
-        // Calculate streak rank (if available)
-        int streakRank = -1;
-        if (player.getLongestKillStreak() > 0) {
-            streakRank = calculateRank(player, allPlayers.stream()
-                .filter(p -> p.getLongestKillStreak() > 0)
-                .filter(p -> p.getName() != null && !p.getName().isEmpty() && !"**".equals(p.getName()))
-                .collect(Collectors.toList()),
-                Comparator.comparingInt(Player::getLongestKillStreak).reversed());
-        }
+        int totalPlayers = rankings.totalPlayers;
+        int killsRank = rankings.killsRank;
+        int kdRank = rankings.kdRank;
+        int scoreRank = rankings.scoreRank;
+        int distanceRank = rankings.distanceRank;
+        int streakRank = rankings.streakRank;
                 
         // Build embed description
         StringBuilder description = new StringBuilder();
@@ -223,16 +226,14 @@ public class RankCommand implements ICommand {
                      
             // Add distance and streak rankings if available
             if (distanceRank > 0) {
-                int distanceTotalPlayers = (int)allPlayers.stream()
-                    .filter(p -> p.getLongestKillDistance() > 0).count();
+                int distanceTotalPlayers = rankings.distanceTotalPlayers;
                     
                 description.append("Longest Kill Rank: **#").append(distanceRank).append("** (Top ")
                          .append(calculatePercentile(distanceRank, distanceTotalPlayers)).append("%)\n");
             }
             
             if (streakRank > 0) {
-                int streakTotalPlayers = (int)allPlayers.stream()
-                    .filter(p -> p.getLongestKillStreak() > 0).count();
+                int streakTotalPlayers = rankings.streakTotalPlayers;
                     
                 description.append("Kill Streak Rank: **#").append(streakRank).append("** (Top ")
                          .append(calculatePercentile(streakRank, streakTotalPlayers)).append("%)\n");
@@ -263,33 +264,31 @@ public class RankCommand implements ICommand {
             }
         }
         
-        // Player matchups information
-        if (player.getPlayerMatchups() != null && !player.getPlayerMatchups().isEmpty()) {
+        // Player matchups information, exact head-to-head counts
+        if (!topVictims.isEmpty() || !topNemeses.isEmpty()) {
             description.append("\n## Player Matchups\n");
             
             // Most killed player
-            if (player.getMostKilledPlayer() != null && !player.getMostKilledPlayer().isEmpty()) {
-                description.append("Favorite Target: **").append(player.getMostKilledPlayer())
-                    .append("** (").append(player.getMostKilledPlayerCount()).append(" kills)\n");
+            if (!topVictims.isEmpty()) {
+                MatchupIndex.Opponent target = topVictims.get(0);
+                description.append("Favorite Target: **").append(target.getName())
+                    .append("** (").append(target.getKills()).append(" kills)\n");
             }
             
             // Player that killed this player the most
-            if (player.getKilledByMost() != null && !player.getKilledByMost().isEmpty()) {
-                description.append("Nemesis: **").append(player.getKilledByMost())
-                    .append("** (killed you ").append(player.getKilledByMostCount()).append(" times)\n");
+            if (!topNemeses.isEmpty()) {
+                MatchupIndex.Opponent nemesis = topNemeses.get(0);
+                description.append("Nemesis: **").append(nemesis.getName())
+                    .append("** (killed you ").append(nemesis.getKills()).append(" times)\n");
             }
             
-            // Show top 3 matchups by kills (excluding the most killed player)
-            if (player.getPlayerMatchups().size() > 1) {
+            // Show the next top matchups by kills (excluding the most killed player)
+            if (topVictims.size() > 1) {
                 description.append("\nOther top matchups:\n");
-                player.getPlayerMatchups().entrySet().stream()
-                    .filter(entry -> !entry.getKey().equals(player.getMostKilledPlayer()))
-                    .sorted((e1, e2) -> e2.getValue().compareTo(e1.getValue())) // Reverse sort
-                    .limit(3)
-                    .forEach(entry -> {
-                        description.append("• **").append(entry.getKey()).append("**: ")
-                            .append(entry.getValue()).append(" kills\n");
-                    });
+                for (MatchupIndex.Opponent victim : topVictims.subList(1, topVictims.size())) {
+                    description.append("• **").append(victim.getName()).append("**: ")
+                        .append(victim.getKills()).append(" kills\n");
+                }
             }
         }
         
@@ -305,10 +304,90 @@ public class RankCommand implements ICommand {
         );
     }
     
+    /**
+     * A player's rank on each leaderboard and the number of players ranked there
+     */
+    private static final class Rankings {
+        private int totalPlayers;
+        private int killsRank = -1;
+        private int kdRank = -1;
+        private int scoreRank = -1;
+        private int distanceRank = -1;
+        private int distanceTotalPlayers;
+        private int streakRank = -1;
+        private int streakTotalPlayers;
+        
+        /**
+         * Ranks from the in-memory leaderboards
+         */
+        static Rankings fromEngine(LeaderboardEngine engine, long guildId, String serverId, Player player) {
+            Rankings rankings = new Rankings();
+            String playerId = player.getPlayerId();
+            
+            // K/D and score only rank players with enough kills, which is the ranked population
+            rankings.totalPlayers = engine.getRankedCount(guildId, serverId, LeaderboardEngine.Metric.KD);
+            if (player.getKills() >= LeaderboardEngine.MIN_RANKED_KILLS) {
+                rankings.killsRank = engine.getRank(guildId, serverId, playerId, LeaderboardEngine.Metric.KILLS);
+                rankings.kdRank = engine.getRank(guildId, serverId, playerId, LeaderboardEngine.Metric.KD);
+                rankings.scoreRank = engine.getRank(guildId, serverId, playerId, LeaderboardEngine.Metric.SCORE);
+            }
+            rankings.distanceRank = engine.getRank(guildId, serverId, playerId, LeaderboardEngine.Metric.DISTANCE);
+            rankings.distanceTotalPlayers = engine.getRankedCount(guildId, serverId, LeaderboardEngine.Metric.DISTANCE);
+            rankings.streakRank = engine.getRank(guildId, serverId, playerId, LeaderboardEngine.Metric.STREAK);
+            rankings.streakTotalPlayers = engine.getRankedCount(guildId, serverId, LeaderboardEngine.Metric.STREAK);
+            return rankings;
+        }
+        
+        /**
+         * Ranks computed from a list of players loaded from the database
+         */
+        static Rankings fromPlayers(Player player, List<Player> allPlayers) {
+            Rankings rankings = new Rankings();
+            final int MIN_KILLS = LeaderboardEngine.MIN_RANKED_KILLS;
+            
+            // Filter players with minimum kills for ranking and exclude invalid player records
+            List<Player> rankablePlayers = allPlayers.stream()
+                    .filter(p -> p.getKills() >= MIN_KILLS)
+                    .filter(p -> p.getName() != null && !p.getName().isEmpty() && !"**".equals(p.getName()))
+                    .collect(Collectors.toList());
+            rankings.totalPlayers = rankablePlayers.size();
+            
+            if (player.getKills() >= MIN_KILLS) {
+                rankings.killsRank = calculateRank(player, rankablePlayers,
+                        Comparator.comparingInt(Player::getKills).reversed());
+                rankings.kdRank = calculateRank(player, rankablePlayers,
+                        Comparator.comparingDouble(Player::getKdRatio).reversed());
+                rankings.scoreRank = calculateRank(player, rankablePlayers,
+                        Comparator.comparingInt(Player::getScore).reversed());
+            }
+            
+            if (player.getLongestKillDistance() > 0) {
+                List<Player> distancePlayers = allPlayers.stream()
+                    .filter(p -> p.getLongestKillDistance() > 0)
+                    .filter(p -> p.getName() != null && !p.getName().isEmpty() && !"**".equals(p.getName()))
+                    .collect(Collectors.toList());
+                rankings.distanceRank = calculateRank(player, distancePlayers,
+                        Comparator.comparingInt(Player::getLongestKillDistance).reversed());
+                rankings.distanceTotalPlayers = distancePlayers.size();
+            }
+            
+            if (player.getLongestKillStreak() > 0) {
+                List<Player> streakPlayers = allPlayers.stream()
+                    .filter(p -> p.getLongestKillStreak() > 0)
+                    .filter(p -> p.getName() != null && !p.getName().isEmpty() && !"**".equals(p.getName()))
+                    .collect(Collectors.toList());
+                rankings.streakRank = calculateRank(player, streakPlayers,
+                        Comparator.comparingInt(Player::getLongestKillStreak).reversed());
+                rankings.streakTotalPlayers = streakPlayers.size();
+            }
+            return rankings;
+        }
+    }
+    
     /**
      * Calculate the rank of a player among all players using the provided comparator
      */
-    private int calculateRank(Player player, List<Player> allPlayers, Comparator<Player> comparator) {
+    private static int calculateRank(Player player, List<Player> allPlayers, Comparator<Player> comparator) {
         // Sort players by the given comparator
         List<Player> sortedPlayers = allPlayers.stream()
                 .sorted(comparator)
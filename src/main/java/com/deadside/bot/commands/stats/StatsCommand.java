@@ -8,6 +8,7 @@ import com.deadside.bot.db.repositories.PlayerRepository;
 import com.deadside.bot.premium.FeatureGate;
 import com.deadside.bot.utils.EmbedUtils;
 import com.deadside.bot.utils.EmbedSender;
+import com.deadside.bot.utils.NameIndex;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
@@ -89,8 +90,8 @@ public class StatsCommand implements ICommand {
     private void displayPlayerStats(SlashCommandInteractionEvent event, String playerName) {
         long guildId = event.getGuild().getIdLong();
         
-        // Find player by name (using our available methods)
-        List<Player> matchingPlayers = playerRepository.findByNameLike(playerName);
+        // Find player by name among this guild's players
+        List<Player> matchingPlayers = playerRepository.findByNameInGuild(playerName, guildId, null, 10);
         Player player = null;
         
         // Look for exact match first
@@ -180,6 +181,16 @@ public class StatsCommand implements ICommand {
         if ("player".equals(focusedOption)) {
             String currentInput = event.getFocusedOption().getValue().toLowerCase();
             
+            // Answer from the in-memory name index once it is loaded
+            NameIndex nameIndex = NameIndex.getInstance();
+            if (nameIndex.isReady()) {
+                return nameIndex.findPlayers(event.getGuild().getIdLong(), null, currentInput, 25).stream()
+                    .map(NameIndex.PlayerName::getName)
+                    .distinct()
+                    .map(name -> new Choice(name, name))
+                    .collect(Collectors.toList());
+            }
+            
             // Search for players with names matching the current input
             List<Player> matchingPlayers = playerRepository.findByNameLike(currentInput);
             
@@ -1,9 +1,12 @@
 package com.deadside.bot.commands.stats;
 
 import com.deadside.bot.commands.ICommand;
+import com.deadside.bot.stats.MatchupIndex;
+import com.deadside.bot.stats.WeaponStatsEngine;
 import com.deadside.bot.utils.EmbedUtils;
 import com.deadside.bot.utils.EmbedSender;
 import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.interactions.commands.Command.Choice;
@@ -14,6 +17,7 @@ import net.dv8tion.jda.api.interactions.commands.build.OptionData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -29,7 +33,7 @@ public class WeaponStatsCommand implements ICommand {
         "assault_rifle", "smg", "pistol", "sniper", "shotgun", "melee", "throwable"
     );
     
-    // List of specific weapons for autocomplete
+    // Fallback weapons for autocomplete until weapon statistics are loaded
     private static final List<String> WEAPONS = Arrays.asList(
         "AK-47", "M4A1", "M16A4", "AK-74", "AKS-74U", "VSS", "SVD", "M24", 
         "Mosin", "RPK", "Hunting Rifle", "MP5", "MP7", "UMP-45", "Vector", 
@@ -37,6 +41,8 @@ public class WeaponStatsCommand implements ICommand {
         "Remington 870", "Saiga-12", "Double Barrel", "Combat Knife", "Axe",
         "Hammer", "Baseball Bat", "Crowbar", "Machete", "Frag Grenade", "Smoke Grenade"
     );
+    
+    private final DecimalFormat df = new DecimalFormat("#.#");
 
     @Override
     public String getName() {
@@ -57,31 +63,36 @@ public class WeaponStatsCommand implements ICommand {
 
     @Override
     public void execute(SlashCommandInteractionEvent event) {
+        if (event.getGuild() == null) {
+            event.reply("This command can only be used in a server.").setEphemeral(true).queue();
+            return;
+        }
+        
         event.deferReply().queue();
         
         try {
+            long guildId = event.getGuild().getIdLong();
             String weapon = event.getOption("weapon", "", o -> o.getAsString());
             String type = event.getOption("type", "", o -> o.getAsString());
-            String server = event.getOption("server", "All servers", o -> o.getAsString());
+            String server = event.getOption("server", null, o -> o.getAsString());
             
-            // Create a placeholder response with weapon stats
-            EmbedBuilder embed = new EmbedBuilder()
-                    .setTitle("Weapon Statistics: " + weapon)
-                    .setDescription("Statistics for " + weapon + " across " + server + "\n\n" +
-                                    "*More detailed weapon stats will be implemented soon.*")
-                    .setColor(EmbedUtils.EMERALD_GREEN)
-                    .setThumbnail(EmbedUtils.WEAPON_STATS_ICON)
-                    .addField("Kills", "217", true)
-                    .addField("Headshots", "73 (33.6%)", true)
-                    .addField("Average Kill Distance", "124m", true)
-                    .addField("Longest Kill", "543m", true)
-                    .addField("Damage Per Shot", "37-42", true)
-                    .addField("Popularity Rank", "#3", true)
-                    .setFooter(EmbedUtils.STANDARD_FOOTER)
-                    .setTimestamp(java.time.Instant.now());
+            WeaponStatsEngine engine = WeaponStatsEngine.getInstance();
+            if (!engine.isReady()) {
+                event.getHook().sendMessage("Weapon statistics are still loading, please try again in a moment.").queue();
+                return;
+            }
             
-            // Send the embed
-            event.getHook().sendMessageEmbeds(embed.build()).queue();
+            WeaponStatsEngine.WeaponSummary stats = engine.getWeapon(guildId, server, weapon);
+            if (stats == null) {
+                event.getHook().sendMessageEmbeds(EmbedUtils.infoEmbed(
+                        "No Data",
+                        "No kills with **" + weapon + "** have been recorded on " +
+                        (server != null ? server : "any server") + " yet."
+                )).queue();
+                return;
+            }
+            
+            event.getHook().sendMessageEmbeds(buildWeaponEmbed(stats, server != null ? server : "all servers")).queue();
             
             logger.info("Sent weapon stats for {} of type {} in server {}", weapon, type, server);
         } catch (Exception e) {
@@ -92,6 +103,52 @@ public class WeaponStatsCommand implements ICommand {
             )).queue();
         }
     }
+    
+    /**
+     * Build the statistics embed for one weapon
+     */
+    private MessageEmbed buildWeaponEmbed(WeaponStatsEngine.WeaponSummary stats, String scope) {
+        EmbedBuilder embed = new EmbedBuilder()
+                .setTitle("Weapon Statistics: " + stats.getWeapon())
+                .setDescription("Statistics for " + stats.getWeapon() + " across " + scope)
+                .setColor(EmbedUtils.EMERALD_GREEN)
+                .setThumbnail(EmbedUtils.WEAPON_STATS_ICON)
+                .addField("Kills", String.valueOf(stats.getKills()), true)
+                .addField("Popularity Rank", "#" + stats.getPopularityRank() + " of " + stats.getWeaponCount(), true)
+                .addField("Longest Kill", stats.getLongestKill() + "m (" + stats.getLongestKillPlayer() + ")", true)
+                .addField("Average Kill Distance", df.format(stats.getAverageDistance()) + "m", true)
+                .addField("Median Distance", "~" + stats.getMedianDistance() + "m", true)
+                .addField("90th Percentile", "~" + stats.getP90Distance() + "m", true)
+                .addField("Last 7 Days", stats.getKills7d() + " kills (" + df.format(stats.getShare7d()) + "% of all kills)", true)
+                .addField("Last 30 Days", stats.getKills30d() + " kills (" + df.format(stats.getShare30d()) + "% of all kills)", true)
+                .setFooter(EmbedUtils.STANDARD_FOOTER)
+                .setTimestamp(java.time.Instant.now());
+        
+        // Distance histogram, only the ranges that have kills
+        int[] buckets = stats.getDistanceBuckets();
+        StringBuilder distances = new StringBuilder();
+        for (int i = 0; i < buckets.length; i++) {
+            if (buckets[i] > 0) {
+                distances.append("`").append(WeaponStatsEngine.WeaponSummary.getBucketLabel(i)).append("` ")
+                        .append(buckets[i]).append(" (")
+                        .append(df.format(buckets[i] * 100.0 / stats.getKills())).append("%)\n");
+            }
+        }
+        embed.addField("Kill Distances", distances.toString(), false);
+        
+        StringBuilder users = new StringBuilder();
+        List<MatchupIndex.Opponent> topUsers = stats.getTopUsers();
+        for (int i = 0; i < Math.min(5, topUsers.size()); i++) {
+            MatchupIndex.Opponent user = topUsers.get(i);
+            users.append("`").append(i + 1).append(".` **").append(user.getName()).append("** - ")
+                    .append(user.getKills()).append(" kills\n");
+        }
+        if (users.length() > 0) {
+            embed.addField("Top Users", users.toString(), false);
+        }
+        
+        return embed.build();
+    }
 
     @Override
     public List<Choice> handleAutoComplete(CommandAutoCompleteInteractionEvent event) {
@@ -102,7 +159,18 @@ public class WeaponStatsCommand implements ICommand {
             List<Choice> choices = new ArrayList<>();
             int count = 0;
             
-            for (String weapon : WEAPONS) {
+            // Weapons actually used on the guild's servers, most used first
+            List<String> weapons = WEAPONS;
+            WeaponStatsEngine engine = WeaponStatsEngine.getInstance();
+            if (engine.isReady() && event.getGuild() != null) {
+                List<String> used = engine.getWeaponNames(event.getGuild().getIdLong(),
+                        event.getOption("server", null, o -> o.getAsString()));
+                if (!used.isEmpty()) {
+                    weapons = used;
+                }
+            }
+            
+            for (String weapon : weapons) {
                 if (weapon.toLowerCase().contains(value)) {
                     choices.add(new Choice(weapon, weapon));
                     count++;
@@ -21,9 +21,37 @@ public class Config {
     private static final String DISCORD_TOKEN = "discord.token";
     private static final String MONGO_URI = "mongodb.uri";
     private static final String MONGO_DATABASE = "mongodb.database";
+    private static final String MONGO_KILL_RECORD_TTL_DAYS = "mongodb.killrecord.ttl.days";
+    private static final String MONGO_EXPLAIN_ON_STARTUP = "mongodb.explain.on.startup";
     private static final String BOT_OWNER_ID = "bot.owner.id";
     private static final String HOME_GUILD_ID = "bot.home.guild.id";
     private static final String SFTP_CONNECT_TIMEOUT = "sftp.connect.timeout";
+    private static final String SFTP_POOL_MAX_PER_HOST = "sftp.pool.max.per.host";
+    private static final String SFTP_POOL_IDLE_TIMEOUT = "sftp.pool.idle.timeout";
+    private static final String INGESTION_WORKERS = "ingestion.workers";
+    private static final String INGESTION_MAX_PER_HOST = "ingestion.max.per.host";
+    private static final String INGESTION_SERVER_TIMEOUT = "ingestion.server.timeout";
+    private static final String INGESTION_MAX_JITTER = "ingestion.max.jitter";
+    private static final String BACKFILL_WORKERS = "backfill.workers";
+    private static final String BACKFILL_PROGRESS_INTERVAL = "backfill.progress.interval";
+    private static final String STATS_FLUSH_SIZE = "stats.flush.size";
+    private static final String LEADERBOARD_MIN_REFRESH = "leaderboard.auto.min.refresh";
+    private static final String STATS_FLUSH_INTERVAL = "stats.flush.interval";
+    private static final String DISPATCH_LINGER_MS = "discord.dispatch.linger.ms";
+    private static final String DISPATCH_SUMMARY_THRESHOLD = "discord.dispatch.summary.threshold";
+    private static final String DISPATCH_MAX_PENDING = "discord.dispatch.max.pending";
+    private static final String DISPATCH_BACKPRESSURE_TIMEOUT = "discord.dispatch.backpressure.timeout";
+    private static final String ENTITY_CACHE_TTL = "cache.entity.ttl";
+    private static final String ENTITY_CACHE_MAX_ENTRIES = "cache.entity.max.entries";
+    private static final String COMMAND_WORKERS = "commands.workers";
+    private static final String COMMAND_QUEUE_SIZE = "commands.queue.size";
+    private static final String COMMAND_MAX_PER_GUILD = "commands.max.per.guild";
+    private static final String COMMAND_TIMEOUT = "commands.timeout";
+    private static final String BOUNTY_EXPIRY_DAYS = "bounty.expiry.days";
+    private static final String CLUSTER_SHARDS_TOTAL = "cluster.shards.total";
+    private static final String CLUSTER_NODE_ID = "cluster.node.id";
+    private static final String CLUSTER_HEARTBEAT_INTERVAL = "cluster.heartbeat.interval";
+    private static final String CLUSTER_LEASE_TTL = "cluster.lease.ttl";
     private static final String KILLFEED_UPDATE_INTERVAL = "killfeed.update.interval";
     private static final String LOG_PARSING_INTERVAL = "log.parsing.interval";
     private static final String ECONOMY_DAILY_AMOUNT = "economy.daily.amount";
@@ -116,6 +144,27 @@ public class Config {
     public String getMongoDatabase() {
         return getProperty(MONGO_DATABASE, "deadsidebot");
     }
+    
+    /**
+     * Get how long kill records are kept before MongoDB expires them
+     * @return The retention in days, 0 to keep kill records forever
+     */
+    public int getKillRecordTtlDays() {
+        String days = getProperty(MONGO_KILL_RECORD_TTL_DAYS, "0");
+        try {
+            return Math.max(0, Integer.parseInt(days));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid kill record TTL in configuration", e);
+            return 0;
+        }
+    }
+    
+    /**
+     * Whether to explain every repository query at startup and report collection scans
+     */
+    public boolean isExplainOnStartup() {
+        return Boolean.parseBoolean(getProperty(MONGO_EXPLAIN_ON_STARTUP, "false"));
+    }
 
     public String getBotOwnerId() {
         // Hardcoded owner ID as requested, returned as a String for compatibility
@@ -153,6 +202,367 @@ public class Config {
         }
     }
 
+    /**
+     * Get the maximum number of pooled SFTP connections per host/port/user
+     * @return The connection cap per host
+     */
+    public int getSftpPoolMaxPerHost() {
+        String max = getProperty(SFTP_POOL_MAX_PER_HOST, "2");
+        try {
+            return Math.max(1, Integer.parseInt(max));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid SFTP pool max per host in configuration", e);
+            return 2;
+        }
+    }
+    
+    /**
+     * Get how long a pooled SFTP connection may stay idle before it is closed
+     * @return The idle timeout in seconds
+     */
+    public int getSftpPoolIdleTimeout() {
+        String timeout = getProperty(SFTP_POOL_IDLE_TIMEOUT, "300");
+        try {
+            return Integer.parseInt(timeout);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid SFTP pool idle timeout in configuration", e);
+            return 300;
+        }
+    }
+
+    /**
+     * Get the number of worker threads shared by all per-server ingestion polls
+     * @return The worker pool size
+     */
+    public int getIngestionWorkers() {
+        String workers = getProperty(INGESTION_WORKERS, "8");
+        try {
+            return Math.max(1, Integer.parseInt(workers));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid ingestion worker count in configuration", e);
+            return 8;
+        }
+    }
+    
+    /**
+     * Get the maximum number of ingestion polls that may run against one SFTP host at a time
+     * @return The concurrent poll cap per host
+     */
+    public int getIngestionMaxPerHost() {
+        String max = getProperty(INGESTION_MAX_PER_HOST, "2");
+        try {
+            return Math.max(1, Integer.parseInt(max));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid ingestion max per host in configuration", e);
+            return 2;
+        }
+    }
+    
+    /**
+     * Get the deadline for a single server's ingestion poll
+     * @return The deadline in seconds
+     */
+    public int getIngestionServerTimeout() {
+        String timeout = getProperty(INGESTION_SERVER_TIMEOUT, "120");
+        try {
+            return Math.max(1, Integer.parseInt(timeout));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid ingestion server timeout in configuration", e);
+            return 120;
+        }
+    }
+    
+    /**
+     * Get the upper bound of the random delay added to each server's poll start
+     * @return The maximum jitter in seconds
+     */
+    public int getIngestionMaxJitter() {
+        String jitter = getProperty(INGESTION_MAX_JITTER, "15");
+        try {
+            return Math.max(0, Integer.parseInt(jitter));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid ingestion max jitter in configuration", e);
+            return 15;
+        }
+    }
+
+    /**
+     * Get the number of threads that parse historical death logs during a backfill
+     * @return The parse worker count
+     */
+    public int getBackfillWorkers() {
+        String workers = getProperty(BACKFILL_WORKERS, "4");
+        try {
+            return Math.max(1, Integer.parseInt(workers));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid backfill worker count in configuration", e);
+            return 4;
+        }
+    }
+    
+    /**
+     * Get the minimum time between backfill progress updates
+     * @return The progress interval in seconds
+     */
+    public int getBackfillProgressInterval() {
+        String interval = getProperty(BACKFILL_PROGRESS_INTERVAL, "5");
+        try {
+            return Math.max(1, Integer.parseInt(interval));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid backfill progress interval in configuration", e);
+            return 5;
+        }
+    }
+
+    /**
+     * Get the minimum time between edits of an auto-updating leaderboard message
+     * @return The minimum refresh interval in seconds
+     */
+    public int getLeaderboardMinRefresh() {
+        String interval = getProperty(LEADERBOARD_MIN_REFRESH, "300");
+        try {
+            return Math.max(1, Integer.parseInt(interval));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid leaderboard minimum refresh in configuration", e);
+            return 300;
+        }
+    }
+
+    /**
+     * Get the number of pending players that triggers an early stats flush
+     * @return The flush batch size
+     */
+    public int getStatsFlushSize() {
+        String size = getProperty(STATS_FLUSH_SIZE, "500");
+        try {
+            return Math.max(1, Integer.parseInt(size));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid stats flush size in configuration", e);
+            return 500;
+        }
+    }
+    
+    /**
+     * Get the interval between timed player stats flushes
+     * @return The interval in seconds
+     */
+    public int getStatsFlushInterval() {
+        String interval = getProperty(STATS_FLUSH_INTERVAL, "5");
+        try {
+            return Math.max(1, Integer.parseInt(interval));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid stats flush interval in configuration", e);
+            return 5;
+        }
+    }
+
+    /**
+     * Get how long the embed dispatcher waits to batch embeds for an idle channel
+     * @return The linger window in milliseconds
+     */
+    public long getDispatchLingerMillis() {
+        String linger = getProperty(DISPATCH_LINGER_MS, "1000");
+        try {
+            return Math.max(0, Long.parseLong(linger));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid dispatch linger in configuration", e);
+            return 1000;
+        }
+    }
+    
+    /**
+     * Get the number of pending embeds in a channel above which they are sent as one summary
+     * @return The summary threshold
+     */
+    public int getDispatchSummaryThreshold() {
+        String threshold = getProperty(DISPATCH_SUMMARY_THRESHOLD, "30");
+        try {
+            return Math.max(10, Integer.parseInt(threshold));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid dispatch summary threshold in configuration", e);
+            return 30;
+        }
+    }
+    
+    /**
+     * Get the number of pending embeds per channel at which parsers are made to wait
+     * @return The buffer capacity
+     */
+    public int getDispatchMaxPending() {
+        String maxPending = getProperty(DISPATCH_MAX_PENDING, "500");
+        try {
+            return Math.max(1, Integer.parseInt(maxPending));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid dispatch max pending in configuration", e);
+            return 500;
+        }
+    }
+    
+    /**
+     * Get how long a parser waits for a full channel buffer before its embed is dropped
+     * @return The timeout in seconds
+     */
+    public int getDispatchBackpressureTimeout() {
+        String timeout = getProperty(DISPATCH_BACKPRESSURE_TIMEOUT, "10");
+        try {
+            return Math.max(0, Integer.parseInt(timeout));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid dispatch backpressure timeout in configuration", e);
+            return 10;
+        }
+    }
+    
+    /**
+     * Get how long cached game servers and guild configs are used before being reloaded
+     * @return The time to live in seconds
+     */
+    public int getEntityCacheTtl() {
+        String ttl = getProperty(ENTITY_CACHE_TTL, "60");
+        try {
+            return Math.max(1, Integer.parseInt(ttl));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid entity cache TTL in configuration", e);
+            return 60;
+        }
+    }
+    
+    /**
+     * Get the maximum number of guilds kept in each entity cache
+     * @return The maximum number of entries
+     */
+    public int getEntityCacheMaxEntries() {
+        String maxEntries = getProperty(ENTITY_CACHE_MAX_ENTRIES, "1000");
+        try {
+            return Math.max(1, Integer.parseInt(maxEntries));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid entity cache max entries in configuration", e);
+            return 1000;
+        }
+    }
+    
+    /**
+     * Get the number of threads that run slash command handlers
+     * @return The worker count
+     */
+    public int getCommandWorkers() {
+        String workers = getProperty(COMMAND_WORKERS, "16");
+        try {
+            return Math.max(1, Integer.parseInt(workers));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid command worker count in configuration", e);
+            return 16;
+        }
+    }
+    
+    /**
+     * Get the number of commands that may wait for a worker before new ones are turned away
+     * @return The queue capacity
+     */
+    public int getCommandQueueSize() {
+        String size = getProperty(COMMAND_QUEUE_SIZE, "100");
+        try {
+            return Math.max(1, Integer.parseInt(size));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid command queue size in configuration", e);
+            return 100;
+        }
+    }
+    
+    /**
+     * Get the maximum number of commands one guild may have queued or running at a time
+     * @return The concurrent command cap per guild
+     */
+    public int getCommandMaxPerGuild() {
+        String max = getProperty(COMMAND_MAX_PER_GUILD, "4");
+        try {
+            return Math.max(1, Integer.parseInt(max));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid command max per guild in configuration", e);
+            return 4;
+        }
+    }
+    
+    /**
+     * Get the deadline for a slash command handler
+     * A command can override the default with commands.timeout.&lt;name&gt;
+     * @param commandName The command name, without the slash
+     * @return The deadline in seconds
+     */
+    public int getCommandTimeout(String commandName) {
+        String timeout = getProperty(COMMAND_TIMEOUT + "." + commandName, getProperty(COMMAND_TIMEOUT, "30"));
+        try {
+            return Math.max(1, Integer.parseInt(timeout));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid timeout for command {} in configuration", commandName, e);
+            return 30;
+        }
+    }
+    
+    /**
+     * Get how long an unclaimed bounty stays active
+     * @return The lifetime in days
+     */
+    public int getBountyExpiryDays() {
+        String days = getProperty(BOUNTY_EXPIRY_DAYS, "7");
+        try {
+            return Math.max(1, Integer.parseInt(days));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid bounty expiry in configuration", e);
+            return 7;
+        }
+    }
+    
+    /**
+     * Get the total number of Discord shards shared by all bot processes
+     * 0 runs a single unsharded process that owns every guild
+     * @return The shard count
+     */
+    public int getClusterShardsTotal() {
+        String total = getProperty(CLUSTER_SHARDS_TOTAL, "0");
+        try {
+            return Math.max(0, Integer.parseInt(total));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid cluster shard total in configuration", e);
+            return 0;
+        }
+    }
+    
+    /**
+     * Get the name this process uses in the cluster ownership table
+     * @return The configured node ID, or an empty string to derive one from the host and process ID
+     */
+    public String getClusterNodeId() {
+        return getProperty(CLUSTER_NODE_ID, "");
+    }
+    
+    /**
+     * Get how often a process renews its heartbeat and shard leases
+     * @return The interval in seconds
+     */
+    public int getClusterHeartbeatInterval() {
+        String interval = getProperty(CLUSTER_HEARTBEAT_INTERVAL, "10");
+        try {
+            return Math.max(1, Integer.parseInt(interval));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid cluster heartbeat interval in configuration", e);
+            return 10;
+        }
+    }
+    
+    /**
+     * Get how long a shard lease stays valid without renewal before another process may take it over
+     * @return The lease lifetime in seconds
+     */
+    public int getClusterLeaseTtl() {
+        String ttl = getProperty(CLUSTER_LEASE_TTL, "30");
+        try {
+            return Math.max(1, Integer.parseInt(ttl));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid cluster lease TTL in configuration", e);
+            return 30;
+        }
+    }
+
     public int getKillfeedUpdateInterval() {
         String interval = getProperty(KILLFEED_UPDATE_INTERVAL, "300"); // Default 5 minutes in seconds
         try {
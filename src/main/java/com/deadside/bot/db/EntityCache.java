@@ -0,0 +1,142 @@
+package com.deadside.bot.db;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded read-through cache for near-static documents such as game servers and guild configs
+ *
+ * Entries expire after a fixed TTL, so writes made by another process are picked up eventually;
+ * writes through this process's repositories update or invalidate entries right away. Missing
+ * documents are cached too (as null), since lookups for unconfigured guilds are just as frequent.
+ * The least recently used entry is evicted once the cache is full. Values must be treated as
+ * immutable; repositories hand out copies.
+ */
+public class EntityCache<K, V> {
+    private static final Logger logger = LoggerFactory.getLogger(EntityCache.class);
+
+    private final String name;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    // Bumped by every invalidation so a load that raced with one is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    // Metrics
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public EntityCache(String name, int maxEntries, long ttlMillis) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > EntityCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get the cached value, loading it on a miss or once it has expired
+     * The loader runs outside the cache lock; concurrent misses for one key may each load it.
+     * @param loader Loads the value from the database; may return null
+     */
+    public V get(K key, Function<K, V> loader) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt > now) {
+                hits.incrementAndGet();
+                return entry.value;
+            }
+        }
+
+        misses.incrementAndGet();
+        long loadGeneration = generation.get();
+        V value = loader.apply(key);
+        synchronized (entries) {
+            if (generation.get() == loadGeneration) {
+                entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Replace a cached value after a write, if the key is cached
+     * @param change Produces the new value from the cached one
+     */
+    public void update(K key, UnaryOperator<V> change) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                entries.put(key, new Entry<>(change.apply(entry.value), entry.expiresAt));
+            }
+        }
+    }
+
+    public void invalidate(K key) {
+        generation.incrementAndGet();
+        invalidations.incrementAndGet();
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        invalidations.incrementAndGet();
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Fraction of lookups answered from the cache, 0-1
+     */
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total > 0 ? (double) hits.get() / total : 0;
+    }
+
+    /**
+     * Get a one-line summary of cache activity since startup
+     */
+    public String getStatusSummary() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return String.format("%s: hits=%d, misses=%d, hitRate=%.1f%%, evictions=%d, invalidations=%d, size=%d",
+                name, hits.get(), misses.get(), getHitRate() * 100, evictions.get(), invalidations.get(), size);
+    }
+
+    public void logStatus() {
+        logger.info("Entity cache {}", getStatusSummary());
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
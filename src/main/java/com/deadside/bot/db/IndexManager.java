@@ -0,0 +1,470 @@
+package com.deadside.bot.db;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Sorts;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Declares the indexes every repository query relies on and verifies them with explain()
+ *
+ * Indexes lead with guildId and serverId (the isolation boundary every query filters on),
+ * followed by the lookup key or the leaderboard sort field, so lookups and top-N queries stay
+ * index scans no matter how many players a collection holds. createIndex is idempotent, so this
+ * runs on every startup.
+ */
+public final class IndexManager {
+    private static final Logger logger = LoggerFactory.getLogger(IndexManager.class);
+
+    // Server error codes
+    private static final int INDEX_OPTIONS_CONFLICT = 85;
+    private static final int INDEX_KEY_SPECS_CONFLICT = 86;
+    private static final int DUPLICATE_KEY = 11000;
+
+    private static final String KILL_RECORD_TTL_INDEX = "createdAt_ttl";
+
+    // How often to retry the unique stat indexes while they are missing
+    private static final long STAT_INDEX_RETRY_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static volatile boolean statIndexesUnique;
+    private static long statIndexesCheckedAt;
+
+    private IndexManager() {
+    }
+
+    /**
+     * Create all indexes, logging failures instead of aborting startup
+     * @param database The bot database
+     * @param killRecordTtlDays Days to keep kill records, 0 to keep them forever
+     */
+    public static void ensureIndexes(MongoDatabase database, int killRecordTtlDays) {
+        long start = System.currentTimeMillis();
+
+        // Players, matchups and weapon statistics: the unique identities checkpointed ingestion relies on
+        ensureStatIndexes(database);
+
+        // Players: lookups by every id the bot knows a player by, and one index per leaderboard sort
+        create(database, "players", "guild_server_playerId", Indexes.ascending("guildId", "serverId", "playerId"));
+        create(database, "players", "guild_server_name", Indexes.ascending("guildId", "serverId", "name"));
+        create(database, "players", "guild_server_discordId", Indexes.ascending("guildId", "serverId", "discordId"));
+        create(database, "players", "guild_server_factionId", Indexes.ascending("guildId", "serverId", "factionId"));
+        create(database, "players", "guild_server_kills_deaths", Indexes.compoundIndex(
+                Indexes.ascending("guildId", "serverId"), Indexes.descending("kills"), Indexes.ascending("deaths")));
+        create(database, "players", "guild_server_deaths", Indexes.compoundIndex(
+                Indexes.ascending("guildId", "serverId"), Indexes.descending("deaths")));
+        create(database, "players", "guild_server_distanceTraveled", Indexes.compoundIndex(
+                Indexes.ascending("guildId", "serverId"), Indexes.descending("distanceTraveled")));
+        create(database, "players", "guild_server_longestKillStreak", Indexes.compoundIndex(
+                Indexes.ascending("guildId", "serverId"), Indexes.descending("longestKillStreak")));
+
+        // Kill records: recent kills per guild and per server
+        create(database, "kill_records", "guild_timestamp", Indexes.compoundIndex(
+                Indexes.ascending("guildId"), Indexes.descending("timestamp")));
+        create(database, "kill_records", "guild_server_timestamp", Indexes.compoundIndex(
+                Indexes.ascending("guildId", "serverId"), Indexes.descending("timestamp")));
+        ensureKillRecordTtl(database, killRecordTtlDays);
+
+        // Head-to-head counts: top victims and top nemeses per player
+        create(database, "matchups", "guild_server_victim_kills", Indexes.compoundIndex(
+                Indexes.ascending("guildId", "serverId", "victimId"), Indexes.descending("kills")));
+        create(database, "matchups", "guild_server_killer_kills", Indexes.compoundIndex(
+                Indexes.ascending("guildId", "serverId", "killerId"), Indexes.descending("kills")));
+
+        // Economy
+        create(database, "currencies", "guild_server_userId", Indexes.ascending("guildId", "serverId", "userId"));
+        create(database, "currencies", "guild_server_coins", Indexes.compoundIndex(
+                Indexes.ascending("guildId", "serverId"), Indexes.descending("coins")));
+        create(database, "economy_ledger", "guild_server_playerId_timestamp", Indexes.compoundIndex(
+                Indexes.ascending("guildId", "serverId", "playerId"), Indexes.descending("timestamp")));
+
+        // Bounties
+        create(database, "bounties", "guild_server_active_amount", Indexes.compoundIndex(
+                Indexes.ascending("guildId", "serverId", "active"), Indexes.descending("amount")));
+        create(database, "bounties", "guild_server_targetId_active",
+                Indexes.ascending("guildId", "serverId", "targetId", "active"));
+        create(database, "bounties", "guild_server_placerId_active",
+                Indexes.ascending("guildId", "serverId", "placerId", "active"));
+
+        // Factions
+        create(database, "factions", "guild_server_level", Indexes.compoundIndex(
+                Indexes.ascending("guildId", "serverId"), Indexes.descending("level")));
+        create(database, "factions", "guild_server_name", Indexes.ascending("guildId", "serverId", "name"));
+        create(database, "factions", "guild_server_tag", Indexes.ascending("guildId", "serverId", "tag"));
+        create(database, "factions", "guild_server_ownerId", Indexes.ascending("guildId", "serverId", "ownerId"));
+
+        // Linked players
+        create(database, "linked_players", "guild_server_discordId", Indexes.ascending("guildId", "serverId", "discordId"));
+        create(database, "linked_players", "guild_server_mainPlayerId", Indexes.ascending("guildId", "serverId", "mainPlayerId"));
+        create(database, "linked_players", "guild_server_altPlayerIds", Indexes.ascending("guildId", "serverId", "altPlayerIds"));
+
+        // Per-guild configuration
+        create(database, "game_servers", "guild_serverId", Indexes.ascending("guildId", "serverId"));
+        create(database, "game_servers", "guild_name", Indexes.ascending("guildId", "name"));
+        createUnique(database, "guild_configs", "guildId", Indexes.ascending("guildId"), null);
+        // Premium: loading the entitlement cache and the expiry sweep
+        create(database, "guild_configs", "premium_premiumUntil", Indexes.ascending("premium", "premiumUntil"));
+        create(database, "game_servers", "premium_premiumUntil", Indexes.ascending("premium", "premiumUntil"));
+        create(database, "leaderboard_channels", "guild_serverId", Indexes.ascending("guildId", "serverId"));
+        create(database, "alerts", "guild_server_userId", Indexes.ascending("guildId", "serverId", "userId"));
+
+        // Ingestion: one checkpoint per pipeline, and the replay probes on the last applied batches
+        createUnique(database, "ingestion_checkpoints", "guild_server_pipeline",
+                Indexes.ascending("guildId", "serverId", "pipeline"), null);
+        create(database, "players", "guild_server_ingestSequence",
+                Indexes.ascending("guildId", "serverId", "ingestSequence"));
+        create(database, "players", "guild_server_backfillSequence",
+                Indexes.ascending("guildId", "serverId", "backfillSequence"));
+        create(database, "matchups", "guild_server_ingestSequence",
+                Indexes.ascending("guildId", "serverId", "ingestSequence"));
+        create(database, "matchups", "guild_server_backfillSequence",
+                Indexes.ascending("guildId", "serverId", "backfillSequence"));
+        create(database, "weapon_stats", "guild_server_ingestSequence",
+                Indexes.ascending("guildId", "serverId", "ingestSequence"));
+        create(database, "weapon_stats", "guild_server_backfillSequence",
+                Indexes.ascending("guildId", "serverId", "backfillSequence"));
+
+        logger.info("MongoDB indexes verified in {} ms", System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Whether the unique indexes behind exactly-once stat application are in place
+     * A sequence-guarded upsert that does not match only fails with a duplicate key, and so counts as
+     * an already applied batch, when player, matchup and weapon documents have unique identities.
+     * Without them a replayed batch would insert second documents, so checkpointed ingestion is
+     * refused until this returns true. Creating the indexes is retried every few minutes, so
+     * ingestion resumes once the duplicates have been removed.
+     */
+    public static boolean statIndexesReady() {
+        if (statIndexesUnique) {
+            return true;
+        }
+
+        synchronized (IndexManager.class) {
+            if (!statIndexesUnique && System.currentTimeMillis() - statIndexesCheckedAt >= STAT_INDEX_RETRY_MILLIS) {
+                try {
+                    ensureStatIndexes(MongoDBConnection.getInstance().getDatabase());
+                } catch (Exception e) {
+                    logger.error("Failed to check the unique stat indexes", e);
+                }
+            }
+        }
+        return statIndexesUnique;
+    }
+
+    /**
+     * Create the unique player, matchup and weapon identity indexes and record whether all of them exist
+     */
+    private static synchronized void ensureStatIndexes(MongoDatabase database) {
+        statIndexesCheckedAt = System.currentTimeMillis();
+
+        boolean players = createUnique(database, "players", "guild_server_deadsideId",
+                Indexes.ascending("guildId", "serverId", "deadsideId"),
+                Filters.type("deadsideId", "string"));
+        boolean matchups = createUnique(database, "matchups", "guild_server_killer_victim",
+                Indexes.ascending("guildId", "serverId", "killerId", "victimId"), null);
+        boolean weapons = createUnique(database, "weapon_stats", "guild_server_weapon",
+                Indexes.ascending("guildId", "serverId", "weapon"), null);
+
+        statIndexesUnique = players && matchups && weapons;
+        if (!statIndexesUnique) {
+            logger.error("Death log ingestion is paused until the unique player, matchup and weapon stat indexes exist; " +
+                    "merge the duplicate documents reported above and the indexes are created on the next retry");
+        }
+    }
+
+    /**
+     * Explain every repository query shape and report the ones that still scan the collection
+     * or sort in memory
+     * @return Descriptions of the queries that are not served by an index
+     */
+    public static List<String> explainQueries(MongoDatabase database) {
+        List<String> problems = new ArrayList<>();
+
+        for (QueryShape shape : queryShapes()) {
+            try {
+                MongoCollection<Document> collection = database.getCollection(shape.collection);
+                Document plan = collection.find(shape.filter).sort(shape.sort).limit(10).explain();
+                Object winningPlan = ((Document) plan.getOrDefault("queryPlanner", new Document())).get("winningPlan");
+
+                if (hasStage(winningPlan, "COLLSCAN")) {
+                    problems.add(shape.name + " on " + shape.collection + ": collection scan");
+                } else if (shape.sort != null && hasStage(winningPlan, "SORT")) {
+                    problems.add(shape.name + " on " + shape.collection + ": in-memory sort");
+                }
+            } catch (Exception e) {
+                logger.warn("Could not explain query {} on {}: {}", shape.name, shape.collection, e.getMessage());
+            }
+        }
+
+        if (problems.isEmpty()) {
+            logger.info("Query plan check: all {} repository queries use an index", queryShapes().size());
+        } else {
+            for (String problem : problems) {
+                logger.warn("Query plan check: {}", problem);
+            }
+        }
+        return problems;
+    }
+
+    /**
+     * Create an index, leaving an existing index of the same name alone
+     */
+    private static void create(MongoDatabase database, String collection, String name, Bson keys) {
+        try {
+            database.getCollection(collection).createIndex(keys, new IndexOptions().name(name).background(true));
+        } catch (MongoCommandException e) {
+            if (e.getErrorCode() == INDEX_OPTIONS_CONFLICT || e.getErrorCode() == INDEX_KEY_SPECS_CONFLICT) {
+                logger.warn("Index {} on {} exists with a different definition; drop it to recreate: {}",
+                        name, collection, e.getErrorMessage());
+            } else {
+                logger.error("Failed to create index {} on {}", name, collection, e);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to create index {} on {}", name, collection, e);
+        }
+    }
+
+    /**
+     * Create a unique index
+     * An index of the same name left non-unique by an older version is dropped and rebuilt as unique.
+     * Duplicate documents are reported rather than indexed non-uniquely, since callers rely on the
+     * uniqueness and not just on the lookup speed.
+     * @param partialFilter Only documents matching this are indexed, or null for all
+     * @return Whether the unique index exists
+     */
+    private static boolean createUnique(MongoDatabase database, String collection, String name, Bson keys, Bson partialFilter) {
+        IndexOptions options = new IndexOptions().name(name).unique(true).background(true);
+        if (partialFilter != null) {
+            options.partialFilterExpression(partialFilter);
+        }
+
+        MongoCollection<Document> indexed = database.getCollection(collection);
+        try {
+            indexed.createIndex(keys, options);
+            return true;
+        } catch (MongoCommandException e) {
+            if (e.getErrorCode() == DUPLICATE_KEY) {
+                logger.error("Duplicate documents in {} prevent unique index {}: {}", collection, name, e.getErrorMessage());
+                return false;
+            }
+            if (e.getErrorCode() != INDEX_OPTIONS_CONFLICT && e.getErrorCode() != INDEX_KEY_SPECS_CONFLICT) {
+                logger.error("Failed to create index {} on {}", name, collection, e);
+                return false;
+            }
+        } catch (Exception e) {
+            logger.error("Failed to create index {} on {}", name, collection, e);
+            return false;
+        }
+
+        // An index of this name already exists with other options
+        Document existing = findIndex(indexed, name);
+        if (existing != null && existing.getBoolean("unique", false)
+                && keys.toBsonDocument().equals(existing.get("key", Document.class).toBsonDocument())) {
+            return true;
+        }
+
+        try {
+            logger.warn("Index {} on {} is not unique, rebuilding it", name, collection);
+            indexed.dropIndex(name);
+            indexed.createIndex(keys, options);
+            return true;
+        } catch (MongoCommandException e) {
+            if (e.getErrorCode() == DUPLICATE_KEY) {
+                logger.error("Duplicate documents in {} prevent unique index {}: {}", collection, name, e.getErrorMessage());
+            } else {
+                logger.error("Failed to rebuild index {} on {}", name, collection, e);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to rebuild index {} on {}", name, collection, e);
+        }
+        return false;
+    }
+
+    /**
+     * Find an index of a collection by name
+     */
+    private static Document findIndex(MongoCollection<Document> collection, String name) {
+        for (Document index : collection.listIndexes()) {
+            if (name.equals(index.getString("name"))) {
+                return index;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Expire kill records on their createdAt date, updating the expiry in place when it changed
+     * Records written before createdAt existed have no date and are never expired.
+     */
+    private static void ensureKillRecordTtl(MongoDatabase database, int ttlDays) {
+        if (ttlDays <= 0) {
+            return;
+        }
+
+        long expireAfterSeconds = TimeUnit.DAYS.toSeconds(ttlDays);
+        try {
+            database.getCollection("kill_records").createIndex(Indexes.ascending("createdAt"),
+                    new IndexOptions().name(KILL_RECORD_TTL_INDEX).background(true)
+                            .expireAfter(expireAfterSeconds, TimeUnit.SECONDS));
+        } catch (MongoCommandException e) {
+            if (e.getErrorCode() != INDEX_OPTIONS_CONFLICT) {
+                logger.error("Failed to create kill record TTL index", e);
+                return;
+            }
+
+            try {
+                database.runCommand(new Document("collMod", "kill_records")
+                        .append("index", new Document("name", KILL_RECORD_TTL_INDEX)
+                                .append("expireAfterSeconds", expireAfterSeconds)));
+                logger.info("Updated kill record retention to {} days", ttlDays);
+            } catch (Exception ex) {
+                logger.error("Failed to update kill record TTL index", ex);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to create kill record TTL index", e);
+        }
+    }
+
+    /**
+     * Whether a plan tree contains a stage
+     */
+    private static boolean hasStage(Object node, String stage) {
+        if (node instanceof Document) {
+            Document document = (Document) node;
+            if (stage.equals(document.get("stage"))) {
+                return true;
+            }
+            for (Object child : document.values()) {
+                if (hasStage(child, stage)) {
+                    return true;
+                }
+            }
+        } else if (node instanceof List) {
+            for (Object child : (List<?>) node) {
+                if (hasStage(child, stage)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The filter and sort shapes the repositories run; values are placeholders since only the plan matters
+     */
+    private static List<QueryShape> queryShapes() {
+        long guildId = 0L;
+        String serverId = "";
+        Bson isolation = Filters.and(Filters.eq("guildId", guildId), Filters.eq("serverId", serverId));
+        Bson namedPlayers = Filters.and(Filters.exists("name"), Filters.ne("name", ""), Filters.ne("name", "**"),
+                Filters.eq("guildId", guildId), Filters.eq("serverId", serverId));
+
+        return Arrays.asList(
+                new QueryShape("player by deadsideId", "players",
+                        Filters.and(Filters.eq("deadsideId", ""), isolation), null),
+                new QueryShape("player by playerId", "players",
+                        Filters.and(Filters.eq("playerId", ""), isolation), null),
+                new QueryShape("player by name", "players",
+                        Filters.and(Filters.eq("name", ""), isolation), null),
+                new QueryShape("player name search", "players",
+                        Filters.and(Filters.regex("name", Pattern.compile("^x", Pattern.CASE_INSENSITIVE)), isolation), null),
+                new QueryShape("player by discordId", "players",
+                        Filters.and(Filters.eq("discordId", ""), isolation), null),
+                new QueryShape("players by faction", "players",
+                        Filters.and(Filters.eq("factionId", ""), isolation), null),
+                new QueryShape("top players by kills", "players",
+                        Filters.and(namedPlayers, Filters.gte("kills", 1)), Sorts.descending("kills")),
+                new QueryShape("top players by K/D", "players",
+                        Filters.and(namedPlayers, Filters.gte("kills", 10)),
+                        Sorts.orderBy(Sorts.descending("kills"), Sorts.ascending("deaths"))),
+                new QueryShape("top players by deaths", "players",
+                        Filters.and(namedPlayers, Filters.gte("deaths", 1)), Sorts.descending("deaths")),
+                new QueryShape("top players by distance", "players",
+                        Filters.and(namedPlayers, Filters.gt("distanceTraveled", 0)), Sorts.descending("distanceTraveled")),
+                new QueryShape("top players by kill streak", "players",
+                        Filters.and(namedPlayers, Filters.gt("longestKillStreak", 0)), Sorts.descending("longestKillStreak")),
+                new QueryShape("recent kills by guild", "kill_records",
+                        Filters.eq("guildId", guildId), Sorts.descending("timestamp")),
+                new QueryShape("recent kills by server", "kill_records",
+                        isolation, Sorts.descending("timestamp")),
+                new QueryShape("matchup pair", "matchups",
+                        Filters.and(isolation, Filters.eq("killerId", ""), Filters.eq("victimId", "")), null),
+                new QueryShape("top nemeses", "matchups",
+                        Filters.and(isolation, Filters.eq("victimId", "")), Sorts.descending("kills")),
+                new QueryShape("currency by user", "currencies",
+                        Filters.and(Filters.eq("userId", 0L), isolation), null),
+                new QueryShape("richest users", "currencies",
+                        isolation, Sorts.descending("coins")),
+                new QueryShape("ledger of player", "economy_ledger",
+                        Filters.and(isolation, Filters.eq("playerId", "")), Sorts.descending("timestamp")),
+                new QueryShape("active bounties", "bounties",
+                        Filters.and(isolation, Filters.eq("active", true)), Sorts.descending("amount")),
+                new QueryShape("bounties on target", "bounties",
+                        Filters.and(Filters.eq("targetId", ""), isolation, Filters.eq("active", true)), null),
+                new QueryShape("bounties by placer", "bounties",
+                        Filters.and(Filters.eq("placerId", 0L), isolation, Filters.eq("active", true)), null),
+                new QueryShape("faction leaderboard", "factions",
+                        isolation, Sorts.descending("level")),
+                new QueryShape("faction by name", "factions",
+                        Filters.and(Filters.regex("name", Pattern.compile("^x$", Pattern.CASE_INSENSITIVE)), isolation), null),
+                new QueryShape("faction by tag", "factions",
+                        Filters.and(Filters.regex("tag", Pattern.compile("^x$", Pattern.CASE_INSENSITIVE)), isolation), null),
+                new QueryShape("faction by owner", "factions",
+                        Filters.and(Filters.eq("ownerId", 0L), isolation), null),
+                new QueryShape("link by discordId", "linked_players",
+                        Filters.and(Filters.eq("discordId", 0L), isolation), null),
+                new QueryShape("link by main player", "linked_players",
+                        Filters.and(Filters.eq("mainPlayerId", ""), isolation), null),
+                new QueryShape("link by alt player", "linked_players",
+                        Filters.and(Filters.in("altPlayerIds", ""), isolation), null),
+                new QueryShape("servers of guild", "game_servers",
+                        Filters.eq("guildId", guildId), null),
+                new QueryShape("server by id", "game_servers",
+                        Filters.and(Filters.eq("serverId", serverId), Filters.eq("guildId", guildId)), null),
+                new QueryShape("server by name", "game_servers",
+                        Filters.and(Filters.eq("name", ""), Filters.eq("guildId", guildId)), null),
+                new QueryShape("guild config", "guild_configs",
+                        Filters.eq("guildId", guildId), null),
+                new QueryShape("premium guilds", "guild_configs",
+                        Filters.eq("premium", true), null),
+                new QueryShape("expired guild premium", "guild_configs",
+                        Filters.and(Filters.eq("premium", true), Filters.lt("premiumUntil", 0L)), null),
+                new QueryShape("premium servers", "game_servers",
+                        Filters.eq("premium", true), null),
+                new QueryShape("expired server premium", "game_servers",
+                        Filters.and(Filters.eq("premium", true), Filters.gt("premiumUntil", 0L),
+                                Filters.lt("premiumUntil", 0L)), null),
+                new QueryShape("leaderboard channels", "leaderboard_channels",
+                        isolation, null),
+                new QueryShape("alerts of user", "alerts",
+                        Filters.and(Filters.eq("userId", 0L), isolation), null)
+        );
+    }
+
+    private static final class QueryShape {
+        private final String name;
+        private final String collection;
+        private final Bson filter;
+        private final Bson sort;
+
+        private QueryShape(String name, String collection, Bson filter, Bson sort) {
+            this.name = name;
+            this.collection = collection;
+            this.filter = filter;
+            this.sort = sort;
+        }
+    }
+}
@@ -69,6 +69,12 @@ public class MongoDBConnection {
             database = mongoClient.getDatabase(databaseName);
             
             logger.info("Connected to MongoDB database: {}", databaseName);
+            
+            Config config = Config.getInstance();
+            IndexManager.ensureIndexes(database, config.getKillRecordTtlDays());
+            if (config.isExplainOnStartup()) {
+                IndexManager.explainQueries(database);
+            }
         } catch (Exception e) {
             logger.error("Failed to initialize MongoDB connection", e);
             throw new RuntimeException("Failed to initialize MongoDB connection", e);
@@ -19,6 +19,7 @@ public class Bounty {
     private String claimerId;        // Game ID of the player who claimed the bounty (if claimed)
     private String claimerName;      // Name of the player who claimed the bounty (if claimed)
     private long claimedAt;          // Timestamp when the bounty was claimed (if claimed)
+    private boolean paid;            // Whether the claimer has been paid the bounty (if claimed)
     
     public Bounty() {
         // Required for MongoDB POJO codec
@@ -131,4 +132,12 @@ public class Bounty {
     public void setClaimedAt(long claimedAt) {
         this.claimedAt = claimedAt;
     }
+    
+    public boolean isPaid() {
+        return paid;
+    }
+    
+    public void setPaid(boolean paid) {
+        this.paid = paid;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.deadside.bot.db.models;
+
+/**
+ * Heartbeat record of one bot process in a multi-process deployment
+ */
+public class ClusterNode {
+    private String id;               // Node ID, also the document ID
+    private long startedAt;          // When the process first reported in
+    private long lastHeartbeat;      // When the process last reported in
+    private int shardCount;          // Number of shard leases the process held at its last heartbeat
+
+    public ClusterNode() {
+        // Required for MongoDB POJO codec
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(long startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public long getLastHeartbeat() {
+        return lastHeartbeat;
+    }
+
+    public void setLastHeartbeat(long lastHeartbeat) {
+        this.lastHeartbeat = lastHeartbeat;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public void setShardCount(int shardCount) {
+        this.shardCount = shardCount;
+    }
+}
@@ -2,6 +2,9 @@ package com.deadside.bot.db.models;
 
 import org.bson.types.ObjectId;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Represents a player's currency balance with proper isolation between guilds and servers
  */
@@ -19,6 +22,7 @@ public class Currency {
     private long totalEarned;        // Total amount of coins earned (lifetime)
     private long totalSpent;         // Total amount of coins spent (lifetime)
     private long lastUpdated;        // Timestamp of last update
+    private List<String> settlementKeys; // Most recent ledger settlements applied to this balance
     
     public Currency() {
         // Required for MongoDB POJO codec
@@ -31,6 +35,7 @@ public class Currency {
         this.totalEarned = 0;
         this.totalSpent = 0;
         this.lastUpdated = System.currentTimeMillis();
+        this.settlementKeys = new ArrayList<>();
     }
     
     // Getters and Setters
@@ -146,6 +151,14 @@ public class Currency {
         this.totalSpent = totalSpent;
     }
     
+    public List<String> getSettlementKeys() {
+        return settlementKeys;
+    }
+    
+    public void setSettlementKeys(List<String> settlementKeys) {
+        this.settlementKeys = settlementKeys;
+    }
+    
     // Helper methods
     
     /**
@@ -0,0 +1,105 @@
+package com.deadside.bot.db.models;
+
+/**
+ * Byte position and identity of a remote file that is being tailed
+ * This is embedded in the GameServer document so incremental reads survive restarts
+ */
+public class FileCursor {
+    private String filePath;     // Remote path of the file being tailed
+    private long offset;         // Byte offset just past the last complete line consumed
+    private long fileSize;       // File size observed at the last read
+    private long lastModified;   // File modification time (ms) observed at the last read
+    private long headerHash;     // CRC32 of the first headerLength bytes, identifies the file
+    private int headerLength;    // Number of leading bytes covered by headerHash
+    private long updatedAt;      // When this cursor last advanced
+
+    public FileCursor() {
+        // Required for MongoDB POJO codec
+    }
+
+    public FileCursor(String filePath) {
+        this.filePath = filePath;
+        this.offset = 0;
+        this.fileSize = 0;
+        this.lastModified = 0;
+        this.headerHash = 0;
+        this.headerLength = 0;
+        this.updatedAt = System.currentTimeMillis();
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public void setFilePath(String filePath) {
+        this.filePath = filePath;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public void setOffset(long offset) {
+        this.offset = offset;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(long lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public long getHeaderHash() {
+        return headerHash;
+    }
+
+    public void setHeaderHash(long headerHash) {
+        this.headerHash = headerHash;
+    }
+
+    public int getHeaderLength() {
+        return headerLength;
+    }
+
+    public void setHeaderLength(int headerLength) {
+        this.headerLength = headerLength;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * Check whether this cursor tracks the given remote path
+     */
+    public boolean tracks(String path) {
+        return filePath != null && filePath.equals(path);
+    }
+
+    /**
+     * Rewind to the start of the file and forget its identity
+     * Used when the file was truncated or replaced by a rotated file
+     */
+    public void reset() {
+        this.offset = 0;
+        this.fileSize = 0;
+        this.lastModified = 0;
+        this.headerHash = 0;
+        this.headerLength = 0;
+        this.updatedAt = System.currentTimeMillis();
+    }
+}
@@ -49,6 +49,8 @@ public class GameServer {
     private String lastProcessedKillfeedFile; // Last killfeed file that was processed
     private int lastProcessedKillfeedLine;    // Last line number processed in killfeed
     private long lastProcessedTimestamp;      // Timestamp of last processed log
+    private FileCursor killfeedCursor;        // Byte position in the current killfeed CSV
+    private FileCursor logCursor;             // Byte position in Deadside.log
     
     // Authentication fields
     private String username;       // Username for authentication
@@ -544,6 +546,34 @@ public class GameServer {
         this.lastProcessedTimestamp = lastProcessedTimestamp;
     }
     
+    /**
+     * Get the byte cursor for the current killfeed CSV file
+     */
+    public FileCursor getKillfeedCursor() {
+        return killfeedCursor;
+    }
+    
+    /**
+     * Set the byte cursor for the current killfeed CSV file
+     */
+    public void setKillfeedCursor(FileCursor killfeedCursor) {
+        this.killfeedCursor = killfeedCursor;
+    }
+    
+    /**
+     * Get the byte cursor for Deadside.log
+     */
+    public FileCursor getLogCursor() {
+        return logCursor;
+    }
+    
+    /**
+     * Set the byte cursor for Deadside.log
+     */
+    public void setLogCursor(FileCursor logCursor) {
+        this.logCursor = logCursor;
+    }
+    
     /**
      * Get username for authentication
      */
@@ -0,0 +1,105 @@
+package com.deadside.bot.db.models;
+
+import org.bson.types.ObjectId;
+
+/**
+ * Durable read position of one ingestion pipeline on one game server
+ * The checkpoint only advances after the batch it covers has been applied, so a restart
+ * resumes from the cursor without rescanning files, and a batch read again after a crash
+ * gets the same sequence and is recognised as already applied.
+ */
+public class IngestionCheckpoint {
+    private ObjectId id;             // MongoDB document ID
+    private long guildId;            // Discord guild (server) ID for isolation
+    private String serverId;         // Game server ID for isolation
+    private String pipeline;         // Ingestion pipeline, e.g. "deathlog" or "log"
+    private FileCursor cursor;       // Byte position just past the last applied batch
+    private long sequence;           // Number of batches applied, stamped on the data each batch wrote
+    private long batchOffset;        // Byte offset where the last applied batch started
+    private long batchHash;          // CRC32 of the bytes of the last applied batch
+    private long updatedAt;          // When the checkpoint last advanced
+
+    public IngestionCheckpoint() {
+        // Required for MongoDB POJO codec
+    }
+
+    public IngestionCheckpoint(long guildId, String serverId, String pipeline) {
+        this.guildId = guildId;
+        this.serverId = serverId;
+        this.pipeline = pipeline;
+        this.sequence = 0;
+        this.updatedAt = System.currentTimeMillis();
+    }
+
+    public ObjectId getId() {
+        return id;
+    }
+
+    public void setId(ObjectId id) {
+        this.id = id;
+    }
+
+    public long getGuildId() {
+        return guildId;
+    }
+
+    public void setGuildId(long guildId) {
+        this.guildId = guildId;
+    }
+
+    public String getServerId() {
+        return serverId;
+    }
+
+    public void setServerId(String serverId) {
+        this.serverId = serverId;
+    }
+
+    public String getPipeline() {
+        return pipeline;
+    }
+
+    public void setPipeline(String pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    public FileCursor getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(FileCursor cursor) {
+        this.cursor = cursor;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public long getBatchOffset() {
+        return batchOffset;
+    }
+
+    public void setBatchOffset(long batchOffset) {
+        this.batchOffset = batchOffset;
+    }
+
+    public long getBatchHash() {
+        return batchHash;
+    }
+
+    public void setBatchHash(long batchHash) {
+        this.batchHash = batchHash;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -3,6 +3,8 @@ package com.deadside.bot.db.models;
 import org.bson.codecs.pojo.annotations.BsonId;
 import org.bson.types.ObjectId;
 
+import java.util.Date;
+
 /**
  * Database model for a kill record from the killfeed
  * Enhanced to distinguish between regular kills, suicides, and falling deaths
@@ -18,6 +20,8 @@ public class KillRecord {
     private long distance;
     private long timestamp;
     private String originalLine;
+    // When the record was stored; the kill record TTL index expires records on this date
+    private Date createdAt;
     
     // Death type flags
     private boolean suicide;
@@ -38,6 +42,7 @@ public class KillRecord {
         this.distance = distance;
         this.timestamp = timestamp;
         this.originalLine = originalLine;
+        this.createdAt = new Date();
         
         // Default values for death type flags
         this.suicide = false;
@@ -101,6 +106,14 @@ public class KillRecord {
         this.distance = distance;
     }
     
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+    
     public long getTimestamp() {
         return timestamp;
     }
@@ -0,0 +1,107 @@
+package com.deadside.bot.db.models;
+
+import org.bson.types.ObjectId;
+
+/**
+ * One change to a player's coin balance, appended to the economy ledger and never updated
+ */
+public class LedgerEntry {
+    private ObjectId id;             // MongoDB document ID
+    private long guildId;            // Discord guild (server) ID for isolation
+    private String serverId;         // Game server ID for isolation
+    private String playerId;         // Deadside ID of the player whose balance changed
+    private long amount;             // Coins added, negative for coins taken
+    private long balance;            // Wallet balance right after the change
+    private String reason;           // What the change was for, e.g. "blackjack:bet"
+    private String settlementKey;    // Idempotency key of a settlement, null for plain debits and credits
+    private long timestamp;          // When the change was applied
+
+    public LedgerEntry() {
+        // Required for MongoDB POJO codec
+    }
+
+    public LedgerEntry(long guildId, String serverId, String playerId, long amount, long balance,
+                       String reason, String settlementKey) {
+        this.id = new ObjectId();
+        this.guildId = guildId;
+        this.serverId = serverId;
+        this.playerId = playerId;
+        this.amount = amount;
+        this.balance = balance;
+        this.reason = reason;
+        this.settlementKey = settlementKey;
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    public ObjectId getId() {
+        return id;
+    }
+
+    public void setId(ObjectId id) {
+        this.id = id;
+    }
+
+    public long getGuildId() {
+        return guildId;
+    }
+
+    public void setGuildId(long guildId) {
+        this.guildId = guildId;
+    }
+
+    public String getServerId() {
+        return serverId;
+    }
+
+    public void setServerId(String serverId) {
+        this.serverId = serverId;
+    }
+
+    public String getPlayerId() {
+        return playerId;
+    }
+
+    public void setPlayerId(String playerId) {
+        this.playerId = playerId;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+
+    public void setAmount(long amount) {
+        this.amount = amount;
+    }
+
+    public long getBalance() {
+        return balance;
+    }
+
+    public void setBalance(long balance) {
+        this.balance = balance;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public String getSettlementKey() {
+        return settlementKey;
+    }
+
+    public void setSettlementKey(String settlementKey) {
+        this.settlementKey = settlementKey;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+}
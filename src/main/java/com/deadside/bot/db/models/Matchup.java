@@ -0,0 +1,95 @@
+package com.deadside.bot.db.models;
+
+import org.bson.types.ObjectId;
+
+/**
+ * Number of times one player killed another on a game server
+ * One document per (guildId, serverId, killerId, victimId) pair
+ */
+public class Matchup {
+    private ObjectId id;             // MongoDB document ID
+    private long guildId;            // Discord guild (server) ID for isolation
+    private String serverId;         // Game server ID for isolation
+    private String killerId;         // Deadside ID of the killer
+    private String victimId;         // Deadside ID of the victim
+    private String killerName;       // Last known name of the killer
+    private String victimName;       // Last known name of the victim
+    private int kills;               // Times the killer killed the victim
+    private long lastKill;           // Timestamp of the most recent kill
+
+    public Matchup() {
+        // Required for MongoDB POJO codec
+    }
+
+    public ObjectId getId() {
+        return id;
+    }
+
+    public void setId(ObjectId id) {
+        this.id = id;
+    }
+
+    public long getGuildId() {
+        return guildId;
+    }
+
+    public void setGuildId(long guildId) {
+        this.guildId = guildId;
+    }
+
+    public String getServerId() {
+        return serverId;
+    }
+
+    public void setServerId(String serverId) {
+        this.serverId = serverId;
+    }
+
+    public String getKillerId() {
+        return killerId;
+    }
+
+    public void setKillerId(String killerId) {
+        this.killerId = killerId;
+    }
+
+    public String getVictimId() {
+        return victimId;
+    }
+
+    public void setVictimId(String victimId) {
+        this.victimId = victimId;
+    }
+
+    public String getKillerName() {
+        return killerName;
+    }
+
+    public void setKillerName(String killerName) {
+        this.killerName = killerName;
+    }
+
+    public String getVictimName() {
+        return victimName;
+    }
+
+    public void setVictimName(String victimName) {
+        this.victimName = victimName;
+    }
+
+    public int getKills() {
+        return kills;
+    }
+
+    public void setKills(int kills) {
+        this.kills = kills;
+    }
+
+    public long getLastKill() {
+        return lastKill;
+    }
+
+    public void setLastKill(long lastKill) {
+        this.lastKill = lastKill;
+    }
+}
@@ -24,6 +24,8 @@ public class Player {
     private String killedByMost; // Player that has killed this player the most
     private int killedByMostCount; // Number of times killed by the player that killed the most
     private long lastUpdated;    // Timestamp of last update
+    private long ingestSequence; // Last deathlog ingestion batch applied to these stats
+    private long backfillSequence; // Last historical backfill batch applied to these stats
     private Currency currency;   // Player's currency and economy data
     private FactionMember factionMember;  // Player's faction membership
     private ObjectId factionId;  // ID of the faction the player belongs to
@@ -228,6 +230,22 @@ public class Player {
         this.lastUpdated = lastUpdated;
     }
     
+    public long getIngestSequence() {
+        return ingestSequence;
+    }
+    
+    public void setIngestSequence(long ingestSequence) {
+        this.ingestSequence = ingestSequence;
+    }
+    
+    public long getBackfillSequence() {
+        return backfillSequence;
+    }
+    
+    public void setBackfillSequence(long backfillSequence) {
+        this.backfillSequence = backfillSequence;
+    }
+    
     /**
      * Calculate K/D ratio excluding suicides from death count
      * @return K/D ratio as a double
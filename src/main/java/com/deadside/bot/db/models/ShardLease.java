@@ -0,0 +1,48 @@
+package com.deadside.bot.db.models;
+
+/**
+ * Ownership lease of one Discord shard in a multi-process deployment
+ * The owning process connects the shard and ingests the game servers of the guilds on it.
+ */
+public class ShardLease {
+    private int id;                  // Shard ID, also the document ID
+    private String owner;            // Node ID of the process holding the lease, null when released
+    private long acquiredAt;         // When the current owner acquired the lease
+    private long expiresAt;          // When the lease lapses unless the owner renews it
+
+    public ShardLease() {
+        // Required for MongoDB POJO codec
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public long getAcquiredAt() {
+        return acquiredAt;
+    }
+
+    public void setAcquiredAt(long acquiredAt) {
+        this.acquiredAt = acquiredAt;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
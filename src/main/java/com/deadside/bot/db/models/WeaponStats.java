@@ -0,0 +1,150 @@
+package com.deadside.bot.db.models;
+
+import org.bson.types.ObjectId;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pre-aggregated kill statistics of one weapon on a game server
+ * One document per (guildId, serverId, weapon), maintained incrementally from the kill stream
+ */
+public class WeaponStats {
+    private ObjectId id;                            // MongoDB document ID
+    private long guildId;                           // Discord guild (server) ID for isolation
+    private String serverId;                        // Game server ID for isolation
+    private String weapon;                          // Weapon name as reported by the server
+    private int kills;                              // Total kills with the weapon
+    private long distanceSum;                       // Sum of kill distances, for the average
+    private int longestKill;                        // Longest kill distance in metres
+    private String longestKillPlayerId;             // Player who made the longest kill
+    private Map<String, Integer> distanceBuckets;   // Kills per distance bucket index
+    private Map<String, Integer> userKills;         // Kills per player ID
+    private Map<String, String> userNames;          // Last known name per player ID
+    private Map<String, Integer> dailyKills;        // Kills per UTC day (yyyyMMdd), recent days only
+    private long lastUpdated;                       // Timestamp of the last update
+
+    public WeaponStats() {
+        // Required for MongoDB POJO codec
+        this.distanceBuckets = new HashMap<>();
+        this.userKills = new HashMap<>();
+        this.userNames = new HashMap<>();
+        this.dailyKills = new HashMap<>();
+    }
+
+    public ObjectId getId() {
+        return id;
+    }
+
+    public void setId(ObjectId id) {
+        this.id = id;
+    }
+
+    public long getGuildId() {
+        return guildId;
+    }
+
+    public void setGuildId(long guildId) {
+        this.guildId = guildId;
+    }
+
+    public String getServerId() {
+        return serverId;
+    }
+
+    public void setServerId(String serverId) {
+        this.serverId = serverId;
+    }
+
+    public String getWeapon() {
+        return weapon;
+    }
+
+    public void setWeapon(String weapon) {
+        this.weapon = weapon;
+    }
+
+    public int getKills() {
+        return kills;
+    }
+
+    public void setKills(int kills) {
+        this.kills = kills;
+    }
+
+    public long getDistanceSum() {
+        return distanceSum;
+    }
+
+    public void setDistanceSum(long distanceSum) {
+        this.distanceSum = distanceSum;
+    }
+
+    public int getLongestKill() {
+        return longestKill;
+    }
+
+    public void setLongestKill(int longestKill) {
+        this.longestKill = longestKill;
+    }
+
+    public String getLongestKillPlayerId() {
+        return longestKillPlayerId;
+    }
+
+    public void setLongestKillPlayerId(String longestKillPlayerId) {
+        this.longestKillPlayerId = longestKillPlayerId;
+    }
+
+    public Map<String, Integer> getDistanceBuckets() {
+        if (distanceBuckets == null) {
+            distanceBuckets = new HashMap<>();
+        }
+        return distanceBuckets;
+    }
+
+    public void setDistanceBuckets(Map<String, Integer> distanceBuckets) {
+        this.distanceBuckets = distanceBuckets;
+    }
+
+    public Map<String, Integer> getUserKills() {
+        if (userKills == null) {
+            userKills = new HashMap<>();
+        }
+        return userKills;
+    }
+
+    public void setUserKills(Map<String, Integer> userKills) {
+        this.userKills = userKills;
+    }
+
+    public Map<String, String> getUserNames() {
+        if (userNames == null) {
+            userNames = new HashMap<>();
+        }
+        return userNames;
+    }
+
+    public void setUserNames(Map<String, String> userNames) {
+        this.userNames = userNames;
+    }
+
+    public Map<String, Integer> getDailyKills() {
+        if (dailyKills == null) {
+            dailyKills = new HashMap<>();
+        }
+        return dailyKills;
+    }
+
+    public void setDailyKills(Map<String, Integer> dailyKills) {
+        this.dailyKills = dailyKills;
+    }
+
+    public long getLastUpdated() {
+        return lastUpdated;
+    }
+
+    public void setLastUpdated(long lastUpdated) {
+        this.lastUpdated = lastUpdated;
+    }
+}
@@ -12,6 +12,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Repository for managing alerts with proper data isolation
@@ -218,6 +219,17 @@ public class AlertRepository {
         }
     }
     
+    /**
+     * Stream every active alert, across all guilds and servers
+     */
+    public void forEachActive(Consumer<Alert> action) {
+        try {
+            getCollection().find(Filters.eq("active", true)).forEach(action);
+        } catch (Exception e) {
+            logger.error("Error loading active alerts", e);
+        }
+    }
+    
     /**
      * Delete all alerts by guild and server - used for data cleanup
      */
@@ -5,14 +5,18 @@ import com.deadside.bot.db.models.Bounty;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.Updates;
 import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
 import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Repository for managing bounties with proper data isolation
@@ -51,13 +55,14 @@ public class BountyRepository {
     
     /**
      * Save a bounty with proper isolation checks
+     * @return True if the bounty was stored
      */
-    public void save(Bounty bounty) {
+    public boolean save(Bounty bounty) {
         try {
             // Ensure bounty has valid isolation fields
             if (bounty.getGuildId() <= 0 || bounty.getServerId() == null || bounty.getServerId().isEmpty()) {
                 logger.error("Attempted to save bounty without proper isolation fields");
-                return;
+                return false;
             }
             
             if (bounty.getId() == null) {
@@ -72,8 +77,10 @@ public class BountyRepository {
                 logger.debug("Updated bounty with isolation (Guild={}, Server={})",
                     bounty.getGuildId(), bounty.getServerId());
             }
+            return true;
         } catch (Exception e) {
             logger.error("Error saving bounty", e);
+            return false;
         }
     }
     
@@ -311,6 +318,9 @@ public class BountyRepository {
     
     /**
      * Mark a bounty as claimed with proper isolation
+     * A single conditional update, so when two kills race for one bounty only the first claims it.
+     * The bounty is left unpaid until {@link #markAsPaid} records the payout.
+     * @return True if this call claimed the bounty
      */
     public boolean markAsClaimed(ObjectId id, String claimerId, String claimerName, long guildId, String serverId) {
         try {
@@ -321,22 +331,103 @@ public class BountyRepository {
                 Filters.eq("active", true)
             );
             
-            Bounty bounty = getCollection().find(filter).first();
-            if (bounty == null) {
-                return false;
-            }
-            
-            bounty.setActive(false);
-            bounty.setClaimerId(claimerId);
-            bounty.setClaimerName(claimerName);
-            bounty.setClaimedAt(System.currentTimeMillis());
-            
-            getCollection().replaceOne(filter, bounty);
-            return true;
+            UpdateResult result = getCollection().updateOne(filter, Updates.combine(
+                Updates.set("active", false),
+                Updates.set("claimerId", claimerId),
+                Updates.set("claimerName", claimerName),
+                Updates.set("claimedAt", System.currentTimeMillis()),
+                Updates.set("paid", false)
+            ));
+            return result.getModifiedCount() > 0;
         } catch (Exception e) {
             logger.error("Error marking bounty as claimed with isolation: {} (Guild={}, Server={})",
                 id, guildId, serverId, e);
             return false;
         }
     }
+    
+    /**
+     * Visit every active bounty in all guilds and servers, used to load the bounty matcher
+     */
+    public void forEachActive(Consumer<Bounty> action) {
+        try {
+            getCollection().find(Filters.eq("active", true)).forEach(action);
+        } catch (Exception e) {
+            logger.error("Error loading active bounties", e);
+        }
+    }
+    
+    /**
+     * Visit every active bounty of some guilds, used to reload guilds whose shard this node has just taken over
+     */
+    public void forEachActive(Collection<Long> guildIds, Consumer<Bounty> action) {
+        try {
+            getCollection().find(Filters.and(Filters.in("guildId", guildIds), Filters.eq("active", true)))
+                .forEach(action);
+        } catch (Exception e) {
+            logger.error("Error loading active bounties of {} guilds", guildIds.size(), e);
+        }
+    }
+    
+    /**
+     * Record that the claimer of a bounty has been paid
+     * @return True if the bounty exists
+     */
+    public boolean markAsPaid(ObjectId id, long guildId, String serverId) {
+        try {
+            UpdateResult result = getCollection().updateOne(Filters.and(
+                Filters.eq("_id", id),
+                Filters.eq("guildId", guildId),
+                Filters.eq("serverId", serverId)
+            ), Updates.set("paid", true));
+            return result.getMatchedCount() > 0;
+        } catch (Exception e) {
+            logger.error("Error marking bounty as paid: {} (Guild={}, Server={})", id, guildId, serverId, e);
+            return false;
+        }
+    }
+    
+    /**
+     * Visit every claimed bounty whose claimer has not been paid yet, used to resume payouts after a restart
+     */
+    public void forEachUnpaidClaim(Consumer<Bounty> action) {
+        forEachUnpaidClaim(Filters.exists("guildId"), action);
+    }
+    
+    /**
+     * Visit every unpaid bounty claim of some guilds
+     */
+    public void forEachUnpaidClaim(Collection<Long> guildIds, Consumer<Bounty> action) {
+        forEachUnpaidClaim(Filters.in("guildId", guildIds), action);
+    }
+    
+    private void forEachUnpaidClaim(Bson guildFilter, Consumer<Bounty> action) {
+        try {
+            getCollection().find(Filters.and(
+                guildFilter,
+                Filters.eq("active", false),
+                Filters.ne("claimerId", null),
+                Filters.eq("paid", false)
+            )).forEach(action);
+        } catch (Exception e) {
+            logger.error("Error loading unpaid bounty claims", e);
+        }
+    }
+    
+    /**
+     * Deactivate every active bounty placed before a cutoff, without a claimer
+     * @return The number of bounties expired
+     */
+    public long expirePlacedBefore(long cutoff) {
+        try {
+            UpdateResult result = getCollection().updateMany(
+                Filters.and(Filters.eq("active", true), Filters.lt("placedAt", cutoff)),
+                Updates.set("active", false)
+            );
+            return result.getModifiedCount();
+        } catch (Exception e) {
+            logger.error("Error expiring bounties placed before {}", cutoff, e);
+            return 0;
+        }
+    }
 }
\ No newline at end of file
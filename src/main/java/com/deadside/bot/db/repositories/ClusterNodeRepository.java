@@ -0,0 +1,96 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.models.ClusterNode;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repository for the heartbeats of the bot processes in a multi-process deployment
+ */
+public class ClusterNodeRepository {
+    private static final Logger logger = LoggerFactory.getLogger(ClusterNodeRepository.class);
+    private static final String COLLECTION_NAME = "cluster_nodes";
+
+    private MongoCollection<ClusterNode> collection;
+
+    public ClusterNodeRepository() {
+        try {
+            this.collection = MongoDBConnection.getInstance().getDatabase()
+                .getCollection(COLLECTION_NAME, ClusterNode.class);
+        } catch (IllegalStateException e) {
+            // This can happen during early initialization - handle gracefully
+            logger.warn("MongoDB connection not initialized yet. Usage will be deferred until initialization.");
+        }
+    }
+
+    /**
+     * Get the MongoDB collection, initializing if needed
+     */
+    private MongoCollection<ClusterNode> getCollection() {
+        if (collection == null) {
+            try {
+                this.collection = MongoDBConnection.getInstance().getDatabase()
+                    .getCollection(COLLECTION_NAME, ClusterNode.class);
+            } catch (Exception e) {
+                logger.error("Failed to initialize cluster node collection", e);
+            }
+        }
+        return collection;
+    }
+
+    /**
+     * Record that a node is alive, registering it on its first heartbeat
+     * @return True if the heartbeat was stored
+     */
+    public boolean heartbeat(String nodeId, long now, int shardCount) {
+        try {
+            getCollection().updateOne(
+                Filters.eq("_id", nodeId),
+                Updates.combine(
+                    Updates.set("lastHeartbeat", now),
+                    Updates.set("shardCount", shardCount),
+                    Updates.setOnInsert("startedAt", now)
+                ),
+                new UpdateOptions().upsert(true)
+            );
+            return true;
+        } catch (Exception e) {
+            logger.error("Error recording heartbeat for node {}", nodeId, e);
+            return false;
+        }
+    }
+
+    /**
+     * Find the IDs of nodes that reported in since the given time
+     */
+    public List<String> findLiveNodeIds(long since) {
+        List<String> nodeIds = new ArrayList<>();
+        try {
+            for (ClusterNode node : getCollection().find(Filters.gte("lastHeartbeat", since))) {
+                nodeIds.add(node.getId());
+            }
+        } catch (Exception e) {
+            logger.error("Error finding live cluster nodes", e);
+        }
+        return nodeIds;
+    }
+
+    /**
+     * Remove a node that is shutting down so the others rebalance without waiting for it to time out
+     */
+    public void remove(String nodeId) {
+        try {
+            getCollection().deleteOne(Filters.eq("_id", nodeId));
+        } catch (Exception e) {
+            logger.error("Error removing cluster node {}", nodeId, e);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.deadside.bot.db.models.Currency;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOptions;
 import com.mongodb.client.model.Updates;
 import com.mongodb.client.result.DeleteResult;
 import org.bson.conversions.Bson;
@@ -98,36 +99,25 @@ public class CurrencyRepository {
     
     /**
      * Add coins to a user's currency with proper isolation
+     * A single upsert with $inc, so concurrent calls never lose each other's coins
      */
     public void addCoins(long userId, long amount, long guildId, String serverId) {
         try {
-            Currency currency = findByUserIdAndGuildIdAndServerId(userId, guildId, serverId);
+            Bson filter = Filters.and(
+                Filters.eq("userId", userId),
+                Filters.eq("guildId", guildId),
+                Filters.eq("serverId", serverId)
+            );
             
-            if (currency == null) {
-                // Create new currency for this user
-                currency = new Currency();
-                currency.setUserId(userId);
-                currency.setGuildId(guildId);
-                currency.setServerId(serverId);
-                currency.setCoins(amount);
-                currency.setLastUpdated(System.currentTimeMillis());
-                save(currency);
-            } else {
-                // Update existing currency
-                Bson filter = Filters.and(
-                    Filters.eq("userId", userId),
-                    Filters.eq("guildId", guildId),
-                    Filters.eq("serverId", serverId)
-                );
-                
-                getCollection().updateOne(filter, 
-                    Updates.combine(
-                        Updates.inc("coins", amount),
-                        Updates.set("lastUpdated", System.currentTimeMillis())
-                    )
-                );
+            List<Bson> updates = new ArrayList<>();
+            updates.add(Updates.inc("coins", amount));
+            updates.add(Updates.set("lastUpdated", System.currentTimeMillis()));
+            if (amount > 0) {
+                updates.add(Updates.inc("totalEarned", amount));
             }
             
+            getCollection().updateOne(filter, Updates.combine(updates), new UpdateOptions().upsert(true));
+            
             logger.debug("Added {} coins to user {} with isolation (Guild={}, Server={})",
                 amount, userId, guildId, serverId);
         } catch (Exception e) {
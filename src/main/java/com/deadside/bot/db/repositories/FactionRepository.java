@@ -3,10 +3,13 @@ package com.deadside.bot.db.repositories;
 import com.deadside.bot.db.MongoDBConnection;
 import com.deadside.bot.db.models.Faction;
 import com.deadside.bot.utils.GuildIsolationManager;
+import com.mongodb.bulk.BulkWriteResult;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.Sorts;
 import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
 import com.mongodb.client.result.DeleteResult;
 import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
@@ -51,6 +54,27 @@ public class FactionRepository {
         return collection;
     }
     
+    /**
+     * Apply a batch of faction writes in a single unordered bulk write
+     * @param models The writes to apply
+     * @return True if the bulk write succeeded
+     */
+    public boolean bulkWrite(List<? extends WriteModel<? extends Faction>> models) {
+        if (models.isEmpty()) {
+            return true;
+        }
+        
+        try {
+            BulkWriteResult result = getCollection().bulkWrite(models, new BulkWriteOptions().ordered(false));
+            logger.debug("Bulk wrote {} faction updates (matched={}, modified={})",
+                models.size(), result.getMatchedCount(), result.getModifiedCount());
+            return true;
+        } catch (Exception e) {
+            logger.error("Error bulk writing {} faction updates", models.size(), e);
+            return false;
+        }
+    }
+    
     /**
      * Find a faction by ID with isolation check
      * @param id The faction ID
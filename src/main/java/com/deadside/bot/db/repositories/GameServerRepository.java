@@ -1,13 +1,24 @@
 package com.deadside.bot.db.repositories;
 
+import com.deadside.bot.config.Config;
+import com.deadside.bot.db.EntityCache;
 import com.deadside.bot.db.MongoDBConnection;
 import com.deadside.bot.db.models.GameServer;
 import com.deadside.bot.utils.DataBoundary;
 import com.deadside.bot.utils.GuildIsolationManager;
+import com.deadside.bot.utils.NameIndex;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Updates;
 import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
 import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
@@ -15,6 +26,9 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 /**
  * Repository for GameServer collection with comprehensive isolation
@@ -24,6 +38,14 @@ public class GameServerRepository {
     private static final Logger logger = LoggerFactory.getLogger(GameServerRepository.class);
     private static final String COLLECTION_NAME = "game_servers";
     
+    // Servers of each guild as raw documents, decoded into fresh objects on every read so callers
+    // can modify what they get back; shared by all repository instances
+    private static final EntityCache<Long, List<BsonDocument>> serversByGuild = new EntityCache<>("game_servers",
+        Config.getInstance().getEntityCacheMaxEntries(), Config.getInstance().getEntityCacheTtl() * 1000L);
+    private static final EntityCache<String, List<Long>> guildIds = new EntityCache<>("game_server_guilds",
+        1, Config.getInstance().getEntityCacheTtl() * 1000L);
+    private static final String ALL_GUILDS = "all";
+    
     private MongoCollection<GameServer> collection;
     
     public GameServerRepository() {
@@ -52,6 +74,74 @@ public class GameServerRepository {
         return collection;
     }
     
+    /**
+     * Get a guild's servers through the cache
+     * Each call returns new objects, in the collection's natural order.
+     */
+    private List<GameServer> cachedServers(long guildId) {
+        List<BsonDocument> documents = serversByGuild.get(guildId, id -> List.copyOf(getCollection()
+            .withDocumentClass(BsonDocument.class)
+            .find(Filters.eq("guildId", id))
+            .into(new ArrayList<>())));
+        
+        Codec<GameServer> codec = getCollection().getCodecRegistry().get(GameServer.class);
+        List<GameServer> servers = new ArrayList<>(documents.size());
+        for (BsonDocument document : documents) {
+            servers.add(codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build()));
+        }
+        return servers;
+    }
+    
+    /**
+     * Put a saved server into its guild's cached list, so frequent saves do not empty the cache
+     */
+    private void updateCache(GameServer server) {
+        BsonDocument document = encode(server);
+        
+        boolean[] known = {false};
+        serversByGuild.update(server.getGuildId(), documents -> {
+            List<BsonDocument> updated = new ArrayList<>(documents.size() + 1);
+            for (BsonDocument existing : documents) {
+                if (Objects.equals(existing.get("_id"), document.get("_id"))) {
+                    updated.add(document);
+                    known[0] = true;
+                } else {
+                    updated.add(existing);
+                }
+            }
+            if (!known[0]) {
+                updated.add(document);
+            }
+            return List.copyOf(updated);
+        });
+        if (!known[0]) {
+            guildIds.invalidateAll();
+        }
+    }
+    
+    private BsonDocument encode(GameServer server) {
+        BsonDocument document = new BsonDocument();
+        getCollection().getCodecRegistry().get(GameServer.class).encode(new BsonDocumentWriter(document), server,
+            EncoderContext.builder().isEncodingCollectibleDocument(true).build());
+        return document;
+    }
+    
+    /**
+     * Forget a guild's cached servers after a delete
+     */
+    private void invalidateCache(long guildId) {
+        serversByGuild.invalidate(guildId);
+        guildIds.invalidateAll();
+    }
+    
+    /**
+     * Log hit rates of the game server caches
+     */
+    public static void logCacheStatus() {
+        serversByGuild.logStatus();
+        guildIds.logStatus();
+    }
+    
     /**
      * Save a game server with proper isolation check
      */
@@ -80,6 +170,8 @@ public class GameServerRepository {
                 server, 
                 options
             );
+            updateCache(server);
+            NameIndex.getInstance().invalidateServers(server.getGuildId());
             
             logger.debug("Saved game server: {} with proper isolation (Guild={})",
                 server.getName(), server.getGuildId());
@@ -88,6 +180,50 @@ public class GameServerRepository {
         }
     }
     
+    /**
+     * Store some of a server's fields without replacing the rest of its document
+     * Pipelines that each own a few fields of a server, such as the killfeed cursor or the player
+     * count, use this so one of them cannot roll back what another stored since it loaded the server.
+     * @param fields Names of the stored fields; fields that are null on the server are removed
+     */
+    public void updateFields(GameServer server, String... fields) {
+        if (server.getId() == null) {
+            logger.error("Attempted to update fields of unsaved game server: {}", server.getName());
+            return;
+        }
+        
+        try {
+            BsonDocument document = encode(server);
+            List<Bson> updates = new ArrayList<>(fields.length);
+            for (String field : fields) {
+                updates.add(document.containsKey(field) ? Updates.set(field, document.get(field)) : Updates.unset(field));
+            }
+            
+            getCollection().updateOne(Filters.eq("_id", server.getId()), Updates.combine(updates));
+            serversByGuild.update(server.getGuildId(), documents -> {
+                List<BsonDocument> updated = new ArrayList<>(documents.size());
+                for (BsonDocument existing : documents) {
+                    if (Objects.equals(existing.get("_id"), document.get("_id"))) {
+                        BsonDocument changed = existing.clone();
+                        for (String field : fields) {
+                            if (document.containsKey(field)) {
+                                changed.put(field, document.get(field));
+                            } else {
+                                changed.remove(field);
+                            }
+                        }
+                        updated.add(changed);
+                    } else {
+                        updated.add(existing);
+                    }
+                }
+                return List.copyOf(updated);
+            });
+        } catch (Exception e) {
+            logger.error("Error updating {} of game server: {}", String.join(", ", fields), server.getName(), e);
+        }
+    }
+    
     /**
      * Find a game server by server ID with isolation check
      * @param serverId The server ID to search for
@@ -96,11 +232,12 @@ public class GameServerRepository {
      */
     public GameServer findByServerIdAndGuildId(String serverId, long guildId) {
         try {
-            Bson filter = Filters.and(
-                Filters.eq("serverId", serverId),
-                Filters.eq("guildId", guildId)
-            );
-            return getCollection().find(filter).first();
+            for (GameServer server : cachedServers(guildId)) {
+                if (Objects.equals(server.getServerId(), serverId)) {
+                    return server;
+                }
+            }
+            return null;
         } catch (Exception e) {
             logger.error("Error finding game server by ID: {} with guild isolation: {}", serverId, guildId, e);
             return null;
@@ -197,9 +334,8 @@ public class GameServerRepository {
      */
     public List<Long> getDistinctGuildIds() {
         try {
-            List<Long> guildIds = new ArrayList<>();
-            getCollection().distinct("guildId", Long.class).into(guildIds);
-            return guildIds;
+            return new ArrayList<>(guildIds.get(ALL_GUILDS, key -> List.copyOf(
+                getCollection().distinct("guildId", Long.class).into(new ArrayList<>()))));
         } catch (Exception e) {
             logger.error("Error getting distinct guild IDs", e);
             return new ArrayList<>();
@@ -218,10 +354,7 @@ public class GameServerRepository {
                 return new ArrayList<>();
             }
             
-            List<GameServer> servers = new ArrayList<>();
-            getCollection().find(Filters.eq("guildId", guildId)).into(servers);
-            
-            return servers;
+            return cachedServers(guildId);
         } catch (Exception e) {
             logger.error("Error getting servers by guild ID", e);
             return new ArrayList<>();
@@ -233,11 +366,12 @@ public class GameServerRepository {
      */
     public GameServer findByObjectIdAndGuildId(ObjectId id, long guildId) {
         try {
-            Bson filter = Filters.and(
-                Filters.eq("_id", id),
-                Filters.eq("guildId", guildId)
-            );
-            return getCollection().find(filter).first();
+            for (GameServer server : cachedServers(guildId)) {
+                if (Objects.equals(server.getId(), id)) {
+                    return server;
+                }
+            }
+            return null;
         } catch (Exception e) {
             logger.error("Error finding game server by ObjectID: {} with guild isolation: {}", id, guildId, e);
             return null;
@@ -294,11 +428,14 @@ public class GameServerRepository {
      */
     public GameServer findByNameAndGuildId(String name, long guildId) {
         try {
-            Bson filter = Filters.and(
-                Filters.regex("name", name, "i"), // Case-insensitive name match
-                Filters.eq("guildId", guildId)
-            );
-            return getCollection().find(filter).first();
+            // Same semantics as the former case-insensitive $regex query, evaluated on the cached servers
+            Pattern pattern = Pattern.compile(name, Pattern.CASE_INSENSITIVE);
+            for (GameServer server : cachedServers(guildId)) {
+                if (server.getName() != null && pattern.matcher(server.getName()).find()) {
+                    return server;
+                }
+            }
+            return null;
         } catch (Exception e) {
             logger.error("Error finding game server by name: {} with guild isolation: {}", name, guildId, e);
             return null;
@@ -314,11 +451,12 @@ public class GameServerRepository {
      */
     public GameServer findByGuildIdAndName(long guildId, String name) {
         try {
-            Bson filter = Filters.and(
-                Filters.eq("name", name), // Exact name match
-                Filters.eq("guildId", guildId)
-            );
-            return getCollection().find(filter).first();
+            for (GameServer server : cachedServers(guildId)) {
+                if (Objects.equals(server.getName(), name)) {
+                    return server;
+                }
+            }
+            return null;
         } catch (Exception e) {
             logger.error("Error finding game server by guild: {} and name: {}", guildId, name, e);
             return null;
@@ -376,22 +514,58 @@ public class GameServerRepository {
      */
     public List<GameServer> findAllByGuildId(long guildId) {
         try {
-            Bson filter = Filters.eq("guildId", guildId);
-            return getCollection().find(filter).into(new ArrayList<>());
+            return cachedServers(guildId);
         } catch (Exception e) {
             logger.error("Error finding game servers for guild: {}", guildId, e);
             return new ArrayList<>();
         }
     }
     
+    /**
+     * Stream every game server with premium status in one query, across all guilds
+     */
+    public void forEachPremium(Consumer<GameServer> action) {
+        try {
+            getCollection().find(Filters.eq("premium", true)).forEach(action);
+        } catch (Exception e) {
+            logger.error("Error loading premium game servers", e);
+        }
+    }
+    
+    /**
+     * Turn off server premium that expired before the given time, in one update
+     * Servers without an expiry have premiumUntil 0 and are left alone.
+     * 
+     * @return The number of servers whose premium expired
+     */
+    public long expirePremium(long now) {
+        try {
+            UpdateResult result = getCollection().updateMany(
+                Filters.and(
+                    Filters.eq("premium", true),
+                    Filters.gt("premiumUntil", 0L),
+                    Filters.lt("premiumUntil", now)
+                ),
+                Updates.set("premium", false)
+            );
+            if (result.getModifiedCount() > 0) {
+                serversByGuild.invalidateAll();
+            }
+            return result.getModifiedCount();
+        } catch (Exception e) {
+            logger.error("Error expiring server premium", e);
+            return 0;
+        }
+    }
+    
     /**
      * Find the default game server for a Discord guild
      * Returns the first server found for that guild, or null if none exists
      */
     public GameServer findByGuildId(long guildId) {
         try {
-            Bson filter = Filters.eq("guildId", guildId);
-            return getCollection().find(filter).first();
+            List<GameServer> servers = cachedServers(guildId);
+            return servers.isEmpty() ? null : servers.get(0);
         } catch (Exception e) {
             logger.error("Error finding default game server for guild: {}", guildId, e);
             return null;
@@ -411,6 +585,8 @@ public class GameServerRepository {
             DeleteResult result = getCollection().deleteOne(filter);
             
             if (result.getDeletedCount() > 0) {
+                invalidateCache(guildId);
+                NameIndex.getInstance().invalidateServers(guildId);
                 logger.info("Deleted game server with ID: {} from guild: {}", serverId, guildId);
                 return true;
             } else {
@@ -525,6 +701,8 @@ public class GameServerRepository {
             DeleteResult result = getCollection().deleteMany(
                 Filters.eq("guildId", guildId)
             );
+            invalidateCache(guildId);
+            NameIndex.getInstance().invalidateServers(guildId);
             logger.info("Deleted {} game servers from guild: {}", result.getDeletedCount(), guildId);
             return result.getDeletedCount();
         } catch (Exception e) {
@@ -545,6 +723,8 @@ public class GameServerRepository {
                 DeleteResult result = getCollection().deleteOne(filter);
                 
                 if (result.getDeletedCount() > 0) {
+                    invalidateCache(guildId);
+                    NameIndex.getInstance().invalidateServers(guildId);
                     logger.info("Deleted game server: {} from guild: {}", server.getName(), guildId);
                     return true;
                 } else {
@@ -594,6 +774,8 @@ public class GameServerRepository {
                 boolean deleted = getCollection().deleteOne(filter).getDeletedCount() > 0;
                 
                 if (deleted) {
+                    invalidateCache(server.getGuildId());
+                    NameIndex.getInstance().invalidateServers(server.getGuildId());
                     logger.debug("Deleted game server {} in guild {} using isolation-aware approach", 
                         server.getName(), server.getGuildId());
                     return true;
@@ -617,11 +799,7 @@ public class GameServerRepository {
      */
     public boolean existsByServerIdAndGuildId(String serverId, long guildId) {
         try {
-            Bson filter = Filters.and(
-                Filters.eq("serverId", serverId),
-                Filters.eq("guildId", guildId)
-            );
-            return getCollection().countDocuments(filter) > 0;
+            return findByServerIdAndGuildId(serverId, guildId) != null;
         } catch (Exception e) {
             logger.error("Error checking if game server exists by ID: {} with guild isolation: {}", serverId, guildId, e);
             return false;
@@ -1,11 +1,15 @@
 package com.deadside.bot.db.repositories;
 
+import com.deadside.bot.config.Config;
+import com.deadside.bot.db.EntityCache;
 import com.deadside.bot.db.MongoDBConnection;
 import com.deadside.bot.db.models.GuildConfig;
 import com.deadside.bot.utils.GuildIsolationManager;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.result.UpdateResult;
 import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
@@ -13,13 +17,20 @@ import org.slf4j.LoggerFactory;
 import com.mongodb.client.DistinctIterable;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Repository for GuildConfig objects in MongoDB with isolation awareness
  */
 public class GuildConfigRepository {
     private static final Logger logger = LoggerFactory.getLogger(GuildConfigRepository.class);
+    
+    // Config documents by guild ID, shared by all repository instances; every read builds a new GuildConfig
+    private static final EntityCache<Long, Document> configs = new EntityCache<>("guild_configs",
+        Config.getInstance().getEntityCacheMaxEntries(), Config.getInstance().getEntityCacheTtl() * 1000L);
+    
     private MongoCollection<Document> collection;
     
     /**
@@ -64,7 +75,7 @@ public class GuildConfigRepository {
                 return null;
             }
             
-            Document doc = getCollection().find(Filters.eq("guildId", guildId)).first();
+            Document doc = configs.get(guildId, id -> getCollection().find(Filters.eq("guildId", id)).first());
             if (doc == null) {
                 return null;
             }
@@ -106,6 +117,8 @@ public class GuildConfigRepository {
                 logger.debug("Updated guild config with isolation (Guild={})",
                     config.getGuildId());
             }
+            // The written document carries the _id, so it can be served as is
+            configs.update(config.getGuildId(), cached -> doc);
             
             return config;
         } catch (Exception e) {
@@ -135,6 +148,7 @@ public class GuildConfigRepository {
                 Filters.eq("_id", config.getId()),
                 Filters.eq("guildId", config.getGuildId())
             ));
+            configs.invalidate(config.getGuildId());
             logger.debug("Deleted guild config with isolation (Guild={})", config.getGuildId());
         } catch (Exception e) {
             logger.error("Error deleting guild config: {}", config.getId(), e);
@@ -164,6 +178,7 @@ public class GuildConfigRepository {
                 Filters.eq("_id", id),
                 Filters.eq("guildId", guildId)
             ));
+            configs.invalidate(guildId);
             logger.debug("Deleted guild config with isolation (Guild={})", guildId);
         } catch (Exception e) {
             logger.error("Error deleting guild config by ID: {} with guild ID: {}", id, guildId, e);
@@ -181,6 +196,8 @@ public class GuildConfigRepository {
         logger.warn("Called unsafe non-isolated guild config delete by ID: {}. Consider using delete(ObjectId, long) instead.", id);
         try {
             getCollection().deleteOne(Filters.eq("_id", id));
+            // The owning guild is unknown here
+            configs.invalidateAll();
         } catch (Exception e) {
             logger.error("Error deleting guild config by ID: {}", id, e);
         }
@@ -200,12 +217,59 @@ public class GuildConfigRepository {
             }
             
             getCollection().deleteOne(Filters.eq("guildId", guildId));
+            configs.invalidate(guildId);
             logger.debug("Deleted guild config by guild ID with isolation (Guild={})", guildId);
         } catch (Exception e) {
             logger.error("Error deleting guild config by guild ID: {}", guildId, e);
         }
     }
     
+    /**
+     * Log hit rates of the guild config cache
+     */
+    public static void logCacheStatus() {
+        configs.logStatus();
+    }
+    
+    /**
+     * Stream every guild configuration with premium status in one query, across all guilds
+     */
+    public void forEachPremium(Consumer<GuildConfig> action) {
+        try {
+            getCollection().find(Filters.eq("premium", true)).forEach(doc -> action.accept(new GuildConfig(doc)));
+        } catch (Exception e) {
+            logger.error("Error loading premium guild configs", e);
+        }
+    }
+    
+    /**
+     * Turn off guild premium that expired before the given time, in one update
+     * premiumUntil is stored as a date, or as epoch milliseconds by older versions.
+     * 
+     * @return The number of guilds whose premium expired
+     */
+    public long expirePremium(long now) {
+        try {
+            UpdateResult result = getCollection().updateMany(
+                Filters.and(
+                    Filters.eq("premium", true),
+                    Filters.or(
+                        Filters.lt("premiumUntil", new Date(now)),
+                        Filters.lt("premiumUntil", now)
+                    )
+                ),
+                Updates.set("premium", false)
+            );
+            if (result.getModifiedCount() > 0) {
+                configs.invalidateAll();
+            }
+            return result.getModifiedCount();
+        } catch (Exception e) {
+            logger.error("Error expiring guild premium", e);
+            return 0;
+        }
+    }
+    
     /**
      * Find all guild configurations that have premium status using isolation-aware approach
      * 
@@ -0,0 +1,103 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.models.IngestionCheckpoint;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Repository for ingestion checkpoints with isolation between guilds and servers
+ * There is one checkpoint per (guild, server, pipeline), written only by the pipeline that owns it.
+ */
+public class IngestionCheckpointRepository {
+    private static final Logger logger = LoggerFactory.getLogger(IngestionCheckpointRepository.class);
+    private static final String COLLECTION_NAME = "ingestion_checkpoints";
+
+    private MongoCollection<IngestionCheckpoint> collection;
+
+    public IngestionCheckpointRepository() {
+        try {
+            this.collection = MongoDBConnection.getInstance().getDatabase()
+                .getCollection(COLLECTION_NAME, IngestionCheckpoint.class);
+        } catch (IllegalStateException e) {
+            // This can happen during early initialization - handle gracefully
+            logger.warn("MongoDB connection not initialized yet. Usage will be deferred until initialization.");
+        }
+    }
+
+    /**
+     * Get the MongoDB collection, initializing if needed
+     */
+    private MongoCollection<IngestionCheckpoint> getCollection() {
+        if (collection == null) {
+            try {
+                this.collection = MongoDBConnection.getInstance().getDatabase()
+                    .getCollection(COLLECTION_NAME, IngestionCheckpoint.class);
+            } catch (Exception e) {
+                logger.error("Failed to initialize ingestion checkpoint collection", e);
+            }
+        }
+        return collection;
+    }
+
+    private static Bson byPipeline(long guildId, String serverId, String pipeline) {
+        return Filters.and(
+            Filters.eq("guildId", guildId),
+            Filters.eq("serverId", serverId),
+            Filters.eq("pipeline", pipeline)
+        );
+    }
+
+    /**
+     * Find the checkpoint of a pipeline on a server
+     * @return The checkpoint, or null if the pipeline has not committed a batch yet
+     * @throws RuntimeException If the checkpoint could not be read, so callers never mistake
+     *         a database error for a server that has not been ingested yet
+     */
+    public IngestionCheckpoint find(long guildId, String serverId, String pipeline) {
+        try {
+            return getCollection().find(byPipeline(guildId, serverId, pipeline)).first();
+        } catch (Exception e) {
+            logger.error("Error finding {} checkpoint (Guild={}, Server={})", pipeline, guildId, serverId, e);
+            throw new IllegalStateException("Could not read " + pipeline + " checkpoint for server " + serverId, e);
+        }
+    }
+
+    /**
+     * Commit a checkpoint, replacing the previous one of the same pipeline
+     * @return True if the checkpoint was stored
+     */
+    public boolean save(IngestionCheckpoint checkpoint) {
+        try {
+            checkpoint.setUpdatedAt(System.currentTimeMillis());
+            getCollection().replaceOne(
+                byPipeline(checkpoint.getGuildId(), checkpoint.getServerId(), checkpoint.getPipeline()),
+                checkpoint,
+                new ReplaceOptions().upsert(true)
+            );
+            return true;
+        } catch (Exception e) {
+            logger.error("Error saving {} checkpoint (Guild={}, Server={})",
+                checkpoint.getPipeline(), checkpoint.getGuildId(), checkpoint.getServerId(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Delete every checkpoint of a server whose data was removed
+     */
+    public void deleteByServer(long guildId, String serverId) {
+        try {
+            getCollection().deleteMany(Filters.and(
+                Filters.eq("guildId", guildId),
+                Filters.eq("serverId", serverId)
+            ));
+        } catch (Exception e) {
+            logger.error("Error deleting checkpoints (Guild={}, Server={})", guildId, serverId, e);
+        }
+    }
+}
@@ -77,9 +77,11 @@ public class LeaderboardChannelRepository {
                 Filters.eq("serverId", serverId)
             );
             
+            // A new registration posts a new message
             Bson update = Updates.combine(
                 Updates.set("channelId", channelId),
-                Updates.set("lastUpdated", System.currentTimeMillis())
+                Updates.set("lastUpdated", System.currentTimeMillis()),
+                Updates.unset("messageId")
             );
             
             UpdateOptions options = new UpdateOptions().upsert(true);
@@ -92,6 +94,26 @@ public class LeaderboardChannelRepository {
         }
     }
     
+    /**
+     * Remember the message a server-specific leaderboard is shown in, so it is edited rather than reposted
+     */
+    public void saveMessageId(long guildId, String serverId, long messageId) {
+        try {
+            Bson filter = Filters.and(
+                Filters.eq("guildId", guildId),
+                Filters.eq("serverId", serverId)
+            );
+            
+            getCollection().updateOne(filter, Updates.combine(
+                Updates.set("messageId", messageId),
+                Updates.set("lastUpdated", System.currentTimeMillis())
+            ));
+        } catch (Exception e) {
+            logger.error("Error saving leaderboard message for guild: {} and server: {}", 
+                guildId, serverId, e);
+        }
+    }
+    
     /**
      * Get a leaderboard channel for a specific guild
      * This method doesn't enforce server isolation and should be used only for guild-wide leaderboards
@@ -193,6 +215,9 @@ public class LeaderboardChannelRepository {
                 if (doc.containsKey("serverId")) {
                     entry.put("serverId", doc.getString("serverId"));
                 }
+                if (doc.containsKey("messageId")) {
+                    entry.put("messageId", doc.getLong("messageId"));
+                }
                 
                 result.add(entry);
             });
@@ -0,0 +1,97 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.models.LedgerEntry;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.Sorts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repository for the append-only economy ledger with isolation between guilds and servers
+ * Entries are only ever inserted; balances live on the player documents.
+ */
+public class LedgerRepository {
+    private static final Logger logger = LoggerFactory.getLogger(LedgerRepository.class);
+    private static final String COLLECTION_NAME = "economy_ledger";
+    private static final int DUPLICATE_KEY = 11000;
+
+    private MongoCollection<LedgerEntry> collection;
+
+    public LedgerRepository() {
+        try {
+            this.collection = MongoDBConnection.getInstance().getDatabase()
+                .getCollection(COLLECTION_NAME, LedgerEntry.class);
+        } catch (IllegalStateException e) {
+            // This can happen during early initialization - handle gracefully
+            logger.warn("MongoDB connection not initialized yet. Usage will be deferred until initialization.");
+        }
+    }
+
+    /**
+     * Get the MongoDB collection, initializing if needed
+     */
+    private MongoCollection<LedgerEntry> getCollection() {
+        if (collection == null) {
+            try {
+                this.collection = MongoDBConnection.getInstance().getDatabase()
+                    .getCollection(COLLECTION_NAME, LedgerEntry.class);
+            } catch (Exception e) {
+                logger.error("Failed to initialize ledger collection", e);
+            }
+        }
+        return collection;
+    }
+
+    /**
+     * Append a batch of entries in one unordered insert
+     * Entries keep their ids across attempts, so retrying a partly written batch skips the
+     * entries that already made it instead of duplicating them.
+     * @return True if every entry is now stored
+     */
+    public boolean insertAll(List<LedgerEntry> entries) {
+        if (entries.isEmpty()) {
+            return true;
+        }
+
+        try {
+            getCollection().insertMany(entries, new InsertManyOptions().ordered(false));
+            logger.debug("Appended {} ledger entries", entries.size());
+            return true;
+        } catch (MongoBulkWriteException e) {
+            boolean onlyDuplicates = e.getWriteErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY);
+            if (onlyDuplicates && e.getWriteConcernError() == null) {
+                logger.debug("Appended ledger batch, {} entries were already stored", e.getWriteErrors().size());
+                return true;
+            }
+            logger.error("Error appending {} ledger entries", entries.size(), e);
+            return false;
+        } catch (Exception e) {
+            logger.error("Error appending {} ledger entries", entries.size(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Find the most recent entries for a player, newest first
+     */
+    public List<LedgerEntry> findRecentByPlayer(String playerId, long guildId, String serverId, int limit) {
+        try {
+            return getCollection().find(Filters.and(
+                Filters.eq("guildId", guildId),
+                Filters.eq("serverId", serverId),
+                Filters.eq("playerId", playerId)
+            )).sort(Sorts.descending("timestamp")).limit(limit).into(new ArrayList<>());
+        } catch (Exception e) {
+            logger.error("Error finding ledger entries (Player={}, Guild={}, Server={})",
+                playerId, guildId, serverId, e);
+            return new ArrayList<>();
+        }
+    }
+}
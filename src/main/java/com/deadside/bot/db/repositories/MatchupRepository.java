@@ -0,0 +1,196 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.models.Matchup;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.result.DeleteResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Repository for head-to-head kill counts with isolation between guilds and servers
+ */
+public class MatchupRepository {
+    private static final Logger logger = LoggerFactory.getLogger(MatchupRepository.class);
+    private static final String COLLECTION_NAME = "matchups";
+    private static final int DUPLICATE_KEY = 11000;
+
+    private MongoCollection<Matchup> collection;
+
+    public MatchupRepository() {
+        try {
+            this.collection = MongoDBConnection.getInstance().getDatabase()
+                .getCollection(COLLECTION_NAME, Matchup.class);
+        } catch (IllegalStateException e) {
+            // This can happen during early initialization - handle gracefully
+            logger.warn("MongoDB connection not initialized yet. Usage will be deferred until initialization.");
+        }
+    }
+
+    /**
+     * Get the MongoDB collection, initializing if needed
+     */
+    private MongoCollection<Matchup> getCollection() {
+        if (collection == null) {
+            try {
+                this.collection = MongoDBConnection.getInstance().getDatabase()
+                    .getCollection(COLLECTION_NAME, Matchup.class);
+            } catch (Exception e) {
+                logger.error("Failed to initialize matchup collection", e);
+            }
+        }
+        return collection;
+    }
+
+    /**
+     * Apply a batch of matchup upserts in one unordered bulk write
+     * @return True if the batch was written
+     */
+    public boolean bulkWrite(List<? extends WriteModel<? extends Matchup>> models) {
+        if (models.isEmpty()) {
+            return true;
+        }
+
+        try {
+            BulkWriteResult result = getCollection().bulkWrite(models, new BulkWriteOptions().ordered(false));
+            logger.debug("Bulk wrote {} matchups (matched={}, upserted={})",
+                models.size(), result.getMatchedCount(), result.getUpserts().size());
+            return true;
+        } catch (MongoBulkWriteException e) {
+            // A guarded ingestion upsert that finds its batch already applied collides with the unique index
+            boolean onlyDuplicates = e.getWriteErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY);
+            if (onlyDuplicates && e.getWriteConcernError() == null) {
+                logger.debug("Bulk wrote {} matchups, {} already had their ingestion batch applied",
+                    models.size(), e.getWriteErrors().size());
+                return true;
+            }
+            logger.error("Error bulk writing {} matchups", models.size(), e);
+            return false;
+        } catch (Exception e) {
+            logger.error("Error bulk writing {} matchups", models.size(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Find the kill count of one killer against one victim
+     */
+    public Matchup findPair(long guildId, String serverId, String killerId, String victimId) {
+        try {
+            return getCollection().find(Filters.and(
+                Filters.eq("guildId", guildId),
+                Filters.eq("serverId", serverId),
+                Filters.eq("killerId", killerId),
+                Filters.eq("victimId", victimId)
+            )).first();
+        } catch (Exception e) {
+            logger.error("Error finding matchup (Guild={}, Server={}, Killer={}, Victim={})",
+                guildId, serverId, killerId, victimId, e);
+            return null;
+        }
+    }
+
+    /**
+     * Find the players a player killed most
+     */
+    public List<Matchup> findTopVictims(long guildId, String serverId, String killerId, int limit) {
+        return findTop("killerId", guildId, serverId, killerId, limit);
+    }
+
+    /**
+     * Find the players who killed a player most
+     */
+    public List<Matchup> findTopNemeses(long guildId, String serverId, String victimId, int limit) {
+        return findTop("victimId", guildId, serverId, victimId, limit);
+    }
+
+    private List<Matchup> findTop(String field, long guildId, String serverId, String playerId, int limit) {
+        try {
+            return getCollection().find(Filters.and(
+                Filters.eq("guildId", guildId),
+                Filters.eq("serverId", serverId),
+                Filters.eq(field, playerId)
+            ))
+            .sort(Sorts.descending("kills"))
+            .limit(limit)
+            .into(new ArrayList<>());
+        } catch (Exception e) {
+            logger.error("Error finding top matchups by {} (Guild={}, Server={}, Player={})",
+                field, guildId, serverId, playerId, e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Check whether any matchup of a server already has a live ingestion batch applied
+     * @return True if a matchup document carries the sequence or a later one
+     */
+    public boolean hasIngestSequence(long guildId, String serverId, long sequence) {
+        return hasSequence(guildId, serverId, "ingestSequence", sequence);
+    }
+
+    /**
+     * Check whether any matchup of a server already has a historical backfill batch applied
+     * @return True if a matchup document carries the sequence or a later one
+     */
+    public boolean hasBackfillSequence(long guildId, String serverId, long sequence) {
+        return hasSequence(guildId, serverId, "backfillSequence", sequence);
+    }
+
+    private boolean hasSequence(long guildId, String serverId, String field, long sequence) {
+        try {
+            return getCollection().find(Filters.and(
+                Filters.eq("guildId", guildId),
+                Filters.eq("serverId", serverId),
+                Filters.gte(field, sequence)
+            )).projection(Projections.include("_id")).first() != null;
+        } catch (Exception e) {
+            logger.error("Error checking {} {} (Guild={}, Server={})", field, sequence, guildId, serverId, e);
+            return false;
+        }
+    }
+
+    /**
+     * Stream every matchup, for loading the in-memory matchup index
+     */
+    public void forEachMatchup(Consumer<Matchup> action) {
+        getCollection().find().batchSize(5000).forEach(action);
+    }
+
+    /**
+     * Stream the matchups of some guilds, for reloading guilds whose shard this node has just taken over
+     */
+    public void forEachMatchup(Collection<Long> guildIds, Consumer<Matchup> action) {
+        getCollection().find(Filters.in("guildId", guildIds)).batchSize(5000).forEach(action);
+    }
+
+    /**
+     * Delete all matchups for a specific guild and server
+     * @return Number of matchups deleted
+     */
+    public long deleteAllByGuildIdAndServerId(long guildId, String serverId) {
+        try {
+            DeleteResult result = getCollection().deleteMany(Filters.and(
+                Filters.eq("guildId", guildId),
+                Filters.eq("serverId", serverId)
+            ));
+            logger.info("Deleted {} matchups from Guild={}, Server={}", result.getDeletedCount(), guildId, serverId);
+            return result.getDeletedCount();
+        } catch (Exception e) {
+            logger.error("Error deleting matchups by guild and server", e);
+            return 0;
+        }
+    }
+}
@@ -1,16 +1,29 @@
 package com.deadside.bot.db.repositories;
 
 import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.models.Currency;
 import com.deadside.bot.db.models.Player;
 import com.deadside.bot.utils.GuildIsolationManager;
+import com.deadside.bot.utils.NameIndex;
+import com.mongodb.MongoBulkWriteException;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.Accumulators;
 import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
 import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.PushOptions;
+import com.mongodb.client.model.ReturnDocument;
 import com.mongodb.client.model.Sorts;
 import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
 import com.mongodb.client.result.DeleteResult;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWriter;
 import org.bson.Document;
+import org.bson.codecs.EncoderContext;
 import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
@@ -18,7 +31,12 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 /**
  * Repository for Player collection with comprehensive isolation between guilds and servers
@@ -26,6 +44,17 @@ import java.util.List;
 public class PlayerRepository {
     private static final Logger logger = LoggerFactory.getLogger(PlayerRepository.class);
     private static final String COLLECTION_NAME = "players";
+    private static final int DUPLICATE_KEY = 11000;
+    
+    // Settlement keys kept per player; a game settles within minutes, long before its key is dropped
+    private static final int RECENT_SETTLEMENT_KEYS = 32;
+    
+    // Fields save() leaves alone: the wallet belongs to EconomyLedger, the stamps and kill counters
+    // to PlayerStatsAggregator, which changes them with guarded $inc updates
+    private static final List<String> ATOMIC_FIELDS = Arrays.asList("_id", "currency", "ingestSequence", "backfillSequence",
+        "kills", "deaths", "suicides", "weaponKills", "mostUsedWeapon", "mostUsedWeaponKills",
+        "currentKillStreak", "longestKillStreak", "longestKillDistance", "longestKillVictim", "longestKillWeapon",
+        "lastUpdated");
     
     private MongoCollection<Player> collection;
     
@@ -71,18 +100,265 @@ public class PlayerRepository {
                 logger.debug("Inserted new player: {} with proper isolation (Guild={}, Server={})",
                     player.getName(), player.getGuildId(), player.getServerId());
             } else {
-                getCollection().replaceOne(
+                // Wallets, ingestion stamps and kill counters only change through their own atomic
+                // updates, so an older copy of the player must not write them back
+                BsonDocument fields = new BsonDocument();
+                getCollection().getCodecRegistry().get(Player.class)
+                    .encode(new BsonDocumentWriter(fields), player, EncoderContext.builder().build());
+                for (String field : ATOMIC_FIELDS) {
+                    fields.remove(field);
+                }
+                getCollection().updateOne(
                     Filters.eq("_id", player.getId()),
-                    player
+                    new BsonDocument("$set", fields)
                 );
                 logger.debug("Updated player: {} with isolation (Guild={}, Server={})",
                     player.getName(), player.getGuildId(), player.getServerId());
             }
+            NameIndex.getInstance().putPlayer(player.getGuildId(), player.getServerId(),
+                player.getPlayerId(), player.getName());
         } catch (Exception e) {
             logger.error("Error saving player: {}", player.getName(), e);
         }
     }
     
+    /**
+     * Repair a player's kill counters, e.g. after finding them out of step with the weapon counts
+     * The repair only applies while the counters it was computed from still hold the values read,
+     * so a kill recorded since then is not overwritten; a repair that loses that race is skipped
+     * and left to the next run.
+     * @param expected Counter values the repair was computed from
+     * @param values Counter values to store
+     * @return True if the counters were replaced
+     */
+    public boolean repairCounters(Player player, Map<String, ?> expected, Map<String, ?> values) {
+        if (player.getId() == null) {
+            return false;
+        }
+        try {
+            List<Bson> filters = new ArrayList<>();
+            filters.add(Filters.eq("_id", player.getId()));
+            expected.forEach((field, value) -> filters.add(Filters.eq(field, value)));
+            List<Bson> updates = new ArrayList<>();
+            values.forEach((field, value) -> updates.add(Updates.set(field, value)));
+            
+            return getCollection().updateOne(Filters.and(filters), Updates.combine(updates)).getModifiedCount() > 0;
+        } catch (Exception e) {
+            logger.error("Error repairing counters of player: {}", player.getName(), e);
+            return false;
+        }
+    }
+    
+    /**
+     * Apply a batch of player writes in a single unordered bulk write
+     * @param models The writes to apply
+     * @return True if the bulk write succeeded
+     */
+    public boolean bulkWrite(List<? extends WriteModel<? extends Player>> models) {
+        if (models.isEmpty()) {
+            return true;
+        }
+        
+        try {
+            BulkWriteResult result = getCollection().bulkWrite(models, new BulkWriteOptions().ordered(false));
+            logger.debug("Bulk wrote {} players (matched={}, upserted={})",
+                models.size(), result.getMatchedCount(), result.getUpserts().size());
+            return true;
+        } catch (MongoBulkWriteException e) {
+            // A guarded ingestion upsert that finds its batch already applied collides with the unique index
+            boolean onlyDuplicates = e.getWriteErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY);
+            if (onlyDuplicates && e.getWriteConcernError() == null) {
+                logger.debug("Bulk wrote {} players, {} already had their ingestion batch applied",
+                    models.size(), e.getWriteErrors().size());
+                return true;
+            }
+            logger.error("Error bulk writing {} players", models.size(), e);
+            return false;
+        } catch (Exception e) {
+            logger.error("Error bulk writing {} players", models.size(), e);
+            return false;
+        }
+    }
+    
+    /**
+     * Check whether any player of a server already has an ingestion batch applied
+     * Used after a restart to tell whether an uncommitted batch reached the database before the crash.
+     * @return True if a player document carries the sequence or a later one
+     */
+    public boolean hasIngestSequence(long guildId, String serverId, long sequence) {
+        return hasSequence(guildId, serverId, "ingestSequence", sequence);
+    }
+    
+    /**
+     * Check whether any player of a server already has a historical backfill batch applied
+     * @return True if a player document carries the sequence or a later one
+     */
+    public boolean hasBackfillSequence(long guildId, String serverId, long sequence) {
+        return hasSequence(guildId, serverId, "backfillSequence", sequence);
+    }
+    
+    private boolean hasSequence(long guildId, String serverId, String field, long sequence) {
+        try {
+            return getCollection().find(Filters.and(
+                Filters.eq("guildId", guildId),
+                Filters.eq("serverId", serverId),
+                Filters.gte(field, sequence)
+            )).projection(Projections.include("_id")).first() != null;
+        } catch (Exception e) {
+            logger.error("Error checking {} {} (Guild={}, Server={})", field, sequence, guildId, serverId, e);
+            return false;
+        }
+    }
+    
+    /**
+     * Atomically add coins to a player's wallet, writing only the currency balance fields
+     * A negative amount is a debit and only applies while the wallet holds at least that much.
+     * A settlement key makes the change apply at most once: it is remembered on the player
+     * document in the same update, and an update carrying a remembered key matches nothing.
+     * @param settlementKey Idempotency key, or null for a plain change
+     * @return The currency with the new wallet balance, or null if the player does not exist,
+     *         cannot afford the debit, or the settlement was already applied
+     */
+    public Currency adjustCoins(String playerId, long guildId, String serverId, long amount, String settlementKey) {
+        List<Bson> filters = new ArrayList<>();
+        List<Bson> updates = new ArrayList<>();
+        updates.add(Updates.inc("currency.coins", amount));
+
+        if (amount < 0) {
+            filters.add(Filters.gte("currency.coins", -amount));
+            updates.add(Updates.inc("currency.totalSpent", -amount));
+        } else if (amount > 0) {
+            updates.add(Updates.inc("currency.totalEarned", amount));
+        }
+
+        if (settlementKey != null) {
+            filters.add(Filters.ne("currency.settlementKeys", settlementKey));
+            updates.add(Updates.pushEach("currency.settlementKeys", Arrays.asList(settlementKey),
+                new PushOptions().slice(-RECENT_SETTLEMENT_KEYS)));
+        }
+
+        return updateCurrency(playerId, guildId, serverId, filters, updates, ReturnDocument.AFTER,
+            "adjusting coins by " + amount);
+    }
+    
+    /**
+     * Check whether a settlement has been applied to a player's wallet
+     * Only the most recent settlement keys are kept, so this is meant for settlements made minutes ago.
+     */
+    public boolean hasSettlement(String playerId, long guildId, String serverId, String settlementKey) {
+        try {
+            return getCollection().find(Filters.and(
+                Filters.eq("playerId", playerId),
+                Filters.eq("guildId", guildId),
+                Filters.eq("serverId", serverId),
+                Filters.eq("currency.settlementKeys", settlementKey)
+            )).projection(Projections.include("_id")).first() != null;
+        } catch (Exception e) {
+            logger.error("Error checking settlement {} for player ID: {} (Guild={}, Server={})",
+                settlementKey, playerId, guildId, serverId, e);
+            return false;
+        }
+    }
+    
+    /**
+     * Atomically pay a reward that can be claimed once per cooldown
+     * The claim time is written in the same update as the coins, so two claims racing each other pay once.
+     * @param claimField Currency field holding the last claim time, e.g. "lastDailyReward"
+     * @return The currency with the new wallet balance, or null if the player does not exist or
+     *         already claimed within the cooldown
+     */
+    public Currency claimCoins(String playerId, long guildId, String serverId, long amount,
+                               String claimField, long cooldownMillis) {
+        long now = System.currentTimeMillis();
+        List<Bson> filters = Arrays.asList(Filters.not(Filters.gt("currency." + claimField, now - cooldownMillis)));
+        List<Bson> updates = new ArrayList<>(Arrays.asList(
+            Updates.inc("currency.coins", amount),
+            Updates.inc("currency.totalEarned", amount),
+            Updates.set("currency." + claimField, now)
+        ));
+        return updateCurrency(playerId, guildId, serverId, filters, updates, ReturnDocument.AFTER,
+            "claiming " + claimField);
+    }
+    
+    /**
+     * Atomically move coins between the wallet and the bank
+     * @param amount Coins to deposit, negative to withdraw
+     * @return The currency with the new wallet and bank balances, or null if the player does not
+     *         exist or the side the coins come from holds less than the amount
+     */
+    public Currency moveToBank(String playerId, long guildId, String serverId, long amount) {
+        List<Bson> filters = Arrays.asList(amount >= 0
+            ? Filters.gte("currency.coins", amount)
+            : Filters.gte("currency.bankCoins", -amount));
+        List<Bson> updates = new ArrayList<>(Arrays.asList(
+            Updates.inc("currency.coins", -amount),
+            Updates.inc("currency.bankCoins", amount)
+        ));
+        return updateCurrency(playerId, guildId, serverId, filters, updates, ReturnDocument.AFTER,
+            "moving " + amount + " coins to the bank");
+    }
+    
+    /**
+     * Atomically set a player's wallet balance
+     * @return The currency as it was before the change, or null if the player does not exist
+     */
+    public Currency setCoins(String playerId, long guildId, String serverId, long coins) {
+        List<Bson> updates = new ArrayList<>(Arrays.asList(Updates.set("currency.coins", coins)));
+        return updateCurrency(playerId, guildId, serverId, new ArrayList<>(), updates, ReturnDocument.BEFORE,
+            "setting coins to " + coins);
+    }
+    
+    /**
+     * Atomically reset a player's economy data
+     * Recent settlement keys are kept so a game that settled before the reset cannot pay again.
+     * @return The currency as it was before the reset, or null if the player does not exist
+     */
+    public Currency resetCurrency(String playerId, long guildId, String serverId) {
+        List<Bson> updates = new ArrayList<>(Arrays.asList(
+            Updates.set("currency.coins", 0L),
+            Updates.set("currency.bankCoins", 0L),
+            Updates.set("currency.bountyPoints", 0),
+            Updates.set("currency.prestigePoints", 0),
+            Updates.set("currency.lastDailyReward", 0L),
+            Updates.set("currency.lastWork", 0L),
+            Updates.set("currency.totalEarned", 0L),
+            Updates.set("currency.totalSpent", 0L)
+        ));
+        return updateCurrency(playerId, guildId, serverId, new ArrayList<>(), updates, ReturnDocument.BEFORE,
+            "resetting currency");
+    }
+    
+    /**
+     * Apply one conditional update to a player's currency and return its balances
+     * @param returnDocument Whether to return the balances before or after the update
+     */
+    private Currency updateCurrency(String playerId, long guildId, String serverId, List<Bson> conditions,
+                                    List<Bson> updates, ReturnDocument returnDocument, String action) {
+        try {
+            List<Bson> filters = new ArrayList<>(Arrays.asList(
+                Filters.eq("playerId", playerId),
+                Filters.eq("guildId", guildId),
+                Filters.eq("serverId", serverId)
+            ));
+            filters.addAll(conditions);
+            updates.add(Updates.set("currency.lastUpdated", System.currentTimeMillis()));
+
+            Player updated = getCollection().findOneAndUpdate(Filters.and(filters), Updates.combine(updates),
+                new FindOneAndUpdateOptions()
+                    .projection(Projections.include("currency.coins", "currency.bankCoins"))
+                    .returnDocument(returnDocument));
+            if (updated == null) {
+                return null;
+            }
+            // A player without a wallet yet had nothing before the update
+            return updated.getCurrency() != null ? updated.getCurrency() : new Currency();
+        } catch (Exception e) {
+            logger.error("Error {} for player ID: {} (Guild={}, Server={})",
+                action, playerId, guildId, serverId, e);
+            return null;
+        }
+    }
+
     /**
      * Find a player by player ID with guild and server isolation
      */
@@ -441,6 +717,131 @@ public class PlayerRepository {
      * @param limit Maximum number of players to return
      * @return List of top players with highest KD ratio
      */
+    /**
+     * Stream every named player with only the fields the leaderboards rank on
+     * Used to load the in-memory leaderboards; players are decoded one batch at a time.
+     * @param action Called for each player
+     */
+    public void forEachRankedPlayer(Consumer<Player> action) {
+        forEachRankedPlayer(namedPlayers(), action);
+    }
+    
+    /**
+     * Stream the named players of some guilds with only the fields the leaderboards rank on
+     * Used to reload the leaderboards of guilds whose shard this node has just taken over.
+     * @param guildIds The Discord guild IDs to load
+     * @param action Called for each player
+     */
+    public void forEachRankedPlayer(Collection<Long> guildIds, Consumer<Player> action) {
+        forEachRankedPlayer(Filters.and(Filters.in("guildId", guildIds), namedPlayers()), action);
+    }
+    
+    private void forEachRankedPlayer(Bson filter, Consumer<Player> action) {
+        getCollection().find(filter)
+            .projection(Projections.include("playerId", "name", "guildId", "serverId", "kills", "deaths",
+                "suicides", "longestKillDistance", "longestKillVictim", "longestKillWeapon",
+                "longestKillStreak", "currentKillStreak", "killedByMost", "scoreValue", "lastUpdated"))
+            .batchSize(5000)
+            .forEach(action);
+    }
+    
+    /**
+     * Stream every named player with only their identity and name
+     * Used to load the in-memory name index.
+     * @param action Called for each player
+     */
+    public void forEachPlayerName(Consumer<Player> action) {
+        forEachPlayerName(namedPlayers(), action);
+    }
+    
+    /**
+     * Stream the named players of some guilds with only their identity and name
+     * @param guildIds The Discord guild IDs to load
+     * @param action Called for each player
+     */
+    public void forEachPlayerName(Collection<Long> guildIds, Consumer<Player> action) {
+        forEachPlayerName(Filters.and(Filters.in("guildId", guildIds), namedPlayers()), action);
+    }
+    
+    private void forEachPlayerName(Bson filter, Consumer<Player> action) {
+        getCollection().find(filter)
+            .projection(Projections.include("playerId", "name", "guildId", "serverId"))
+            .batchSize(5000)
+            .forEach(action);
+    }
+    
+    /**
+     * Stream every player in a faction with only their identity and faction
+     * Used to load the in-memory faction membership index.
+     * @param action Called for each player
+     */
+    public void forEachFactionMember(Consumer<Player> action) {
+        forEachFactionMember(Filters.ne("factionId", null), action);
+    }
+    
+    /**
+     * Stream the faction members of some guilds with only their identity and faction
+     * @param guildIds The Discord guild IDs to load
+     * @param action Called for each player
+     */
+    public void forEachFactionMember(Collection<Long> guildIds, Consumer<Player> action) {
+        forEachFactionMember(Filters.and(Filters.in("guildId", guildIds), Filters.ne("factionId", null)), action);
+    }
+    
+    private void forEachFactionMember(Bson filter, Consumer<Player> action) {
+        getCollection().find(filter)
+            .projection(Projections.include("playerId", "guildId", "serverId", "factionId"))
+            .batchSize(5000)
+            .forEach(action);
+    }
+    
+    private static Bson namedPlayers() {
+        return Filters.and(
+            Filters.exists("name"),
+            Filters.ne("name", ""),
+            Filters.ne("name", "**")
+        );
+    }
+    
+    /**
+     * Sum member count, kills and deaths per faction in one aggregation, across all guilds
+     * @return One document per faction with _id (the faction ID), members, kills and deaths
+     */
+    public List<Document> aggregateFactionTotals() {
+        return aggregateFactionTotals(Filters.ne("factionId", null));
+    }
+    
+    /**
+     * Sum member count, kills and deaths per faction of one guild in one aggregation
+     * @return One document per faction with _id (the faction ID), members, kills and deaths
+     */
+    public List<Document> aggregateFactionTotalsByGuildId(long guildId) {
+        return aggregateFactionTotals(Filters.and(Filters.eq("guildId", guildId), Filters.ne("factionId", null)));
+    }
+    
+    /**
+     * Sum member count, kills and deaths of one faction
+     * @return A single document with _id (the faction ID), members, kills and deaths, or none without members
+     */
+    public List<Document> aggregateFactionTotalsByFactionId(ObjectId factionId) {
+        return aggregateFactionTotals(Filters.eq("factionId", factionId));
+    }
+    
+    private List<Document> aggregateFactionTotals(Bson match) {
+        // Only the grouped fields leave the storage engine, never whole player documents
+        return getCollection().aggregate(Arrays.asList(
+                Aggregates.match(match),
+                Aggregates.project(Projections.fields(
+                    Projections.excludeId(),
+                    Projections.include("factionId", "kills", "deaths"))),
+                Aggregates.group("$factionId",
+                    Accumulators.sum("members", 1),
+                    Accumulators.sum("kills", "$kills"),
+                    Accumulators.sum("deaths", "$deaths"))
+            ), Document.class)
+            .into(new ArrayList<>());
+    }
+    
     /**
      * Get all players using isolation-aware approach
      * This method properly respects isolation boundaries when retrieving all players
@@ -609,6 +1010,63 @@ public class PlayerRepository {
         }
     }
     
+    /**
+     * Find players of a guild by name, best matches first
+     * Names are resolved through the in-memory name index (exact, prefix, contains, then near
+     * misses) and the matching players fetched in one query. Until the index is loaded this falls
+     * back to a case-insensitive partial match in the database.
+     * @param name The name or partial name to search for
+     * @param guildId The guild ID for isolation
+     * @param serverId The server ID for isolation, or null for every server of the guild
+     * @param limit Maximum number of players to return
+     * @return Matching players within the isolation boundary
+     */
+    public List<Player> findByNameInGuild(String name, long guildId, String serverId, int limit) {
+        NameIndex nameIndex = NameIndex.getInstance();
+        if (!nameIndex.isReady()) {
+            List<Player> players = serverId != null
+                ? findByNameLikeAndGuildIdAndServerId(Pattern.quote(name), guildId, serverId)
+                : getCollection().find(Filters.and(
+                        Filters.regex("name", Pattern.quote(name), "i"),
+                        Filters.eq("guildId", guildId)
+                    )).limit(limit).into(new ArrayList<>());
+            return players.size() > limit ? players.subList(0, limit) : players;
+        }
+        
+        List<NameIndex.PlayerName> matches = nameIndex.findPlayers(guildId, serverId, name, limit);
+        if (matches.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        try {
+            List<Bson> identities = new ArrayList<>(matches.size());
+            for (NameIndex.PlayerName match : matches) {
+                identities.add(Filters.and(
+                    Filters.eq("serverId", match.getServerId()),
+                    Filters.eq("playerId", match.getPlayerId())
+                ));
+            }
+            
+            Map<String, Player> found = new HashMap<>();
+            for (Player player : getCollection().find(Filters.and(Filters.eq("guildId", guildId), Filters.or(identities)))) {
+                found.put(player.getServerId() + "/" + player.getPlayerId(), player);
+            }
+            
+            // Keep the index's ranking
+            List<Player> players = new ArrayList<>(found.size());
+            for (NameIndex.PlayerName match : matches) {
+                Player player = found.get(match.getServerId() + "/" + match.getPlayerId());
+                if (player != null) {
+                    players.add(player);
+                }
+            }
+            return players;
+        } catch (Exception e) {
+            logger.error("Error finding players by name: {} (Guild={}, Server={})", name, guildId, serverId, e);
+            return new ArrayList<>();
+        }
+    }
+    
     /**
      * Find players by name using case-insensitive partial matching with proper guild and server isolation
      * @param name The partial name to search for
@@ -646,6 +1104,7 @@ public class PlayerRepository {
             
             if (player != null) {
                 getCollection().deleteOne(Filters.eq("_id", id));
+                NameIndex.getInstance().removePlayer(guildId, serverId, player.getPlayerId());
                 logger.debug("Deleted player with ID: {} from Guild={}, Server={}", id, guildId, serverId);
             } else {
                 logger.warn("Prevented deletion of player with ID: {} due to isolation boundary mismatch", id);
@@ -732,6 +1191,7 @@ public class PlayerRepository {
                 Filters.eq("serverId", serverId)
             ));
             logger.info("Deleted {} players from Guild={}, Server={}", result.getDeletedCount(), guildId, serverId);
+            NameIndex.getInstance().removeServerPlayers(guildId, serverId);
             return result.getDeletedCount();
         } catch (Exception e) {
             logger.error("Error deleting players by guild and server", e);
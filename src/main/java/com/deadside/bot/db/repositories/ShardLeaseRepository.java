@@ -0,0 +1,131 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.models.ShardLease;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.result.UpdateResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repository for the shard ownership table shared by every bot process
+ * Every write is conditional on the current owner, so two processes can never both hold a lease.
+ */
+public class ShardLeaseRepository {
+    private static final Logger logger = LoggerFactory.getLogger(ShardLeaseRepository.class);
+    private static final String COLLECTION_NAME = "shard_leases";
+    private static final int DUPLICATE_KEY = 11000;
+
+    private MongoCollection<ShardLease> collection;
+
+    public ShardLeaseRepository() {
+        try {
+            this.collection = MongoDBConnection.getInstance().getDatabase()
+                .getCollection(COLLECTION_NAME, ShardLease.class);
+        } catch (IllegalStateException e) {
+            // This can happen during early initialization - handle gracefully
+            logger.warn("MongoDB connection not initialized yet. Usage will be deferred until initialization.");
+        }
+    }
+
+    /**
+     * Get the MongoDB collection, initializing if needed
+     */
+    private MongoCollection<ShardLease> getCollection() {
+        if (collection == null) {
+            try {
+                this.collection = MongoDBConnection.getInstance().getDatabase()
+                    .getCollection(COLLECTION_NAME, ShardLease.class);
+            } catch (Exception e) {
+                logger.error("Failed to initialize shard lease collection", e);
+            }
+        }
+        return collection;
+    }
+
+    /**
+     * Take a lease that is unowned, expired or already ours
+     * @return True if the caller now holds the lease
+     */
+    public boolean tryAcquire(int shardId, String owner, long now, long expiresAt) {
+        try {
+            UpdateResult result = getCollection().updateOne(
+                Filters.and(
+                    Filters.eq("_id", shardId),
+                    Filters.or(
+                        Filters.eq("owner", null),
+                        Filters.eq("owner", owner),
+                        Filters.lt("expiresAt", now)
+                    )
+                ),
+                Updates.combine(
+                    Updates.set("owner", owner),
+                    Updates.set("acquiredAt", now),
+                    Updates.set("expiresAt", expiresAt)
+                ),
+                new UpdateOptions().upsert(true)
+            );
+            return result.getMatchedCount() > 0 || result.getUpsertedId() != null;
+        } catch (MongoWriteException e) {
+            if (e.getError().getCode() == DUPLICATE_KEY) {
+                // The lease exists and another process holds it
+                return false;
+            }
+            logger.error("Error acquiring lease for shard {}", shardId, e);
+            return false;
+        } catch (Exception e) {
+            logger.error("Error acquiring lease for shard {}", shardId, e);
+            return false;
+        }
+    }
+
+    /**
+     * Extend a lease the caller still holds
+     * @return True if the lease was renewed, false if it was lost to another process
+     */
+    public boolean renew(int shardId, String owner, long expiresAt) {
+        try {
+            UpdateResult result = getCollection().updateOne(
+                Filters.and(Filters.eq("_id", shardId), Filters.eq("owner", owner)),
+                Updates.set("expiresAt", expiresAt)
+            );
+            return result.getMatchedCount() > 0;
+        } catch (Exception e) {
+            logger.error("Error renewing lease for shard {}", shardId, e);
+            return false;
+        }
+    }
+
+    /**
+     * Give up a lease so another process can take it without waiting for it to expire
+     */
+    public void release(int shardId, String owner) {
+        try {
+            getCollection().updateOne(
+                Filters.and(Filters.eq("_id", shardId), Filters.eq("owner", owner)),
+                Updates.combine(Updates.set("owner", null), Updates.set("expiresAt", 0L))
+            );
+        } catch (Exception e) {
+            logger.error("Error releasing lease for shard {}", shardId, e);
+        }
+    }
+
+    /**
+     * Find every lease, owned or not
+     */
+    public List<ShardLease> findAll() {
+        try {
+            return getCollection().find().into(new ArrayList<>());
+        } catch (Exception e) {
+            logger.error("Error finding shard leases", e);
+            return new ArrayList<>();
+        }
+    }
+}
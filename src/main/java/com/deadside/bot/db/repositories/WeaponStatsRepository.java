@@ -0,0 +1,145 @@
+package com.deadside.bot.db.repositories;
+
+import com.deadside.bot.db.MongoDBConnection;
+import com.deadside.bot.db.models.WeaponStats;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.result.DeleteResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Repository for pre-aggregated weapon statistics with isolation between guilds and servers
+ */
+public class WeaponStatsRepository {
+    private static final Logger logger = LoggerFactory.getLogger(WeaponStatsRepository.class);
+    private static final String COLLECTION_NAME = "weapon_stats";
+    private static final int DUPLICATE_KEY = 11000;
+
+    private MongoCollection<WeaponStats> collection;
+
+    public WeaponStatsRepository() {
+        try {
+            this.collection = MongoDBConnection.getInstance().getDatabase()
+                .getCollection(COLLECTION_NAME, WeaponStats.class);
+        } catch (IllegalStateException e) {
+            // This can happen during early initialization - handle gracefully
+            logger.warn("MongoDB connection not initialized yet. Usage will be deferred until initialization.");
+        }
+    }
+
+    /**
+     * Get the MongoDB collection, initializing if needed
+     */
+    private MongoCollection<WeaponStats> getCollection() {
+        if (collection == null) {
+            try {
+                this.collection = MongoDBConnection.getInstance().getDatabase()
+                    .getCollection(COLLECTION_NAME, WeaponStats.class);
+            } catch (Exception e) {
+                logger.error("Failed to initialize weapon stats collection", e);
+            }
+        }
+        return collection;
+    }
+
+    /**
+     * Apply a batch of weapon statistics upserts in one unordered bulk write
+     * @return True if the batch was written
+     */
+    public boolean bulkWrite(List<? extends WriteModel<? extends WeaponStats>> models) {
+        if (models.isEmpty()) {
+            return true;
+        }
+
+        try {
+            BulkWriteResult result = getCollection().bulkWrite(models, new BulkWriteOptions().ordered(false));
+            logger.debug("Bulk wrote {} weapon stats (matched={}, upserted={})",
+                models.size(), result.getMatchedCount(), result.getUpserts().size());
+            return true;
+        } catch (MongoBulkWriteException e) {
+            // A guarded ingestion upsert that finds its batch already applied collides with the unique index
+            boolean onlyDuplicates = e.getWriteErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY);
+            if (onlyDuplicates && e.getWriteConcernError() == null) {
+                logger.debug("Bulk wrote {} weapon stats, {} already had their ingestion batch applied",
+                    models.size(), e.getWriteErrors().size());
+                return true;
+            }
+            logger.error("Error bulk writing {} weapon stats", models.size(), e);
+            return false;
+        } catch (Exception e) {
+            logger.error("Error bulk writing {} weapon stats", models.size(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Check whether any weapon of a server already has a live ingestion batch applied
+     * @return True if a weapon document carries the sequence or a later one
+     */
+    public boolean hasIngestSequence(long guildId, String serverId, long sequence) {
+        return hasSequence(guildId, serverId, "ingestSequence", sequence);
+    }
+
+    /**
+     * Check whether any weapon of a server already has a historical backfill batch applied
+     * @return True if a weapon document carries the sequence or a later one
+     */
+    public boolean hasBackfillSequence(long guildId, String serverId, long sequence) {
+        return hasSequence(guildId, serverId, "backfillSequence", sequence);
+    }
+
+    private boolean hasSequence(long guildId, String serverId, String field, long sequence) {
+        try {
+            return getCollection().find(Filters.and(
+                Filters.eq("guildId", guildId),
+                Filters.eq("serverId", serverId),
+                Filters.gte(field, sequence)
+            )).projection(Projections.include("_id")).first() != null;
+        } catch (Exception e) {
+            logger.error("Error checking {} {} (Guild={}, Server={})", field, sequence, guildId, serverId, e);
+            return false;
+        }
+    }
+
+    /**
+     * Stream every weapon document, for loading the in-memory weapon statistics
+     */
+    public void forEachWeapon(Consumer<WeaponStats> action) {
+        getCollection().find().batchSize(5000).forEach(action);
+    }
+
+    /**
+     * Stream the weapon documents of some guilds, for reloading guilds whose shard this node has just taken over
+     */
+    public void forEachWeapon(Collection<Long> guildIds, Consumer<WeaponStats> action) {
+        getCollection().find(Filters.in("guildId", guildIds)).batchSize(5000).forEach(action);
+    }
+
+    /**
+     * Delete all weapon stats for a specific guild and server
+     * @return Number of weapon stats deleted
+     */
+    public long deleteAllByGuildIdAndServerId(long guildId, String serverId) {
+        try {
+            DeleteResult result = getCollection().deleteMany(Filters.and(
+                Filters.eq("guildId", guildId),
+                Filters.eq("serverId", serverId)
+            ));
+            logger.info("Deleted {} weapon stats from Guild={}, Server={}", result.getDeletedCount(), guildId, serverId);
+            return result.getDeletedCount();
+        } catch (Exception e) {
+            logger.error("Error deleting weapon stats by guild and server", e);
+            return 0;
+        }
+    }
+}
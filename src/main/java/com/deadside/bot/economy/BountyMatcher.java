@@ -0,0 +1,378 @@
+package com.deadside.bot.economy;
+
+import com.deadside.bot.config.Config;
+import com.deadside.bot.db.models.Bounty;
+import com.deadside.bot.db.models.Player;
+import com.deadside.bot.db.repositories.BountyRepository;
+import com.deadside.bot.utils.EmbedDispatcher;
+import com.deadside.bot.utils.EmbedUtils;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Matches live kills against active bounties without touching the database per kill
+ * Active bounties are held in memory keyed by (guildId, serverId, targetId), loaded at startup
+ * and updated when bounties are placed, claimed or expire. A kill is a single hash lookup; a
+ * hit takes the target's bounties out of the index and queues them. A background flush claims
+ * queued bounties with conditional updates, announces the claims in the killfeed channel and
+ * pays each bounty through the economy ledger, retrying payouts until they are applied.
+ */
+public class BountyMatcher {
+    private static final Logger logger = LoggerFactory.getLogger(BountyMatcher.class);
+    private static BountyMatcher instance;
+
+    private static final int FLUSH_INTERVAL_SECONDS = 5;
+    private static final int EXPIRY_SWEEP_MINUTES = 60;
+
+    private final BountyRepository bountyRepository;
+    private final ConcurrentHashMap<TargetKey, List<Bounty>> activeBounties = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<PendingClaim> pendingClaims = new ConcurrentLinkedQueue<>();
+    // Claimed bounties whose claimer has not been paid yet
+    private final ConcurrentLinkedQueue<Bounty> unpaid = new ConcurrentLinkedQueue<>();
+    // Bounties whose payout already failed once, so the retries are not logged again
+    private final Set<ObjectId> failedPayouts = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService flusher;
+    private final long expiryMs;
+
+    // Metrics
+    private final AtomicLong matches = new AtomicLong();
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong payouts = new AtomicLong();
+    private final AtomicLong lostClaims = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+
+    private BountyMatcher() {
+        this.bountyRepository = new BountyRepository();
+        this.expiryMs = TimeUnit.DAYS.toMillis(Config.getInstance().getBountyExpiryDays());
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "bounty-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        flusher.scheduleWithFixedDelay(this::expireQuietly, 1, EXPIRY_SWEEP_MINUTES, TimeUnit.MINUTES);
+    }
+
+    public static synchronized BountyMatcher getInstance() {
+        if (instance == null) {
+            instance = new BountyMatcher();
+        }
+        return instance;
+    }
+
+    /**
+     * Load every active bounty, replacing the current index
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        activeBounties.clear();
+        bountyRepository.forEachActive(this::index);
+        unpaid.clear();
+        bountyRepository.forEachUnpaidClaim(unpaid::add);
+        logger.info("Loaded {} targets with active bounties and {} unpaid claims in {} ms",
+                activeBounties.size(), unpaid.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Reload the active bounties and unpaid claims of some guilds, leaving every other guild as it is
+     * Used when this node takes over the shard of those guilds from another node; claims already
+     * queued here are not queued twice.
+     */
+    public void reload(Collection<Long> guildIds) {
+        long start = System.currentTimeMillis();
+        activeBounties.keySet().removeIf(key -> guildIds.contains(key.guildId));
+        bountyRepository.forEachActive(guildIds, this::index);
+        Set<ObjectId> queued = new HashSet<>();
+        unpaid.forEach(bounty -> queued.add(bounty.getId()));
+        int[] claims = {0};
+        bountyRepository.forEachUnpaidClaim(guildIds, bounty -> {
+            if (queued.add(bounty.getId())) {
+                unpaid.add(bounty);
+                claims[0]++;
+            }
+        });
+        logger.info("Reloaded active bounties and {} unpaid claims of {} guilds in {} ms",
+                claims[0], guildIds.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Store a new bounty and start matching kills against it
+     * @return True if the bounty was stored
+     */
+    public boolean place(Bounty bounty) {
+        bounty.setActive(true);
+        if (bounty.getPlacedAt() <= 0) {
+            bounty.setPlacedAt(System.currentTimeMillis());
+        }
+        if (!bountyRepository.save(bounty)) {
+            return false;
+        }
+        index(bounty);
+        return true;
+    }
+
+    /**
+     * Stop matching kills against a bounty that was claimed or withdrawn elsewhere
+     */
+    public void remove(Bounty bounty) {
+        activeBounties.computeIfPresent(key(bounty), (k, bounties) -> {
+            List<Bounty> remaining = new ArrayList<>(bounties);
+            remaining.removeIf(b -> Objects.equals(b.getId(), bounty.getId()));
+            return remaining.isEmpty() ? null : Collections.unmodifiableList(remaining);
+        });
+    }
+
+    /**
+     * Whether a player has an active bounty on them, a single hash lookup
+     */
+    public boolean hasBounty(long guildId, String serverId, String targetId) {
+        return targetId != null && serverId != null && !activeBounties.isEmpty()
+                && activeBounties.containsKey(new TargetKey(guildId, serverId, targetId));
+    }
+
+    /**
+     * Claim every bounty on a killed player for the killer
+     * The bounties leave the index right away so a second kill cannot claim them again; the
+     * database claim, payout and announcement follow on the next flush.
+     * @param announceChannel Killfeed channel for the claim announcement, or null for none
+     * @return True if the victim had bounties on them
+     */
+    public boolean claim(long guildId, String serverId, String killerId, String killerName,
+                         String victimId, String victimName, MessageChannel announceChannel) {
+        if (killerId == null || victimId == null || serverId == null || killerId.equals(victimId)) {
+            return false;
+        }
+
+        List<Bounty> bounties = activeBounties.remove(new TargetKey(guildId, serverId, victimId));
+        if (bounties == null) {
+            return false;
+        }
+
+        for (Bounty bounty : bounties) {
+            pendingClaims.add(new PendingClaim(bounty, killerId, killerName, victimName, announceChannel));
+        }
+        matches.addAndGet(bounties.size());
+        logger.debug("{} killed {} with {} bounties on them (Guild={}, Server={})",
+                killerName, victimName, bounties.size(), guildId, serverId);
+        return true;
+    }
+
+    /**
+     * Claim queued bounties, announce the claims and pay the killers
+     * A claimed bounty stays marked unpaid until its payout is applied. Payouts that cannot be
+     * applied yet, e.g. because a first-time killer's stats are not written yet, are retried on
+     * later flushes with the same settlement key, so each bounty is paid exactly once.
+     * @return The number of bounties claimed
+     */
+    public synchronized int flush() {
+        int won = 0;
+        PendingClaim pending;
+        while ((pending = pendingClaims.poll()) != null) {
+            Bounty bounty = pending.bounty;
+            if (bountyRepository.markAsClaimed(bounty.getId(), pending.killerId, pending.killerName,
+                    bounty.getGuildId(), bounty.getServerId())) {
+                bounty.setClaimerId(pending.killerId);
+                unpaid.add(bounty);
+                announce(pending);
+                won++;
+            } else {
+                // Already claimed, expired or withdrawn outside this process
+                lostClaims.incrementAndGet();
+            }
+        }
+
+        payClaims();
+        claimed.addAndGet(won);
+        return won;
+    }
+
+    /**
+     * Pay the claimer of every unpaid bounty, keeping the ones that could not be paid for the next flush
+     */
+    private void payClaims() {
+        EconomyLedger ledger = EconomyLedger.getInstance();
+        int count = unpaid.size();
+        for (int i = 0; i < count; i++) {
+            Bounty bounty = unpaid.poll();
+            if (bounty == null) {
+                break;
+            }
+
+            Player player = new Player();
+            player.setPlayerId(bounty.getClaimerId());
+            player.setGuildId(bounty.getGuildId());
+            player.setServerId(bounty.getServerId());
+            String settlementKey = "bounty:" + bounty.getId();
+
+            boolean paid = ledger.settle(player, bounty.getAmount(), "bounty:claim", settlementKey)
+                    || ledger.isSettled(player, settlementKey);
+            if (paid && bountyRepository.markAsPaid(bounty.getId(), bounty.getGuildId(), bounty.getServerId())) {
+                failedPayouts.remove(bounty.getId());
+                payouts.incrementAndGet();
+                continue;
+            }
+
+            if (!paid && failedPayouts.add(bounty.getId())) {
+                logger.warn("Could not pay {} coins of bounty {} to player {} yet, retrying (Guild={}, Server={})",
+                        bounty.getAmount(), bounty.getId(), bounty.getClaimerId(), bounty.getGuildId(), bounty.getServerId());
+            }
+            unpaid.add(bounty);
+        }
+    }
+
+    /**
+     * Deactivate bounties older than the configured lifetime
+     * @return The number of bounties expired
+     */
+    public int expire() {
+        long cutoff = System.currentTimeMillis() - expiryMs;
+        long stored = bountyRepository.expirePlacedBefore(cutoff);
+
+        int removed = 0;
+        for (TargetKey key : activeBounties.keySet()) {
+            List<Bounty> before = activeBounties.get(key);
+            List<Bounty> after = activeBounties.computeIfPresent(key, (k, bounties) -> {
+                List<Bounty> remaining = new ArrayList<>(bounties);
+                remaining.removeIf(b -> b.getPlacedAt() < cutoff);
+                return remaining.isEmpty() ? null : Collections.unmodifiableList(remaining);
+            });
+            removed += (before != null ? before.size() : 0) - (after != null ? after.size() : 0);
+        }
+
+        if (stored > 0 || removed > 0) {
+            logger.info("Expired {} bounties ({} held in memory)", stored, removed);
+        }
+        expired.addAndGet(stored);
+        return removed;
+    }
+
+    private void index(Bounty bounty) {
+        if (bounty.getTargetId() == null || bounty.getServerId() == null) {
+            return;
+        }
+        activeBounties.compute(key(bounty), (k, bounties) -> {
+            List<Bounty> updated = bounties == null ? new ArrayList<>() : new ArrayList<>(bounties);
+            updated.add(bounty);
+            return Collections.unmodifiableList(updated);
+        });
+    }
+
+    private void announce(PendingClaim claim) {
+        if (claim.channel == null) {
+            return;
+        }
+        EmbedDispatcher.getInstance().submit(claim.channel, new EmbedBuilder()
+                .setTitle("Bounty Claimed")
+                .setDescription(claim.killerName + " collected the bounty on " + claim.victimName)
+                .setColor(EmbedUtils.RUST_ACCENT)
+                .addField("Hunter", claim.killerName, true)
+                .addField("Target", claim.victimName, true)
+                .addField("Reward", String.format("%,d coins", claim.bounty.getAmount()), true)
+                .addField("Placed By", claim.bounty.getPlacerName() != null ? claim.bounty.getPlacerName() : "Unknown", true)
+                .setFooter(EmbedUtils.STANDARD_FOOTER)
+                .setTimestamp(Instant.now())
+                .build());
+    }
+
+    private static TargetKey key(Bounty bounty) {
+        return new TargetKey(bounty.getGuildId(), bounty.getServerId(), bounty.getTargetId());
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Error claiming bounties: {}", e.getMessage(), e);
+        }
+    }
+
+    private void expireQuietly() {
+        try {
+            expire();
+        } catch (Exception e) {
+            logger.error("Error expiring bounties: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Get a one-line summary of bounty matching since startup
+     */
+    public String getStatusSummary() {
+        return String.format("targets=%d, matches=%d, claimed=%d, paid=%d, lostClaims=%d, expired=%d, pending=%d, unpaid=%d",
+                activeBounties.size(), matches.get(), claimed.get(), payouts.get(), lostClaims.get(), expired.get(),
+                pendingClaims.size(), unpaid.size());
+    }
+
+    /**
+     * Stop the background tasks and settle the claims still queued
+     */
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        logger.info("Bounty matcher stopped ({})", getStatusSummary());
+    }
+
+    private static final class PendingClaim {
+        private final Bounty bounty;
+        private final String killerId;
+        private final String killerName;
+        private final String victimName;
+        private final MessageChannel channel;
+
+        private PendingClaim(Bounty bounty, String killerId, String killerName, String victimName, MessageChannel channel) {
+            this.bounty = bounty;
+            this.killerId = killerId;
+            this.killerName = killerName;
+            this.victimName = victimName;
+            this.channel = channel;
+        }
+    }
+
+    private static final class TargetKey {
+        private final long guildId;
+        private final String serverId;
+        private final String targetId;
+
+        private TargetKey(long guildId, String serverId, String targetId) {
+            this.guildId = guildId;
+            this.serverId = serverId;
+            this.targetId = targetId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof TargetKey)) return false;
+            TargetKey that = (TargetKey) o;
+            return guildId == that.guildId && serverId.equals(that.serverId) && targetId.equals(that.targetId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(guildId, serverId, targetId);
+        }
+    }
+}
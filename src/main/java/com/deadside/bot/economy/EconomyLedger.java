@@ -0,0 +1,270 @@
+package com.deadside.bot.economy;
+
+import com.deadside.bot.db.models.Currency;
+import com.deadside.bot.db.models.LedgerEntry;
+import com.deadside.bot.db.models.Player;
+import com.deadside.bot.db.repositories.LedgerRepository;
+import com.deadside.bot.db.repositories.PlayerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves coins in and out of player wallets with atomic conditional updates
+ * Each change is a single $inc on the player's currency fields, so concurrent games and
+ * rewards cannot overwrite each other, and a debit only applies while the wallet covers it.
+ * Settlements carry an idempotency key so a payout or refund is applied at most once, even
+ * when a timeout and a game result race. Every applied change is appended to the ledger
+ * collection in the background.
+ */
+public class EconomyLedger {
+    private static final Logger logger = LoggerFactory.getLogger(EconomyLedger.class);
+    private static EconomyLedger instance;
+
+    private static final int FLUSH_INTERVAL_SECONDS = 5;
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    private final PlayerRepository playerRepository;
+    private final LedgerRepository ledgerRepository;
+    private final ConcurrentLinkedQueue<LedgerEntry> pendingEntries = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService flusher;
+
+    // Metrics
+    private final AtomicLong debits = new AtomicLong();
+    private final AtomicLong rejectedDebits = new AtomicLong();
+    private final AtomicLong credits = new AtomicLong();
+    private final AtomicLong duplicateSettlements = new AtomicLong();
+    private final AtomicLong entriesWritten = new AtomicLong();
+
+    private EconomyLedger() {
+        this.playerRepository = new PlayerRepository();
+        this.ledgerRepository = new LedgerRepository();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ledger-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public static synchronized EconomyLedger getInstance() {
+        if (instance == null) {
+            instance = new EconomyLedger();
+        }
+        return instance;
+    }
+
+    /**
+     * Take coins from a player's wallet if it holds enough
+     * On success the player's in-memory balance is updated to the stored one.
+     * @param reason What the coins are for, e.g. "blackjack:bet"
+     * @return True if the coins were taken
+     */
+    public boolean debit(Player player, long amount, String reason) {
+        Currency updated = apply(player, -amount, reason, null);
+        if (updated == null) {
+            rejectedDebits.incrementAndGet();
+            return false;
+        }
+        debits.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Add coins to a player's wallet
+     * @return True if the player exists and the coins were added
+     */
+    public boolean credit(Player player, long amount, String reason) {
+        if (apply(player, amount, reason, null) == null) {
+            return false;
+        }
+        credits.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Pay out or refund a game, at most once per settlement key
+     * Use the same key for every way a game can end (win, refund, timeout) so only the first
+     * of them pays.
+     * @param settlementKey Identifies the game being settled
+     * @return True if this call applied the settlement, false if it was already applied or the
+     *         player no longer exists
+     */
+    public boolean settle(Player player, long amount, String reason, String settlementKey) {
+        if (apply(player, amount, reason, settlementKey) == null) {
+            duplicateSettlements.incrementAndGet();
+            logger.debug("Settlement {} for player {} was already applied", settlementKey, player.getPlayerId());
+            return false;
+        }
+        credits.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Whether a settlement has already been applied to a player's wallet
+     * Tells a settlement that {@link #settle} refused as a duplicate from one that could not be
+     * applied, e.g. because the player does not exist yet.
+     */
+    public boolean isSettled(Player player, String settlementKey) {
+        return playerRepository.hasSettlement(player.getPlayerId(), player.getGuildId(),
+                player.getServerId(), settlementKey);
+    }
+
+    /**
+     * Pay a reward that can be claimed once per cooldown, such as the daily reward
+     * The claim time is stored with the coins, so claims racing each other pay only once.
+     * @param claimField Currency field holding the last claim time, e.g. "lastDailyReward"
+     * @return True if the reward was paid, false if it was already claimed within the cooldown or
+     *         the player no longer exists
+     */
+    public boolean claim(Player player, long amount, String reason, String claimField, long cooldownMillis) {
+        Currency updated = playerRepository.claimCoins(player.getPlayerId(), player.getGuildId(),
+                player.getServerId(), amount, claimField, cooldownMillis);
+        if (updated == null) {
+            return false;
+        }
+        record(player, amount, updated, reason, null);
+        credits.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Move coins from the wallet into the bank if the wallet holds enough
+     * @return True if the coins were moved
+     */
+    public boolean deposit(Player player, long amount) {
+        return moveToBank(player, amount, "bank:deposit");
+    }
+
+    /**
+     * Move coins from the bank into the wallet if the bank holds enough
+     * @return True if the coins were moved
+     */
+    public boolean withdraw(Player player, long amount) {
+        return moveToBank(player, -amount, "bank:withdraw");
+    }
+
+    private boolean moveToBank(Player player, long amount, String reason) {
+        Currency updated = playerRepository.moveToBank(player.getPlayerId(), player.getGuildId(),
+                player.getServerId(), amount);
+        if (updated == null) {
+            return false;
+        }
+        player.getCurrency().setBankCoins(updated.getBankCoins());
+        record(player, -amount, updated, reason, null);
+        return true;
+    }
+
+    /**
+     * Set a player's wallet balance, e.g. from an admin command
+     * @return True if the player exists and the balance was set
+     */
+    public boolean setBalance(Player player, long coins, String reason) {
+        Currency before = playerRepository.setCoins(player.getPlayerId(), player.getGuildId(),
+                player.getServerId(), coins);
+        if (before == null) {
+            return false;
+        }
+        Currency after = new Currency();
+        after.setCoins(coins);
+        after.setBankCoins(before.getBankCoins());
+        record(player, coins - before.getCoins(), after, reason, null);
+        return true;
+    }
+
+    /**
+     * Reset a player's wallet, bank and reward timers
+     * @return True if the player exists and was reset
+     */
+    public boolean reset(Player player, String reason) {
+        Currency before = playerRepository.resetCurrency(player.getPlayerId(), player.getGuildId(),
+                player.getServerId());
+        if (before == null) {
+            return false;
+        }
+        player.setCurrency(new Currency());
+        record(player, -before.getCoins(), player.getCurrency(), reason, null);
+        return true;
+    }
+
+    private Currency apply(Player player, long amount, String reason, String settlementKey) {
+        Currency updated = playerRepository.adjustCoins(player.getPlayerId(), player.getGuildId(),
+                player.getServerId(), amount, settlementKey);
+        if (updated == null) {
+            return null;
+        }
+        record(player, amount, updated, reason, settlementKey);
+        return updated;
+    }
+
+    /**
+     * Show the caller the stored balance and queue the ledger entry of an applied change
+     * The stored balance includes changes made elsewhere since the caller loaded the player.
+     */
+    private void record(Player player, long amount, Currency updated, String reason, String settlementKey) {
+        player.getCurrency().setCoins(updated.getCoins());
+        pendingEntries.add(new LedgerEntry(player.getGuildId(), player.getServerId(), player.getPlayerId(),
+                amount, updated.getCoins(), reason, settlementKey));
+    }
+
+    /**
+     * Append queued ledger entries; entries from a failed batch are kept for the next flush
+     * @return The number of entries written
+     */
+    public synchronized int flush() {
+        int written = 0;
+        while (!pendingEntries.isEmpty()) {
+            List<LedgerEntry> batch = new ArrayList<>(Math.min(FLUSH_BATCH_SIZE, pendingEntries.size()));
+            LedgerEntry entry;
+            while (batch.size() < FLUSH_BATCH_SIZE && (entry = pendingEntries.poll()) != null) {
+                batch.add(entry);
+            }
+
+            if (!ledgerRepository.insertAll(batch)) {
+                pendingEntries.addAll(batch);
+                break;
+            }
+            written += batch.size();
+        }
+        entriesWritten.addAndGet(written);
+        return written;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Error flushing economy ledger: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Get a one-line summary of ledger activity since startup
+     */
+    public String getStatusSummary() {
+        return String.format("debits=%d, rejectedDebits=%d, credits=%d, duplicateSettlements=%d, entriesWritten=%d, pending=%d",
+                debits.get(), rejectedDebits.get(), credits.get(), duplicateSettlements.get(),
+                entriesWritten.get(), pendingEntries.size());
+    }
+
+    /**
+     * Stop the background flush and write the remaining entries
+     */
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        logger.info("Economy ledger stopped ({})", getStatusSummary());
+    }
+}
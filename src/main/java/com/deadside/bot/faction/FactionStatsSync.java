@@ -4,86 +4,245 @@ import com.deadside.bot.db.models.Faction;
 import com.deadside.bot.db.models.Player;
 import com.deadside.bot.db.repositories.FactionRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.stats.PlayerStatsAggregator;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateManyModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service to synchronize faction statistics based on player data
+ * Faction kill and death totals follow the kill stream: an in-memory index maps each faction
+ * member to their faction, kills and deaths of members are folded per faction, and a timer
+ * flushes them as one bulk write of $inc updates. A periodic reconciliation recomputes member
+ * count, kills and deaths for every faction with a single $group aggregation over the members'
+ * counters, and writes them back in one bulk write, correcting any drift.
  */
 public class FactionStatsSync {
     private static final Logger logger = LoggerFactory.getLogger(FactionStatsSync.class);
-    
+    private static FactionStatsSync instance;
+
+    private static final int FLUSH_INTERVAL_SECONDS = 10;
+    private static final int RECONCILE_INTERVAL_MINUTES = 60;
+
     private final FactionRepository factionRepository;
     private final PlayerRepository playerRepository;
-    private final ExecutorService executor;
-    
+    private final ScheduledExecutorService executor;
+
+    // Faction of every faction member, keyed by (guildId, serverId, playerId)
+    private final ConcurrentHashMap<MemberKey, ObjectId> members = new ConcurrentHashMap<>();
+    // Kills and deaths not yet added to each faction
+    private final ConcurrentHashMap<ObjectId, FactionDelta> pending = new ConcurrentHashMap<>();
+
+    // Metrics
+    private final AtomicLong factionsFlushed = new AtomicLong();
+    private final AtomicLong factionsReconciled = new AtomicLong();
+
     // XP rewards for various actions
     private static final int XP_PER_KILL = 10;
     private static final int XP_BONUS_LONG_DISTANCE = 5; // Bonus for kills over 100m
     private static final int XP_PENALTY_DEATH = -5;
     private static final int XP_PENALTY_SUICIDE = -10;
-    
+
     /**
-     * Constructor initializes repositories and thread pool
+     * Constructor initializes repositories and the background thread
      */
-    public FactionStatsSync() {
+    private FactionStatsSync() {
         this.factionRepository = new FactionRepository();
         this.playerRepository = new PlayerRepository();
-        this.executor = Executors.newSingleThreadExecutor();
-        
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "faction-stats");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flushQuietly, FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        executor.scheduleWithFixedDelay(this::reconcileQuietly, RECONCILE_INTERVAL_MINUTES, RECONCILE_INTERVAL_MINUTES, TimeUnit.MINUTES);
+
         logger.debug("FactionStatsSync service initialized");
     }
-    
+
+    public static synchronized FactionStatsSync getInstance() {
+        if (instance == null) {
+            instance = new FactionStatsSync();
+        }
+        return instance;
+    }
+
     /**
-     * Update statistics for all factions
+     * Load the faction of every faction member, replacing the current index
      */
-    public void updateAllFactions() {
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        members.clear();
         try {
-            logger.info("Starting faction statistics update for all factions");
-            
-            // Get all factions using isolation-aware approach
-            List<Long> distinctGuildIds = factionRepository.getDistinctGuildIds();
-            
-            if (distinctGuildIds.isEmpty()) {
-                logger.info("No guild IDs found to update factions for");
-                return;
-            }
-            
-            int totalFactions = 0;
-            
-            // Process each guild with proper isolation context
-            for (Long guildId : distinctGuildIds) {
-                com.deadside.bot.utils.GuildIsolationManager.getInstance().setContext(guildId, null);
-                try {
-                    List<Faction> guildFactions = factionRepository.findAllByGuildId(guildId);
-                    totalFactions += guildFactions.size();
-                    
-                    // Update each faction in this guild context
-                    for (Faction faction : guildFactions) {
-                        updateFaction(faction.getId());
-                    }
-                } finally {
-                    com.deadside.bot.utils.GuildIsolationManager.getInstance().clearContext();
+            playerRepository.forEachFactionMember(player -> {
+                if (player.getPlayerId() != null && player.getServerId() != null) {
+                    members.put(new MemberKey(player.getGuildId(), player.getServerId(), player.getPlayerId()),
+                            player.getFactionId());
                 }
+            });
+        } catch (Exception e) {
+            logger.error("Error loading faction members: {}", e.getMessage(), e);
+        }
+        logger.info("Loaded {} faction members in {} ms", members.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Reload the faction members of some guilds, leaving every other guild as it is
+     * Used when this node takes over the shard of those guilds from another node.
+     */
+    public void reload(Collection<Long> guildIds) {
+        long start = System.currentTimeMillis();
+        Map<MemberKey, ObjectId> loaded = new HashMap<>();
+        try {
+            playerRepository.forEachFactionMember(guildIds, player -> {
+                if (player.getPlayerId() != null && player.getServerId() != null) {
+                    loaded.put(new MemberKey(player.getGuildId(), player.getServerId(), player.getPlayerId()),
+                            player.getFactionId());
+                }
+            });
+        } catch (Exception e) {
+            logger.error("Error reloading faction members of guilds {}: {}", guildIds, e.getMessage(), e);
+            return;
+        }
+        members.keySet().removeIf(key -> guildIds.contains(key.guildId));
+        members.putAll(loaded);
+        logger.info("Reloaded {} faction members of {} guilds in {} ms",
+                loaded.size(), guildIds.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Count a kill towards the killer's faction and a death towards the victim's
+     * Only hash lookups; nothing is written until the next flush.
+     */
+    public void recordKill(long guildId, String serverId, String killerId, String victimId) {
+        if (members.isEmpty() || serverId == null) {
+            return;
+        }
+        ObjectId killerFaction = killerId != null ? members.get(new MemberKey(guildId, serverId, killerId)) : null;
+        if (killerFaction != null) {
+            pending.compute(killerFaction, (id, delta) -> (delta == null ? new FactionDelta() : delta).addKill());
+        }
+        ObjectId victimFaction = victimId != null ? members.get(new MemberKey(guildId, serverId, victimId)) : null;
+        if (victimFaction != null) {
+            pending.compute(victimFaction, (id, delta) -> (delta == null ? new FactionDelta() : delta).addDeath());
+        }
+    }
+
+    /**
+     * Count a suicide as a death towards the player's faction, as player stats do
+     */
+    public void recordSuicide(long guildId, String serverId, String playerId) {
+        recordKill(guildId, serverId, null, playerId);
+    }
+
+    /**
+     * Track a player joining or leaving a faction and recompute the factions involved
+     * Call after the player has been saved. The factions are recomputed on the background thread.
+     * @param previousFactionId The faction the player left, or null
+     */
+    public void memberChanged(Player player, ObjectId previousFactionId) {
+        if (player.getPlayerId() != null && player.getServerId() != null) {
+            MemberKey key = new MemberKey(player.getGuildId(), player.getServerId(), player.getPlayerId());
+            if (player.getFactionId() != null) {
+                members.put(key, player.getFactionId());
+            } else {
+                members.remove(key);
+            }
+        }
+        ObjectId factionId = player.getFactionId();
+        executor.execute(() -> {
+            if (previousFactionId != null && !previousFactionId.equals(factionId)) {
+                updateFaction(previousFactionId);
+            }
+            if (factionId != null) {
+                updateFaction(factionId);
             }
-            
-            if (totalFactions == 0) {
-                logger.info("No factions found to update across all guilds");
-                return;
+        });
+    }
+
+    /**
+     * Add pending kills and deaths to their factions in one bulk write
+     * @return Number of factions updated
+     */
+    public synchronized int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        List<ObjectId> ids = new ArrayList<>();
+        List<FactionDelta> deltas = new ArrayList<>();
+        List<WriteModel<Faction>> models = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (ObjectId id : new ArrayList<>(pending.keySet())) {
+            FactionDelta delta = pending.remove(id);
+            if (delta == null) {
+                continue;
             }
-            
-            logger.info("Completed faction statistics update for {} factions", totalFactions);
+            ids.add(id);
+            deltas.add(delta);
+            models.add(new UpdateOneModel<>(Filters.eq("_id", id), Updates.combine(
+                    Updates.inc("totalKills", delta.kills),
+                    Updates.inc("totalDeaths", delta.deaths),
+                    Updates.set("updated", now))));
+        }
+
+        if (!factionRepository.bulkWrite(models)) {
+            // Merge back so the next flush retries them
+            for (int i = 0; i < ids.size(); i++) {
+                FactionDelta failed = deltas.get(i);
+                pending.merge(ids.get(i), failed, FactionDelta::merge);
+            }
+            return 0;
+        }
+        factionsFlushed.addAndGet(models.size());
+        return models.size();
+    }
+
+    /**
+     * Update statistics for all factions
+     * One aggregation sums every faction's members and one bulk write stores the totals.
+     */
+    public void updateAllFactions() {
+        try {
+            logger.info("Starting faction statistics update for all factions");
+            int updated = reconcile(null, null);
+            logger.info("Completed faction statistics update for {} factions", updated);
         } catch (Exception e) {
             logger.error("Error updating all faction statistics: {}", e.getMessage(), e);
         }
     }
-    
+
+    /**
+     * Update statistics for every faction of a guild with one aggregation and one bulk write
+     */
+    public void updateGuildFactions(long guildId) {
+        try {
+            int updated = reconcile(guildId, null);
+            logger.debug("Updated statistics for {} factions in guild {}", updated, guildId);
+        } catch (Exception e) {
+            logger.error("Error updating faction statistics for guild {}: {}", guildId, e.getMessage(), e);
+        }
+    }
+
     /**
      * Update statistics for a specific faction
      */
@@ -92,42 +251,110 @@ public class FactionStatsSync {
             logger.warn("Cannot update faction with null ID");
             return;
         }
-        
+
         try {
-            Faction faction = factionRepository.findById(factionId);
-            if (faction == null) {
-                logger.warn("Faction not found with ID: {}", factionId);
-                return;
-            }
-            
-            // Get all members of the faction
-            List<Player> members = playerRepository.findByFactionId(factionId);
-            int memberCount = members.size();
-            
-            // Count totals from all members
-            int totalKills = 0;
-            int totalDeaths = 0;
-            
-            for (Player member : members) {
-                totalKills += member.getKills();
-                totalDeaths += member.getDeaths();
-            }
-            
-            // Update faction stats
-            faction.setMemberCount(memberCount);
-            faction.setTotalKills(totalKills);
-            faction.setTotalDeaths(totalDeaths);
-            
-            // Save updated faction
-            factionRepository.save(faction);
-            
-            logger.debug("Updated faction {} stats: {} members, {} kills, {} deaths", 
-                    faction.getName(), memberCount, totalKills, totalDeaths);
+            reconcile(null, factionId);
         } catch (Exception e) {
             logger.error("Error updating faction {}: {}", factionId, e.getMessage(), e);
         }
     }
-    
+
+    /**
+     * Recompute member count, kills and deaths from the members' counters
+     * Player stats are flushed first so the counters include every kill recorded so far. Those
+     * kills are also in the pending faction deltas, so the deltas of the factions in scope are
+     * dropped instead of being added on top of the recomputed totals; the others are flushed.
+     * @param guildId Only reconcile this guild's factions, or null
+     * @param factionId Only reconcile this faction, or null
+     * @return Number of factions written
+     */
+    private synchronized int reconcile(Long guildId, ObjectId factionId) {
+        PlayerStatsAggregator.getInstance().flush();
+        discardPending(guildId, factionId);
+        flush();
+
+        List<Document> totals;
+        Bson scope;
+        if (factionId != null) {
+            totals = playerRepository.aggregateFactionTotalsByFactionId(factionId);
+            scope = Filters.eq("_id", factionId);
+        } else if (guildId != null) {
+            totals = playerRepository.aggregateFactionTotalsByGuildId(guildId);
+            scope = Filters.eq("guildId", guildId);
+        } else {
+            totals = playerRepository.aggregateFactionTotals();
+            scope = null;
+        }
+
+        long now = System.currentTimeMillis();
+        List<ObjectId> counted = new ArrayList<>();
+        List<WriteModel<Faction>> models = new ArrayList<>();
+        for (Document total : totals) {
+            ObjectId id = total.getObjectId("_id");
+            counted.add(id);
+            models.add(new UpdateOneModel<>(Filters.eq("_id", id), Updates.combine(
+                    Updates.set("memberCount", number(total, "members")),
+                    Updates.set("totalKills", number(total, "kills")),
+                    Updates.set("totalDeaths", number(total, "deaths")),
+                    Updates.set("updated", now))));
+        }
+
+        // Factions in scope that no longer have members
+        Bson empty = Filters.and(
+                Filters.nin("_id", counted),
+                Filters.or(Filters.gt("memberCount", 0), Filters.gt("totalKills", 0), Filters.gt("totalDeaths", 0)));
+        models.add(new UpdateManyModel<>(scope != null ? Filters.and(scope, empty) : empty, Updates.combine(
+                Updates.set("memberCount", 0),
+                Updates.set("totalKills", 0),
+                Updates.set("totalDeaths", 0),
+                Updates.set("updated", now))));
+
+        if (!factionRepository.bulkWrite(models)) {
+            return 0;
+        }
+        factionsReconciled.addAndGet(totals.size());
+        return totals.size();
+    }
+
+    /**
+     * Drop the pending deltas of the factions a reconciliation recomputes
+     */
+    private void discardPending(Long guildId, ObjectId factionId) {
+        if (factionId != null) {
+            pending.remove(factionId);
+        } else if (guildId != null) {
+            members.forEach((key, id) -> {
+                if (key.guildId == guildId) {
+                    pending.remove(id);
+                }
+            });
+        } else {
+            pending.clear();
+        }
+    }
+
+    private static int number(Document document, String field) {
+        Object value = document.get(field);
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Error writing faction statistics: {}", e.getMessage(), e);
+        }
+    }
+
+    private void reconcileQuietly() {
+        try {
+            rebuild();
+            updateAllFactions();
+        } catch (Exception e) {
+            logger.error("Error reconciling faction statistics: {}", e.getMessage(), e);
+        }
+    }
+
     /**
      * Process faction experience when a member gets a kill
      */
@@ -138,32 +365,32 @@ public class FactionStatsSync {
                 if (player == null || player.getFactionId() == null) {
                     return;
                 }
-                
+
                 // Base XP for kill
                 int xpToAdd = XP_PER_KILL;
-                
+
                 // Bonus XP for long-distance kills
                 if (killDistance > 100) {
                     xpToAdd += XP_BONUS_LONG_DISTANCE;
                 }
-                
+
                 // Add XP to faction
                 boolean leveledUp = factionRepository.addExperience(player.getFactionId(), xpToAdd);
-                
+
                 if (leveledUp) {
-                    logger.info("Faction {} leveled up due to kill by player {}", 
+                    logger.info("Faction {} leveled up due to kill by player {}",
                             player.getFactionId(), player.getName());
                 }
-                
-                logger.debug("Added {} XP to faction {} for kill by player {}", 
+
+                logger.debug("Added {} XP to faction {} for kill by player {}",
                         xpToAdd, player.getFactionId(), player.getName());
             } catch (Exception e) {
-                logger.error("Error processing faction kill XP for player {}: {}", 
+                logger.error("Error processing faction kill XP for player {}: {}",
                         playerId, e.getMessage(), e);
             }
         });
     }
-    
+
     /**
      * Process faction experience when a member dies
      */
@@ -174,19 +401,19 @@ public class FactionStatsSync {
                 if (player == null || player.getFactionId() == null) {
                     return;
                 }
-                
+
                 // Add XP penalty to faction (might be negative)
                 factionRepository.addExperience(player.getFactionId(), XP_PENALTY_DEATH);
-                
-                logger.debug("Added {} XP to faction {} for death of player {}", 
+
+                logger.debug("Added {} XP to faction {} for death of player {}",
                         XP_PENALTY_DEATH, player.getFactionId(), player.getName());
             } catch (Exception e) {
-                logger.error("Error processing faction death XP for player {}: {}", 
+                logger.error("Error processing faction death XP for player {}: {}",
                         playerId, e.getMessage(), e);
             }
         });
     }
-    
+
     /**
      * Process faction experience when a member commits suicide
      */
@@ -197,25 +424,33 @@ public class FactionStatsSync {
                 if (player == null || player.getFactionId() == null) {
                     return;
                 }
-                
+
                 // Add XP penalty to faction for suicide (more severe than regular death)
                 factionRepository.addExperience(player.getFactionId(), XP_PENALTY_SUICIDE);
-                
-                logger.debug("Added {} XP to faction {} for suicide of player {}", 
+
+                logger.debug("Added {} XP to faction {} for suicide of player {}",
                         XP_PENALTY_SUICIDE, player.getFactionId(), player.getName());
             } catch (Exception e) {
-                logger.error("Error processing faction suicide XP for player {}: {}", 
+                logger.error("Error processing faction suicide XP for player {}: {}",
                         playerId, e.getMessage(), e);
             }
         });
     }
-    
+
+    /**
+     * Get a one-line summary of faction statistics since startup
+     */
+    public String getStatusSummary() {
+        return String.format("members=%d, pending=%d, flushed=%d, reconciled=%d",
+                members.size(), pending.size(), factionsFlushed.get(), factionsReconciled.get());
+    }
+
     /**
-     * Shutdown the faction stats service cleanly
+     * Shutdown the faction stats service cleanly, writing the pending totals
      */
     public void shutdown() {
         logger.info("Shutting down FactionStatsSync service");
-        
+
         executor.shutdown();
         try {
             if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
@@ -225,5 +460,52 @@ public class FactionStatsSync {
             executor.shutdownNow();
             Thread.currentThread().interrupt();
         }
+        flush();
+    }
+
+    private static final class FactionDelta {
+        private int kills;
+        private int deaths;
+
+        private FactionDelta addKill() {
+            kills++;
+            return this;
+        }
+
+        private FactionDelta addDeath() {
+            deaths++;
+            return this;
+        }
+
+        private FactionDelta merge(FactionDelta newer) {
+            kills += newer.kills;
+            deaths += newer.deaths;
+            return this;
+        }
+    }
+
+    private static final class MemberKey {
+        private final long guildId;
+        private final String serverId;
+        private final String playerId;
+
+        private MemberKey(long guildId, String serverId, String playerId) {
+            this.guildId = guildId;
+            this.serverId = serverId;
+            this.playerId = playerId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof MemberKey)) return false;
+            MemberKey that = (MemberKey) o;
+            return guildId == that.guildId && serverId.equals(that.serverId) && playerId.equals(that.playerId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(guildId, serverId, playerId);
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,10 @@
 package com.deadside.bot.isolation;
 
+import com.deadside.bot.alerts.AlertMatcher;
 import com.deadside.bot.db.repositories.*;
+import com.deadside.bot.stats.LeaderboardEngine;
+import com.deadside.bot.stats.MatchupIndex;
+import com.deadside.bot.stats.WeaponStatsEngine;
 import com.deadside.bot.utils.BotConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,6 +28,9 @@ public class DataCleanupTool {
     private final CurrencyRepository currencyRepository;
     private final AlertRepository alertRepository;
     private final BountyRepository bountyRepository;
+    private final MatchupRepository matchupRepository = new MatchupRepository();
+    private final WeaponStatsRepository weaponStatsRepository = new WeaponStatsRepository();
+    private final IngestionCheckpointRepository checkpointRepository = new IngestionCheckpointRepository();
     
     // Tracking flag to prevent multiple simultaneous cleanups
     private static final AtomicBoolean cleanupInProgress = new AtomicBoolean(false);
@@ -177,6 +184,16 @@ public class DataCleanupTool {
             // Delete data in each collection for this guild/server
             long deletedPlayers = playerRepository.deleteAllByGuildIdAndServerId(guildId, serverId);
             deleteCounts.put("players", deletedPlayers);
+            LeaderboardEngine.getInstance().removeBoard(guildId, serverId);
+            
+            long deletedMatchups = matchupRepository.deleteAllByGuildIdAndServerId(guildId, serverId);
+            deleteCounts.put("matchups", deletedMatchups);
+            MatchupIndex.getInstance().removeBoard(guildId, serverId);
+            
+            long deletedWeaponStats = weaponStatsRepository.deleteAllByGuildIdAndServerId(guildId, serverId);
+            deleteCounts.put("weapon_stats", deletedWeaponStats);
+            WeaponStatsEngine.getInstance().removeBoard(guildId, serverId);
+            checkpointRepository.deleteByServer(guildId, serverId);
             
             long deletedFactions = factionRepository.deleteAllByGuildIdAndServerId(guildId, serverId);
             deleteCounts.put("factions", deletedFactions);
@@ -193,6 +210,7 @@ public class DataCleanupTool {
             
             long deletedAlerts = alertRepository.deleteAllByGuildIdAndServerId(guildId, serverId);
             deleteCounts.put("alerts", deletedAlerts);
+            AlertMatcher.getInstance().removeServer(guildId, serverId);
             
             long deletedBounties = bountyRepository.deleteAllByGuildIdAndServerId(guildId, serverId);
             deleteCounts.put("bounties", deletedBounties);
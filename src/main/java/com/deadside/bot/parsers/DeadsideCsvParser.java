@@ -1,12 +1,21 @@
 package com.deadside.bot.parsers;
 
+import com.deadside.bot.bot.ShardCoordinator;
+import com.deadside.bot.db.IndexManager;
 import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.models.FileCursor;
 import com.deadside.bot.db.models.GuildConfig;
+import com.deadside.bot.db.models.IngestionCheckpoint;
 import com.deadside.bot.db.models.Player;
 import com.deadside.bot.db.repositories.GuildConfigRepository;
+import com.deadside.bot.db.repositories.IngestionCheckpointRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
 import com.deadside.bot.db.repositories.GameServerRepository;
 import com.deadside.bot.sftp.SftpConnector;
+import com.deadside.bot.stats.PlayerStatsAggregator;
+import com.deadside.bot.alerts.AlertMatcher;
+import com.deadside.bot.economy.BountyMatcher;
+import com.deadside.bot.utils.EmbedDispatcher;
 import com.deadside.bot.utils.EmbedUtils;
 import com.deadside.bot.utils.ParserStateManager;
 import com.deadside.bot.utils.GuildIsolationManager;
@@ -20,16 +29,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import java.awt.Color;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.regex.Pattern;
 import java.io.File;
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.FileInputStream;
+import java.io.InputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
 
 /**
  * Parser for Deadside CSV death log files
@@ -41,21 +50,20 @@ public class DeadsideCsvParser {
     private final SftpConnector sftpConnector;
     private final PlayerRepository playerRepository;
     private final GameServerRepository gameServerRepository;
+    private final PlayerStatsAggregator statsAggregator = PlayerStatsAggregator.getInstance();
+    private final BountyMatcher bountyMatcher = BountyMatcher.getInstance();
+    private final AlertMatcher alertMatcher = AlertMatcher.getInstance();
+    private final IngestionCheckpointRepository checkpointRepository = new IngestionCheckpointRepository();
     
-    // Map to keep track of processed files for each server
-    private final Map<String, Set<String>> processedFiles = new HashMap<>();
+    // Checkpoint pipeline name for death logs
+    private static final String DEATHLOG_PIPELINE = "deathlog";
     
-    // Flag to indicate if we're processing historical data (to prevent sending to killfeed channels)
-    private boolean isProcessingHistoricalData = false;
+    // Checkpoints whose batch is recorded but not yet flushed, committed by the stats flush
+    // Servers are parsed concurrently by the ingestion scheduler
+    private final Map<String, IngestionCheckpoint> uncommittedCheckpoints = new ConcurrentHashMap<>();
     
-    /**
-     * Set historical processing mode flag
-     * @param isProcessingHistoricalData Whether we're processing historical data
-     */
-    public void setProcessingHistoricalData(boolean isProcessingHistoricalData) {
-        this.isProcessingHistoricalData = isProcessingHistoricalData;
-        logger.debug("Historical processing mode set to: {}", isProcessingHistoricalData);
-    }
+    // Servers whose first batch since startup has been checked for a replay
+    private final Set<String> replayChecked = ConcurrentHashMap.newKeySet();
     
     /**
      * Process historical data from CSV files for a server
@@ -73,7 +81,6 @@ public class DeadsideCsvParser {
         
         try {
             // Set historical processing mode
-            setProcessingHistoricalData(true);
             ParserStateManager.setProcessingHistoricalData(true);
             
             // Get list of CSV files in the deathlog directory
@@ -108,38 +115,38 @@ public class DeadsideCsvParser {
                         logger.info("Processing CSV file: {} for server: {} (historical mode: yes)", 
                                 filePath, server.getName());
                         
-                        // Read and parse the file locally
-                        List<String> lines = new ArrayList<>();
-                        try {
-                            File csvFileObj = new File(filePath);
-                            if (csvFileObj.exists()) {
-                                try (BufferedReader reader = new BufferedReader(new FileReader(csvFileObj))) {
-                                    String line;
-                                    while ((line = reader.readLine()) != null) {
-                                        lines.add(line);
+                        // Stream and tokenize the file locally
+                        int lineCount = 0;
+                        File csvFileObj = new File(filePath);
+                        if (csvFileObj.exists()) {
+                            try (InputStream input = new FileInputStream(csvFileObj)) {
+                                DeathlogTokenizer tokenizer = new DeathlogTokenizer(input);
+                                while (tokenizer.next()) {
+                                    try {
+                                        processDeathLogLine(server, tokenizer.event(), killCount, deathCount);
+                                    } catch (Exception e) {
+                                        logger.error("Error processing historical death log line: {}", 
+                                                tokenizer.event().getLine(), e);
+                                        errorCount.incrementAndGet();
                                     }
                                 }
-                                // File processed successfully
-                            } else {
-                                logger.warn("CSV file does not exist: {}", filePath);
-                            }
-                        } catch (Exception e) {
-                            logger.error("Error reading CSV file: {}", filePath, e);
-                            errorCount.incrementAndGet();
-                        }
-                        
-                        for (String line : lines) {
-                            try {
-                                processDeathLogLine(server, line, filePath, killCount, deathCount);
-                            } catch (Exception e) {
-                                logger.error("Error processing historical death log line: {}", line, e);
+                                lineCount = tokenizer.getLineNumber();
+                                
+                                if (tokenizer.getSkippedLines() > 0) {
+                                    logger.warn("Skipped {} incorrectly formatted lines in {}", 
+                                            tokenizer.getSkippedLines(), filePath);
+                                }
+                            } catch (IOException e) {
+                                logger.error("Error reading CSV file: {}", filePath, e);
                                 errorCount.incrementAndGet();
                             }
+                        } else {
+                            logger.warn("CSV file does not exist: {}", filePath);
                         }
                         
                         // Update server progress
                         server.setLastProcessedKillfeedFile(csvFile);
-                        server.setLastProcessedKillfeedLine(lines.size());
+                        server.setLastProcessedKillfeedLine(lineCount);
                         server.setLastProcessedTimestamp(System.currentTimeMillis());
                         
                     } catch (Exception e) {
@@ -156,49 +163,25 @@ public class DeadsideCsvParser {
             logger.error("Error processing historical data for server {}", server.getName(), e);
             errorCount.incrementAndGet();
         } finally {
-            // Always reset the processing mode flags
-            setProcessingHistoricalData(false);
+            // Always reset the processing mode flag
             ParserStateManager.setProcessingHistoricalData(false);
         }
     }
     
     /**
-     * Process a single death log line for historical processing
+     * Process a single tokenized death log line for historical processing
      */
-    private void processDeathLogLine(GameServer server, String line, String filePath,
+    private void processDeathLogLine(GameServer server, DeathlogTokenizer.DeathEvent event,
                                     java.util.concurrent.atomic.AtomicInteger killCount,
                                     java.util.concurrent.atomic.AtomicInteger deathCount) {
-        // Skip empty lines
-        if (line == null || line.trim().isEmpty()) {
-            return;
-        }
-        
-        // Parse the line - should have format:
-        // timestamp;killer;killerId;victim;victimId;weapon;distance;headshot;victimXYZ;killerXYZ;serverInstanceId;platform
-        String[] parts = line.split(";");
-        
-        // Skip lines with incorrect format
-        if (parts.length < 7) {
-            logger.warn("Skipping incorrectly formatted death log line: {}", line);
-            return;
-        }
-        
         // Extract data
-        String timestamp = parts[0].trim();
-        String killer = parts[1].trim();
-        String killerId = parts[2].trim();
-        String victim = parts[3].trim();
-        String victimId = parts[4].trim();
-        String weapon = parts[5].trim();
-        int distance = 0;
-        
-        try {
-            if (parts.length > 6 && !parts[6].trim().isEmpty()) {
-                distance = Integer.parseInt(parts[6].trim());
-            }
-        } catch (NumberFormatException e) {
-            logger.warn("Invalid distance value in death log: {}", parts[6]);
-        }
+        String timestamp = event.getTimestampText();
+        String killer = event.getKiller();
+        String killerId = event.getKillerId();
+        String victim = event.getVictim();
+        String victimId = event.getVictimId();
+        String weapon = event.getWeapon();
+        int distance = event.getDistance();
         
         // Handle different death types
         if (killer.isEmpty() || killerId.isEmpty() || "**".equals(killer)) {
@@ -272,27 +255,40 @@ public class DeadsideCsvParser {
      * @return Number of deaths processed
      */
     public int processDeathLogContent(GameServer server, String content) {
-        return processDeathLog(server, content);
+        return processDeathLog(server, content, true);
     }
     
-    // Format of the CSV death log: timestamp;killer;killerId;victim;victimId;weapon;distance;killerPlatform;victimPlatform
-    // Enhanced pattern to handle all CSV format variations and properly validate fields
-    private static final Pattern CSV_LINE_PATTERN = Pattern.compile("(\\d{4}\\.\\d{2}\\.\\d{2}-\\d{2}\\.\\d{2}\\.\\d{2});([^;]*);([^;]*);([^;]*);([^;]*);([^;]*);([^;]*);([^;]*);([^;]*);?");
-    private static final SimpleDateFormat CSV_DATE_FORMAT = new SimpleDateFormat("yyyy.MM.dd-HH.mm.ss");
-    
     // Death causes
     private static final Set<String> SUICIDE_CAUSES = new HashSet<>(Arrays.asList(
             "suicide_by_relocation", "suicide", "falling", "bleeding", "drowning", "starvation"
     ));
     
+    /**
+     * Whether a death log entry has a blank or "**" placeholder killer and is skipped
+     */
+    static boolean hasNoKiller(String killer) {
+        return killer.isBlank() || "**".equals(killer);
+    }
+    
+    /**
+     * Get the killer ID to record, generated from the killer's name when the log has none
+     */
+    static String killerIdFor(String killer, String killerId) {
+        return killerId.isBlank() ? "gen_" + killer.hashCode() : killerId;
+    }
+    
+    /**
+     * Whether a death log entry is a suicide or environmental death rather than a player kill
+     */
+    static boolean isSuicide(String victim, String killer, String weapon) {
+        return SUICIDE_CAUSES.contains(weapon.toLowerCase()) || victim.equals(killer);
+    }
+    
     public DeadsideCsvParser(JDA jda, SftpConnector sftpConnector, PlayerRepository playerRepository, GameServerRepository gameServerRepository) {
         this.jda = jda;
         this.sftpConnector = sftpConnector;
         this.playerRepository = playerRepository;
         this.gameServerRepository = gameServerRepository;
-        
-        // Set timezone for date parsing
-        CSV_DATE_FORMAT.setTimeZone(TimeZone.getTimeZone("UTC"));
     }
     
     /**
@@ -307,36 +303,23 @@ public class DeadsideCsvParser {
     /**
      * Process death logs for a server
      * @param server The game server to process
-     * @param processHistorical If true, reprocess all files even if already processed before
+     * @param processHistorical If true, reprocess all files from the start without killfeed output
      * @return Number of deaths processed
      */
     public int processDeathLogs(GameServer server, boolean processHistorical) {
-        int totalProcessed = 0;
-        
         try {
-            // Set historical processing flag to prevent output to killfeed channels during historical processing
-            this.isProcessingHistoricalData = processHistorical;
-            
             // Check if the server has a configured guild
             if (server.getGuildId() == 0) {
                 logger.warn("Server {} has no configured Discord guild", server.getName());
                 return 0;
             }
             
-            // Get list of already processed files for this server
-            Set<String> processed = processedFiles.computeIfAbsent(
-                    server.getName(), k -> new HashSet<>());
-            
-            // Get CSV files from the server - limit to the most recent files for performance
-            List<String> csvFiles;
-            if (processHistorical) {
-                // For historical processing, get all files
-                csvFiles = sftpConnector.findDeathlogFiles(server);
-            } else {
-                // For regular processing, only get the newest file or files not yet processed
-                csvFiles = sftpConnector.findRecentDeathlogFiles(server, 1);
+            if (!processHistorical) {
+                return processNewDeaths(server);
             }
             
+            // Historical processing reads every file in full
+            List<String> csvFiles = sftpConnector.findDeathlogFiles(server);
             if (csvFiles.isEmpty()) {
                 return 0;
             }
@@ -344,31 +327,19 @@ public class DeadsideCsvParser {
             // Sort files by name (which includes date)
             Collections.sort(csvFiles);
             
-            // Process each file that hasn't been processed yet
+            int totalProcessed = 0;
             for (String csvFile : csvFiles) {
-                // Skip already processed files (unless we're reprocessing historical data)
-                if (!processHistorical && processed.contains(csvFile)) {
-                    continue;
-                }
-                
-                // Log file processing attempt
-                logger.info("Processing CSV file: {} for server: {} (historical mode: {})", 
-                        csvFile, server.getName(), processHistorical ? "yes" : "no");
+                logger.info("Processing CSV file: {} for server: {} (historical mode: yes)", 
+                        csvFile, server.getName());
                 
                 try {
                     String content = sftpConnector.readDeathlogFile(server, csvFile);
-                    int deathsProcessed = processDeathLog(server, content);
+                    int deathsProcessed = processDeathLog(server, content, true);
                     totalProcessed += deathsProcessed;
                     
-                    // Mark as processed
-                    processed.add(csvFile);
-                    // Use info level for files with deaths, debug level for empty files
                     if (deathsProcessed > 0) {
                         logger.info("Processed {} deaths from log file for server {}", 
                                 deathsProcessed, server.getName());
-                    } else if (logger.isDebugEnabled()) {
-                        logger.debug("Processed death log file {} for server {}, no new deaths", 
-                                csvFile, server.getName());
                     }
                 } catch (Exception e) {
                     logger.error("Error processing death log file {} for server {}: {}", 
@@ -376,16 +347,6 @@ public class DeadsideCsvParser {
                 }
             }
             
-            // Limit the size of the processed files set to prevent memory issues
-            if (processed.size() > 100) {
-                // Keep only the most recent 50 files
-                List<String> filesList = new ArrayList<>(processed);
-                Collections.sort(filesList);
-                Set<String> newProcessed = new HashSet<>(
-                        filesList.subList(Math.max(0, filesList.size() - 50), filesList.size()));
-                processedFiles.put(server.getName(), newProcessed);
-            }
-            
             return totalProcessed;
         } catch (Exception e) {
             logger.error("Error processing death logs for server {}: {}", 
@@ -394,6 +355,144 @@ public class DeadsideCsvParser {
         }
     }
     
+    /**
+     * Process the deaths appended since the server's deathlog checkpoint
+     * Each poll reads one file as one ingestion batch. Its checkpoint is committed by the stats aggregator
+     * once the stat deltas it recorded are flushed; until then the server is not read again, so at
+     * most one batch per server is ever uncommitted. A batch read again after a crash gets the same
+     * sequence, its stats are skipped by the sequence guards and its killfeed is not reposted.
+     * @param server The game server to process
+     * @return Number of deaths processed
+     */
+    private int processNewDeaths(GameServer server) throws Exception {
+        long guildId = server.getGuildId();
+        String serverId = server.getName();
+        String key = guildId + ":" + serverId;
+        
+        // Replayed batches are only detected as applied while the stat documents have unique identities
+        if (!IndexManager.statIndexesReady()) {
+            logger.debug("Skipping deathlog poll for server {} until the unique stat indexes exist", serverId);
+            return 0;
+        }
+        
+        IngestionCheckpoint uncommitted = uncommittedCheckpoints.get(key);
+        if (uncommitted != null) {
+            logger.debug("Deathlog batch {} for server {} is not committed yet, skipping this poll",
+                    uncommitted.getSequence(), serverId);
+            return 0;
+        }
+        IngestionCheckpoint checkpoint = checkpointRepository.find(guildId, serverId, DEATHLOG_PIPELINE);
+        
+        // A server without a checkpoint starts at its newest file, skipping deaths it saw before checkpoints existed
+        long skipBefore = 0;
+        if (checkpoint == null) {
+            checkpoint = new IngestionCheckpoint(guildId, serverId, DEATHLOG_PIPELINE);
+            skipBefore = server.getLastProcessedTimestamp();
+        }
+        
+        List<String> csvFiles = sftpConnector.findDeathlogFiles(server);
+        if (csvFiles.isEmpty()) {
+            return 0;
+        }
+        Collections.sort(csvFiles);
+        
+        // Resume from the checkpointed file, or the first newer one if it has been removed
+        int first = csvFiles.size() - 1;
+        FileCursor committed = checkpoint.getCursor();
+        if (committed != null) {
+            for (int i = 0; i < csvFiles.size(); i++) {
+                if (deathlogPath(server, csvFiles.get(i)).compareTo(committed.getFilePath()) >= 0) {
+                    first = i;
+                    break;
+                }
+            }
+        }
+        
+        int totalProcessed = 0;
+        for (int i = first; i < csvFiles.size(); i++) {
+            String path = deathlogPath(server, csvFiles.get(i));
+            FileCursor cursor = committed != null && committed.tracks(path) ? copyCursor(committed) : new FileCursor(path);
+            long batchOffset = cursor.getOffset();
+            
+            SftpConnector.TailResult tail = sftpConnector.tailLines(server, path, cursor);
+            if (tail.isRotated()) {
+                batchOffset = 0;
+            }
+            ByteBuffer data = tail.getData();
+            if (!data.hasRemaining()) {
+                continue;
+            }
+            
+            long sequence = checkpoint.getSequence() + 1;
+            // Only the first batch after a restart can have been applied without its checkpoint
+            boolean replay = statsAggregator.beginBatch(guildId, serverId, sequence, replayChecked.add(key));
+            if (replay) {
+                logger.info("Deathlog batch {} for server {} was applied before a restart, replaying without killfeed output",
+                        sequence, serverId);
+            }
+            
+            try {
+                totalProcessed += processDeathEvents(server, new DeathlogTokenizer(data.duplicate()), skipBefore, replay);
+            } finally {
+                statsAggregator.endBatch();
+            }
+            
+            checkpoint.setCursor(cursor);
+            checkpoint.setSequence(sequence);
+            checkpoint.setBatchOffset(batchOffset);
+            checkpoint.setBatchHash(hash(data));
+            
+            // Commit from the stats flush once the deltas are written; a flush running now may
+            // have taken them without writing them yet, so settledness is only checked there
+            IngestionCheckpoint recorded = checkpoint;
+            uncommittedCheckpoints.put(key, recorded);
+            statsAggregator.whenSettled(guildId, serverId, () -> commitCheckpoint(key, recorded));
+            break;
+        }
+        
+        if (totalProcessed > 0) {
+            logger.info("Processed {} deaths from death logs for server {}", totalProcessed, serverId);
+            server.setLastProcessedTimestamp(System.currentTimeMillis());
+        }
+        return totalProcessed;
+    }
+    
+    /**
+     * Commit a checkpoint whose batch has been flushed, letting the server be read again
+     * @return True if the checkpoint was saved
+     */
+    private boolean commitCheckpoint(String key, IngestionCheckpoint checkpoint) {
+        if (!checkpointRepository.save(checkpoint)) {
+            return false;
+        }
+        uncommittedCheckpoints.remove(key, checkpoint);
+        return true;
+    }
+    
+    private static String deathlogPath(GameServer server, String filename) {
+        return server.getDeathlogsDirectory() + "/" + filename;
+    }
+    
+    private static long hash(ByteBuffer data) {
+        CRC32 crc = new CRC32();
+        crc.update(data.duplicate());
+        return crc.getValue();
+    }
+    
+    /**
+     * Copy a cursor so the committed one is not advanced before its batch is applied
+     */
+    private static FileCursor copyCursor(FileCursor cursor) {
+        FileCursor copy = new FileCursor(cursor.getFilePath());
+        copy.setOffset(cursor.getOffset());
+        copy.setFileSize(cursor.getFileSize());
+        copy.setLastModified(cursor.getLastModified());
+        copy.setHeaderHash(cursor.getHeaderHash());
+        copy.setHeaderLength(cursor.getHeaderLength());
+        copy.setUpdatedAt(cursor.getUpdatedAt());
+        return copy;
+    }
+    
     /**
      * Synchronize weapon kill statistics with player kill counts
      * This helps fix statistical inconsistencies that may have occurred
@@ -402,6 +501,9 @@ public class DeadsideCsvParser {
     public int syncPlayerStatistics() {
         try {
             logger.info("Starting player statistics synchronization with proper isolation");
+            
+            // Apply pending stat deltas first so the players read below are current
+            statsAggregator.flush();
             int updatedCount = 0;
             
             // Get all players from the repository with proper isolation
@@ -447,15 +549,13 @@ public class DeadsideCsvParser {
                         logger.info("Fixing kill count discrepancy for player {}: {} weapon kills vs {} total kills", 
                                 player.getName(), totalWeaponKills, player.getKills());
                         
-                        // Update the player's kill count to match weapon kills
-                        player.setKills(totalWeaponKills);
-                        updated = true;
+                        // Update the player's kill count to match weapon kills, unless a kill landed since the read
+                        updated = playerRepository.repairCounters(player,
+                                Map.of("kills", player.getKills()), Map.of("kills", totalWeaponKills));
                     }
                 }
                 
-                // Save player if updated
                 if (updated) {
-                    playerRepository.save(player);
                     updatedCount++;
                 }
             }
@@ -472,92 +572,89 @@ public class DeadsideCsvParser {
      * Process a death log file content
      * @param server The game server
      * @param content The file content
+     * @param historical Whether the file is read as historical data, without killfeed output
      * @return Number of deaths processed
      */
-    private int processDeathLog(GameServer server, String content) {
+    private int processDeathLog(GameServer server, String content, boolean historical) {
         if (content == null || content.isEmpty()) {
             return 0;
         }
         
-        String[] lines = content.split("\\n");
+        // Skip time-based filtering when doing historical processing - this keeps server timestamps isolated
+        long skipBefore = historical ? 0 : server.getLastProcessedTimestamp();
+        int count = processDeathEvents(server, new DeathlogTokenizer(content), skipBefore, historical);
+        
+        // Historical files are written as a few bulk writes per file rather than waiting for the timer
+        if (historical) {
+            statsAggregator.flush();
+        }
+        
+        // Update server's last processed timestamp
+        if (count > 0) {
+            server.setLastProcessedTimestamp(System.currentTimeMillis());
+        }
+        
+        return count;
+    }
+    
+    /**
+     * Process the death events of a tokenized death log
+     * @param server The game server
+     * @param tokenizer Tokenizer over the death log lines
+     * @param skipBefore Skip deaths older than this time in milliseconds, 0 to keep all
+     * @param recordOnly Only fold stats into the aggregator, without killfeed output or bounty claims
+     * @return Number of deaths processed
+     */
+    private int processDeathEvents(GameServer server, DeathlogTokenizer tokenizer, long skipBefore, boolean recordOnly) {
         int count = 0;
         
-        for (String line : lines) {
-            line = line.trim();
-            if (line.isEmpty()) {
-                continue;
-            }
-            
-            // Simple validation that this looks like a death log line
-            boolean lineMatches = CSV_LINE_PATTERN.matcher(line).matches();
-            if (!lineMatches) {
-                logger.info("CSV line skipped - pattern mismatch: {}", line);
-                continue;
-            }
-            if (logger.isDebugEnabled()) {
-                logger.debug("CSV line matched pattern: {}", line);
+        while (true) {
+            DeathlogTokenizer.DeathEvent event;
+            try {
+                if (!tokenizer.next()) {
+                    break;
+                }
+                event = tokenizer.event();
+            } catch (IOException e) {
+                // Content is already in memory, this cannot happen
+                logger.error("Error tokenizing death log for server {}", server.getName(), e);
+                break;
             }
             
             try {
-                String[] parts = line.split(";");
-                // More flexible field count check - handle various formats while ensuring minimum required fields
-                if (parts.length < 7) { // At minimum need timestamp, killer, killerId, victim, victimId, weapon, distance
-                    logger.warn("Death log entry has too few fields ({} vs minimum 7): {}", parts.length, line);
-                    continue;
-                }
-                
                 // Parse death log entry - corrected for actual CSV format
-                String timestamp = parts[0];
-                String killer = parts[1].trim();
-                String killerId = parts[2].trim();
-                String victim = parts[3].trim();
-                String victimId = parts[4].trim();
-                String weapon = parts[5].trim();
-                // Handle possible format issues with distance field
-                int distance = 0;
-                try {
-                    distance = Integer.parseInt(parts[6].trim());
-                } catch (NumberFormatException e) {
-                    logger.warn("Invalid distance format in death log entry: {}", parts[6]);
-                    // Continue processing with default distance value
-                }
-                String killerPlatform = parts.length > 7 ? parts[7].trim() : "";
-                String victimPlatform = parts.length > 8 ? parts[8].trim() : "";
+                String timestamp = event.getTimestampText();
+                String killer = event.getKiller();
+                String killerId = event.getKillerId();
+                String victim = event.getVictim();
+                String victimId = event.getVictimId();
+                String weapon = event.getWeapon();
+                int distance = event.getDistance();
                 
                 // Skip entries with blank killers or "**" placeholders
-                if (killer.isEmpty() || killer.isBlank() || "**".equals(killer)) {
-                    logger.info("Skipping death log entry with blank or placeholder killer: {}", line);
+                if (hasNoKiller(killer)) {
+                    logger.info("Skipping death log entry with blank or placeholder killer: {}", event.getLine());
                     continue;
                 }
                 
                 // Make sure killer ID is valid - this is crucial for database tracking
-                if (killerId.isEmpty() || killerId.isBlank()) {
+                if (killerId.isBlank()) {
                     // Generate a synthetic ID based on killer name if missing
-                    killerId = "gen_" + killer.hashCode();
+                    killerId = killerIdFor(killer, killerId);
                     logger.info("Generated ID for killer without ID: {} -> {}", killer, killerId);
                 }
                 
-                // Only check timestamp filtering if not in historical mode
-                try {
-                    Date deathTime = CSV_DATE_FORMAT.parse(timestamp);
-                    // Each server has its own independent lastProcessedTimestamp that we check against
+                long deathTime = event.getTimestamp();
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Death timestamp: {} ({}), skipping before: {}, record only: {}, server: {}", 
+                            timestamp, deathTime, skipBefore, recordOnly ? "yes" : "no", server.getName());
+                }
+                
+                if (skipBefore > 0 && deathTime < skipBefore) {
                     if (logger.isDebugEnabled()) {
-                        logger.debug("Death timestamp: {} ({}), server timestamp: {}, historical mode: {}, server: {}", 
-                                timestamp, deathTime.getTime(), server.getLastProcessedTimestamp(), 
-                                isProcessingHistoricalData ? "yes" : "no", 
-                                server.getName());
-                    }
-                    
-                    // Skip time-based filtering when doing historical processing - this keeps server timestamps isolated
-                    if (!isProcessingHistoricalData && server.getLastProcessedTimestamp() > 0 && 
-                        deathTime.getTime() < server.getLastProcessedTimestamp()) {
-                        if (logger.isDebugEnabled()) {
-                            logger.debug("Skipping old death due to timestamp (server: {})", server.getName());
-                        }
-                        continue;
+                        logger.debug("Skipping old death due to timestamp (server: {})", server.getName());
                     }
-                } catch (ParseException e) {
-                    logger.warn("Could not parse death timestamp: {}", timestamp);
+                    continue;
                 }
                 
                 // Process death (controlled logging)
@@ -565,113 +662,17 @@ public class DeadsideCsvParser {
                     logger.debug("Processing death: {} killed {} with {} ({}m)", killer, victim, weapon, distance);
                 }
                 try {
-                    // FIXED HISTORICAL PROCESSING: Direct database updates to ensure all kills are counted
-                    if (isProcessingHistoricalData) {
+                    // Historical processing and replays only fold stats into the aggregator, no killfeed output
+                    if (recordOnly) {
                         // Check if this is a suicide event
-                        boolean isSuicide = SUICIDE_CAUSES.contains(weapon.toLowerCase()) || 
-                                          victim.equals(killer) || 
-                                          weapon.equals("suicide_by_relocation") || 
-                                          weapon.equals("falling");
+                        boolean isSuicide = isSuicide(victim, killer, weapon);
                         
-                        if (!isSuicide && !killer.equals("**")) {
-                            try {
-                                // Find or create the player - with proper server isolation
-                                Player player = playerRepository.findByDeadsideIdAndGuildIdAndServerId(
-                                    killerId, server.getGuildId(), server.getName());
-                                
-                                if (player == null) {
-                                    player = new Player(killerId, killer, server.getGuildId(), server.getName());
-                                    logger.info("Created new player: {} (ID: {}) for server: {} in guild: {}", 
-                                        killer, killerId, server.getName(), server.getGuildId());
-                                }
-                                
-                                // Increment the kill counter
-                                player.setKills(player.getKills() + 1);
-                                
-                                // Update weapon stats without double counting
-                                if (weapon != null && !weapon.isEmpty()) {
-                                    // Get current weapon kills
-                                    Map<String, Integer> weaponKills = player.getWeaponKills();
-                                    if (weaponKills == null) {
-                                        weaponKills = new HashMap<>();
-                                        player.setWeaponKills(weaponKills);
-                                    }
-                                    
-                                    // Update the weapon count
-                                    int currentWeaponKills = weaponKills.getOrDefault(weapon, 0);
-                                    weaponKills.put(weapon, currentWeaponKills + 1);
-                                    
-                                    // Update most used weapon if applicable
-                                    if (currentWeaponKills + 1 > player.getMostUsedWeaponKills()) {
-                                        player.setMostUsedWeapon(weapon);
-                                        player.setMostUsedWeaponKills(currentWeaponKills + 1);
-                                    }
-                                }
-                                
-                                // Update longest kill distance if applicable
-                                if (distance > player.getLongestKillDistance()) {
-                                    player.setLongestKillDistance(distance);
-                                    player.setLongestKillVictim(victim);
-                                    player.setLongestKillWeapon(weapon);
-                                }
-                                
-                                // Increment kill streak
-                                player.incrementKillStreak();
-                                
-                                // Save player data
-                                playerRepository.save(player);
-                                
-                                // Now update victim data with proper server isolation
-                                Player victimPlayer = playerRepository.findByDeadsideIdAndGuildIdAndServerId(
-                                    victimId, server.getGuildId(), server.getName());
-                                    
-                                if (victimPlayer == null) {
-                                    victimPlayer = new Player(victimId, victim, server.getGuildId(), server.getName());
-                                    logger.info("Created new victim player: {} (ID: {}) for server: {} in guild: {}", 
-                                        victim, victimId, server.getName(), server.getGuildId());
-                                }
-                                
-                                // Increment death counter
-                                victimPlayer.setDeaths(victimPlayer.getDeaths() + 1);
-                                
-                                // Reset victim's kill streak
-                                victimPlayer.resetKillStreak();
-                                
-                                // Save victim data
-                                playerRepository.save(victimPlayer);
-                                
-                                logger.info("Historical kill successfully recorded: {} → {} with {} ({}m)", killer, victim, weapon, distance);
-                            } catch (Exception e) {
-                                logger.error("Error processing historical kill: {}", e.getMessage(), e);
-                            }
+                        if (!isSuicide) {
+                            statsAggregator.recordKill(server.getGuildId(), server.getName(),
+                                killerId, killer, victimId, victim, weapon, distance,
+                                deathTime > 0 ? deathTime : System.currentTimeMillis());
                         } else {
-                            // Handle suicide case - only update victim stats
-                            try {
-                                Player victimPlayer = playerRepository.findByDeadsideIdAndGuildIdAndServerId(
-                                    victimId, server.getGuildId(), server.getName());
-                                    
-                                if (victimPlayer == null) {
-                                    victimPlayer = new Player(victimId, victim, server.getGuildId(), server.getName());
-                                    logger.info("Created new suicide victim player: {} (ID: {}) for server: {} in guild: {}", 
-                                        victim, victimId, server.getName(), server.getGuildId());
-                                }
-                                
-                                // Increment suicides counter
-                                victimPlayer.setSuicides(victimPlayer.getSuicides() + 1);
-                                
-                                // Increment death counter
-                                victimPlayer.setDeaths(victimPlayer.getDeaths() + 1);
-                                
-                                // Reset kill streak
-                                victimPlayer.resetKillStreak();
-                                
-                                // Save victim data
-                                playerRepository.save(victimPlayer);
-                                
-                                logger.info("Historical suicide recorded for: {}", victim);
-                            } catch (Exception e) {
-                                logger.error("Error processing historical suicide: {}", e.getMessage(), e);
-                            }
+                            statsAggregator.recordSuicide(server.getGuildId(), server.getName(), victimId, victim);
                         }
                     } else {
                         // For regular (non-historical) processing, use the normal event-based flow
@@ -688,13 +689,13 @@ public class DeadsideCsvParser {
                     logger.error("Failed to process death: {}", e.getMessage(), e);
                 }
             } catch (Exception e) {
-                logger.warn("Error processing death log line: {}", line, e);
+                logger.warn("Error processing death log line: {}", event.getLine(), e);
             }
         }
         
-        // Update server's last processed timestamp
-        if (count > 0) {
-            server.setLastProcessedTimestamp(System.currentTimeMillis());
+        if (tokenizer.getSkippedLines() > 0) {
+            logger.info("Skipped {} malformed death log lines for server {}", 
+                    tokenizer.getSkippedLines(), server.getName());
         }
         
         return count;
@@ -707,8 +708,7 @@ public class DeadsideCsvParser {
                              String killer, String killerId, String weapon, int distance) {
         try {
             // Handle different death types
-            boolean isSuicide = SUICIDE_CAUSES.contains(weapon.toLowerCase()) || 
-                                victim.equals(killer);
+            boolean isSuicide = isSuicide(victim, killer, weapon);
             
             if (isSuicide) {
                 // Send suicide message to death channel (and update stats)
@@ -728,8 +728,7 @@ public class DeadsideCsvParser {
                 // Send to appropriate channel based on event type (and update stats)
                 sendPlayerKillKillfeed(server, timestamp, victim, victimId, killer, killerId, weapon, distance, eventType);
                 
-                // Note: player stats are now updated in the killfeed methods to ensure
-                // they're always updated even during historical processing
+                // Note: player stats are updated in the killfeed methods
             }
         } catch (Exception e) {
             logger.error("Error processing death: {} killed by {}: {}", victim, killer, e.getMessage(), e);
@@ -744,6 +743,9 @@ public class DeadsideCsvParser {
         try {
             logger.info("Starting comprehensive statistics synchronization...");
             
+            // Apply pending stat deltas first so the players read below are current
+            statsAggregator.flush();
+            
             // Get all players from the repository with proper isolation
             List<Player> allPlayers = new ArrayList<>();
             
@@ -797,18 +799,18 @@ public class DeadsideCsvParser {
                     logger.info("Syncing kill count for player {}: DB kills={}, weapon kill sum={}",
                             player.getName(), player.getKills(), totalWeaponKills);
                     
-                    // Update the player's kill count to match weapon kill sum
-                    player.setKills(totalWeaponKills);
-                    
-                    // Update most used weapon information
+                    // Update the player's kill count to match weapon kill sum, with the most used weapon
+                    Map<String, Object> repaired = new HashMap<>();
+                    repaired.put("kills", totalWeaponKills);
                     if (mostUsedWeapon != null) {
-                        player.setMostUsedWeapon(mostUsedWeapon.getKey());
-                        player.setMostUsedWeaponKills(mostUsedWeapon.getValue());
+                        repaired.put("mostUsedWeapon", mostUsedWeapon.getKey());
+                        repaired.put("mostUsedWeaponKills", mostUsedWeapon.getValue());
                     }
                     
-                    // Save the updated player
-                    playerRepository.save(player);
-                    updatedPlayers++;
+                    // Skipped if a kill landed since the read; the next run picks it up
+                    if (playerRepository.repairCounters(player, Map.of("kills", player.getKills()), repaired)) {
+                        updatedPlayers++;
+                    }
                 }
             }
             
@@ -819,124 +821,6 @@ public class DeadsideCsvParser {
         }
     }
     
-    /**
-     * Update the killer's stats
-     */
-    private void updateKillerStats(GameServer server, String killer, String killerId) {
-        updateKillerStats(server, killer, killerId, null);
-    }
-    
-    /**
-     * Update the killer's stats with weapon information
-     */
-    private void updateKillerStats(GameServer server, String killer, String killerId, String weapon) {
-        // Default distance for older method calls
-        updateKillerStats(server, killer, killerId, weapon, 0);
-    }
-    
-    /**
-     * Update the killer's stats with weapon and distance information
-     */
-    private void updateKillerStats(GameServer server, String killer, String killerId, String weapon, int distance) {
-        try {
-            // Find or create the player with proper server isolation
-            Player player = playerRepository.findByDeadsideIdAndGuildIdAndServerId(
-                killerId, server.getGuildId(), server.getName());
-                
-            if (player == null) {
-                // Create a new player if one doesn't exist with proper server association
-                player = new Player(killerId, killer, server.getGuildId(), server.getName());
-                logger.debug("Created new player record for {} with ID {} for server: {} in guild: {}", 
-                    killer, killerId, server.getName(), server.getGuildId());
-            }
-            
-            // Update kills and score
-            player.setKills(player.getKills() + 1);
-            
-            // Base score per kill
-            int scoreIncrease = 10;
-            
-            // Bonus points for special kills
-            if (weapon != null) {
-                if (weapon.toLowerCase().contains("airdrop") || 
-                    weapon.toLowerCase().contains("supply")) {
-                    // Airdrop kills are more valuable
-                    scoreIncrease += 15;
-                } else if (distance > 300) {
-                    // Longshot kills
-                    scoreIncrease += (int)(distance / 100); // +1 point per 100m over 300m
-                }
-            }
-            
-            // Score is now calculated dynamically based on kills and deaths
-            // Removed direct score setting as it was causing kill counts to be reset
-            
-            // Add kill reward
-            // TODO: Add economy reward here if implemented
-            
-            // Increment kill streak
-            player.incrementKillStreak();
-            
-            // Update weapon kills - consolidated to fix duplicate counting
-            if (weapon != null && !weapon.isEmpty()) {
-                int currentCount = player.getWeaponKills().getOrDefault(weapon, 0);
-                // Use a single increment for weapon kills to avoid double counting
-                int newCount = currentCount + 1;
-                player.getWeaponKills().put(weapon, newCount);
-                
-                // Update most used weapon if applicable
-                if (newCount > player.getMostUsedWeaponKills()) {
-                    player.setMostUsedWeapon(weapon);
-                    player.setMostUsedWeaponKills(newCount);
-                }
-            }
-            
-            // Save the updated player
-            playerRepository.save(player);
-            
-            if (logger.isDebugEnabled()) {
-                logger.debug("Updated killer stats for {} (ID: {}): kills={}, killStreak={}", 
-                    killer, killerId, player.getKills(), player.getCurrentKillStreak());
-            }
-        } catch (Exception e) {
-            logger.error("Error updating killer stats for {}: {}", killer, e.getMessage(), e);
-        }
-    }
-    
-    /**
-     * Update the victim's stats
-     */
-    private void updateVictimStats(GameServer server, String victim, String victimId) {
-        try {
-            // Find or create the player with proper server isolation
-            Player player = playerRepository.findByDeadsideIdAndGuildIdAndServerId(
-                victimId, server.getGuildId(), server.getName());
-                
-            if (player == null) {
-                // Create a new player if one doesn't exist with proper server association
-                player = new Player(victimId, victim, server.getGuildId(), server.getName());
-                logger.debug("Created new victim record for {} with ID {} for server: {} in guild: {}", 
-                    victim, victimId, server.getName(), server.getGuildId());
-            }
-            
-            // Update deaths
-            player.setDeaths(player.getDeaths() + 1);
-            
-            // Reset kill streak when player dies
-            player.resetKillStreak();
-            
-            // Save the updated player
-            playerRepository.save(player);
-            
-            if (logger.isDebugEnabled()) {
-                logger.debug("Updated victim stats for {} (ID: {}): deaths={}", 
-                    victim, victimId, player.getDeaths());
-            }
-        } catch (Exception e) {
-            logger.error("Error updating victim stats for {}: {}", victim, e.getMessage(), e);
-        }
-    }
-    
     /**
      * Send killfeed message for player kill
      */
@@ -951,16 +835,20 @@ public class DeadsideCsvParser {
     private void sendPlayerKillKillfeed(GameServer server, String timestamp, String victim, String victimId,
                                        String killer, String killerId, String weapon, int distance, String eventType) {
         try {
-            // Always update player statistics even during historical processing
             // Pass server information for proper data isolation
-            updateKillerStats(server, killer, killerId, weapon, distance);
-            updateVictimStats(server, victim, victimId);
+            statsAggregator.recordKill(server.getGuildId(), server.getName(),
+                killerId, killer, victimId, victim, weapon, distance);
             
-            // Skip sending killfeed embeds during historical processing
-            if (isProcessingHistoricalData) {
-                return;
+            // Bounties on the victim go to the killer; only a hash lookup unless the victim has one
+            if (bountyMatcher.hasBounty(server.getGuildId(), server.getName(), victimId)) {
+                bountyMatcher.claim(server.getGuildId(), server.getName(), killerId, killer, victimId, victim,
+                        getTextChannel(server, "kill"));
             }
             
+            // Watch alerts on either player; a hash lookup per player when the server has any
+            alertMatcher.onKill(server.getGuildId(), server.getName(), killerId, killer, victimId, victim,
+                    weapon, distance);
+            
             MessageEmbed embed;
             
             // Check if this is a special kill type and create appropriate embed
@@ -1010,14 +898,10 @@ public class DeadsideCsvParser {
      */
     private void sendSuicideKillfeed(GameServer server, String timestamp, String victim, String victimId, String cause) {
         try {
-            // Always update statistics even during historical processing
             // Pass server parameter for proper data isolation
-            updateVictimStats(server, victim, victimId);
+            statsAggregator.recordSuicide(server.getGuildId(), server.getName(), victimId, victim);
             
-            // Skip killfeed message during historical processing
-            if (isProcessingHistoricalData) {
-                return;
-            }
+            alertMatcher.onDeath(server.getGuildId(), server.getName(), victimId, victim, cause);
             
             MessageEmbed embed;
             
@@ -1051,15 +935,9 @@ public class DeadsideCsvParser {
     
     /**
      * Send embed message to the appropriate channel based on event type
-     * Non-historical data is sent to killfeed channels, historical data is not
+     * Only live deaths get here; historical data is recorded without killfeed output
      */
     private void sendToKillfeedChannel(GameServer server, net.dv8tion.jda.api.entities.MessageEmbed embed, String eventType) {
-        // Check if we're in historical processing mode - skip sending to channels if true
-        if (isProcessingHistoricalData) {
-            logger.debug("Skipping killfeed output during historical data processing for server {}", server.getName());
-            return;
-        }
-        
         TextChannel killfeedChannel = getTextChannel(server, eventType);
         if (killfeedChannel == null) {
             logger.warn("No suitable channel found for {} events for server {}", 
@@ -1067,10 +945,7 @@ public class DeadsideCsvParser {
             return;
         }
         
-        killfeedChannel.sendMessageEmbeds(embed).queue(
-                success -> logger.debug("Sent killfeed to channel {}", killfeedChannel.getId()),
-                error -> logger.error("Failed to send killfeed: {}", error.getMessage())
-        );
+        EmbedDispatcher.getInstance().submit(killfeedChannel, embed);
     }
     
     /**
@@ -1080,7 +955,7 @@ public class DeadsideCsvParser {
      * @return The text channel, or null if not found/configured
      */
     private TextChannel getTextChannel(GameServer server, String eventType) {
-        if (jda == null || server.getGuildId() == 0) {
+        if (server.getGuildId() == 0) {
             return null;
         }
         
@@ -1105,7 +980,7 @@ public class DeadsideCsvParser {
         }
         
         // Get the channel from JDA
-        TextChannel channel = jda.getTextChannelById(channelId);
+        TextChannel channel = ShardCoordinator.getInstance().getTextChannelById(jda, channelId);
         if (channel == null) {
             logger.warn("Could not find text channel with ID {} for server {} and event type {}",
                     channelId, server.getName(), eventType);
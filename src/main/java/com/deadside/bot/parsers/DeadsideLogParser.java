@@ -1,8 +1,14 @@
 package com.deadside.bot.parsers;
 
+import com.deadside.bot.alerts.AlertMatcher;
+import com.deadside.bot.bot.ShardCoordinator;
+import com.deadside.bot.db.models.FileCursor;
 import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.models.IngestionCheckpoint;
 import com.deadside.bot.db.repositories.GameServerRepository;
+import com.deadside.bot.db.repositories.IngestionCheckpointRepository;
 import com.deadside.bot.sftp.SftpConnector;
+import com.deadside.bot.utils.EmbedDispatcher;
 import com.deadside.bot.utils.EmbedUtils;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.JDA;
@@ -19,6 +25,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.CRC32;
 
 /**
  * Parser for Deadside.log files
@@ -26,28 +33,43 @@ import java.util.regex.Pattern;
  */
 public class DeadsideLogParser {
     private static final Logger logger = LoggerFactory.getLogger(DeadsideLogParser.class);
+    // Checkpoint pipeline name for the server log
+    private static final String LOG_PIPELINE = "log";
     private final JDA jda;
     private final GameServerRepository serverRepository;
     private final SftpConnector sftpConnector;
+    private final IngestionCheckpointRepository checkpointRepository = new IngestionCheckpointRepository();
+    private final AlertMatcher alertMatcher = AlertMatcher.getInstance();
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
     
-    // Map to keep track of last processed line for each server
-    private final Map<String, Integer> lastLineProcessed = new HashMap<>();
+    // Timestamp anywhere in a line, for lines not in the standard layout
+    static final Pattern TIMESTAMP_PATTERN = Pattern.compile("\\[(\\d{4}\\.\\d{2}\\.\\d{2}-\\d{2}\\.\\d{2}\\.\\d{2}:\\d{3})\\]\\[\\s*\\d+\\]");
     
-    // Regex patterns for different event types
-    private static final Pattern TIMESTAMP_PATTERN = Pattern.compile("\\[(\\d{4}\\.\\d{2}\\.\\d{2}-\\d{2}\\.\\d{2}\\.\\d{2}:\\d{3})\\]\\[\\s*\\d+\\]");
-    private static final Pattern PLAYER_JOIN_PATTERN = Pattern.compile("LogSFPS: \\[Login\\] Player (.+?) connected");
-    private static final Pattern PLAYER_LEAVE_PATTERN = Pattern.compile("LogSFPS: \\[Logout\\] Player (.+?) disconnected");
-    private static final Pattern PLAYER_KILLED_PATTERN = Pattern.compile("LogSFPS: \\[Kill\\] (.+?) killed (.+?) with (.+?) at distance (\\d+)");
-    private static final Pattern PLAYER_DIED_PATTERN = Pattern.compile("LogSFPS: \\[Death\\] (.+?) died from (.+?)");
-    private static final Pattern AIRDROP_PATTERN = Pattern.compile("LogSFPS: AirDrop switched to (\\w+)");
-    private static final Pattern HELI_CRASH_PATTERN = Pattern.compile("LogSFPS: Helicopter crash spawned at position (.+)");
-    private static final Pattern TRADER_EVENT_PATTERN = Pattern.compile("LogSFPS: Trader event started at (.+)");
-    private static final Pattern MISSION_PATTERN = Pattern.compile("LogSFPS: Mission (.+?) switched to (\\w+)");
-    // Pattern to detect server settings in command line
-    private static final Pattern MAX_PLAYERS_PATTERN = Pattern.compile("-playersmaxcount=(\\d+)");
-    // Pattern to track player counts in logs
-    private static final Pattern PLAYERS_ONLINE_PATTERN = Pattern.compile("LogSFPS: Players online: (\\d+)");
+    // Event types recognised in Deadside.log
+    static final String EVENT_MAX_PLAYERS = "max_players";
+    static final String EVENT_PLAYERS_ONLINE = "players_online";
+    static final String EVENT_JOIN = "join";
+    static final String EVENT_LEAVE = "leave";
+    static final String EVENT_KILL = "kill";
+    static final String EVENT_DEATH = "death";
+    static final String EVENT_AIRDROP = "airdrop";
+    static final String EVENT_HELI_CRASH = "heli_crash";
+    static final String EVENT_TRADER = "trader";
+    static final String EVENT_MISSION = "mission";
+    
+    // One literal scan per line, then at most one extractor (package-private for the JMH benchmarks)
+    static final LogEventClassifier CLASSIFIER = new LogEventClassifier()
+            // Server settings in the command line
+            .addAnywhere(EVENT_MAX_PLAYERS, "-playersmaxcount=", Pattern.compile("(\\d+)"))
+            .add(EVENT_PLAYERS_ONLINE, "Players online: ", Pattern.compile("(\\d+)"))
+            .add(EVENT_JOIN, "[Login] Player ", Pattern.compile("(.+?) connected"))
+            .add(EVENT_LEAVE, "[Logout] Player ", Pattern.compile("(.+?) disconnected"))
+            .add(EVENT_KILL, "[Kill] ", Pattern.compile("(.+?) killed (.+?) with (.+?) at distance (\\d+)"))
+            .add(EVENT_DEATH, "[Death] ", Pattern.compile("(.+?) died from (.+)"))
+            .add(EVENT_AIRDROP, "AirDrop switched to ", Pattern.compile("(\\w+)"))
+            .add(EVENT_HELI_CRASH, "Helicopter crash spawned at position ", Pattern.compile("(.+)"))
+            .add(EVENT_TRADER, "Trader event started at ", Pattern.compile("(.+)"))
+            .add(EVENT_MISSION, "Mission ", Pattern.compile("(.+?) switched to (\\w+)"));
     
     // Log parsing interval in seconds
     private static final int LOG_PARSE_INTERVAL = 60; // 1 minute
@@ -114,32 +136,68 @@ public class DeadsideLogParser {
         }
     }
     
+    /**
+     * Process new log lines for a single server
+     * Used by the ingestion scheduler, which runs each server as its own task
+     */
+    public void processServerLog(GameServer server) {
+        // Skip servers without log channel configured
+        if (server.getLogChannelId() == 0) {
+            return;
+        }
+        
+        parseServerLog(server);
+    }
+    
     /**
      * Parse the log file for a specific server
+     * Only the bytes appended since the server's log checkpoint are downloaded, and the
+     * checkpoint only advances once the lines read have been processed
      */
     private void parseServerLog(GameServer server) {
         String logPath = getServerLogPath(server);
         
         try {
-            // Get the last line processed for this server
-            int lastLine = lastLineProcessed.getOrDefault(server.getName(), 0);
+            IngestionCheckpoint checkpoint = checkpointRepository.find(server.getGuildId(), server.getName(), LOG_PIPELINE);
+            if (checkpoint == null) {
+                // Carry over the cursor servers kept before checkpoints existed
+                checkpoint = new IngestionCheckpoint(server.getGuildId(), server.getName(), LOG_PIPELINE);
+                checkpoint.setCursor(server.getLogCursor() != null ? server.getLogCursor() : new FileCursor(logPath));
+                server.setLogCursor(null);
+            }
+            FileCursor cursor = copyCursor(checkpoint.getCursor());
             
-            // Read new lines from the log file
-            List<String> newLines;
+            // Remember where the previous file ended in case it was rotated away since the last poll
+            FileCursor previous = copyCursor(cursor);
             
             try {
-                // Read lines after the last processed line
-                newLines = sftpConnector.readLinesAfter(server, logPath, lastLine);
+                long batchOffset = cursor.tracks(logPath) ? cursor.getOffset() : 0;
+                SftpConnector.TailResult tail = sftpConnector.tailLines(server, logPath, cursor);
                 
-                if (newLines.isEmpty()) {
-                    return;
+                if (tail.isRotated()) {
+                    batchOffset = 0;
+                    logger.info("Log rotation detected for server {}, reading remainder of the rotated file", server.getName());
+                    server.setLastLogRotation(System.currentTimeMillis());
+                    tryFindAndProcessNewLogFile(server, previous);
                 }
                 
-                // Update last processed line
-                lastLineProcessed.put(server.getName(), lastLine + newLines.size());
+                if (!tail.getLines().isEmpty()) {
+                    processLogLines(server, tail.getLines());
+                }
                 
-                // Process new lines
-                processLogLines(server, newLines);
+                // Commit the cursor whenever it moved so a restart resumes from the same byte
+                if (tail.getBytesRead() > 0 || tail.isRotated()) {
+                    CRC32 crc = new CRC32();
+                    crc.update(tail.getData());
+                    checkpoint.setCursor(cursor);
+                    checkpoint.setSequence(checkpoint.getSequence() + 1);
+                    checkpoint.setBatchOffset(batchOffset);
+                    checkpoint.setBatchHash(crc.getValue());
+                    checkpointRepository.save(checkpoint);
+                }
+                if (tail.isRotated()) {
+                    serverRepository.updateFields(server, "lastLogRotation", "logCursor");
+                }
             } catch (Exception e) {
                 String errorMessage = e.getMessage();
                 if (errorMessage != null && (errorMessage.contains("No such file") || errorMessage.contains("File not found"))) {
@@ -153,15 +211,6 @@ public class DeadsideLogParser {
                     } catch (Exception ex) {
                         logger.warn("Could not create test file: {}", ex.getMessage());
                     }
-                } else if (errorMessage != null && (errorMessage.contains("smaller than expected") || 
-                             errorMessage.contains("is empty") || 
-                             errorMessage.contains("End of file"))) {
-                    // Enhanced log rotation detection - accounts for multiple rotation signals
-                    logger.info("Log rotation detected for server {}, resetting line counter and checking for new log file", server.getName());
-                    lastLineProcessed.put(server.getName(), 0);
-                    
-                    // Attempt to find and process the new log file
-                    tryFindAndProcessNewLogFile(server);
                 } else {
                     throw e;
                 }
@@ -175,150 +224,113 @@ public class DeadsideLogParser {
      * Process log lines and detect events
      */
     private void processLogLines(GameServer server, List<String> lines) {
-        Set<String> joinedPlayers = new HashSet<>();
-        Set<String> leftPlayers = new HashSet<>();
-        
         // Count of players who joined/left during this processing cycle
         int joinCount = 0;
         int leaveCount = 0;
         
         for (String line : lines) {
-            // Extract timestamp if present
-            String timestamp = "";
-            Matcher timestampMatcher = TIMESTAMP_PATTERN.matcher(line);
-            if (timestampMatcher.find()) {
-                timestamp = timestampMatcher.group(1);
-            }
-            
-            // Check for max player count in server startup parameters
-            Matcher maxPlayersMatcher = MAX_PLAYERS_PATTERN.matcher(line);
-            if (maxPlayersMatcher.find()) {
-                int maxPlayers = Integer.parseInt(maxPlayersMatcher.group(1));
-                if (maxPlayers > 0 && maxPlayers != server.getMaxPlayers()) {
-                    // Update the max players in the server model if it has changed
-                    server.setMaxPlayers(maxPlayers);
-                    serverRepository.save(server);
-                    logger.info("Updated max player count for server {} to {}", server.getName(), maxPlayers);
-                }
-                continue;
-            }
-            
-            // Check for direct player count updates in logs
-            Matcher playersOnlineMatcher = PLAYERS_ONLINE_PATTERN.matcher(line);
-            if (playersOnlineMatcher.find()) {
-                int playerCount = Integer.parseInt(playersOnlineMatcher.group(1));
-                // Update the current player count in the server model
-                server.setPlayerCount(playerCount);
-                serverRepository.save(server);
-                logger.debug("Updated player count for server {} to {}", server.getName(), playerCount);
+            LogEventClassifier.LogEvent event = CLASSIFIER.classify(line);
+            if (event == null) {
                 continue;
             }
             
-            // Player join events
-            Matcher joinMatcher = PLAYER_JOIN_PATTERN.matcher(line);
-            if (joinMatcher.find()) {
-                String playerName = joinMatcher.group(1).trim();
-                joinCount++;
-                joinedPlayers.add(playerName);
-                
-                // Update player count (increment) - if no direct player count is found
-                int currentCount = server.getPlayerCount();
-                server.setPlayerCount(currentCount + 1);
-                serverRepository.save(server);
-                
-                // Process individually for immediate notification
-                sendPlayerJoinNotification(server, playerName, timestamp);
-                continue;
+            // Extract timestamp if present
+            String timestamp = LogEventClassifier.leadingTimestamp(line);
+            if (timestamp == null) {
+                Matcher timestampMatcher = TIMESTAMP_PATTERN.matcher(line);
+                timestamp = timestampMatcher.find() ? timestampMatcher.group(1) : "";
             }
             
-            // Player leave events
-            Matcher leaveMatcher = PLAYER_LEAVE_PATTERN.matcher(line);
-            if (leaveMatcher.find()) {
-                String playerName = leaveMatcher.group(1).trim();
-                leaveCount++;
-                leftPlayers.add(playerName);
-                
-                // Update player count (decrement) - if no direct player count is found
-                int currentCount = server.getPlayerCount();
-                if (currentCount > 0) { // Ensure we don't go below zero
-                    server.setPlayerCount(currentCount - 1);
-                    serverRepository.save(server);
+            switch (event.getType()) {
+                case EVENT_MAX_PLAYERS: {
+                    // Max player count in server startup parameters
+                    int maxPlayers = Integer.parseInt(event.group(1));
+                    if (maxPlayers > 0 && maxPlayers != server.getMaxPlayers()) {
+                        // Update the max players in the server model if it has changed
+                        server.setMaxPlayers(maxPlayers);
+                        serverRepository.updateFields(server, "maxPlayers");
+                        logger.info("Updated max player count for server {} to {}", server.getName(), maxPlayers);
+                    }
+                    break;
                 }
-                
-                // Process individually for immediate notification
-                sendPlayerLeaveNotification(server, playerName, timestamp);
-                continue;
-            }
-            
-            // Player killed events
-            Matcher killedMatcher = PLAYER_KILLED_PATTERN.matcher(line);
-            if (killedMatcher.find()) {
-                String killer = killedMatcher.group(1).trim();
-                String victim = killedMatcher.group(2).trim();
-                String weapon = killedMatcher.group(3).trim();
-                String distance = killedMatcher.group(4).trim();
-                
-                // Send kill notification
-                sendKillNotification(server, killer, victim, weapon, distance, timestamp);
-                continue;
-            }
-            
-            // Player died events
-            Matcher diedMatcher = PLAYER_DIED_PATTERN.matcher(line);
-            if (diedMatcher.find()) {
-                String player = diedMatcher.group(1).trim();
-                String cause = diedMatcher.group(2).trim();
-                
-                // Send death notification
-                sendDeathNotification(server, player, cause, timestamp);
-                continue;
-            }
-            
-            // Airdrop events
-            Matcher airdropMatcher = AIRDROP_PATTERN.matcher(line);
-            if (airdropMatcher.find()) {
-                String status = airdropMatcher.group(1).trim();
-                if (status.equalsIgnoreCase("Waiting")) {
-                    // Airdrop is now available
-                    sendEventNotification(server, "Airdrop Event", "An airdrop is inbound!", 
-                            "Status: " + status, Color.BLUE, timestamp);
-                } else if (status.equalsIgnoreCase("Dropped") || status.equalsIgnoreCase("Active")) {
-                    // Airdrop has been deployed
-                    sendEventNotification(server, "Airdrop Event", "An airdrop has been deployed!", 
-                            "Status: " + status, Color.BLUE, timestamp);
+                case EVENT_PLAYERS_ONLINE: {
+                    // Direct player count updates in logs
+                    int playerCount = Integer.parseInt(event.group(1));
+                    server.setPlayerCount(playerCount);
+                    serverRepository.updateFields(server, "playerCount");
+                    logger.debug("Updated player count for server {} to {}", server.getName(), playerCount);
+                    break;
                 }
-                continue;
-            }
-            
-            // Helicopter crash events
-            Matcher heliMatcher = HELI_CRASH_PATTERN.matcher(line);
-            if (heliMatcher.find()) {
-                String position = heliMatcher.group(1).trim();
-                sendEventNotification(server, "Helicopter Crash", "A helicopter has crashed nearby!", 
-                        "Location: " + position, new Color(150, 75, 0), timestamp); // Brown
-                continue;
-            }
-            
-            // Trader events
-            Matcher traderMatcher = TRADER_EVENT_PATTERN.matcher(line);
-            if (traderMatcher.find()) {
-                String position = traderMatcher.group(1).trim();
-                sendEventNotification(server, "Trader Event", "A special trader has appeared!", 
-                        "Location: " + position, new Color(0, 128, 0), timestamp); // Green
-                continue;
-            }
-            
-            // Mission events
-            Matcher missionMatcher = MISSION_PATTERN.matcher(line);
-            if (missionMatcher.find()) {
-                String missionName = missionMatcher.group(1).trim();
-                String status = missionMatcher.group(2).trim();
-                
-                if (status.equalsIgnoreCase("READY") || status.equalsIgnoreCase("ACTIVE")) {
-                    sendEventNotification(server, "Mission Available", "A new mission is active!", 
-                            "Mission: " + missionName + "\nStatus: " + status, 
-                            new Color(148, 0, 211), timestamp); // Purple
+                case EVENT_JOIN: {
+                    String playerName = event.group(1);
+                    joinCount++;
+                    
+                    // Update player count (increment) - if no direct player count is found
+                    int currentCount = server.getPlayerCount();
+                    server.setPlayerCount(currentCount + 1);
+                    serverRepository.updateFields(server, "playerCount");
+                    
+                    // Process individually for immediate notification
+                    sendPlayerJoinNotification(server, playerName, timestamp);
+                    alertMatcher.onJoin(server.getGuildId(), server.getName(), playerName);
+                    break;
+                }
+                case EVENT_LEAVE: {
+                    String playerName = event.group(1);
+                    leaveCount++;
+                    
+                    // Update player count (decrement) - if no direct player count is found
+                    int currentCount = server.getPlayerCount();
+                    if (currentCount > 0) { // Ensure we don't go below zero
+                        server.setPlayerCount(currentCount - 1);
+                        serverRepository.updateFields(server, "playerCount");
+                    }
+                    
+                    // Process individually for immediate notification
+                    sendPlayerLeaveNotification(server, playerName, timestamp);
+                    alertMatcher.onLeave(server.getGuildId(), server.getName(), playerName);
+                    break;
+                }
+                case EVENT_KILL:
+                    sendKillNotification(server, event.group(1), event.group(2), event.group(3),
+                            event.group(4), timestamp);
+                    break;
+                case EVENT_DEATH:
+                    sendDeathNotification(server, event.group(1), event.group(2), timestamp);
+                    break;
+                case EVENT_AIRDROP: {
+                    String status = event.group(1);
+                    if (status.equalsIgnoreCase("Waiting")) {
+                        // Airdrop is now available
+                        sendEventNotification(server, "Airdrop Event", "An airdrop is inbound!", 
+                                "Status: " + status, Color.BLUE, timestamp);
+                    } else if (status.equalsIgnoreCase("Dropped") || status.equalsIgnoreCase("Active")) {
+                        // Airdrop has been deployed
+                        sendEventNotification(server, "Airdrop Event", "An airdrop has been deployed!", 
+                                "Status: " + status, Color.BLUE, timestamp);
+                    }
+                    break;
                 }
+                case EVENT_HELI_CRASH:
+                    sendEventNotification(server, "Helicopter Crash", "A helicopter has crashed nearby!", 
+                            "Location: " + event.group(1), new Color(150, 75, 0), timestamp); // Brown
+                    break;
+                case EVENT_TRADER:
+                    sendEventNotification(server, "Trader Event", "A special trader has appeared!", 
+                            "Location: " + event.group(1), new Color(0, 128, 0), timestamp); // Green
+                    break;
+                case EVENT_MISSION: {
+                    String missionName = event.group(1);
+                    String status = event.group(2);
+                    if (status.equalsIgnoreCase("READY") || status.equalsIgnoreCase("ACTIVE")) {
+                        sendEventNotification(server, "Mission Available", "A new mission is active!", 
+                                "Mission: " + missionName + "\nStatus: " + status, 
+                                new Color(148, 0, 211), timestamp); // Purple
+                    }
+                    break;
+                }
+                default:
+                    break;
             }
         }
         
@@ -327,15 +339,7 @@ public class DeadsideLogParser {
             logger.info("Player count changes for server {}: +{} joins, -{} leaves, current count: {}/{}",
                 server.getName(), joinCount, leaveCount, server.getPlayerCount(), server.getMaxPlayers());
         }
-        
-        // Send summary if needed for multiple players
-        if (joinedPlayers.size() > 3) {
-            sendPlayerSummary(server, joinedPlayers, true);
-        }
-        
-        if (leftPlayers.size() > 3) {
-            sendPlayerSummary(server, leftPlayers, false);
-        }
+
     }
     
     /**
@@ -395,7 +399,7 @@ public class DeadsideLogParser {
             embed.setFooter(server.getName(), null);
         }
         
-        sendToLogChannel(server, embed.build());
+        sendToLogChannel(server, presenceKey(server, playerName), embed.build());
     }
     
     /**
@@ -414,36 +418,7 @@ public class DeadsideLogParser {
             embed.setFooter(server.getName(), null);
         }
         
-        sendToLogChannel(server, embed.build());
-    }
-    
-    /**
-     * Send summary for multiple player joins/leaves
-     */
-    private void sendPlayerSummary(GameServer server, Set<String> players, boolean joining) {
-        String title = joining ? "Multiple Players Connected" : "Multiple Players Disconnected";
-        Color color = joining ? Color.GREEN : Color.RED;
-        
-        StringBuilder desc = new StringBuilder();
-        int count = 0;
-        for (String player : players) {
-            if (count < 10) { // Limit to 10 names to avoid too long messages
-                desc.append("• ").append(player).append("\n");
-                count++;
-            } else {
-                desc.append("• And ").append(players.size() - 10).append(" more players...");
-                break;
-            }
-        }
-        
-        EmbedBuilder embed = new EmbedBuilder()
-                .setTitle(title)
-                .setDescription(desc.toString())
-                .setColor(color)
-                .setTimestamp(new Date().toInstant())
-                .setFooter(server.getName(), null);
-        
-        sendToLogChannel(server, embed.build());
+        sendToLogChannel(server, presenceKey(server, playerName), embed.build());
     }
     
     /**
@@ -474,7 +449,15 @@ public class DeadsideLogParser {
      * Send embed message to the server's log channel
      */
     private void sendToLogChannel(GameServer server, net.dv8tion.jda.api.entities.MessageEmbed embed) {
-        Guild guild = jda.getGuildById(server.getGuildId());
+        sendToLogChannel(server, null, embed);
+    }
+    
+    /**
+     * Send embed message to the server's log channel through the embed dispatcher
+     * @param coalesceKey Replaces a still-pending embed with the same key, or null
+     */
+    private void sendToLogChannel(GameServer server, String coalesceKey, net.dv8tion.jda.api.entities.MessageEmbed embed) {
+        Guild guild = ShardCoordinator.getInstance().getGuildById(jda, server.getGuildId());
         if (guild == null) {
             logger.warn("Guild not found for server {}: {}", server.getName(), server.getGuildId());
             return;
@@ -486,10 +469,14 @@ public class DeadsideLogParser {
             return;
         }
         
-        logChannel.sendMessageEmbeds(embed).queue(
-                success -> logger.debug("Sent log notification to channel {}", logChannel.getId()),
-                error -> logger.error("Failed to send log notification: {}", error.getMessage())
-        );
+        EmbedDispatcher.getInstance().submit(logChannel, coalesceKey, embed);
+    }
+    
+    /**
+     * A player's latest join or leave replaces the one still waiting to be sent
+     */
+    private static String presenceKey(GameServer server, String playerName) {
+        return "presence:" + server.getName() + ":" + playerName;
     }
     
     /**
@@ -501,28 +488,17 @@ public class DeadsideLogParser {
     }
     
     /**
-     * Attempt to find and process a new log file after rotation is detected
-     * This handles the case where Deadside.log has been rotated/renamed
+     * Finish reading a log file that was rotated away since the last poll
+     * The rotated copy is only read if its header matches the file the cursor was tracking,
+     * and only from the offset that had already been consumed
      */
-    private void tryFindAndProcessNewLogFile(GameServer server) {
+    private void tryFindAndProcessNewLogFile(GameServer server, FileCursor previous) {
+        if (previous.getOffset() == 0 || previous.getHeaderLength() == 0) {
+            // Nothing had been consumed from the previous file, the new primary file covers everything
+            return;
+        }
+        
         try {
-            logger.info("Attempting to locate new log file after rotation for server {}", server.getName());
-            
-            // First, check if the original log file exists again (fresh creation)
-            String primaryLogPath = getServerLogPath(server);
-            if (sftpConnector.fileExists(server, primaryLogPath)) {
-                logger.info("Found new primary log file at {} for server {}", primaryLogPath, server.getName());
-                
-                // Process from the beginning of this file
-                List<String> newLines = sftpConnector.readLinesAfter(server, primaryLogPath, 0);
-                if (!newLines.isEmpty()) {
-                    processLogLines(server, newLines);
-                    lastLineProcessed.put(server.getName(), newLines.size());
-                    logger.info("Processed {} lines from new primary log file for server {}", newLines.size(), server.getName());
-                }
-                return;
-            }
-            
             // Try common rotation patterns (Deadside.log.1, Deadside.log.old, etc.)
             String[] rotationPatterns = {
                 "/Deadside.log.1",
@@ -533,19 +509,26 @@ public class DeadsideLogParser {
             
             for (String pattern : rotationPatterns) {
                 String rotatedPath = server.getLogDirectory() + pattern;
-                if (sftpConnector.fileExists(server, rotatedPath)) {
-                    logger.info("Found rotated log file at {} for server {}", rotatedPath, server.getName());
-                    
-                    // Reset the line counter and process this file
-                    List<String> rotatedLines = sftpConnector.readLinesAfter(server, rotatedPath, 0);
-                    if (!rotatedLines.isEmpty()) {
-                        processLogLines(server, rotatedLines);
-                        // After processing a rotated log, keep the counter at 0 to prepare for the new primary file
-                        lastLineProcessed.put(server.getName(), 0);
-                        logger.info("Processed {} lines from rotated log file for server {}", rotatedLines.size(), server.getName());
-                    }
-                    return;
+                if (!sftpConnector.fileExists(server, rotatedPath)) {
+                    continue;
                 }
+                
+                FileCursor rotatedCursor = copyCursor(previous);
+                rotatedCursor.setFilePath(rotatedPath);
+                
+                SftpConnector.TailResult rotatedTail = sftpConnector.tailLines(server, rotatedPath, rotatedCursor);
+                if (rotatedTail.isRotated()) {
+                    // Different file, its contents were either processed before or belong to an older rotation
+                    continue;
+                }
+                
+                logger.info("Found rotated log file at {} for server {}", rotatedPath, server.getName());
+                if (!rotatedTail.getLines().isEmpty()) {
+                    processLogLines(server, rotatedTail.getLines());
+                    logger.info("Processed {} remaining lines from rotated log file for server {}", 
+                        rotatedTail.getLines().size(), server.getName());
+                }
+                return;
             }
             
             logger.info("No rotated log files found for server {}", server.getName());
@@ -554,4 +537,18 @@ public class DeadsideLogParser {
                 server.getName(), e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Copy a cursor so the original can be advanced independently
+     */
+    private FileCursor copyCursor(FileCursor cursor) {
+        FileCursor copy = new FileCursor(cursor.getFilePath());
+        copy.setOffset(cursor.getOffset());
+        copy.setFileSize(cursor.getFileSize());
+        copy.setLastModified(cursor.getLastModified());
+        copy.setHeaderHash(cursor.getHeaderHash());
+        copy.setHeaderLength(cursor.getHeaderLength());
+        copy.setUpdatedAt(cursor.getUpdatedAt());
+        return copy;
+    }
+}
@@ -0,0 +1,400 @@
+package com.deadside.bot.parsers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Streaming tokenizer for deathlog CSV files
+ * Format: timestamp;killer;killerId;victim;victimId;weapon;distance;killerPlatform;victimPlatform;
+ *
+ * Lines are scanned byte by byte for ';' and '\n' without regex or split, the timestamp and
+ * distance are parsed straight from the bytes, and text fields are only decoded when asked for.
+ * The same {@link DeathEvent} is reused for every line, so copy what you need before calling
+ * {@link #next()} again.
+ */
+public final class DeathlogTokenizer {
+    // timestamp, killer, killerId, victim, victimId, weapon, distance are required
+    private static final int MIN_FIELDS = 7;
+    // Platform columns; anything after them is ignored
+    private static final int MAX_FIELDS = 9;
+    private static final int TIMESTAMP_LENGTH = 19; // yyyy.MM.dd-HH.mm.ss
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final InputStream input;
+    private byte[] buffer;
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+
+    private final DeathEvent event = new DeathEvent();
+    private int lineNumber;
+    private int skippedLines;
+
+    /**
+     * Tokenize a stream, reading it in chunks
+     */
+    public DeathlogTokenizer(InputStream input) {
+        this.input = input;
+        this.buffer = new byte[DEFAULT_BUFFER_SIZE];
+    }
+
+    /**
+     * Tokenize the remaining bytes of a buffer
+     */
+    public DeathlogTokenizer(ByteBuffer data) {
+        this.input = null;
+        this.endOfInput = true;
+        if (data.hasArray()) {
+            this.buffer = data.array();
+            this.position = data.arrayOffset() + data.position();
+            this.limit = data.arrayOffset() + data.limit();
+        } else {
+            this.buffer = new byte[data.remaining()];
+            data.duplicate().get(buffer);
+            this.limit = buffer.length;
+        }
+    }
+
+    /**
+     * Tokenize already downloaded file content
+     */
+    public DeathlogTokenizer(String content) {
+        this(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Advance to the next well-formed death line
+     * Blank lines and lines without a valid timestamp or enough fields are skipped and counted.
+     * @return True if {@link #event()} now holds a new line, false at the end of input
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            int lineEnd = findLineEnd();
+            if (lineEnd < 0) {
+                return false;
+            }
+
+            int start = position;
+            int end = lineEnd;
+            position = lineEnd < limit ? lineEnd + 1 : lineEnd;
+            lineNumber++;
+
+            // Trim whitespace including the '\r' of CRLF endings
+            while (start < end && buffer[start] <= ' ') start++;
+            while (end > start && buffer[end - 1] <= ' ') end--;
+            if (start == end) {
+                continue;
+            }
+
+            if (event.parse(buffer, start, end)) {
+                return true;
+            }
+            skippedLines++;
+        }
+    }
+
+    /**
+     * The current line; only valid until the next call to {@link #next()}
+     */
+    public DeathEvent event() {
+        return event;
+    }
+
+    /**
+     * Number of physical lines consumed so far, including blank and skipped lines
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Number of non-blank lines skipped because they were malformed
+     */
+    public int getSkippedLines() {
+        return skippedLines;
+    }
+
+    /**
+     * Find the end of the next line, reading more input if needed
+     * @return Index of the terminating '\n' (or of the end of input for a final unterminated line), -1 when done
+     */
+    private int findLineEnd() throws IOException {
+        int scanFrom = position;
+        while (true) {
+            for (int i = scanFrom; i < limit; i++) {
+                if (buffer[i] == '\n') {
+                    return i;
+                }
+            }
+
+            if (endOfInput) {
+                return position < limit ? limit : -1;
+            }
+
+            scanFrom = limit - position;
+            fill();
+            scanFrom += position;
+        }
+    }
+
+    /**
+     * Compact unread bytes to the start of the buffer and read the next chunk
+     */
+    private void fill() throws IOException {
+        int remaining = limit - position;
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, remaining);
+        } else if (remaining == buffer.length) {
+            // A single line longer than the buffer
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        position = 0;
+        limit = remaining;
+
+        int read = input.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    /**
+     * Parse a yyyy.MM.dd-HH.mm.ss timestamp as UTC epoch millis
+     * @return The epoch millis, or -1 if the bytes are not a valid timestamp
+     */
+    static long parseTimestamp(byte[] bytes, int start, int end) {
+        if (end - start != TIMESTAMP_LENGTH
+                || bytes[start + 4] != '.' || bytes[start + 7] != '.' || bytes[start + 10] != '-'
+                || bytes[start + 13] != '.' || bytes[start + 16] != '.') {
+            return -1;
+        }
+
+        int year = digits(bytes, start, 4);
+        int month = digits(bytes, start + 5, 2);
+        int day = digits(bytes, start + 8, 2);
+        int hour = digits(bytes, start + 11, 2);
+        int minute = digits(bytes, start + 14, 2);
+        int second = digits(bytes, start + 17, 2);
+
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return -1;
+        }
+
+        long days = daysFromCivil(year, month, day);
+        return (((days * 24 + hour) * 60 + minute) * 60 + second) * 1000L;
+    }
+
+    private static int digits(byte[] bytes, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Days since 1970-01-01 for a proleptic Gregorian date
+     */
+    private static long daysFromCivil(int year, int month, int day) {
+        year -= month <= 2 ? 1 : 0;
+        int era = (year >= 0 ? year : year - 399) / 400;
+        int yearOfEra = year - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    /**
+     * Reusable view of one deathlog line
+     * Field boundaries point into the tokenizer's buffer; strings are decoded on first access.
+     */
+    public static final class DeathEvent {
+        private static final int KILLER = 1;
+        private static final int KILLER_ID = 2;
+        private static final int VICTIM = 3;
+        private static final int VICTIM_ID = 4;
+        private static final int WEAPON = 5;
+        private static final int KILLER_PLATFORM = 7;
+        private static final int VICTIM_PLATFORM = 8;
+
+        private byte[] bytes;
+        private int lineStart;
+        private int lineEnd;
+        private int fieldCount;
+        private final int[] starts = new int[MAX_FIELDS];
+        private final int[] ends = new int[MAX_FIELDS];
+        private final String[] decoded = new String[MAX_FIELDS];
+        private long timestamp;
+        private int distance;
+        private String line;
+
+        private DeathEvent() {
+        }
+
+        /**
+         * Locate the fields of a trimmed line
+         * @return False if the line is malformed
+         */
+        private boolean parse(byte[] bytes, int start, int end) {
+            this.bytes = bytes;
+            this.lineStart = start;
+            this.lineEnd = end;
+            this.line = null;
+            Arrays.fill(decoded, null);
+
+            int count = 0;
+            int fieldStart = start;
+            for (int i = start; i <= end && count < MAX_FIELDS; i++) {
+                if (i == end || bytes[i] == ';') {
+                    // A trailing ';' ends the line rather than starting an empty field
+                    if (i == end && fieldStart == end && count > 0) {
+                        break;
+                    }
+                    int s = fieldStart;
+                    int e = i;
+                    while (s < e && bytes[s] == ' ') s++;
+                    while (e > s && bytes[e - 1] == ' ') e--;
+                    starts[count] = s;
+                    ends[count] = e;
+                    count++;
+                    fieldStart = i + 1;
+                }
+            }
+            fieldCount = count;
+
+            if (fieldCount < MIN_FIELDS) {
+                return false;
+            }
+
+            timestamp = parseTimestamp(bytes, starts[0], ends[0]);
+            if (timestamp < 0) {
+                return false;
+            }
+
+            distance = parseDistance(bytes, starts[6], ends[6]);
+            return true;
+        }
+
+        /**
+         * Whole metres, ignoring any fractional part; 0 if the field is not numeric
+         */
+        private static int parseDistance(byte[] bytes, int start, int end) {
+            int value = 0;
+            for (int i = start; i < end; i++) {
+                byte b = bytes[i];
+                if (b == '.' || b == ',') {
+                    break;
+                }
+                if (b < '0' || b > '9') {
+                    return 0;
+                }
+                value = value * 10 + (b - '0');
+            }
+            return value;
+        }
+
+        private String field(int index) {
+            if (index >= fieldCount) {
+                return "";
+            }
+            String value = decoded[index];
+            if (value == null) {
+                value = new String(bytes, starts[index], ends[index] - starts[index], StandardCharsets.UTF_8);
+                decoded[index] = value;
+            }
+            return value;
+        }
+
+        private boolean fieldEquals(int a, int b) {
+            int length = ends[a] - starts[a];
+            if (length != ends[b] - starts[b]) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (bytes[starts[a] + i] != bytes[starts[b] + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Event time as UTC epoch millis
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * Event time as written in the file (yyyy.MM.dd-HH.mm.ss)
+         */
+        public String getTimestampText() {
+            return field(0);
+        }
+
+        public String getKiller() {
+            return field(KILLER);
+        }
+
+        public String getKillerId() {
+            return field(KILLER_ID);
+        }
+
+        public String getVictim() {
+            return field(VICTIM);
+        }
+
+        public String getVictimId() {
+            return field(VICTIM_ID);
+        }
+
+        public String getWeapon() {
+            return field(WEAPON);
+        }
+
+        public int getDistance() {
+            return distance;
+        }
+
+        public String getKillerPlatform() {
+            return field(KILLER_PLATFORM);
+        }
+
+        public String getVictimPlatform() {
+            return field(VICTIM_PLATFORM);
+        }
+
+        /**
+         * Whether the killer column is empty
+         */
+        public boolean isKillerBlank() {
+            return starts[KILLER] == ends[KILLER];
+        }
+
+        /**
+         * Whether the killer and victim names are identical, compared without decoding
+         */
+        public boolean isSelfKill() {
+            return fieldEquals(KILLER, VICTIM);
+        }
+
+        /**
+         * The whole trimmed line as text
+         */
+        public String getLine() {
+            if (line == null) {
+                line = new String(bytes, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8);
+            }
+            return line;
+        }
+    }
+}
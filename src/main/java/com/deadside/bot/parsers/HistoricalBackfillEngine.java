@@ -0,0 +1,572 @@
+package com.deadside.bot.parsers;
+
+import com.deadside.bot.config.Config;
+import com.deadside.bot.db.IndexManager;
+import com.deadside.bot.db.models.FileCursor;
+import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.models.IngestionCheckpoint;
+import com.deadside.bot.db.repositories.IngestionCheckpointRepository;
+import com.deadside.bot.sftp.SftpConnector;
+import com.deadside.bot.stats.PlayerStatsAggregator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Imports a game server's historical death logs into player, matchup and weapon statistics
+ * Files are downloaded in parallel over the pooled SFTP connections and tokenized on worker
+ * threads, while the run's own thread folds them into the stats aggregator strictly in file
+ * order. Each file is one backfill batch: its deltas are merged in memory, written with the
+ * aggregator's bulk flush and only then is the backfill checkpoint advanced past the file. An
+ * interrupted run resumes after the last committed file, and a file read again after a crash
+ * is skipped by the backfillSequence guards on the documents it already reached.
+ * The backfill stops short of the file the live death log pipeline is tailing, so the two
+ * never count the same death.
+ */
+public class HistoricalBackfillEngine {
+    private static final Logger logger = LoggerFactory.getLogger(HistoricalBackfillEngine.class);
+    private static HistoricalBackfillEngine instance;
+
+    // Checkpoint pipeline names
+    private static final String BACKFILL_PIPELINE = "backfill";
+    private static final String DEATHLOG_PIPELINE = "deathlog";
+
+    // Download attempts per file before the run stops at that file
+    private static final int DOWNLOAD_ATTEMPTS = 3;
+    // Flushes attempted before a file's deltas are considered unwritable
+    private static final int FLUSH_ATTEMPTS = 5;
+
+    private final SftpConnector sftpConnector;
+    private final IngestionCheckpointRepository checkpointRepository;
+    private final PlayerStatsAggregator statsAggregator = PlayerStatsAggregator.getInstance();
+    private final ExecutorService runs;
+    private final ExecutorService downloads;
+    private final ExecutorService parsers;
+    private final int window;
+    private final long progressIntervalMs;
+
+    // Guild/server keys with a backfill in progress
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    // Metrics
+    private final AtomicLong runsCompleted = new AtomicLong();
+    private final AtomicLong runsFailed = new AtomicLong();
+    private final AtomicLong filesImported = new AtomicLong();
+    private final AtomicLong linesImported = new AtomicLong();
+
+    private HistoricalBackfillEngine() {
+        Config config = Config.getInstance();
+        this.sftpConnector = new SftpConnector();
+        this.checkpointRepository = new IngestionCheckpointRepository();
+        int workers = config.getBackfillWorkers();
+        // Downloads never need more connections than the pool hands out per host
+        int downloadThreads = Math.min(workers, config.getSftpPoolMaxPerHost());
+        this.runs = Executors.newCachedThreadPool(namedThreadFactory("backfill-run"));
+        this.downloads = Executors.newFixedThreadPool(downloadThreads, namedThreadFactory("backfill-download"));
+        this.parsers = Executors.newFixedThreadPool(workers, namedThreadFactory("backfill-parse"));
+        // Files downloaded or parsed ahead of the one being applied, bounding memory per run
+        this.window = Math.max(4, 2 * workers);
+        this.progressIntervalMs = TimeUnit.SECONDS.toMillis(config.getBackfillProgressInterval());
+
+        logger.info("Historical backfill engine started with {} download and {} parse workers, {} files in flight per run",
+                downloadThreads, workers, window);
+    }
+
+    public static synchronized HistoricalBackfillEngine getInstance() {
+        if (instance == null) {
+            instance = new HistoricalBackfillEngine();
+        }
+        return instance;
+    }
+
+    /**
+     * Whether a backfill is in progress for a server
+     */
+    public boolean isRunning(long guildId, String serverId) {
+        return running.contains(guildId + ":" + serverId);
+    }
+
+    /**
+     * Start importing a server's historical death logs, resuming after the last committed file
+     * @param server The game server to backfill
+     * @param listener Receives progress snapshots at most once per progress interval, and
+     *                 always once when the run ends; called on the run's thread
+     * @return Completes with the final progress, or exceptionally if the run stopped early or
+     *         a backfill is already running for the server
+     */
+    public CompletableFuture<Progress> start(GameServer server, Consumer<Progress> listener) {
+        String key = server.getGuildId() + ":" + server.getName();
+        if (!running.add(key)) {
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("A historical backfill is already running for server " + server.getName()));
+        }
+
+        Run run = new Run(server, listener);
+        CompletableFuture<Progress> result = new CompletableFuture<>();
+        try {
+            runs.execute(() -> {
+                try {
+                    execute(run);
+                    runsCompleted.incrementAndGet();
+                    result.complete(run.report(true));
+                } catch (Exception e) {
+                    runsFailed.incrementAndGet();
+                    logger.error("Historical backfill for server {} stopped after {} of {} files: {}",
+                            server.getName(), run.filesDone, run.totalFiles, e.getMessage(), e);
+                    run.failure = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                    run.report(true);
+                    result.completeExceptionally(e);
+                } finally {
+                    running.remove(key);
+                }
+            });
+        } catch (Exception e) {
+            running.remove(key);
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Download, parse and apply every file the run has not committed yet
+     */
+    private void execute(Run run) throws Exception {
+        GameServer server = run.server;
+        long guildId = server.getGuildId();
+        String serverId = server.getName();
+
+        if (!IndexManager.statIndexesReady()) {
+            throw new IllegalStateException("The unique player, matchup and weapon stat indexes are missing; see the startup log");
+        }
+
+        IngestionCheckpoint checkpoint = checkpointRepository.find(guildId, serverId, BACKFILL_PIPELINE);
+        if (checkpoint == null) {
+            checkpoint = new IngestionCheckpoint(guildId, serverId, BACKFILL_PIPELINE);
+        }
+        IngestionCheckpoint live = checkpointRepository.find(guildId, serverId, DEATHLOG_PIPELINE);
+
+        List<String> paths = new ArrayList<>();
+        for (String file : sftpConnector.findDeathlogFiles(server)) {
+            paths.add(server.getDeathlogsDirectory() + "/" + file);
+        }
+        Collections.sort(paths);
+        if (paths.isEmpty()) {
+            run.report(false);
+            return;
+        }
+
+        // The live pipeline owns the file it tails and everything after it; without a checkpoint it starts at the newest
+        String liveFile = live != null && live.getCursor() != null ? live.getCursor().getFilePath() : paths.get(paths.size() - 1);
+        String committed = checkpoint.getCursor() != null ? checkpoint.getCursor().getFilePath() : null;
+
+        List<String> todo = new ArrayList<>();
+        for (String path : paths) {
+            if (path.compareTo(liveFile) < 0 && (committed == null || path.compareTo(committed) > 0)) {
+                todo.add(path);
+            }
+        }
+        run.totalFiles = todo.size();
+        logger.info("Historical backfill for server {}: {} files to import, resuming after {}",
+                serverId, todo.size(), committed != null ? committed : "the first file");
+        run.report(false);
+
+        Deque<CompletableFuture<ParsedFile>> inFlight = new ArrayDeque<>();
+        int next = 0;
+        boolean first = true;
+        try {
+            while (next < todo.size() || !inFlight.isEmpty()) {
+                while (next < todo.size() && inFlight.size() < window) {
+                    String path = todo.get(next++);
+                    inFlight.add(CompletableFuture
+                            .supplyAsync(() -> download(server, path), downloads)
+                            .thenApplyAsync(data -> parse(path, data), parsers));
+                }
+
+                ParsedFile file = await(inFlight.poll());
+                apply(run, checkpoint, file, first);
+                first = false;
+            }
+        } finally {
+            inFlight.forEach(pending -> pending.cancel(true));
+        }
+    }
+
+    /**
+     * Fold one file into the aggregator as a backfill batch, write it and commit the checkpoint
+     */
+    private void apply(Run run, IngestionCheckpoint checkpoint, ParsedFile file, boolean first) throws InterruptedException {
+        long guildId = run.server.getGuildId();
+        String serverId = run.server.getName();
+        long sequence = checkpoint.getSequence() + 1;
+
+        // Only the first file after a restart can have been written without its checkpoint
+        boolean replay = statsAggregator.beginBackfillBatch(guildId, serverId, sequence, first);
+        if (replay) {
+            logger.info("Backfill batch {} for server {} was written before the run stopped, replaying {}",
+                    sequence, serverId, file.path);
+        }
+
+        try {
+            for (Death death : file.deaths) {
+                if (death.suicide) {
+                    statsAggregator.recordSuicide(guildId, serverId, death.victimId, death.victim);
+                } else {
+                    statsAggregator.recordKill(guildId, serverId, death.killerId, death.killer,
+                            death.victimId, death.victim, death.weapon, death.distance, death.timestamp);
+                }
+            }
+        } finally {
+            statsAggregator.endBatch();
+        }
+
+        flushUntilSettled(guildId, serverId);
+
+        FileCursor cursor = new FileCursor(file.path);
+        cursor.setOffset(file.bytes);
+        cursor.setFileSize(file.bytes);
+        checkpoint.setCursor(cursor);
+        checkpoint.setSequence(sequence);
+        checkpoint.setBatchOffset(0);
+        checkpoint.setBatchHash(file.hash);
+        if (!checkpointRepository.save(checkpoint)) {
+            throw new IllegalStateException("Could not commit the backfill checkpoint after " + file.path);
+        }
+
+        filesImported.incrementAndGet();
+        linesImported.addAndGet(file.lines);
+        run.fileApplied(file);
+    }
+
+    /**
+     * Flush the aggregator until none of the server's deltas are pending
+     * Live polls of the same server may record in between, so a few attempts are allowed.
+     */
+    private void flushUntilSettled(long guildId, String serverId) throws InterruptedException {
+        for (int attempt = 1; attempt <= FLUSH_ATTEMPTS; attempt++) {
+            statsAggregator.flush();
+            if (statsAggregator.isSettled(guildId, serverId)) {
+                return;
+            }
+            Thread.sleep(attempt * 1000L);
+        }
+        throw new IllegalStateException("Stats for server " + serverId + " could not be written");
+    }
+
+    /**
+     * Download a whole file, retrying transient SFTP failures
+     */
+    private byte[] download(GameServer server, String path) {
+        Exception last = null;
+        for (int attempt = 1; attempt <= DOWNLOAD_ATTEMPTS; attempt++) {
+            try {
+                return sftpConnector.readFileBytes(server, path);
+            } catch (Exception e) {
+                last = e;
+                logger.warn("Backfill download of {} for server {} failed (attempt {}/{}): {}",
+                        path, server.getName(), attempt, DOWNLOAD_ATTEMPTS, e.getMessage());
+                try {
+                    Thread.sleep(attempt * 2000L);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        throw new IllegalStateException("Could not download " + path, last);
+    }
+
+    /**
+     * Tokenize a downloaded file into the deaths that count towards statistics
+     * Uses the same rules as the live death log pipeline in {@link DeadsideCsvParser}.
+     */
+    private static ParsedFile parse(String path, byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+
+        List<Death> deaths = new ArrayList<>();
+        DeathlogTokenizer tokenizer = new DeathlogTokenizer(ByteBuffer.wrap(data));
+        try {
+            while (tokenizer.next()) {
+                DeathlogTokenizer.DeathEvent event = tokenizer.event();
+                String killer = event.getKiller();
+                if (DeadsideCsvParser.hasNoKiller(killer)) {
+                    continue;
+                }
+                String victim = event.getVictim();
+                String weapon = event.getWeapon();
+                long timestamp = event.getTimestamp();
+                deaths.add(new Death(
+                        DeadsideCsvParser.killerIdFor(killer, event.getKillerId()), killer,
+                        event.getVictimId(), victim, weapon, event.getDistance(),
+                        timestamp > 0 ? timestamp : System.currentTimeMillis(),
+                        DeadsideCsvParser.isSuicide(victim, killer, weapon)));
+            }
+        } catch (IOException e) {
+            // Content is already in memory, this cannot happen
+            throw new IllegalStateException("Could not tokenize " + path, e);
+        }
+        return new ParsedFile(path, deaths, tokenizer.getLineNumber(), tokenizer.getSkippedLines(),
+                data.length, crc.getValue());
+    }
+
+    private static ParsedFile await(CompletableFuture<ParsedFile> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw cause instanceof Exception ? (Exception) cause : new IllegalStateException(cause);
+        }
+    }
+
+    private static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Get a one-line summary of backfill activity since startup
+     */
+    public String getStatusSummary() {
+        return String.format("running=%d, completed=%d, failed=%d, files=%d, lines=%d",
+                running.size(), runsCompleted.get(), runsFailed.get(), filesImported.get(), linesImported.get());
+    }
+
+    /**
+     * Stop running backfills; they resume after their last committed file when started again
+     */
+    public void shutdown() {
+        logger.info("Stopping historical backfill engine ({})", getStatusSummary());
+        runs.shutdownNow();
+        downloads.shutdownNow();
+        parsers.shutdownNow();
+    }
+
+    /**
+     * Progress of one backfill run
+     */
+    public static final class Progress {
+        private final String serverName;
+        private final int totalFiles;
+        private final int filesDone;
+        private final long lines;
+        private final long kills;
+        private final long suicides;
+        private final long skippedLines;
+        private final long bytes;
+        private final long elapsedMillis;
+        private final boolean finished;
+        private final String failure;
+
+        Progress(String serverName, int totalFiles, int filesDone, long lines, long kills, long suicides,
+                 long skippedLines, long bytes, long elapsedMillis, boolean finished, String failure) {
+            this.serverName = serverName;
+            this.totalFiles = totalFiles;
+            this.filesDone = filesDone;
+            this.lines = lines;
+            this.kills = kills;
+            this.suicides = suicides;
+            this.skippedLines = skippedLines;
+            this.bytes = bytes;
+            this.elapsedMillis = elapsedMillis;
+            this.finished = finished;
+            this.failure = failure;
+        }
+
+        public String getServerName() {
+            return serverName;
+        }
+
+        public int getTotalFiles() {
+            return totalFiles;
+        }
+
+        public int getFilesDone() {
+            return filesDone;
+        }
+
+        public long getLines() {
+            return lines;
+        }
+
+        public long getKills() {
+            return kills;
+        }
+
+        public long getSuicides() {
+            return suicides;
+        }
+
+        public long getSkippedLines() {
+            return skippedLines;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public boolean isFinished() {
+            return finished;
+        }
+
+        /**
+         * Why the run stopped early, or null if it did not
+         */
+        public String getFailure() {
+            return failure;
+        }
+
+        /**
+         * Lines imported per second so far
+         */
+        public double getLinesPerSecond() {
+            return elapsedMillis > 0 ? lines * 1000.0 / elapsedMillis : 0;
+        }
+
+        /**
+         * Estimated time until every file is imported, from the average time per file so far
+         * @return The estimate in milliseconds, or -1 before the first file is done
+         */
+        public long getEtaMillis() {
+            if (finished) {
+                return 0;
+            }
+            if (filesDone == 0) {
+                return -1;
+            }
+            return elapsedMillis * (totalFiles - filesDone) / filesDone;
+        }
+    }
+
+    /**
+     * Counters of a run in progress, only touched by the run's thread
+     */
+    private final class Run {
+        private final GameServer server;
+        private final Consumer<Progress> listener;
+        private final long startedAt = System.currentTimeMillis();
+        private long lastReportAt;
+        private int totalFiles;
+        private int filesDone;
+        private long lines;
+        private long kills;
+        private long suicides;
+        private long skippedLines;
+        private long bytes;
+        private String failure;
+
+        Run(GameServer server, Consumer<Progress> listener) {
+            this.server = server;
+            this.listener = listener;
+        }
+
+        void fileApplied(ParsedFile file) {
+            filesDone++;
+            lines += file.lines;
+            skippedLines += file.skippedLines;
+            bytes += file.bytes;
+            for (Death death : file.deaths) {
+                if (death.suicide) {
+                    suicides++;
+                } else {
+                    kills++;
+                }
+            }
+            if (System.currentTimeMillis() - lastReportAt >= progressIntervalMs) {
+                report(false);
+            }
+        }
+
+        /**
+         * Hand a snapshot to the listener
+         * @return The snapshot
+         */
+        Progress report(boolean finished) {
+            long now = System.currentTimeMillis();
+            lastReportAt = now;
+            Progress progress = new Progress(server.getName(), totalFiles, filesDone, lines, kills, suicides,
+                    skippedLines, bytes, now - startedAt, finished, failure);
+            if (listener != null) {
+                try {
+                    listener.accept(progress);
+                } catch (Exception e) {
+                    logger.warn("Backfill progress listener failed for server {}: {}", server.getName(), e.getMessage());
+                }
+            }
+            return progress;
+        }
+    }
+
+    /**
+     * A downloaded and tokenized death log file
+     */
+    private static final class ParsedFile {
+        private final String path;
+        private final List<Death> deaths;
+        private final int lines;
+        private final int skippedLines;
+        private final long bytes;
+        private final long hash;
+
+        ParsedFile(String path, List<Death> deaths, int lines, int skippedLines, long bytes, long hash) {
+            this.path = path;
+            this.deaths = deaths;
+            this.lines = lines;
+            this.skippedLines = skippedLines;
+            this.bytes = bytes;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * One death that counts towards statistics
+     */
+    private static final class Death {
+        private final String killerId;
+        private final String killer;
+        private final String victimId;
+        private final String victim;
+        private final String weapon;
+        private final int distance;
+        private final long timestamp;
+        private final boolean suicide;
+
+        Death(String killerId, String killer, String victimId, String victim, String weapon,
+              int distance, long timestamp, boolean suicide) {
+            this.killerId = killerId;
+            this.killer = killer;
+            this.victimId = victimId;
+            this.victim = victim;
+            this.weapon = weapon;
+            this.distance = distance;
+            this.timestamp = timestamp;
+            this.suicide = suicide;
+        }
+    }
+}
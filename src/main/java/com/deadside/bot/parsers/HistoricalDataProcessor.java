@@ -133,9 +133,6 @@ public class HistoricalDataProcessor {
             // Set historical processing mode
             ParserStateManager.setProcessingHistoricalData(true);
             
-            // Get CSV parser to handle the actual parsing
-            csvParser.setProcessingHistoricalData(true);
-            
             // Process the data through the CSV parser
             csvParser.processHistoricalData(server, killsRecorded, deathsRecorded, errorsEncountered);
             
@@ -151,7 +148,6 @@ public class HistoricalDataProcessor {
         } finally {
             // Always reset processing flags
             ParserStateManager.setProcessingHistoricalData(false);
-            csvParser.setProcessingHistoricalData(false);
         }
         
         // Return the processing statistics
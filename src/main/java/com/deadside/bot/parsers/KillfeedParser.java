@@ -1,14 +1,16 @@
 package com.deadside.bot.parsers;
 
+import com.deadside.bot.bot.ShardCoordinator;
+import com.deadside.bot.db.models.FileCursor;
 import com.deadside.bot.db.models.GameServer;
 import com.deadside.bot.db.models.GuildConfig;
 import com.deadside.bot.db.models.KillRecord;
-import com.deadside.bot.db.models.Player;
 import com.deadside.bot.db.repositories.GuildConfigRepository;
 import com.deadside.bot.db.repositories.KillRecordRepository;
-import com.deadside.bot.db.repositories.PlayerRepository;
 import com.deadside.bot.parsers.fixes.CsvParsingFix;
+import com.deadside.bot.sftp.SftpConnector;
 import com.deadside.bot.sftp.SftpManager;
+import com.deadside.bot.utils.EmbedDispatcher;
 import com.deadside.bot.utils.EmbedUtils;
 import com.deadside.bot.utils.AdvancedEmbeds;
 import net.dv8tion.jda.api.JDA;
@@ -18,13 +20,9 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Random;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Parser for Deadside killfeed CSV files
@@ -33,23 +31,14 @@ public class KillfeedParser {
     private static final Logger logger = LoggerFactory.getLogger(KillfeedParser.class);
     private final SftpManager sftpManager;
     private final KillRecordRepository killRecordRepository;
-    private final PlayerRepository playerRepository;
+    private final GuildConfigRepository guildConfigRepository;
     private final JDA jda;
     
-    // Old CSV format: "1970/01/01-00:00:00","PlayerName1","killed","PlayerName2","with","WeaponName","from","100m"
-    // New CSV format: timestamp;killer;killerID;victim;victimID;weapon;distance;platform1;platform2
-    // Example: 2025.05.15-00.11.07;Fatalben0;0002548521ba4271a497e39d5bfe5611;Rogue731;00022ac42542497589f654e6ac2c0a6f;MR5;20;XSX;XSX;
-    private static final Pattern CSV_PATTERN = Pattern.compile(
-            "(\\d{4}\\.\\d{2}\\.\\d{2}-\\d{2}\\.\\d{2}\\.\\d{2});([^;]+);([^;]+);([^;]+);([^;]+);([^;]+);(\\d+);([^;]+);([^;]+);"
-    );
-    
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy.MM.dd-HH.mm.ss");
-    
     public KillfeedParser(JDA jda) {
         this.jda = jda;
         this.sftpManager = new SftpManager();
         this.killRecordRepository = new KillRecordRepository();
-        this.playerRepository = new PlayerRepository();
+        this.guildConfigRepository = new GuildConfigRepository();
     }
     
     /**
@@ -112,52 +101,55 @@ public class KillfeedParser {
             
             List<KillRecord> newRecords = new ArrayList<>();
             int processedKills = 0;
+            FileCursor cursor = server.getKillfeedCursor();
             
             // Process each file in the list
             for (String currentFile : filesToProcess) {
-                String fileContent = sftpManager.readKillfeedFile(server, currentFile);
-                if (fileContent.isEmpty()) {
-                    logger.warn("Empty or unreadable killfeed file: {} for server: {}", 
+                // Resume the current file from its byte offset; newer files and historical runs start at byte 0
+                boolean resume = !processHistorical && currentFile.equals(lastProcessedFile);
+                FileCursor fileCursor = (resume && cursor != null) ? cursor : new FileCursor();
+                
+                // Servers saved before byte cursors existed only have a line counter for the current file
+                long skipLines = (resume && cursor == null) ? lastProcessedLine + 1 : 0;
+                
+                SftpConnector.TailResult tail = sftpManager.tailKillfeedFile(server, currentFile, fileCursor);
+                if (tail == null) {
+                    logger.warn("Unreadable killfeed file: {} for server: {}", 
                             currentFile, server.getName());
                     continue;
                 }
                 
-                // Only apply the line counter to the first file if not in historical mode
-                // For new files or historical processing, always start from the beginning
-                long startLine = -1;
-                if (currentFile.equals(lastProcessedFile) && !processHistorical) {
-                    startLine = lastProcessedLine;
-                }
+                // Line numbers continue from the previous read unless this is a fresh or rotated file
+                long lineNumber = (resume && !tail.isRotated() && cursor != null) ? lastProcessedLine : -1;
                 
-                String[] lines = fileContent.split("\n");
+                DeathlogTokenizer tokenizer = new DeathlogTokenizer(tail.getData());
                 
-                // Process each line after the last processed line
-                for (int i = 0; i < lines.length; i++) {
-                    if (i <= startLine) continue;
+                // Process each new complete line
+                while (tokenizer.next()) {
+                    if (tokenizer.getLineNumber() <= skipLines) continue;
                     
-                    String line = lines[i].trim();
-                    if (line.isEmpty()) continue;
+                    DeathlogTokenizer.DeathEvent event = tokenizer.event();
+                    KillRecord killRecord = toKillRecord(event, server);
+                    newRecords.add(killRecord);
+                    processedKills++;
                     
-                    KillRecord killRecord = parseKillRecord(line, server);
-                    if (killRecord != null) {
-                        newRecords.add(killRecord);
-                        processedKills++;
-                        
-                        // Update player stats
-                        updatePlayerStats(killRecord);
-                        
-                        // Send to Discord channel (only if not historical processing)
-                        if (!processHistorical) {
-                            sendKillfeedMessage(killfeedChannel, killRecord);
-                        }
+                    // Player stats, bounty claims and alerts are applied by the deathlog pipeline, which
+                    // reads the same files exactly once; this one only posts the killfeed
+                    if (!processHistorical) {
+                        sendKillfeedMessage(killfeedChannel, killRecord);
                     }
-                    
-                    // Update the last line we processed for this file
-                    lastProcessedLine = i;
                 }
+                lineNumber += tokenizer.getLineNumber();
                 
-                // Update the last processed file
+                if (tokenizer.getSkippedLines() > 0) {
+                    logger.warn("Skipped {} malformed killfeed lines in {} for server: {}", 
+                            tokenizer.getSkippedLines(), currentFile, server.getName());
+                }
+                
+                // Update the last file and line we processed
                 lastProcessedFile = currentFile;
+                lastProcessedLine = lineNumber;
+                cursor = fileCursor;
             }
             
             // Save all new records to database
@@ -166,6 +158,7 @@ public class KillfeedParser {
             }
             
             // Update server progress
+            server.setKillfeedCursor(cursor);
             server.updateKillfeedProgress(lastProcessedFile, lastProcessedLine);
             
             logger.info("Processed {} new kills for server: {}", processedKills, server.getName());
@@ -186,160 +179,53 @@ public class KillfeedParser {
     }
     
     /**
-     * Parse a CSV line into a KillRecord
+     * Build a KillRecord from a tokenized deathlog line
      */
-    private KillRecord parseKillRecord(String line, GameServer server) {
-        Matcher matcher = CSV_PATTERN.matcher(line);
-        if (!matcher.matches()) {
-            logger.warn("Killfeed line does not match expected format: {}", line);
-            return null;
-        }
+    static KillRecord toKillRecord(DeathlogTokenizer.DeathEvent event, GameServer server) {
+        String weapon = event.getWeapon();
+        String weaponLower = weapon.toLowerCase();
         
-        try {
-            String timestamp = matcher.group(1);
-            String killer = matcher.group(2);
-            String killerId = matcher.group(3);
-            String victim = matcher.group(4);
-            String victimId = matcher.group(5);
-            String weapon = matcher.group(6);
-            String distanceStr = matcher.group(7);
-            String killerPlatform = matcher.group(8);
-            String victimPlatform = matcher.group(9);
-            
-            // Handle suicide cases - identify if this is a suicide/falling death
-            boolean isSuicide = killer.equals(victim);
-            boolean isFalling = weapon.equalsIgnoreCase("falling") || 
-                               weapon.toLowerCase().contains("fall damage");
-            boolean isMenuSuicide = isSuicide && (weapon.toLowerCase().contains("suicide") || 
-                                   weapon.toLowerCase().contains("menu"));
-            
-            long distance = Long.parseLong(distanceStr);
-            long timeMs = DATE_FORMAT.parse(timestamp).getTime();
-            
-            KillRecord record = new KillRecord(
-                    server.getGuildId(),
-                    server.getName(),
-                    killer,
-                    victim,
-                    weapon,
-                    distance,
-                    timeMs,
-                    line
-            );
-            
-            // Add death type flags
-            record.setSuicide(isSuicide);
-            record.setFalling(isFalling);
-            record.setMenuSuicide(isMenuSuicide);
-            
-            return record;
-        } catch (ParseException e) {
-            logger.error("Error parsing killfeed timestamp in line: {}", line, e);
-            return null;
-        } catch (NumberFormatException e) {
-            logger.error("Error parsing killfeed distance in line: {}", line, e);
-            return null;
-        } catch (Exception e) {
-            logger.error("Error parsing killfeed line: {}", line, e);
-            return null;
-        }
-    }
-    
-    /**
-     * Update player statistics from a kill record
-     * Enhanced to handle suicides separately from regular deaths
-     */
-    private void updatePlayerStats(KillRecord record) {
-        try {
-            // For suicides, only update the victim's stats
-            if (record.isSuicide()) {
-                // Find or create victim player (who committed suicide)
-                Player victim = playerRepository.findByName(record.getVictim());
-                if (victim == null) {
-                    // Create new player with a generated ID based on name
-                    victim = new Player(record.getVictim().toLowerCase().replace(" ", "_") + "_id", record.getVictim());
-                    playerRepository.save(victim);
-                }
-                
-                // Add suicide count instead of a regular death
-                victim.addSuicide();
-                
-                // Save the updated player stats
-                playerRepository.save(victim);
-                
-                // For suicides, we don't update weapon or kill stats
-                return;
-            }
-            
-            // Normal kill processing for non-suicide events
-            // Find or create killer player
-            Player killer = playerRepository.findByName(record.getKiller());
-            if (killer == null) {
-                // Create new player with a generated ID based on name
-                killer = new Player(record.getKiller().toLowerCase().replace(" ", "_") + "_id", record.getKiller());
-                playerRepository.save(killer);
-            }
-            
-            // Find or create victim player
-            Player victim = playerRepository.findByName(record.getVictim());
-            if (victim == null) {
-                // Create new player with a generated ID based on name
-                victim = new Player(record.getVictim().toLowerCase().replace(" ", "_") + "_id", record.getVictim());
-                playerRepository.save(victim);
-            }
-            
-            // Update killer stats
-            killer.addKill();
-            playerRepository.save(killer);
-            
-            // Update victim stats
-            victim.addDeath();
-            playerRepository.save(victim);
-            
-            // Track weapon stats
-            if (killer.getMostUsedWeapon().equals(record.getWeapon())) {
-                killer.setMostUsedWeaponKills(killer.getMostUsedWeaponKills() + 1);
-            } else if (killer.getMostUsedWeaponKills() == 0) {
-                killer.setMostUsedWeapon(record.getWeapon());
-                killer.setMostUsedWeaponKills(1);
-            }
-            
-            // Track victim stats
-            if (killer.getMostKilledPlayer().equals(record.getVictim())) {
-                killer.setMostKilledPlayerCount(killer.getMostKilledPlayerCount() + 1);
-            } else if (killer.getMostKilledPlayerCount() == 0) {
-                killer.setMostKilledPlayer(record.getVictim());
-                killer.setMostKilledPlayerCount(1);
-            }
-            
-            // Track killer stats for victim
-            if (victim.getKilledByMost().equals(record.getKiller())) {
-                victim.setKilledByMostCount(victim.getKilledByMostCount() + 1);
-            } else if (victim.getKilledByMostCount() == 0) {
-                victim.setKilledByMost(record.getKiller());
-                victim.setKilledByMostCount(1);
-            }
-        } catch (Exception e) {
-            logger.error("Error updating player stats for kill record: {} -> {}", 
-                    record.getKiller(), record.getVictim(), e);
-        }
+        // Handle suicide cases - identify if this is a suicide/falling death
+        boolean isSuicide = event.isSelfKill();
+        boolean isFalling = weaponLower.equals("falling") || weaponLower.contains("fall damage");
+        boolean isMenuSuicide = isSuicide && (weaponLower.contains("suicide") || weaponLower.contains("menu"));
+        
+        KillRecord record = new KillRecord(
+                server.getGuildId(),
+                server.getName(),
+                event.getKiller(),
+                event.getVictim(),
+                weapon,
+                event.getDistance(),
+                event.getTimestamp(),
+                event.getLine()
+        );
+        
+        // Add death type flags
+        record.setSuicide(isSuicide);
+        record.setFalling(isFalling);
+        record.setMenuSuicide(isMenuSuicide);
+        
+        return record;
     }
     
     /**
      * Send a killfeed message to Discord
      * Enhanced to handle different death types (kills, suicides, falling deaths)
+     * Messages go through the embed dispatcher, which batches them per channel
      */
     private void sendKillfeedMessage(TextChannel channel, KillRecord record) {
         if (channel == null) return;
+        EmbedDispatcher dispatcher = EmbedDispatcher.getInstance();
         
         // Different embed for each death type
         if (record.isSuicide()) {
             if (record.isFalling()) {
                 // Falling death
-                channel.sendMessageEmbeds(AdvancedEmbeds.advancedFallingDeathEmbed(
+                dispatcher.submit(channel, AdvancedEmbeds.advancedFallingDeathEmbed(
                     record.getVictim(), 
                     (int)record.getDistance()  // Use distance as approximate height
-                )).queue();
+                ));
             } else {
                 // Other suicide - normalize menu suicide messages
                 String cause = record.getWeapon();
@@ -368,19 +254,19 @@ public class KillfeedParser {
                 // Clean up other causes
                 cause = cause.replace("_", " ").trim();
                 
-                channel.sendMessageEmbeds(AdvancedEmbeds.advancedSuicideEmbed(
+                dispatcher.submit(channel, AdvancedEmbeds.advancedSuicideEmbed(
                     record.getVictim(), 
                     cause
-                )).queue();
+                ));
             }
         } else {
             // Regular kill
-            channel.sendMessageEmbeds(EmbedUtils.killfeedEmbed(
+            dispatcher.submit(channel, EmbedUtils.killfeedEmbed(
                 record.getKiller(), 
                 record.getVictim(), 
                 record.getWeapon(), 
                 (int)record.getDistance()
-            )).queue();
+            ));
         }
     }
     
@@ -391,7 +277,7 @@ public class KillfeedParser {
      * @return The text channel, or null if not found/configured
      */
     private TextChannel getTextChannel(GameServer server, String eventType) {
-        if (jda == null || server.getGuildId() == 0) {
+        if (server.getGuildId() == 0) {
             return null;
         }
         
@@ -404,8 +290,7 @@ public class KillfeedParser {
             channelId = server.getKillfeedChannelId();
         } else {
             // Check if guild has specialized channels configured
-            GuildConfigRepository guildConfigRepo = new GuildConfigRepository();
-            GuildConfig guildConfig = guildConfigRepo.findByGuildId(server.getGuildId());
+            GuildConfig guildConfig = guildConfigRepository.findByGuildId(server.getGuildId());
             
             if (guildConfig != null) {
                 // If guild has specialized channels, use the appropriate one for the event type
@@ -422,7 +307,7 @@ public class KillfeedParser {
         }
         
         // Get the channel from JDA
-        TextChannel channel = jda.getTextChannelById(channelId);
+        TextChannel channel = ShardCoordinator.getInstance().getTextChannelById(jda, channelId);
         if (channel == null) {
             logger.warn("Could not find text channel with ID {} for server {} and event type {}",
                     channelId, server.getName(), eventType);
@@ -0,0 +1,137 @@
+package com.deadside.bot.parsers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Single-pass classifier for Deadside.log lines
+ *
+ * Each event type is a rule made of a literal marker and an extractor pattern. Most rules are
+ * anchored right after the "LogSFPS: " prefix, so a line is located with one literal scan and the
+ * marker is compared in place; only the one rule whose marker matches runs its extractor, and only
+ * over the rest of the line. Lines without a known marker - the vast majority - never touch a regex.
+ * New event types are added with {@link #add} or {@link #addAnywhere} instead of another full-line pass.
+ */
+public final class LogEventClassifier {
+    /**
+     * Prefix of game server event lines
+     */
+    public static final String EVENT_PREFIX = "LogSFPS: ";
+    // Index of the ']' closing "[yyyy.MM.dd-HH.mm.ss:SSS"
+    private static final int TIMESTAMP_END = 24;
+
+    private final List<Rule> prefixedRules = new ArrayList<>();
+    private final List<Rule> anywhereRules = new ArrayList<>();
+
+    /**
+     * Register an event that follows the "LogSFPS: " prefix
+     * @param type Event type reported by {@link LogEvent#getType()}
+     * @param marker Literal text that starts the event, directly after the prefix
+     * @param extractor Pattern for the text after the marker; its groups become the event groups
+     */
+    public LogEventClassifier add(String type, String marker, Pattern extractor) {
+        prefixedRules.add(new Rule(type, marker, extractor));
+        return this;
+    }
+
+    /**
+     * Register an event whose marker can appear anywhere in the line (e.g. command line settings)
+     * These are only scanned for when no prefixed rule matched, in registration order.
+     */
+    public LogEventClassifier addAnywhere(String type, String marker, Pattern extractor) {
+        anywhereRules.add(new Rule(type, marker, extractor));
+        return this;
+    }
+
+    /**
+     * Classify a log line
+     * Prefixed rules are tried first; a line without a "LogSFPS: " event falls back to the anywhere rules.
+     * @return The matched event, or null if the line is not a known event
+     */
+    public LogEvent classify(String line) {
+        int prefix = line.indexOf(EVENT_PREFIX);
+        while (prefix >= 0) {
+            int bodyStart = prefix + EVENT_PREFIX.length();
+            for (Rule rule : prefixedRules) {
+                if (line.startsWith(rule.marker, bodyStart)) {
+                    LogEvent event = rule.extract(line, bodyStart + rule.marker.length());
+                    if (event != null) {
+                        return event;
+                    }
+                }
+            }
+            prefix = line.indexOf(EVENT_PREFIX, bodyStart);
+        }
+
+        for (Rule rule : anywhereRules) {
+            int index = line.indexOf(rule.marker);
+            if (index >= 0) {
+                LogEvent event = rule.extract(line, index + rule.marker.length());
+                if (event != null) {
+                    return event;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Timestamp of a line in the standard "[yyyy.MM.dd-HH.mm.ss:SSS][ nnn]" layout, read by position
+     * @return The timestamp text, or null if the line does not start with that layout
+     */
+    public static String leadingTimestamp(String line) {
+        if (line.length() < TIMESTAMP_END + 2 || line.charAt(0) != '['
+                || line.charAt(TIMESTAMP_END) != ']' || line.charAt(TIMESTAMP_END + 1) != '['
+                || line.charAt(5) != '.' || line.charAt(8) != '.' || line.charAt(11) != '-'
+                || line.charAt(20) != ':') {
+            return null;
+        }
+        return line.substring(1, TIMESTAMP_END);
+    }
+
+    private static final class Rule {
+        private final String type;
+        private final String marker;
+        private final Pattern extractor;
+
+        private Rule(String type, String marker, Pattern extractor) {
+            this.type = type;
+            this.marker = marker;
+            this.extractor = extractor;
+        }
+
+        private LogEvent extract(String line, int start) {
+            Matcher matcher = extractor.matcher(line);
+            matcher.region(start, line.length());
+            return matcher.lookingAt() ? new LogEvent(type, matcher.toMatchResult()) : null;
+        }
+    }
+
+    /**
+     * A classified log line
+     */
+    public static final class LogEvent {
+        private final String type;
+        private final MatchResult match;
+
+        private LogEvent(String type, MatchResult match) {
+            this.type = type;
+            this.match = match;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * Extractor group, trimmed (1-based like {@link Matcher#group(int)})
+         */
+        public String group(int group) {
+            String value = match.group(group);
+            return value != null ? value.trim() : "";
+        }
+    }
+}
@@ -199,7 +199,7 @@ public class CsvLogIntegrator {
             
             // Update the server's last processed timestamp
             server.setLastProcessedTimestamp(System.currentTimeMillis());
-            gameServerRepository.save(server);
+            gameServerRepository.updateFields(server, "lastProcessedTimestamp");
             
             logger.info("Validated CSV processing for server {}: {} files, {} lines, {} errors", 
                 server.getName(), csvFiles.size(), lineCount.get(), errorCount.get());
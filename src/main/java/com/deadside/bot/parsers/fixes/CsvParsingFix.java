@@ -6,7 +6,9 @@ import com.deadside.bot.db.repositories.PlayerRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Fixes and utilities for the CSV parser to ensure proper data handling
@@ -118,23 +120,25 @@ public class CsvParsingFix {
             }
             
             // Fix K/D ratio calculation issues
-            boolean needsUpdate = false;
+            Map<String, Integer> expected = new HashMap<>();
+            Map<String, Integer> repaired = new HashMap<>();
             
             // Fix negative kills (data corruption)
             if (player.getKills() < 0) {
+                expected.put("kills", player.getKills());
+                repaired.put("kills", 0);
                 player.setKills(0);
-                needsUpdate = true;
             }
             
             // Fix negative deaths (data corruption)
             if (player.getDeaths() < 0) {
+                expected.put("deaths", player.getDeaths());
+                repaired.put("deaths", 0);
                 player.setDeaths(0);
-                needsUpdate = true;
             }
             
-            // Update the player if needed
-            if (needsUpdate) {
-                playerRepository.save(player);
+            // Update the player if needed, unless the counters changed since they were read
+            if (!repaired.isEmpty() && playerRepository.repairCounters(player, expected, repaired)) {
                 logger.debug("Fixed stats for player {} with isolation (Guild={}, Server={})",
                     player.getName(), player.getGuildId(), player.getServerId());
                 return true;
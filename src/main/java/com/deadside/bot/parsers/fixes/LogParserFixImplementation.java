@@ -1,5 +1,6 @@
 package com.deadside.bot.parsers.fixes;
 
+import com.deadside.bot.bot.ShardCoordinator;
 import com.deadside.bot.db.models.GameServer;
 import com.deadside.bot.db.repositories.GameServerRepository;
 import com.deadside.bot.sftp.SftpConnector;
@@ -156,7 +157,7 @@ public class LogParserFixImplementation {
                 logger.info("Resetting log line counter for server {} due to log rotation", server.getName());
                 lastLine = 0;
                 server.setLastLogRotation(System.currentTimeMillis());
-                gameServerRepository.save(server);
+                gameServerRepository.updateFields(server, "lastLogRotation");
             }
             
             // Read new lines from the log file
@@ -224,7 +225,7 @@ public class LogParserFixImplementation {
                 // Update rotation timestamp and reset counter
                 server.setLastLogRotation(System.currentTimeMillis());
                 lastLineProcessed.put(server.getName(), 0);
-                gameServerRepository.save(server);
+                gameServerRepository.updateFields(server, "lastLogRotation");
                 
                 // Send server restart notification
                 Matcher timestampMatcher = TIMESTAMP_PATTERN.matcher(line);
@@ -648,7 +649,7 @@ public class LogParserFixImplementation {
      * Send embed to server's log channel
      */
     private void sendToLogChannel(GameServer server, MessageEmbed embed) {
-        Guild guild = jda.getGuildById(server.getGuildId());
+        Guild guild = ShardCoordinator.getInstance().getGuildById(jda, server.getGuildId());
         if (guild == null) {
             logger.warn("Guild not found for server {}: {}", server.getName(), server.getGuildId());
             return;
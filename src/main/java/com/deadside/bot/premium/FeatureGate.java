@@ -7,9 +7,6 @@ import net.dv8tion.jda.api.utils.messages.MessageCreateBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * Utility class that controls access to premium features
  * Ensures proper guild isolation by checking premium status per guild
@@ -40,13 +37,6 @@ public class FeatureGate {
         }
     }
     
-    // Cache feature check results to reduce database queries (refresh every few minutes)
-    private static final Map<Long, Map<Feature, Boolean>> featureCache = new HashMap<>();
-    private static final long CACHE_EXPIRY_MS = 5 * 60 * 1000; // 5 minutes
-    private static final Map<Long, Long> cacheTimes = new HashMap<>();
-    
-
-    
     /**
      * Check if a feature is available for a guild (any server)
      * @param guildId The Discord guild ID
@@ -60,22 +50,9 @@ public class FeatureGate {
                 return true;
             }
             
-            // Check cache first
-            if (isValidCache(guildId)) {
-                Map<Feature, Boolean> guildFeatures = featureCache.get(guildId);
-                if (guildFeatures != null && guildFeatures.containsKey(feature)) {
-                    return guildFeatures.get(feature);
-                }
-            }
-            
             // For guild-level access, any server with premium grants access
-            int premiumServers = premiumManager.countPremiumServers(guildId);
-            boolean hasPremium = (premiumServers > 0);
-            
-            // Update cache
-            updateCache(guildId, feature, hasPremium);
-            
-            return hasPremium;
+            // Answered from the premium cache, which tracks each server's expiry
+            return premiumManager.countPremiumServers(guildId) > 0;
         } catch (Exception e) {
             logger.error("Error checking feature access for guild ID: {} and feature: {}", 
                     guildId, feature, e);
@@ -167,41 +144,18 @@ public class FeatureGate {
     }
     
     /**
-     * Clear the feature cache for a guild
+     * Reload a guild's premium entitlements
      * Use this when premium status changes
      * @param guildId The Discord guild ID
      */
     public static void clearCache(long guildId) {
-        featureCache.remove(guildId);
-        cacheTimes.remove(guildId);
+        PremiumCache.getInstance().invalidate(guildId);
     }
     
     /**
-     * Clear all feature caches
+     * Reload the premium entitlements of every guild
      */
     public static void clearAllCaches() {
-        featureCache.clear();
-        cacheTimes.clear();
-    }
-    
-    /**
-     * Check if the cache for a guild is still valid
-     */
-    private static boolean isValidCache(long guildId) {
-        Long cacheTime = cacheTimes.get(guildId);
-        if (cacheTime == null) {
-            return false;
-        }
-        
-        return (System.currentTimeMillis() - cacheTime) < CACHE_EXPIRY_MS;
-    }
-    
-    /**
-     * Update the feature cache for a guild
-     */
-    private static void updateCache(long guildId, Feature feature, boolean hasAccess) {
-        Map<Feature, Boolean> guildFeatures = featureCache.computeIfAbsent(guildId, k -> new HashMap<>());
-        guildFeatures.put(feature, hasAccess);
-        cacheTimes.put(guildId, System.currentTimeMillis());
+        PremiumCache.getInstance().rebuild();
     }
 }
\ No newline at end of file
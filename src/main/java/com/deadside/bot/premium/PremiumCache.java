@@ -0,0 +1,209 @@
+package com.deadside.bot.premium;
+
+import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.models.GuildConfig;
+import com.deadside.bot.db.repositories.GameServerRepository;
+import com.deadside.bot.db.repositories.GuildConfigRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory premium entitlements of every guild and game server
+ * Each entry keeps when a guild's or server's premium runs out, and every check compares that
+ * with the current time, so an expiring subscription stops counting at its expiry without waiting
+ * for a refresh. Only guilds with premium have an entry, which bounds the cache by the number
+ * of subscriptions. Premium changes made through {@link PremiumManager} reload the affected guild,
+ * and the whole table is reloaded periodically to pick up changes made by other bot processes.
+ */
+public class PremiumCache {
+    private static final Logger logger = LoggerFactory.getLogger(PremiumCache.class);
+    private static PremiumCache instance;
+
+    private static final int RELOAD_INTERVAL_MINUTES = 10;
+
+    // Expiry of premium without an end date
+    private static final long NEVER = Long.MAX_VALUE;
+
+    private final GuildConfigRepository guildConfigRepository;
+    private final GameServerRepository gameServerRepository;
+    private volatile ConcurrentHashMap<Long, Entitlements> guilds = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService reloader;
+    private volatile boolean ready;
+
+    // Metrics
+    private final AtomicLong checks = new AtomicLong();
+    private final AtomicLong guildReloads = new AtomicLong();
+
+    private PremiumCache() {
+        this.guildConfigRepository = new GuildConfigRepository();
+        this.gameServerRepository = new GameServerRepository();
+        this.reloader = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "premium-cache");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reloader.scheduleWithFixedDelay(this::reloadQuietly, RELOAD_INTERVAL_MINUTES, RELOAD_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    public static synchronized PremiumCache getInstance() {
+        if (instance == null) {
+            instance = new PremiumCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Load every premium guild and server, replacing the current table once the new one is complete
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<Long, GuildConfig> configs = new HashMap<>();
+        Map<Long, Map<String, Long>> servers = new HashMap<>();
+
+        guildConfigRepository.forEachPremium(config -> configs.put(config.getGuildId(), config));
+        gameServerRepository.forEachPremium(server -> {
+            if (server.getName() != null) {
+                servers.computeIfAbsent(server.getGuildId(), id -> new HashMap<>())
+                        .put(server.getName(), serverExpiry(server));
+            }
+        });
+
+        ConcurrentHashMap<Long, Entitlements> loaded = new ConcurrentHashMap<>();
+        for (GuildConfig config : configs.values()) {
+            loaded.put(config.getGuildId(), new Entitlements(guildExpiry(config),
+                    servers.getOrDefault(config.getGuildId(), Map.of())));
+        }
+        for (Map.Entry<Long, Map<String, Long>> entry : servers.entrySet()) {
+            loaded.putIfAbsent(entry.getKey(), new Entitlements(0, entry.getValue()));
+        }
+
+        guilds = loaded;
+        ready = true;
+        logger.info("Loaded premium entitlements of {} guilds in {} ms", loaded.size(), System.currentTimeMillis() - start);
+    }
+
+    private void reloadQuietly() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("Error reloading premium entitlements: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reload one guild's entitlements after its premium changed
+     */
+    public void invalidate(long guildId) {
+        if (!ready) {
+            return;
+        }
+
+        GuildConfig config = guildConfigRepository.findByGuildId(guildId);
+        Map<String, Long> servers = new HashMap<>();
+        for (GameServer server : gameServerRepository.findAllByGuildId(guildId)) {
+            if (server.isPremium() && server.getName() != null) {
+                servers.put(server.getName(), serverExpiry(server));
+            }
+        }
+
+        long guildUntil = config != null && config.isPremium() ? guildExpiry(config) : 0;
+        if (guildUntil == 0 && servers.isEmpty()) {
+            guilds.remove(guildId);
+        } else {
+            guilds.put(guildId, new Entitlements(guildUntil, servers));
+        }
+        guildReloads.incrementAndGet();
+    }
+
+    /**
+     * Whether the table is loaded; until then premium checks go to the database
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Whether a guild has active guild-wide premium
+     */
+    public boolean hasGuildPremium(long guildId) {
+        checks.incrementAndGet();
+        Entitlements entitlements = guilds.get(guildId);
+        return entitlements != null && entitlements.guildUntil > System.currentTimeMillis();
+    }
+
+    /**
+     * Whether a game server has active premium
+     */
+    public boolean hasServerPremium(long guildId, String serverName) {
+        checks.incrementAndGet();
+        Entitlements entitlements = guilds.get(guildId);
+        if (entitlements == null) {
+            return false;
+        }
+        Long until = entitlements.serverUntil.get(serverName);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    /**
+     * Number of a guild's game servers with active premium
+     */
+    public int countPremiumServers(long guildId) {
+        checks.incrementAndGet();
+        Entitlements entitlements = guilds.get(guildId);
+        if (entitlements == null) {
+            return 0;
+        }
+
+        long now = System.currentTimeMillis();
+        int count = 0;
+        for (long until : entitlements.serverUntil.values()) {
+            if (until > now) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static long guildExpiry(GuildConfig config) {
+        return config.getPremiumUntil() == null ? NEVER : config.getPremiumUntil().getTime();
+    }
+
+    private static long serverExpiry(GameServer server) {
+        return server.getPremiumUntil() == 0 ? NEVER : server.getPremiumUntil();
+    }
+
+    /**
+     * Get a one-line summary of premium checks since startup
+     */
+    public String getStatusSummary() {
+        return String.format("guilds=%d, checks=%d, guildReloads=%d", guilds.size(), checks.get(), guildReloads.get());
+    }
+
+    /**
+     * Stop the periodic reload
+     */
+    public void shutdown() {
+        reloader.shutdownNow();
+    }
+
+    /**
+     * When a guild's premium and each of its premium servers' premium run out
+     */
+    private static final class Entitlements {
+        private final long guildUntil;
+        private final Map<String, Long> serverUntil;
+
+        private Entitlements(long guildUntil, Map<String, Long> serverUntil) {
+            this.guildUntil = guildUntil;
+            this.serverUntil = Map.copyOf(serverUntil);
+        }
+    }
+}
@@ -10,6 +10,8 @@ import org.slf4j.LoggerFactory;
 /**
  * Manager for premium features and subscriptions
  * Handles enabling/disabling premium features based on guild and server subscription status
+ * Premium checks are answered from the {@link PremiumCache} once it is loaded; every change made
+ * here reloads the affected guild in it.
  */
 public class PremiumManager {
     private static final Logger logger = LoggerFactory.getLogger(PremiumManager.class);
@@ -38,6 +40,11 @@ public class PremiumManager {
      * @return True if the guild has an active premium subscription
      */
     public boolean hasGuildPremium(long guildId) {
+        PremiumCache cache = PremiumCache.getInstance();
+        if (cache.isReady()) {
+            return cache.hasGuildPremium(guildId);
+        }
+        
         try {
             GuildConfig guildConfig = guildConfigRepository.findByGuildId(guildId);
             
@@ -65,6 +72,11 @@ public class PremiumManager {
      * @return True if the server has an active premium subscription
      */
     public boolean hasServerPremium(long guildId, String serverName) {
+        PremiumCache cache = PremiumCache.getInstance();
+        if (cache.isReady()) {
+            return cache.hasServerPremium(guildId, serverName);
+        }
+        
         try {
             // Check if the specific server has premium - server-specific approach
             GameServer server = gameServerRepository.findByGuildIdAndName(guildId, serverName);
@@ -96,6 +108,11 @@ public class PremiumManager {
      * @return The number of servers with premium status
      */
     public int countPremiumServers(long guildId) {
+        PremiumCache cache = PremiumCache.getInstance();
+        if (cache.isReady()) {
+            return cache.countPremiumServers(guildId);
+        }
+        
         try {
             // We only count individual servers with premium, not guild-wide premium
             int count = 0;
@@ -148,6 +165,7 @@ public class PremiumManager {
             }
             
             guildConfigRepository.save(guildConfig);
+            PremiumCache.getInstance().invalidate(guildId);
         } catch (Exception e) {
             logger.error("Error enabling premium for guild ID: {}", guildId, e);
         }
@@ -183,6 +201,7 @@ public class PremiumManager {
             }
             
             gameServerRepository.save(server);
+            PremiumCache.getInstance().invalidate(guildId);
             return true;
         } catch (Exception e) {
             logger.error("Error enabling premium for server: {} in guild: {}", serverName, guildId, e);
@@ -212,6 +231,7 @@ public class PremiumManager {
                 guildConfig.setPremium(false);
                 guildConfig.setPremiumUntil(0);
                 guildConfigRepository.save(guildConfig);
+                PremiumCache.getInstance().invalidate(guildId);
                 logger.info("Premium disabled for guild ID: {}", guildId);
             }
         } catch (Exception e) {
@@ -237,6 +257,7 @@ public class PremiumManager {
             server.setPremium(false);
             server.setPremiumUntil(0);
             gameServerRepository.save(server);
+            PremiumCache.getInstance().invalidate(guildId);
             
             logger.info("Premium disabled for server: {} in guild: {}", serverName, guildId);
             return true;
@@ -282,25 +303,20 @@ public class PremiumManager {
     
     /**
      * Check and update expired premium subscriptions
+     * Each collection is swept with a single update on the premium expiry index.
      */
     public void checkExpiredSubscriptions() {
         try {
             logger.debug("Checking for expired premium subscriptions");
             
-            // Find all premium guilds
-            for (GuildConfig config : guildConfigRepository.findAllPremium()) {
-                // Skip configs with no expiration
-                if (config.getPremiumUntil() == null) {
-                    continue;
-                }
-                
-                if (config.getPremiumUntil().getTime() < System.currentTimeMillis()) {
-                    // Premium has expired
-                    config.setPremium(false);
-                    guildConfigRepository.save(config);
-                    
-                    logger.info("Premium subscription expired for guild ID: {}", config.getGuildId());
-                }
+            long now = System.currentTimeMillis();
+            long expiredGuilds = guildConfigRepository.expirePremium(now);
+            long expiredServers = gameServerRepository.expirePremium(now);
+            
+            if (expiredGuilds > 0 || expiredServers > 0) {
+                logger.info("Premium subscriptions expired for {} guilds and {} servers", expiredGuilds, expiredServers);
+                // Checks already treat them as expired; this drops them from the cache
+                PremiumCache.getInstance().rebuild();
             }
         } catch (Exception e) {
             logger.error("Error checking expired premium subscriptions", e);
@@ -475,26 +491,13 @@ public class PremiumManager {
                     // Check if the webhook contains server_name for per-server premium
                     java.util.regex.Pattern serverNamePattern = java.util.regex.Pattern.compile("\"server_name\":\"([^\"]+)\"");
                     java.util.regex.Matcher serverNameMatcher = serverNamePattern.matcher(webhookData);
+                    String serverName = serverNameMatcher.find() ? serverNameMatcher.group(1) : null;
                     
-                    if (serverNameMatcher.find()) {
-                        // This is a server-specific premium purchase
-                        String serverName = serverNameMatcher.group(1);
-                        logger.info("Server-specific premium purchase for server: {} in guild: {}", serverName, guildId);
-                        
-                        // First add a premium slot to the guild
-                        boolean slotAdded = addPremiumSlot(guildId, durationDays);
-                        
-                        if (!slotAdded) {
-                            logger.error("Failed to add premium slot for guild ID: {}", guildId);
-                            return false;
-                        }
-                        
-                        // Enable premium for the specific server
-                        return enableServerPremium(guildId, serverName, durationDays);
-                    } else {
-                        // Just add a premium slot without assigning to a specific server
-                        logger.info("Premium slot purchase for guild: {}", guildId);
-                        return addPremiumSlot(guildId, durationDays);
+                    // Whatever the purchase changed, checks for this guild see it right away
+                    try {
+                        return applyTip4servPayment(guildId, durationDays, serverName);
+                    } finally {
+                        PremiumCache.getInstance().invalidate(guildId);
                     }
                 } else {
                     logger.error("Could not extract guild or user ID from webhook data");
@@ -509,4 +512,30 @@ public class PremiumManager {
             return false;
         }
     }
+    
+    /**
+     * Apply a successful Tip4serv payment to a guild
+     * @param serverName The server the purchase is for, or null for an unassigned premium slot
+     */
+    private boolean applyTip4servPayment(long guildId, int durationDays, String serverName) {
+        if (serverName != null) {
+            // This is a server-specific premium purchase
+            logger.info("Server-specific premium purchase for server: {} in guild: {}", serverName, guildId);
+            
+            // First add a premium slot to the guild
+            boolean slotAdded = addPremiumSlot(guildId, durationDays);
+            
+            if (!slotAdded) {
+                logger.error("Failed to add premium slot for guild ID: {}", guildId);
+                return false;
+            }
+            
+            // Enable premium for the specific server
+            return enableServerPremium(guildId, serverName, durationDays);
+        } else {
+            // Just add a premium slot without assigning to a specific server
+            logger.info("Premium slot purchase for guild: {}", guildId);
+            return addPremiumSlot(guildId, durationDays);
+        }
+    }
 }
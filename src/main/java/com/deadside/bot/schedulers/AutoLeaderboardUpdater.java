@@ -0,0 +1,476 @@
+package com.deadside.bot.schedulers;
+
+import com.deadside.bot.bot.ShardCoordinator;
+import com.deadside.bot.config.Config;
+import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.models.Player;
+import com.deadside.bot.db.repositories.GameServerRepository;
+import com.deadside.bot.db.repositories.LeaderboardChannelRepository;
+import com.deadside.bot.stats.LeaderboardEngine;
+import com.deadside.bot.stats.WeaponStatsEngine;
+import com.deadside.bot.utils.EmbedUtils;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.requests.ErrorResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps auto-updating leaderboard channels current by editing a single message per channel
+ * Registrations from the leaderboard channel collection are held in memory. Every tick each one
+ * compares the version of its server's in-memory leaderboard with the version it last rendered,
+ * so a server without new kills costs one lookup. A changed board is rendered at most once per
+ * minimum refresh interval, and the message is only edited when the rendered top lists differ
+ * from what it already shows. The message ID is stored with the registration, so restarts keep
+ * editing the same message instead of posting a new one.
+ */
+public class AutoLeaderboardUpdater {
+    private static final Logger logger = LoggerFactory.getLogger(AutoLeaderboardUpdater.class);
+    private static AutoLeaderboardUpdater instance;
+
+    private static final int TICK_SECONDS = 30;
+
+    private final LeaderboardChannelRepository repository;
+    private final GameServerRepository gameServerRepository;
+    private final ConcurrentHashMap<ServerKey, Registration> registrations = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer;
+    private final long minRefreshMillis;
+    private final DecimalFormat df = new DecimalFormat("#.##");
+    private volatile JDA jda;
+
+    // Metrics
+    private final AtomicLong renders = new AtomicLong();
+    private final AtomicLong unchangedRenders = new AtomicLong();
+    private final AtomicLong edits = new AtomicLong();
+    private final AtomicLong posts = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    private AutoLeaderboardUpdater() {
+        this.repository = new LeaderboardChannelRepository();
+        this.gameServerRepository = new GameServerRepository();
+        this.minRefreshMillis = TimeUnit.SECONDS.toMillis(Config.getInstance().getLeaderboardMinRefresh());
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "auto-leaderboards");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static synchronized AutoLeaderboardUpdater getInstance() {
+        if (instance == null) {
+            instance = new AutoLeaderboardUpdater();
+        }
+        return instance;
+    }
+
+    /**
+     * Load the registered channels and start refreshing them
+     * @param jda The bot's JDA instance when running unsharded, may be null when sharded
+     */
+    public synchronized void start(JDA jda) {
+        this.jda = jda;
+        load();
+        timer.scheduleWithFixedDelay(this::tickQuietly, TICK_SECONDS, TICK_SECONDS, TimeUnit.SECONDS);
+        logger.info("Auto-updating {} leaderboard channels, at most every {} s each",
+                registrations.size(), TimeUnit.MILLISECONDS.toSeconds(minRefreshMillis));
+    }
+
+    private void load() {
+        List<Map<String, Object>> legacy = new ArrayList<>();
+        for (Map<String, Object> entry : repository.getAllLeaderboardChannels()) {
+            Long guildId = (Long) entry.get("guildId");
+            Long channelId = (Long) entry.get("channelId");
+            if (guildId == null || channelId == null) {
+                continue;
+            }
+
+            String serverId = (String) entry.get("serverId");
+            if (serverId == null) {
+                legacy.add(entry);
+                continue;
+            }
+
+            Long messageId = (Long) entry.get("messageId");
+            registrations.put(new ServerKey(guildId, serverId),
+                    new Registration(channelId, messageId != null ? messageId : 0));
+        }
+
+        // Registrations from before leaderboards were per server follow the guild's default server
+        for (Map<String, Object> entry : legacy) {
+            long guildId = (Long) entry.get("guildId");
+            long channelId = (Long) entry.get("channelId");
+            GameServer server = gameServerRepository.findByGuildId(guildId);
+            if (server == null) {
+                logger.warn("Skipping leaderboard channel {} of guild {}, the guild has no game server",
+                        channelId, guildId);
+                continue;
+            }
+
+            ServerKey key = new ServerKey(guildId, server.getName());
+            if (registrations.putIfAbsent(key, new Registration(channelId, 0)) == null) {
+                // Store it per server so its message ID can be remembered
+                repository.saveLeaderboardChannel(guildId, server.getName(), channelId);
+            }
+        }
+    }
+
+    /**
+     * Register a channel for a server's leaderboard and post it right away
+     */
+    public void register(long guildId, String serverId, long channelId) {
+        repository.saveLeaderboardChannel(guildId, serverId, channelId);
+        ServerKey key = new ServerKey(guildId, serverId);
+        Registration registration = new Registration(channelId, 0);
+        registrations.put(key, registration);
+        timer.execute(() -> refresh(key, registration, true));
+    }
+
+    private void tickQuietly() {
+        try {
+            if (!LeaderboardEngine.getInstance().isReady()) {
+                return;
+            }
+            registrations.forEach((key, registration) -> refresh(key, registration, false));
+        } catch (Exception e) {
+            logger.error("Error refreshing auto-updating leaderboards: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Render a server's leaderboard and edit its message if anything shown changed
+     * @param force Render even if the board did not change or the last render was recent
+     */
+    private void refresh(ServerKey key, Registration registration, boolean force) {
+        long version = LeaderboardEngine.getInstance().getVersion(key.guildId, key.serverId);
+        long now = System.currentTimeMillis();
+
+        synchronized (registration) {
+            if (registration.inFlight || registrations.get(key) != registration) {
+                return;
+            }
+            if (!force && version == registration.renderedVersion) {
+                return;
+            }
+            if (!force && now - registration.renderedAt < minRefreshMillis) {
+                return;
+            }
+            if (!ShardCoordinator.getInstance().ownsGuild(key.guildId)) {
+                return;
+            }
+            TextChannel channel = ShardCoordinator.getInstance().getTextChannelById(jda, registration.channelId);
+            if (channel == null) {
+                return;
+            }
+
+            registration.renderedVersion = version;
+            registration.renderedAt = now;
+            List<MessageEmbed> embeds = render(key.guildId, key.serverId);
+            renders.incrementAndGet();
+
+            int fingerprint = fingerprint(embeds);
+            if (registration.messageId != 0 && fingerprint == registration.fingerprint) {
+                unchangedRenders.incrementAndGet();
+                return;
+            }
+
+            registration.inFlight = true;
+            publish(key, registration, channel, embeds, fingerprint);
+        }
+    }
+
+    private void publish(ServerKey key, Registration registration, TextChannel channel,
+                         List<MessageEmbed> embeds, int fingerprint) {
+        if (registration.messageId == 0) {
+            channel.sendMessageEmbeds(embeds).queue(message -> {
+                synchronized (registration) {
+                    registration.messageId = message.getIdLong();
+                    registration.fingerprint = fingerprint;
+                    registration.inFlight = false;
+                }
+                repository.saveMessageId(key.guildId, key.serverId, message.getIdLong());
+                posts.incrementAndGet();
+            }, error -> failed(key, registration, error));
+            return;
+        }
+
+        channel.editMessageEmbedsById(registration.messageId, embeds).queue(message -> {
+            synchronized (registration) {
+                registration.fingerprint = fingerprint;
+                registration.inFlight = false;
+            }
+            edits.incrementAndGet();
+        }, error -> {
+            if (error instanceof ErrorResponseException
+                    && ((ErrorResponseException) error).getErrorResponse() == ErrorResponse.UNKNOWN_MESSAGE) {
+                // The message was deleted; post a new one
+                synchronized (registration) {
+                    registration.messageId = 0;
+                }
+                publish(key, registration, channel, embeds, fingerprint);
+            } else {
+                failed(key, registration, error);
+            }
+        });
+    }
+
+    private void failed(ServerKey key, Registration registration, Throwable error) {
+        synchronized (registration) {
+            // Render again on the next tick after the minimum interval
+            registration.renderedVersion = -1;
+            registration.inFlight = false;
+        }
+        failures.incrementAndGet();
+        logger.warn("Could not update leaderboard in channel {} (Guild={}, Server={}): {}",
+                registration.channelId, key.guildId, key.serverId, error.getMessage());
+    }
+
+    private static int fingerprint(List<MessageEmbed> embeds) {
+        List<String> shown = new ArrayList<>(embeds.size());
+        for (MessageEmbed embed : embeds) {
+            shown.add(embed.getDescription());
+        }
+        return shown.hashCode();
+    }
+
+    /**
+     * Render every top list of a server from the in-memory leaderboards and weapon stats
+     */
+    private List<MessageEmbed> render(long guildId, String serverId) {
+        LeaderboardEngine engine = LeaderboardEngine.getInstance();
+        List<MessageEmbed> embeds = new ArrayList<>(6);
+        embeds.add(createTopKillersEmbed(engine.getTop(guildId, serverId, LeaderboardEngine.Metric.KILLS, 5)));
+        embeds.add(createTopKDEmbed(engine.getTop(guildId, serverId, LeaderboardEngine.Metric.KD, 3, 10)));
+        embeds.add(createTopDeathsEmbed(engine.getTop(guildId, serverId, LeaderboardEngine.Metric.DEATHS, 3)));
+        embeds.add(createTopDistanceEmbed(engine.getTop(guildId, serverId, LeaderboardEngine.Metric.DISTANCE, 3)));
+        embeds.add(createTopStreakEmbed(engine.getTop(guildId, serverId, LeaderboardEngine.Metric.STREAK, 3)));
+        embeds.add(createTopWeaponsEmbed(WeaponStatsEngine.getInstance().getTopWeapons(guildId, serverId, 3)));
+        return embeds;
+    }
+
+    /**
+     * Create an embed for top killers
+     */
+    private MessageEmbed createTopKillersEmbed(List<Player> topKillers) {
+        StringBuilder description = new StringBuilder("# Top Killers\n\n");
+
+        if (topKillers.isEmpty()) {
+            description.append("No data available yet.");
+        } else {
+            for (int i = 0; i < topKillers.size(); i++) {
+                Player player = topKillers.get(i);
+                description.append("`").append(i + 1).append(".` **")
+                        .append(player.getName()).append("** - ")
+                        .append(player.getKills()).append(" kills (")
+                        .append(player.getDeaths()).append(" deaths)\n");
+            }
+        }
+
+        return EmbedUtils.createEmbed(
+            "Top Killers Leaderboard",
+            description.toString(),
+            EmbedUtils.EMERALD_GREEN,
+            "attachment://Killfeed.png"
+        );
+    }
+
+    /**
+     * Create an embed for top K/D ratio players
+     */
+    private MessageEmbed createTopKDEmbed(List<Player> topKD) {
+        StringBuilder description = new StringBuilder("# Top K/D Ratio\n\n");
+
+        if (topKD.isEmpty()) {
+            description.append("No data available yet.");
+        } else {
+            for (int i = 0; i < topKD.size(); i++) {
+                Player player = topKD.get(i);
+                description.append("`").append(i + 1).append(".` **")
+                        .append(player.getName()).append("** - ")
+                        .append(df.format(player.getKdRatio())).append(" K/D (")
+                        .append(player.getKills()).append("k/")
+                        .append(player.getDeaths()).append("d)\n");
+            }
+        }
+
+        return EmbedUtils.createEmbed(
+            "Top K/D Ratio Leaderboard",
+            description.toString(),
+            EmbedUtils.EMERALD_GREEN,
+            "attachment://WeaponStats.png"
+        );
+    }
+
+    /**
+     * Create an embed for top death counts
+     */
+    private MessageEmbed createTopDeathsEmbed(List<Player> topDeaths) {
+        StringBuilder description = new StringBuilder("# Most Deaths\n\n");
+
+        if (topDeaths.isEmpty()) {
+            description.append("No data available yet.");
+        } else {
+            for (int i = 0; i < topDeaths.size(); i++) {
+                Player player = topDeaths.get(i);
+                description.append("`").append(i + 1).append(".` **")
+                        .append(player.getName()).append("** - ")
+                        .append(player.getDeaths()).append(" deaths (")
+                        .append(player.getSuicides()).append(" suicides)\n");
+            }
+        }
+
+        return EmbedUtils.createEmbed(
+            "Most Deaths Leaderboard",
+            description.toString(),
+            EmbedUtils.DARK_GRAY,
+            "attachment://Killfeed.png"
+        );
+    }
+
+    /**
+     * Create an embed for top distance kills
+     */
+    private MessageEmbed createTopDistanceEmbed(List<Player> topDistance) {
+        StringBuilder description = new StringBuilder("# Longest Kill Distance\n\n");
+
+        if (topDistance.isEmpty()) {
+            description.append("No data available yet.");
+        } else {
+            for (int i = 0; i < topDistance.size(); i++) {
+                Player player = topDistance.get(i);
+                description.append("`").append(i + 1).append(".` **")
+                        .append(player.getName()).append("** - ")
+                        .append(player.getLongestKillDistance()).append("m (")
+                        .append(player.getLongestKillWeapon()).append(")\n");
+            }
+        }
+
+        return EmbedUtils.createEmbed(
+            "Longest Kill Distance Leaderboard",
+            description.toString(),
+            EmbedUtils.EMERALD_GREEN,
+            "attachment://WeaponStats.png"
+        );
+    }
+
+    /**
+     * Create an embed for top kill streaks
+     */
+    private MessageEmbed createTopStreakEmbed(List<Player> topStreak) {
+        StringBuilder description = new StringBuilder("# Longest Kill Streaks\n\n");
+
+        if (topStreak.isEmpty()) {
+            description.append("No data available yet.");
+        } else {
+            for (int i = 0; i < topStreak.size(); i++) {
+                Player player = topStreak.get(i);
+                description.append("`").append(i + 1).append(".` **")
+                        .append(player.getName()).append("** - ")
+                        .append(player.getLongestKillStreak()).append(" kills\n");
+            }
+        }
+
+        return EmbedUtils.createEmbed(
+            "Kill Streak Leaderboard",
+            description.toString(),
+            EmbedUtils.EMERALD_GREEN,
+            "attachment://Killfeed.png"
+        );
+    }
+
+    /**
+     * Create an embed for the server's top weapons
+     */
+    private MessageEmbed createTopWeaponsEmbed(List<WeaponStatsEngine.WeaponSummary> topWeapons) {
+        StringBuilder description = new StringBuilder("# Top Weapons\n\n");
+
+        if (topWeapons.isEmpty()) {
+            description.append("No data available yet.");
+        } else {
+            for (int i = 0; i < topWeapons.size(); i++) {
+                WeaponStatsEngine.WeaponSummary weapon = topWeapons.get(i);
+                description.append("`").append(i + 1).append(".` **")
+                        .append(weapon.getWeapon()).append("** - ")
+                        .append(weapon.getKills()).append(" kills ")
+                        .append("(Top user: ")
+                        .append(weapon.getTopUsers().isEmpty() ? "Unknown" : weapon.getTopUsers().get(0).getName())
+                        .append(")\n");
+            }
+        }
+
+        return EmbedUtils.createEmbed(
+            "Top Weapons Leaderboard",
+            description.toString(),
+            EmbedUtils.EMERALD_GREEN,
+            "attachment://WeaponStats.png"
+        );
+    }
+
+    /**
+     * Get a one-line summary of leaderboard refreshes since startup
+     */
+    public String getStatusSummary() {
+        return String.format("channels=%d, renders=%d, unchanged=%d, edits=%d, posts=%d, failures=%d",
+                registrations.size(), renders.get(), unchangedRenders.get(), edits.get(), posts.get(), failures.get());
+    }
+
+    /**
+     * Stop refreshing leaderboards
+     */
+    public void shutdown() {
+        timer.shutdownNow();
+        logger.info("Auto-updating leaderboards stopped ({})", getStatusSummary());
+    }
+
+    /**
+     * A registered leaderboard channel and what its message currently shows
+     */
+    private static final class Registration {
+        private final long channelId;
+        private long messageId;
+        private long renderedVersion = -1;
+        private long renderedAt;
+        private int fingerprint;
+        private boolean inFlight;
+
+        private Registration(long channelId, long messageId) {
+            this.channelId = channelId;
+            this.messageId = messageId;
+        }
+    }
+
+    private static final class ServerKey {
+        private final long guildId;
+        private final String serverId;
+
+        private ServerKey(long guildId, String serverId) {
+            this.guildId = guildId;
+            this.serverId = serverId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ServerKey)) return false;
+            ServerKey that = (ServerKey) o;
+            return guildId == that.guildId && serverId.equals(that.serverId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(guildId, serverId);
+        }
+    }
+}
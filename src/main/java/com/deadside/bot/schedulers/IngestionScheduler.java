@@ -0,0 +1,274 @@
+package com.deadside.bot.schedulers;
+
+import com.deadside.bot.bot.ShardCoordinator;
+import com.deadside.bot.config.Config;
+import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.repositories.GameServerRepository;
+import com.deadside.bot.utils.GuildIsolationManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scheduler that runs every game server's ingestion poll as an independent task
+ * Polls share a bounded worker pool, are limited per SFTP host, start with a random delay
+ * and are cancelled when they exceed their deadline. A server whose previous poll is still
+ * running is skipped, so one slow host only delays its own servers. When several processes
+ * share the bot, each one only polls the servers of guilds on the shards it leases.
+ */
+public class IngestionScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(IngestionScheduler.class);
+
+    private final GameServerRepository serverRepository;
+    private final ScheduledExecutorService timer;
+    private final ExecutorService workers;
+    private final int maxPerHost;
+    private final long serverTimeoutMs;
+    private final long maxJitterMs;
+
+    // Concurrent polls allowed per host:port
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+    // Pipeline/server keys whose poll is queued or running
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong completedPolls = new AtomicLong();
+    private final AtomicLong failedPolls = new AtomicLong();
+    private final AtomicLong skippedPolls = new AtomicLong();
+    private final AtomicLong timedOutPolls = new AtomicLong();
+
+    /**
+     * Work performed for a single server on each tick
+     */
+    @FunctionalInterface
+    public interface ServerTask {
+        void run(GameServer server) throws Exception;
+    }
+
+    public IngestionScheduler(GameServerRepository serverRepository) {
+        Config config = Config.getInstance();
+        this.serverRepository = serverRepository;
+        this.maxPerHost = config.getIngestionMaxPerHost();
+        this.serverTimeoutMs = TimeUnit.SECONDS.toMillis(config.getIngestionServerTimeout());
+        this.maxJitterMs = TimeUnit.SECONDS.toMillis(config.getIngestionMaxJitter());
+        this.timer = Executors.newScheduledThreadPool(1, namedThreadFactory("ingestion-timer"));
+        this.workers = Executors.newFixedThreadPool(config.getIngestionWorkers(), namedThreadFactory("ingestion-worker"));
+
+        logger.info("Ingestion scheduler started with {} workers, {} polls per host, {}s deadline, {}s max jitter",
+                config.getIngestionWorkers(), maxPerHost, config.getIngestionServerTimeout(), config.getIngestionMaxJitter());
+    }
+
+    /**
+     * Schedule a pipeline that polls every server at a fixed rate
+     * @param pipeline Name of the pipeline, used for logging and to tell its polls apart
+     * @param initialDelay Delay before the first tick
+     * @param interval Time between ticks
+     * @param unit Unit of initialDelay and interval
+     * @param task The work to run for each server
+     */
+    public void schedule(String pipeline, long initialDelay, long interval, TimeUnit unit, ServerTask task) {
+        long intervalMs = unit.toMillis(interval);
+        timer.scheduleAtFixedRate(() -> tick(pipeline, intervalMs, task), initialDelay, interval, unit);
+        logger.info("Scheduled {} ingestion every {} seconds", pipeline, unit.toSeconds(interval));
+    }
+
+    /**
+     * Fan a tick out into one poll per server
+     * Returns as soon as the polls are scheduled so the tick itself never waits on SFTP
+     */
+    private void tick(String pipeline, long intervalMs, ServerTask task) {
+        try {
+            List<GameServer> servers = getServersWithProperIsolation();
+            ShardCoordinator coordinator = ShardCoordinator.getInstance();
+
+            // Spread starts over part of the interval so hosts are not all hit at the same moment
+            long jitterBound = Math.min(maxJitterMs, intervalMs / 2);
+            int scheduled = 0;
+            int skipped = 0;
+
+            for (GameServer server : servers) {
+                if (!coordinator.ownsGuild(server.getGuildId())) {
+                    // Another process leases this guild's shard
+                    continue;
+                }
+
+                String key = pipeline + ":" + server.getGuildId() + ":" + server.getName();
+                if (!inFlight.add(key)) {
+                    skipped++;
+                    skippedPolls.incrementAndGet();
+                    logger.debug("Skipping {} poll for server {}, previous run still in progress",
+                            pipeline, server.getName());
+                    continue;
+                }
+
+                long delay = jitterBound > 0 ? ThreadLocalRandom.current().nextLong(jitterBound) : 0;
+                try {
+                    timer.schedule(() -> dispatch(pipeline, key, server, task), delay, TimeUnit.MILLISECONDS);
+                    scheduled++;
+                } catch (RejectedExecutionException e) {
+                    inFlight.remove(key);
+                }
+            }
+
+            if (skipped > 0) {
+                logger.info("Scheduled {} {} polls, skipped {} servers still running", scheduled, pipeline, skipped);
+            } else {
+                logger.debug("Scheduled {} {} polls", scheduled, pipeline);
+            }
+        } catch (Exception e) {
+            logger.error("Error scheduling {} ingestion: {}", pipeline, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Hand a poll to the worker pool
+     */
+    private void dispatch(String pipeline, String key, GameServer server, ServerTask task) {
+        Poll poll = new Poll(pipeline, key, server, task);
+        FutureTask<Void> future = new FutureTask<>(poll, null);
+        poll.future = future;
+
+        try {
+            workers.execute(future);
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key);
+            logger.warn("Ingestion worker pool rejected {} poll for server {}", pipeline, server.getName());
+        }
+    }
+
+    /**
+     * One server's poll for one pipeline
+     */
+    private class Poll implements Runnable {
+        private final String pipeline;
+        private final String key;
+        private final GameServer server;
+        private final ServerTask task;
+        private volatile FutureTask<Void> future;
+
+        Poll(String pipeline, String key, GameServer server, ServerTask task) {
+            this.pipeline = pipeline;
+            this.key = key;
+            this.server = server;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            // The deadline starts when the poll starts, time spent queued for a worker does not count
+            ScheduledFuture<?> watchdog = timer.schedule(() -> {
+                if (future.cancel(true)) {
+                    timedOutPolls.incrementAndGet();
+                    logger.warn("{} poll for server {} exceeded {} ms deadline, cancelling",
+                            pipeline, server.getName(), serverTimeoutMs);
+                }
+            }, serverTimeoutMs, TimeUnit.MILLISECONDS);
+
+            Semaphore hostPermit = hostPermits.computeIfAbsent(
+                    server.getHost() + ":" + server.getPort(), k -> new Semaphore(maxPerHost, true));
+            boolean acquired = false;
+
+            try {
+                acquired = hostPermit.tryAcquire(serverTimeoutMs, TimeUnit.MILLISECONDS);
+                if (!acquired) {
+                    skippedPolls.incrementAndGet();
+                    logger.warn("Skipping {} poll for server {}, host {} is saturated",
+                            pipeline, server.getName(), server.getHost());
+                    return;
+                }
+
+                GuildIsolationManager.getInstance().setContext(server.getGuildId(), server.getServerId());
+                long start = System.currentTimeMillis();
+                task.run(server);
+                completedPolls.incrementAndGet();
+                logger.debug("{} poll for server {} finished in {} ms",
+                        pipeline, server.getName(), System.currentTimeMillis() - start);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                failedPolls.incrementAndGet();
+                logger.error("Error in {} poll for server {}: {}", pipeline, server.getName(), e.getMessage(), e);
+            } finally {
+                GuildIsolationManager.getInstance().clearContext();
+                if (acquired) {
+                    hostPermit.release();
+                }
+                watchdog.cancel(false);
+                inFlight.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Get all servers with proper isolation by fetching per guild
+     * @return List of servers across all guilds
+     */
+    private List<GameServer> getServersWithProperIsolation() {
+        List<GameServer> allServers = new ArrayList<>();
+
+        for (Long guildId : serverRepository.getDistinctGuildIds()) {
+            if (guildId == null || guildId <= 0) {
+                continue;
+            }
+
+            GuildIsolationManager.getInstance().setContext(guildId, null);
+            try {
+                allServers.addAll(serverRepository.findAllByGuildId(guildId));
+            } finally {
+                GuildIsolationManager.getInstance().clearContext();
+            }
+        }
+
+        return allServers;
+    }
+
+    /**
+     * Get a one-line summary of poll outcomes since startup
+     */
+    public String getStatusSummary() {
+        return String.format("completed=%d, failed=%d, skipped=%d, timedOut=%d, inFlight=%d",
+                completedPolls.get(), failedPolls.get(), skippedPolls.get(), timedOutPolls.get(), inFlight.size());
+    }
+
+    /**
+     * Stop scheduling new ticks and wait briefly for running polls
+     */
+    public void shutdown() {
+        logger.info("Shutting down ingestion scheduler ({})", getStatusSummary());
+        timer.shutdownNow();
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
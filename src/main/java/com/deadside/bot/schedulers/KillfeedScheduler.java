@@ -1,5 +1,6 @@
 package com.deadside.bot.schedulers;
 
+import com.deadside.bot.db.models.FileCursor;
 import com.deadside.bot.db.models.GameServer;
 import com.deadside.bot.db.models.GuildConfig;
 import com.deadside.bot.db.repositories.GameServerRepository;
@@ -10,6 +11,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Scheduler for processing killfeed data
@@ -55,13 +57,7 @@ public class KillfeedScheduler {
                 GuildConfig guildConfig = guildConfigRepository.findByGuildId(server.getGuildId());
                 
                 // Process killfeed for this server
-                int processed = killfeedParser.processServer(server);
-                totalProcessed += processed;
-                
-                // Save server state with updated progress
-                if (processed > 0) {
-                    serverRepository.save(server);
-                }
+                totalProcessed += processAndStoreProgress(server);
             }
             
             logger.info("Completed scheduled killfeed processing, total kills processed: {}", totalProcessed);
@@ -70,6 +66,46 @@ public class KillfeedScheduler {
         }
     }
     
+    /**
+     * Process new killfeed data for a single server
+     * Used by the ingestion scheduler, which runs each server as its own task
+     * @param server The server to process
+     */
+    public void processServer(GameServer server) {
+        if (killfeedParser == null) {
+            logger.error("KillfeedScheduler not initialized with JDA instance");
+            return;
+        }
+        
+        processAndStoreProgress(server);
+    }
+    
+    /**
+     * Process a server's new killfeed lines and store how far it got
+     * The progress is stored whenever it moved, including reads that found no kills, without
+     * touching fields other pipelines own.
+     * @return Number of kills processed
+     */
+    private int processAndStoreProgress(GameServer server) {
+        String file = server.getLastProcessedKillfeedFile();
+        int line = server.getLastProcessedKillfeedLine();
+        FileCursor cursor = server.getKillfeedCursor();
+        String cursorPath = cursor != null ? cursor.getFilePath() : null;
+        long offset = cursor != null ? cursor.getOffset() : -1;
+        
+        int processed = killfeedParser.processServer(server);
+        
+        FileCursor updated = server.getKillfeedCursor();
+        boolean moved = !Objects.equals(file, server.getLastProcessedKillfeedFile())
+                || line != server.getLastProcessedKillfeedLine()
+                || !Objects.equals(cursorPath, updated != null ? updated.getFilePath() : null)
+                || offset != (updated != null ? updated.getOffset() : -1);
+        if (moved) {
+            serverRepository.updateFields(server, "killfeedCursor", "lastProcessedKillfeedFile", "lastProcessedKillfeedLine");
+        }
+        return processed;
+    }
+    
     /**
      * Process only new killfeed data (default behavior for scheduled runs)
      */
@@ -1,5 +1,6 @@
 package com.deadside.bot.schedulers;
 
+import com.deadside.bot.bot.ShardCoordinator;
 import com.deadside.bot.db.models.GuildConfig;
 import com.deadside.bot.db.models.GameServer;
 import com.deadside.bot.db.repositories.GuildConfigRepository;
@@ -68,7 +69,7 @@ public class PlayerCountVoiceChannelUpdater {
             List<GuildConfig> configs = new ArrayList<>();
             
             // Use JDA to get distinct guild IDs for proper isolation
-            List<Long> distinctGuildIds = jda.getGuilds().stream()
+            List<Long> distinctGuildIds = ShardCoordinator.getInstance().getGuilds(jda).stream()
                 .map(guild -> guild.getIdLong())
                 .toList();
             logger.debug("Found {} distinct guilds for voice channel updates", distinctGuildIds.size());
@@ -99,7 +100,7 @@ public class PlayerCountVoiceChannelUpdater {
                 }
                 
                 // Get the guild
-                Guild guild = jda.getGuildById(config.getGuildId());
+                Guild guild = ShardCoordinator.getInstance().getGuildById(jda, config.getGuildId());
                 if (guild == null) {
                     logger.warn("Guild not found for ID: {}", config.getGuildId());
                     continue;
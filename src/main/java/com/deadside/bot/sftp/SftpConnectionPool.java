@@ -0,0 +1,497 @@
+package com.deadside.bot.sftp;
+
+import com.deadside.bot.config.Config;
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import com.jcraft.jsch.SftpException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keyed pool of live SFTP sessions and channels
+ * Connections are grouped by host/port/user so every GameServer that shares a
+ * host reuses the same SSH sessions instead of performing a handshake per call
+ */
+public class SftpConnectionPool {
+    private static final Logger logger = LoggerFactory.getLogger(SftpConnectionPool.class);
+    private static SftpConnectionPool instance;
+
+    // Connections idle for this long are probed with a round trip before being handed out
+    private static final long VALIDATION_INTERVAL_MS = 30 * 1000;
+
+    private final int connectTimeout;
+    private final int maxPerHost;
+    private final long idleTimeoutMs;
+
+    private final Map<PoolKey, HostPool> pools = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService evictor;
+
+    // Pool metrics
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong handshakes = new AtomicLong();
+    private final AtomicLong handshakeFailures = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong brokenDiscarded = new AtomicLong();
+
+    private SftpConnectionPool() {
+        Config config = Config.getInstance();
+        this.connectTimeout = config.getSftpConnectTimeout();
+        this.maxPerHost = config.getSftpPoolMaxPerHost();
+        this.idleTimeoutMs = config.getSftpPoolIdleTimeout() * 1000L;
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "sftp-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.evictor.scheduleWithFixedDelay(this::evictIdle, 30, 30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Get the shared pool instance
+     */
+    public static synchronized SftpConnectionPool getInstance() {
+        if (instance == null) {
+            instance = new SftpConnectionPool();
+        }
+        return instance;
+    }
+
+    /**
+     * Borrow a connection for the given credentials, opening a new session only when
+     * no healthy idle connection is available. Blocks while the per-host cap is reached.
+     * @param key The host/port/user key with credentials
+     * @return A connection that must be closed to return it to the pool
+     * @throws JSchException If no connection could be established
+     */
+    public PooledConnection borrow(PoolKey key) throws JSchException {
+        HostPool hostPool = pools.computeIfAbsent(key, k -> new HostPool(maxPerHost));
+
+        try {
+            if (!hostPool.permits.tryAcquire(connectTimeout, TimeUnit.MILLISECONDS)) {
+                throw new JSchException("Timed out waiting for a pooled SFTP connection to " + key);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JSchException("Interrupted while waiting for a pooled SFTP connection to " + key);
+        }
+
+        try {
+            PooledConnection connection;
+            while ((connection = hostPool.pollIdle()) != null) {
+                if (isHealthy(connection)) {
+                    hits.incrementAndGet();
+                    connection.markBorrowed();
+                    return connection;
+                }
+                brokenDiscarded.incrementAndGet();
+                connection.disconnect();
+            }
+
+            misses.incrementAndGet();
+            connection = open(key, hostPool);
+            connection.markBorrowed();
+            return connection;
+        } catch (JSchException | RuntimeException e) {
+            hostPool.permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Return a connection to the pool, or discard it when it is broken
+     */
+    void release(PooledConnection connection) {
+        HostPool hostPool = connection.hostPool;
+        try {
+            if (connection.isInvalidated() || !connection.isConnected()) {
+                brokenDiscarded.incrementAndGet();
+                connection.disconnect();
+            } else {
+                connection.markIdle();
+                hostPool.offerIdle(connection);
+            }
+        } finally {
+            hostPool.permits.release();
+        }
+    }
+
+    /**
+     * Open a new session and SFTP channel
+     */
+    private PooledConnection open(PoolKey key, HostPool hostPool) throws JSchException {
+        JSch jsch = new JSch();
+        Session session = null;
+        ChannelSftp channel = null;
+
+        try {
+            session = jsch.getSession(key.getUsername(), key.getHost(), key.getPort());
+            if (key.password != null && !key.password.isEmpty()) {
+                session.setPassword(key.password);
+            }
+
+            Properties config = new Properties();
+            config.put("StrictHostKeyChecking", "no");
+            session.setConfig(config);
+            session.setTimeout(connectTimeout);
+
+            handshakes.incrementAndGet();
+            session.connect(connectTimeout);
+
+            channel = (ChannelSftp) session.openChannel("sftp");
+            channel.connect(connectTimeout);
+
+            logger.debug("Opened pooled SFTP connection to {}", key);
+            return new PooledConnection(this, hostPool, session, channel);
+        } catch (JSchException e) {
+            handshakeFailures.incrementAndGet();
+            if (channel != null) {
+                channel.disconnect();
+            }
+            if (session != null) {
+                session.disconnect();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Check whether an idle connection can still be used
+     * Connections that have been idle for a while are probed with a cheap round trip
+     */
+    private boolean isHealthy(PooledConnection connection) {
+        if (!connection.isConnected()) {
+            return false;
+        }
+        if (System.currentTimeMillis() - connection.lastUsed < VALIDATION_INTERVAL_MS) {
+            return true;
+        }
+        try {
+            connection.getChannel().realpath(".");
+            return true;
+        } catch (Exception e) {
+            logger.debug("Pooled SFTP connection failed health check: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Close idle connections that exceeded the idle timeout or lost their transport
+     */
+    private void evictIdle() {
+        try {
+            long now = System.currentTimeMillis();
+            for (Map.Entry<PoolKey, HostPool> entry : pools.entrySet()) {
+                int evicted = entry.getValue().evict(now, idleTimeoutMs);
+                if (evicted > 0) {
+                    evictions.addAndGet(evicted);
+                    logger.debug("Evicted {} idle SFTP connections for {}", evicted, entry.getKey());
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error evicting idle SFTP connections", e);
+        }
+    }
+
+    /**
+     * Check if an exception means the underlying transport is no longer usable
+     * (as opposed to an ordinary remote error such as a missing file)
+     */
+    public static boolean isConnectionFailure(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof JSchException || t instanceof IOException) {
+                return true;
+            }
+            if (t instanceof SftpException) {
+                int id = ((SftpException) t).id;
+                if (id == ChannelSftp.SSH_FX_NO_CONNECTION || id == ChannelSftp.SSH_FX_CONNECTION_LOST) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get a snapshot of the pool metrics
+     */
+    public PoolStats getStats() {
+        int idle = 0;
+        int active = 0;
+        for (HostPool hostPool : pools.values()) {
+            idle += hostPool.idleCount();
+            active += maxPerHost - hostPool.permits.availablePermits();
+        }
+        return new PoolStats(hits.get(), misses.get(), handshakes.get(), handshakeFailures.get(),
+                evictions.get(), brokenDiscarded.get(), idle, active, pools.size());
+    }
+
+    /**
+     * Close every idle connection and stop the evictor
+     */
+    public void shutdown() {
+        evictor.shutdownNow();
+        for (HostPool hostPool : pools.values()) {
+            hostPool.evict(Long.MAX_VALUE, 0);
+        }
+        pools.clear();
+        logger.info("SFTP connection pool shut down ({})", getStats());
+    }
+
+    /**
+     * Idle connections and the connection cap for one host/port/user
+     */
+    private static class HostPool {
+        private final Deque<PooledConnection> idle = new ArrayDeque<>();
+        private final Semaphore permits;
+
+        HostPool(int maxConnections) {
+            this.permits = new Semaphore(maxConnections, true);
+        }
+
+        synchronized PooledConnection pollIdle() {
+            // Most recently used first, so surplus connections age out
+            return idle.pollFirst();
+        }
+
+        synchronized void offerIdle(PooledConnection connection) {
+            idle.offerFirst(connection);
+        }
+
+        synchronized int idleCount() {
+            return idle.size();
+        }
+
+        synchronized int evict(long now, long idleTimeoutMs) {
+            int evicted = 0;
+            Iterator<PooledConnection> iterator = idle.iterator();
+            while (iterator.hasNext()) {
+                PooledConnection connection = iterator.next();
+                if (now - connection.lastUsed >= idleTimeoutMs || !connection.isConnected()) {
+                    iterator.remove();
+                    connection.disconnect();
+                    evicted++;
+                }
+            }
+            return evicted;
+        }
+    }
+
+    /**
+     * A pooled session and channel. Closing it returns it to the pool.
+     */
+    public static class PooledConnection implements AutoCloseable {
+        private final SftpConnectionPool pool;
+        private final HostPool hostPool;
+        private final Session session;
+        private final ChannelSftp channel;
+        private volatile long lastUsed = System.currentTimeMillis();
+        private boolean borrowed;
+        private boolean invalidated;
+
+        private PooledConnection(SftpConnectionPool pool, HostPool hostPool, Session session, ChannelSftp channel) {
+            this.pool = pool;
+            this.hostPool = hostPool;
+            this.session = session;
+            this.channel = channel;
+        }
+
+        public Session getSession() {
+            return session;
+        }
+
+        public ChannelSftp getChannel() {
+            return channel;
+        }
+
+        /**
+         * Mark this connection as broken so it is discarded instead of reused
+         */
+        public void invalidate() {
+            this.invalidated = true;
+        }
+
+        boolean isInvalidated() {
+            return invalidated;
+        }
+
+        boolean isConnected() {
+            return session.isConnected() && channel.isConnected() && !channel.isClosed();
+        }
+
+        void markBorrowed() {
+            this.borrowed = true;
+        }
+
+        void markIdle() {
+            this.borrowed = false;
+            this.lastUsed = System.currentTimeMillis();
+        }
+
+        void disconnect() {
+            if (channel.isConnected()) {
+                channel.disconnect();
+            }
+            if (session.isConnected()) {
+                session.disconnect();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (borrowed) {
+                borrowed = false;
+                pool.release(this);
+            }
+        }
+    }
+
+    /**
+     * Pool key identifying a host/port/user combination
+     * The password is part of equality so changed credentials never reuse a stale session,
+     * but it is never included in the string form
+     */
+    public static final class PoolKey {
+        private final String host;
+        private final int port;
+        private final String username;
+        private final String password;
+
+        public PoolKey(String host, int port, String username, String password) {
+            this.host = host;
+            this.port = port;
+            this.username = username;
+            this.password = password;
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PoolKey)) return false;
+            PoolKey other = (PoolKey) o;
+            return port == other.port
+                    && Objects.equals(host, other.host)
+                    && Objects.equals(username, other.username)
+                    && Objects.equals(password, other.password);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(host, port, username, password);
+        }
+
+        @Override
+        public String toString() {
+            return username + "@" + host + ":" + port;
+        }
+    }
+
+    /**
+     * Snapshot of pool metrics
+     */
+    public static class PoolStats {
+        private final long hits;
+        private final long misses;
+        private final long handshakes;
+        private final long handshakeFailures;
+        private final long evictions;
+        private final long brokenDiscarded;
+        private final int idleConnections;
+        private final int activeConnections;
+        private final int hostCount;
+
+        PoolStats(long hits, long misses, long handshakes, long handshakeFailures, long evictions,
+                  long brokenDiscarded, int idleConnections, int activeConnections, int hostCount) {
+            this.hits = hits;
+            this.misses = misses;
+            this.handshakes = handshakes;
+            this.handshakeFailures = handshakeFailures;
+            this.evictions = evictions;
+            this.brokenDiscarded = brokenDiscarded;
+            this.idleConnections = idleConnections;
+            this.activeConnections = activeConnections;
+            this.hostCount = hostCount;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getHandshakes() {
+            return handshakes;
+        }
+
+        public long getHandshakeFailures() {
+            return handshakeFailures;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getBrokenDiscarded() {
+            return brokenDiscarded;
+        }
+
+        public int getIdleConnections() {
+            return idleConnections;
+        }
+
+        public int getActiveConnections() {
+            return activeConnections;
+        }
+
+        public int getHostCount() {
+            return hostCount;
+        }
+
+        /**
+         * Fraction of borrows served by an existing connection
+         */
+        public double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d, misses=%d, hitRate=%.1f%%, handshakes=%d, handshakeFailures=%d, " +
+                            "evictions=%d, broken=%d, idle=%d, active=%d, hosts=%d",
+                    hits, misses, getHitRate() * 100, handshakes, handshakeFailures,
+                    evictions, brokenDiscarded, idleConnections, activeConnections, hostCount);
+        }
+    }
+}
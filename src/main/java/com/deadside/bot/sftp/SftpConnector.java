@@ -1,11 +1,11 @@
 package com.deadside.bot.sftp;
 
-import com.deadside.bot.config.Config;
+import com.deadside.bot.db.models.FileCursor;
 import com.deadside.bot.db.models.GameServer;
 import com.jcraft.jsch.ChannelSftp;
-import com.jcraft.jsch.JSch;
 import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.Session;
+import com.jcraft.jsch.SftpATTRS;
 import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,6 +13,7 @@ import org.slf4j.LoggerFactory;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -20,57 +21,33 @@ import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
-import java.util.Properties;
 import java.util.Vector;
+import java.util.zip.CRC32;
 
 /**
  * SFTP connection handler
  */
 public class SftpConnector {
     private static final Logger logger = LoggerFactory.getLogger(SftpConnector.class);
-    private final int timeout;
+    private final SftpConnectionPool pool;
+    
+    // Number of leading bytes hashed to recognise a tailed file after rotation
+    private static final int TAIL_HEADER_BYTES = 256;
     
     public SftpConnector() {
-        Config config = Config.getInstance();
-        this.timeout = config.getSftpConnectTimeout();
+        this.pool = SftpConnectionPool.getInstance();
     }
     
     /**
-     * Connect to an SFTP server
+     * Borrow a pooled connection to an SFTP server
      * @param server The server config
-     * @return The SFTP channel and session
+     * @return The SFTP channel and session, returned to the pool on close
      * @throws JSchException If connection fails
      */
     private SftpConnection connect(GameServer server) throws JSchException {
-        JSch jsch = new JSch();
-        Session session = null;
-        ChannelSftp channel = null;
-        
-        try {
-            session = jsch.getSession(server.getUsername(), server.getHost(), server.getPort());
-            session.setPassword(server.getPassword());
-            
-            Properties config = new Properties();
-            config.put("StrictHostKeyChecking", "no");
-            session.setConfig(config);
-            session.setTimeout(timeout);
-            
-            session.connect();
-            
-            channel = (ChannelSftp) session.openChannel("sftp");
-            channel.connect();
-            
-            return new SftpConnection(session, channel);
-        } catch (JSchException e) {
-            // Make sure to close session if an error occurs
-            if (channel != null) {
-                channel.disconnect();
-            }
-            if (session != null) {
-                session.disconnect();
-            }
-            throw e;
-        }
+        SftpConnectionPool.PoolKey key = new SftpConnectionPool.PoolKey(
+                server.getHost(), server.getPort(), server.getUsername(), server.getPassword());
+        return new SftpConnection(pool.borrow(key));
     }
     
     /**
@@ -295,12 +272,22 @@ public class SftpConnector {
      * @return The file content as a string
      */
     public String readFile(GameServer server, String filePath) throws Exception {
+        return new String(readFileBytes(server, filePath), StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Read a whole file from SFTP without decoding it
+     * @param server The server config
+     * @param filePath Path to the file
+     * @return The file content
+     */
+    public byte[] readFileBytes(GameServer server, String filePath) throws Exception {
         try (SftpConnection connection = connect(server)) {
-            try (InputStream inputStream = connection.getChannel().get(filePath);
-                 ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-                
-                IOUtils.copy(inputStream, outputStream);
-                return outputStream.toString(StandardCharsets.UTF_8);
+            try (InputStream inputStream = connection.getChannel().get(filePath)) {
+                return IOUtils.toByteArray(inputStream);
+            } catch (Exception e) {
+                connection.invalidateOnFailure(e);
+                throw e;
             }
         }
     }
@@ -340,6 +327,9 @@ public class SftpConnector {
             // Write the file
             try (InputStream inputStream = new java.io.ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8))) {
                 connection.getChannel().put(inputStream, filePath);
+            } catch (Exception e) {
+                connection.invalidateOnFailure(e);
+                throw e;
             }
         }
     }
@@ -387,6 +377,181 @@ public class SftpConnector {
         return newLines;
     }
     
+    /**
+     * Read the complete lines appended to a file since the cursor position
+     * Only the bytes after the cursor offset are downloaded. A trailing line without a
+     * newline is held back (the cursor stops before it) and returned once it is complete.
+     * Truncation and rotation are detected from the file size and a hash of the file header,
+     * in which case the cursor is rewound and the new file is read from the start.
+     * 
+     * @param server The server config
+     * @param filePath Path to the file
+     * @param cursor The cursor to resume from; advanced in place
+     * @return The new complete lines
+     */
+    public TailResult tailLines(GameServer server, String filePath, FileCursor cursor) throws Exception {
+        if (!cursor.tracks(filePath)) {
+            cursor.setFilePath(filePath);
+            cursor.reset();
+        }
+        
+        try (SftpConnection connection = connect(server)) {
+            try {
+                ChannelSftp channel = connection.getChannel();
+                SftpATTRS attrs = channel.stat(filePath);
+                long size = attrs.getSize();
+                long modified = attrs.getMTime() * 1000L;
+                
+                boolean rotated = false;
+                if (cursor.getOffset() > 0) {
+                    if (size < cursor.getOffset()) {
+                        logger.info("File {} shrank from {} to {} bytes for server {}, treating as rotated",
+                                filePath, cursor.getOffset(), size, server.getName());
+                        rotated = true;
+                    } else if (cursor.getHeaderLength() > 0
+                            && hashHeader(channel, filePath, cursor.getHeaderLength()) != cursor.getHeaderHash()) {
+                        logger.info("File {} header changed for server {}, treating as rotated",
+                                filePath, server.getName());
+                        rotated = true;
+                    }
+                    
+                    if (rotated) {
+                        cursor.reset();
+                    } else if (size == cursor.getOffset()) {
+                        // Nothing appended since the last read
+                        cursor.setFileSize(size);
+                        cursor.setLastModified(modified);
+                        return new TailResult(new byte[0], 0, false);
+                    }
+                }
+                
+                long startOffset = cursor.getOffset();
+                byte[] data;
+                try (InputStream inputStream = channel.get(filePath, null, startOffset)) {
+                    data = IOUtils.toByteArray(inputStream);
+                }
+                
+                // Only consume up to the last newline, keep the partial line for the next read
+                int end = data.length;
+                while (end > 0 && data[end - 1] != '\n') {
+                    end--;
+                }
+                if (startOffset == 0 && data.length > 0) {
+                    int headerLength = Math.min(TAIL_HEADER_BYTES, data.length);
+                    CRC32 crc = new CRC32();
+                    crc.update(data, 0, headerLength);
+                    cursor.setHeaderHash(crc.getValue());
+                    cursor.setHeaderLength(headerLength);
+                }
+                
+                cursor.setOffset(startOffset + end);
+                cursor.setFileSize(Math.max(size, startOffset + data.length));
+                cursor.setLastModified(modified);
+                cursor.setUpdatedAt(System.currentTimeMillis());
+                
+                return new TailResult(data, end, rotated);
+            } catch (Exception e) {
+                connection.invalidateOnFailure(e);
+                throw e;
+            }
+        }
+    }
+    
+    /**
+     * Tail a deathlog CSV file
+     * @param server The server config
+     * @param filename Name of the CSV file (including subdirectory path)
+     * @param cursor The cursor to resume from; advanced in place
+     * @return The new complete lines
+     */
+    public TailResult tailDeathlogFile(GameServer server, String filename, FileCursor cursor) throws Exception {
+        String filePath = server.getDeathlogsDirectory() + "/" + filename;
+        return tailLines(server, filePath, cursor);
+    }
+    
+    /**
+     * Hash the first bytes of a remote file to identify it across reads
+     */
+    private long hashHeader(ChannelSftp channel, String filePath, int length) throws Exception {
+        byte[] header = new byte[length];
+        int read = 0;
+        try (InputStream inputStream = channel.get(filePath)) {
+            while (read < length) {
+                int n = inputStream.read(header, read, length - read);
+                if (n < 0) {
+                    break;
+                }
+                read += n;
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(header, 0, read);
+        return crc.getValue();
+    }
+    
+    /**
+     * Split the first {@code end} bytes into UTF-8 lines, dropping line terminators
+     */
+    private static List<String> splitLines(byte[] data, int end) {
+        List<String> lines = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < end; i++) {
+            if (data[i] == '\n') {
+                int lineEnd = (i > start && data[i - 1] == '\r') ? i - 1 : i;
+                lines.add(new String(data, start, lineEnd - start, StandardCharsets.UTF_8));
+                start = i + 1;
+            }
+        }
+        return lines;
+    }
+    
+    /**
+     * Result of an incremental read
+     */
+    public static class TailResult {
+        private final byte[] data;
+        private final int length;
+        private final boolean rotated;
+        private List<String> lines;
+        
+        public TailResult(byte[] data, int length, boolean rotated) {
+            this.data = data;
+            this.length = length;
+            this.rotated = rotated;
+        }
+        
+        /**
+         * The complete lines appended since the previous read
+         */
+        public List<String> getLines() {
+            if (lines == null) {
+                lines = splitLines(data, length);
+            }
+            return lines;
+        }
+        
+        /**
+         * The raw bytes of the complete lines, for callers that tokenize without building strings
+         */
+        public ByteBuffer getData() {
+            return ByteBuffer.wrap(data, 0, length);
+        }
+        
+        /**
+         * Whether the file was truncated or replaced and read from the start
+         */
+        public boolean isRotated() {
+            return rotated;
+        }
+        
+        /**
+         * Number of bytes downloaded for this read
+         */
+        public long getBytesRead() {
+            return data.length;
+        }
+    }
+    
     /**
      * Read lines from a log file after a specific line number
      * @param server The server config
@@ -439,33 +604,36 @@ public class SftpConnector {
     }
     
     /**
-     * Holder class for SFTP session and channel
+     * Holder for a pooled SFTP session and channel
+     * Closing it hands the connection back to the pool instead of disconnecting
      */
     private static class SftpConnection implements AutoCloseable {
-        private final Session session;
-        private final ChannelSftp channel;
+        private final SftpConnectionPool.PooledConnection pooled;
         
-        public SftpConnection(Session session, ChannelSftp channel) {
-            this.session = session;
-            this.channel = channel;
+        public SftpConnection(SftpConnectionPool.PooledConnection pooled) {
+            this.pooled = pooled;
         }
         
         public Session getSession() {
-            return session;
+            return pooled.getSession();
         }
         
         public ChannelSftp getChannel() {
-            return channel;
+            return pooled.getChannel();
+        }
+        
+        /**
+         * Discard the underlying connection if the error means the transport is broken
+         */
+        public void invalidateOnFailure(Exception e) {
+            if (SftpConnectionPool.isConnectionFailure(e)) {
+                pooled.invalidate();
+            }
         }
         
         @Override
         public void close() {
-            if (channel != null && channel.isConnected()) {
-                channel.disconnect();
-            }
-            if (session != null && session.isConnected()) {
-                session.disconnect();
-            }
+            pooled.close();
         }
     }
     
@@ -476,48 +644,34 @@ public class SftpConnector {
      * @return True if the file exists, false otherwise
      */
     public boolean fileExists(GameServer server, String remotePath) {
-        Session session = null;
-        ChannelSftp channelSftp = null;
-        try {
-            session = createSession(server);
-            if (session == null) {
+        try (SftpConnection connection = connectIsolated(server)) {
+            if (connection == null) {
                 return false;
             }
             
-            channelSftp = (ChannelSftp) session.openChannel("sftp");
-            channelSftp.connect(timeout);
-            
-            // Try to get the file's attributes - if it doesn't exist, an exception will be thrown
-            channelSftp.lstat(remotePath);
-            return true;
+            try {
+                // Try to get the file's attributes - if it doesn't exist, an exception will be thrown
+                connection.getChannel().lstat(remotePath);
+                return true;
+            } catch (Exception e) {
+                connection.invalidateOnFailure(e);
+                throw e;
+            }
         } catch (Exception e) {
             // If exception is thrown, file doesn't exist or is not accessible
             logger.debug("File does not exist or is not accessible: {}", remotePath);
             return false;
-        } finally {
-            if (channelSftp != null && channelSftp.isConnected()) {
-                channelSftp.disconnect();
-            }
-            if (session != null && session.isConnected()) {
-                session.disconnect();
-            }
         }
     }
     
     /**
-     * Get the content of a file as a string with proper isolation
-     * @param server The game server with proper isolation metadata
-     * @param remotePath The path to the file on the remote server
-     * @return The file content as a string, or null if the file doesn't exist
-     */
-    /**
-     * Create an SFTP session with proper guild isolation
+     * Borrow a pooled SFTP connection with proper guild isolation
      * This method enforces proper data boundaries between Discord servers
      * 
      * @param server The server to connect to
-     * @return The SFTP session, or null if connection failed or server lacks proper isolation
+     * @return The SFTP connection, or null if connection failed or server lacks proper isolation
      */
-    private Session createSession(GameServer server) {
+    private SftpConnection connectIsolated(GameServer server) {
         try {
             // Verify server has proper isolation fields
             if (server == null || server.getGuildId() <= 0) {
@@ -530,46 +684,30 @@ public class SftpConnector {
             long guildId = server.getGuildId();
             String serverId = server.getServerId();
             
-            // Set isolation context if possible
-            if (guildId > 0) {
-                com.deadside.bot.utils.GuildIsolationManager.getInstance().setContext(guildId, serverId);
-                try {
-                    // Validate SFTP configuration before attempting connection
-                    if (server.getSftpHost() == null || server.getSftpHost().trim().isEmpty()) {
-                        logger.warn("Server {} has proper isolation but missing SFTP host configuration (Guild={})",
-                            server.getName(), guildId);
-                        return null;
-                    }
-                    
-                    // Proceed with SFTP connection using proper isolation
-                    JSch jsch = new JSch();
-                    Session session = jsch.getSession(
-                        server.getSftpUsername() != null ? server.getSftpUsername() : "anonymous",
-                        server.getSftpHost(),
-                        server.getSftpPort() > 0 ? server.getSftpPort() : 22
-                    );
-                    
-                    // Set password if available
-                    if (server.getSftpPassword() != null && !server.getSftpPassword().isEmpty()) {
-                        session.setPassword(server.getSftpPassword());
-                    }
-                    
-                    Properties config = new Properties();
-                    config.put("StrictHostKeyChecking", "no");
-                    session.setConfig(config);
-                    
-                    session.connect(timeout);
-                    
-                    logger.debug("Created SFTP session for server {} with proper isolation (Guild={})",
+            com.deadside.bot.utils.GuildIsolationManager.getInstance().setContext(guildId, serverId);
+            try {
+                // Validate SFTP configuration before attempting connection
+                if (server.getSftpHost() == null || server.getSftpHost().trim().isEmpty()) {
+                    logger.warn("Server {} has proper isolation but missing SFTP host configuration (Guild={})",
                         server.getName(), guildId);
-                    return session;
-                } finally {
-                    // Always clear isolation context when done to prevent leaks
-                    com.deadside.bot.utils.GuildIsolationManager.getInstance().clearContext();
+                    return null;
                 }
-            } else {
-                logger.error("Cannot create SFTP session for server {} due to missing guild ID", server.getName());
-                return null;
+                
+                // Proceed with SFTP connection using proper isolation
+                SftpConnectionPool.PoolKey key = new SftpConnectionPool.PoolKey(
+                    server.getSftpHost(),
+                    server.getSftpPort() > 0 ? server.getSftpPort() : 22,
+                    server.getSftpUsername() != null ? server.getSftpUsername() : "anonymous",
+                    server.getSftpPassword()
+                );
+                SftpConnection connection = new SftpConnection(pool.borrow(key));
+                
+                logger.debug("Borrowed SFTP connection for server {} with proper isolation (Guild={})",
+                    server.getName(), guildId);
+                return connection;
+            } finally {
+                // Always clear isolation context when done to prevent leaks
+                com.deadside.bot.utils.GuildIsolationManager.getInstance().clearContext();
             }
         } catch (Exception e) {
             logger.error("Error creating SFTP session for server {}: {}", 
@@ -578,42 +716,38 @@ public class SftpConnector {
         }
     }
     
+    /**
+     * Get the content of a file as a string with proper isolation
+     * @param server The game server with proper isolation metadata
+     * @param remotePath The path to the file on the remote server
+     * @return The file content as a string, or null if the file doesn't exist
+     */
     public String getFileContent(GameServer server, String remotePath) {
-        Session session = null;
-        ChannelSftp channelSftp = null;
-        try {
-            // Verify server has proper isolation fields
-            if (server.getGuildId() <= 0) {
-                logger.warn("Attempted to access file without proper guild isolation: {} in server {}", 
-                    remotePath, server.getName());
-                return null;
-            }
-            
-            session = createSession(server);
-            if (session == null) {
+        // Verify server has proper isolation fields
+        if (server.getGuildId() <= 0) {
+            logger.warn("Attempted to access file without proper guild isolation: {} in server {}", 
+                remotePath, server.getName());
+            return null;
+        }
+        
+        try (SftpConnection connection = connectIsolated(server)) {
+            if (connection == null) {
                 return null;
             }
             
-            channelSftp = (ChannelSftp) session.openChannel("sftp");
-            channelSftp.connect(timeout);
-            
-            try (InputStream inputStream = channelSftp.get(remotePath);
+            try (InputStream inputStream = connection.getChannel().get(remotePath);
                  ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
                 
                 IOUtils.copy(inputStream, outputStream);
                 return outputStream.toString(StandardCharsets.UTF_8.name());
+            } catch (Exception e) {
+                connection.invalidateOnFailure(e);
+                throw e;
             }
         } catch (Exception e) {
             logger.error("Error getting content of file: {} from server {}", 
                 remotePath, server.getName(), e);
             return null;
-        } finally {
-            if (channelSftp != null && channelSftp.isConnected()) {
-                channelSftp.disconnect();
-            }
-            if (session != null && session.isConnected()) {
-                session.disconnect();
-            }
         }
     }
     
@@ -624,37 +758,29 @@ public class SftpConnector {
      * @return The file size in bytes, or -1 if the file doesn't exist
      */
     public long getFileSize(GameServer server, String remotePath) {
-        Session session = null;
-        ChannelSftp channelSftp = null;
-        try {
-            // Verify server has proper isolation fields
-            if (server.getGuildId() <= 0) {
-                logger.warn("Attempted to access file without proper guild isolation: {} in server {}", 
-                    remotePath, server.getName());
+        // Verify server has proper isolation fields
+        if (server.getGuildId() <= 0) {
+            logger.warn("Attempted to access file without proper guild isolation: {} in server {}", 
+                remotePath, server.getName());
+            return -1;
+        }
+        
+        try (SftpConnection connection = connectIsolated(server)) {
+            if (connection == null) {
                 return -1;
             }
             
-            session = createSession(server);
-            if (session == null) {
-                return -1;
+            try {
+                // Get file attributes to get the size
+                return connection.getChannel().lstat(remotePath).getSize();
+            } catch (Exception e) {
+                connection.invalidateOnFailure(e);
+                throw e;
             }
-            
-            channelSftp = (ChannelSftp) session.openChannel("sftp");
-            channelSftp.connect(timeout);
-            
-            // Get file attributes to get the size
-            return channelSftp.lstat(remotePath).getSize();
         } catch (Exception e) {
             logger.error("Error getting size of file: {} from server {}", 
                 remotePath, server.getName(), e);
             return -1;
-        } finally {
-            if (channelSftp != null && channelSftp.isConnected()) {
-                channelSftp.disconnect();
-            }
-            if (session != null && session.isConnected()) {
-                session.disconnect();
-            }
         }
     }
     
@@ -665,37 +791,37 @@ public class SftpConnector {
      * @return The last modified timestamp in milliseconds, or -1 if the file doesn't exist
      */
     public long getLastModified(GameServer server, String remotePath) {
-        Session session = null;
-        ChannelSftp channelSftp = null;
-        try {
-            // Verify server has proper isolation fields
-            if (server.getGuildId() <= 0) {
-                logger.warn("Attempted to access file without proper guild isolation: {} in server {}", 
-                    remotePath, server.getName());
+        // Verify server has proper isolation fields
+        if (server.getGuildId() <= 0) {
+            logger.warn("Attempted to access file without proper guild isolation: {} in server {}", 
+                remotePath, server.getName());
+            return -1;
+        }
+        
+        try (SftpConnection connection = connectIsolated(server)) {
+            if (connection == null) {
                 return -1;
             }
             
-            session = createSession(server);
-            if (session == null) {
-                return -1;
+            try {
+                // Get file attributes to get the modified time
+                return connection.getChannel().lstat(remotePath).getMTime() * 1000L; // Convert from seconds to milliseconds
+            } catch (Exception e) {
+                connection.invalidateOnFailure(e);
+                throw e;
             }
-            
-            channelSftp = (ChannelSftp) session.openChannel("sftp");
-            channelSftp.connect(timeout);
-            
-            // Get file attributes to get the modified time
-            return channelSftp.lstat(remotePath).getMTime() * 1000L; // Convert from seconds to milliseconds
         } catch (Exception e) {
             logger.error("Error getting last modified time of file: {} from server {}", 
                 remotePath, server.getName(), e);
             return -1;
-        } finally {
-            if (channelSftp != null && channelSftp.isConnected()) {
-                channelSftp.disconnect();
-            }
-            if (session != null && session.isConnected()) {
-                session.disconnect();
-            }
         }
     }
+    
+    /**
+     * Get the connection pool metrics shared by all connectors
+     * @return Snapshot of pool hits, misses and handshakes
+     */
+    public SftpConnectionPool.PoolStats getPoolStats() {
+        return pool.getStats();
+    }
 }
@@ -1,5 +1,6 @@
 package com.deadside.bot.sftp;
 
+import com.deadside.bot.db.models.FileCursor;
 import com.deadside.bot.db.models.GameServer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -88,6 +89,19 @@ public class SftpManager {
         }
     }
     
+    /**
+     * Read the complete lines appended to a killfeed file since the cursor position
+     * @return The new lines, or null if the file could not be read
+     */
+    public SftpConnector.TailResult tailKillfeedFile(GameServer server, String filename, FileCursor cursor) {
+        try {
+            return connector.tailDeathlogFile(server, filename, cursor);
+        } catch (Exception e) {
+            logger.error("Error tailing killfeed file {} for server: {}", filename, server.getName(), e);
+            return null;
+        }
+    }
+    
     /**
      * Read new lines from a killfeed file since last check
      */
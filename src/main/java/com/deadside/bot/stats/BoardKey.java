@@ -0,0 +1,33 @@
+package com.deadside.bot.stats;
+
+import java.util.Objects;
+
+/**
+ * Identity of one game server's in-memory stats: (guildId, serverId)
+ */
+final class BoardKey {
+    private final long guildId;
+    private final String serverId;
+
+    BoardKey(long guildId, String serverId) {
+        this.guildId = guildId;
+        this.serverId = serverId;
+    }
+
+    long getGuildId() {
+        return guildId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BoardKey)) return false;
+        BoardKey other = (BoardKey) o;
+        return guildId == other.guildId && Objects.equals(serverId, other.serverId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(guildId, serverId);
+    }
+}
@@ -0,0 +1,101 @@
+package com.deadside.bot.stats;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ingestion batches whose deltas are folded into one pending stats delta
+ * Live death log batches and historical backfill batches are numbered independently, so each
+ * is guarded by its own document field: ingestSequence and backfillSequence. A delta only
+ * applies to documents that have seen neither of its sequences, which makes re-reading a batch
+ * after a crash a no-op for the documents it already reached.
+ */
+final class IngestStamp {
+    static final String INGEST_SEQUENCE = "ingestSequence";
+    static final String BACKFILL_SEQUENCE = "backfillSequence";
+
+    static final IngestStamp NONE = new IngestStamp(0, 0);
+
+    private final long sequence;
+    private final long backfillSequence;
+
+    private IngestStamp(long sequence, long backfillSequence) {
+        this.sequence = sequence;
+        this.backfillSequence = backfillSequence;
+    }
+
+    static IngestStamp live(long sequence) {
+        return new IngestStamp(sequence, 0);
+    }
+
+    static IngestStamp backfill(long sequence) {
+        return new IngestStamp(0, sequence);
+    }
+
+    /**
+     * Combine the batches of two deltas that are merged into one write
+     */
+    IngestStamp merge(IngestStamp other) {
+        if (other == NONE || other.equalsStamp(this)) {
+            return this;
+        }
+        if (this == NONE) {
+            return other;
+        }
+        return new IngestStamp(Math.max(sequence, other.sequence), Math.max(backfillSequence, other.backfillSequence));
+    }
+
+    /**
+     * Restrict an upsert to documents that have not seen these batches yet
+     * A document that already has a sequence does not match, so the upsert tries to insert
+     * and hits the unique index; the repositories treat that duplicate key as already applied.
+     */
+    Bson guard(Bson filter) {
+        List<Bson> filters = new ArrayList<>();
+        filters.add(filter);
+        if (sequence > 0) {
+            filters.add(notApplied(INGEST_SEQUENCE, sequence));
+        }
+        if (backfillSequence > 0) {
+            filters.add(notApplied(BACKFILL_SEQUENCE, backfillSequence));
+        }
+        return filters.size() == 1 ? filter : Filters.and(filters);
+    }
+
+    /**
+     * Record the batches on a document written with a pipeline update
+     */
+    void appendTo(Document fields) {
+        if (sequence > 0) {
+            fields.append(INGEST_SEQUENCE, sequence);
+        }
+        if (backfillSequence > 0) {
+            fields.append(BACKFILL_SEQUENCE, backfillSequence);
+        }
+    }
+
+    /**
+     * Record the batches on a document written with update operators
+     */
+    void appendTo(List<Bson> updates) {
+        if (sequence > 0) {
+            updates.add(Updates.set(INGEST_SEQUENCE, sequence));
+        }
+        if (backfillSequence > 0) {
+            updates.add(Updates.set(BACKFILL_SEQUENCE, backfillSequence));
+        }
+    }
+
+    private boolean equalsStamp(IngestStamp other) {
+        return sequence == other.sequence && backfillSequence == other.backfillSequence;
+    }
+
+    private static Bson notApplied(String field, long sequence) {
+        return Filters.or(Filters.exists(field, false), Filters.lt(field, sequence));
+    }
+}
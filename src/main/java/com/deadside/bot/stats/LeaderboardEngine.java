@@ -0,0 +1,403 @@
+package com.deadside.bot.stats;
+
+import com.deadside.bot.db.models.Player;
+import com.deadside.bot.db.repositories.PlayerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * In-memory leaderboards per (guildId, serverId)
+ *
+ * Each board keeps the ranking stats of its players and one {@link RankedIndex} per metric, so
+ * top-N lists and "rank of player X among N" are answered from memory in O(log n). Boards are
+ * loaded from the players collection at startup and then kept current from the kill stream by
+ * {@link PlayerStatsAggregator}, ahead of its write-behind flushes.
+ */
+public class LeaderboardEngine {
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardEngine.class);
+    private static LeaderboardEngine instance;
+
+    /**
+     * Kills needed before a player is ranked on K/D and score
+     */
+    public static final int MIN_RANKED_KILLS = 5;
+
+    /**
+     * Ranked statistics
+     */
+    public enum Metric {
+        KILLS,
+        KD,
+        DEATHS,
+        DISTANCE,
+        STREAK,
+        SCORE
+    }
+
+    private final ConcurrentHashMap<BoardKey, Board> boards = new ConcurrentHashMap<>();
+    private volatile boolean ready = false;
+
+    // Source of board versions, shared so a rebuilt board never reuses an earlier version
+    private static final AtomicLong changes = new AtomicLong();
+
+    private LeaderboardEngine() {
+    }
+
+    public static synchronized LeaderboardEngine getInstance() {
+        if (instance == null) {
+            instance = new LeaderboardEngine();
+        }
+        return instance;
+    }
+
+    /**
+     * Load every board from the players collection, replacing what is in memory
+     * Run before ingestion starts; kills recorded while a rebuild runs may be missed.
+     */
+    public void rebuild(PlayerRepository playerRepository) {
+        long start = System.currentTimeMillis();
+        Map<BoardKey, Board> loaded = new HashMap<>();
+
+        try {
+            int[] count = {0};
+            playerRepository.forEachRankedPlayer(player -> {
+                if (player.getServerId() == null || player.getPlayerId() == null) {
+                    return;
+                }
+                BoardKey key = new BoardKey(player.getGuildId(), player.getServerId());
+                loaded.computeIfAbsent(key, k -> new Board()).load(player);
+                count[0]++;
+            });
+
+            boards.clear();
+            boards.putAll(loaded);
+            ready = true;
+            logger.info("Loaded leaderboards for {} players on {} servers in {} ms",
+                    count[0], loaded.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            ready = false;
+            logger.error("Failed to load leaderboards, commands will query the database", e);
+        }
+    }
+
+    /**
+     * Reload the leaderboards of some guilds, leaving every other guild as it is
+     * Used when this node takes over the shard of those guilds from another node.
+     */
+    public void reload(PlayerRepository playerRepository, Collection<Long> guildIds) {
+        long start = System.currentTimeMillis();
+        Map<BoardKey, Board> loaded = new HashMap<>();
+
+        try {
+            int[] count = {0};
+            playerRepository.forEachRankedPlayer(guildIds, player -> {
+                if (player.getServerId() == null || player.getPlayerId() == null) {
+                    return;
+                }
+                BoardKey key = new BoardKey(player.getGuildId(), player.getServerId());
+                loaded.computeIfAbsent(key, k -> new Board()).load(player);
+                count[0]++;
+            });
+
+            boards.keySet().removeIf(key -> guildIds.contains(key.getGuildId()));
+            boards.putAll(loaded);
+            logger.info("Reloaded leaderboards for {} players of {} guilds in {} ms",
+                    count[0], guildIds.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Failed to reload leaderboards of guilds {}", guildIds, e);
+        }
+    }
+
+    /**
+     * Whether boards have been loaded and can answer queries
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Apply a kill: a kill for the killer and a death for the victim
+     */
+    public void recordKill(long guildId, String serverId, String killerId, String killerName,
+                           String victimId, String victimName, String weapon, int distance) {
+        board(guildId, serverId).recordKill(killerId, killerName, victimId, victimName, weapon, distance);
+    }
+
+    /**
+     * Apply a suicide, which counts as both a death and a suicide
+     */
+    public void recordSuicide(long guildId, String serverId, String victimId, String victimName) {
+        board(guildId, serverId).recordSuicide(victimId, victimName);
+    }
+
+    /**
+     * Drop a board whose players were deleted
+     */
+    public void removeBoard(long guildId, String serverId) {
+        boards.remove(new BoardKey(guildId, serverId));
+    }
+
+    /**
+     * Highest-ranked players for a metric
+     * @param minKills Only include players with at least this many kills
+     * @return Player snapshots carrying the ranking stats, best first
+     */
+    public List<Player> getTop(long guildId, String serverId, Metric metric, int limit, int minKills) {
+        Board board = boards.get(new BoardKey(guildId, serverId));
+        if (board == null) {
+            return new ArrayList<>();
+        }
+        return board.top(metric, limit, minKills, guildId, serverId);
+    }
+
+    public List<Player> getTop(long guildId, String serverId, Metric metric, int limit) {
+        return getTop(guildId, serverId, metric, limit, 0);
+    }
+
+    /**
+     * Version of a board, which changes whenever any of its standings change
+     * Callers that render a board can skip rendering while the version stays the same.
+     * @return The version, or 0 if the server has no board
+     */
+    public long getVersion(long guildId, String serverId) {
+        Board board = boards.get(new BoardKey(guildId, serverId));
+        return board != null ? board.version : 0;
+    }
+
+    /**
+     * 1-based rank of a player for a metric; players tied on score share a rank
+     * @return The rank, or -1 if the player is not ranked on this metric
+     */
+    public int getRank(long guildId, String serverId, String playerId, Metric metric) {
+        Board board = boards.get(new BoardKey(guildId, serverId));
+        return board != null ? board.rank(playerId, metric) : -1;
+    }
+
+    /**
+     * Number of players ranked on a metric
+     */
+    public int getRankedCount(long guildId, String serverId, Metric metric) {
+        Board board = boards.get(new BoardKey(guildId, serverId));
+        return board != null ? board.count(metric) : 0;
+    }
+
+    private Board board(long guildId, String serverId) {
+        return boards.computeIfAbsent(new BoardKey(guildId, serverId), k -> new Board());
+    }
+
+    /**
+     * K/D as shown on the leaderboards; without deaths the kills count, capped at 999
+     */
+    static double kd(int kills, int deaths) {
+        return deaths == 0 ? Math.min(kills, 999) : (double) kills / deaths;
+    }
+
+    /**
+     * Same formula as {@link Player#getScore()}
+     */
+    static int score(int kills, int deaths, int suicides, int scoreValue) {
+        if (scoreValue > 0) {
+            return scoreValue;
+        }
+        int regularDeaths = deaths - suicides;
+        return Math.max(0, kills * 10 - regularDeaths * 5 - suicides * 3);
+    }
+
+    /**
+     * Leaderboards of one game server
+     */
+    private static final class Board {
+        private static final Metric[] METRICS = Metric.values();
+
+        private final Map<String, Standing> standings = new HashMap<>();
+        private final List<RankedIndex<Standing>> indexes = new ArrayList<>(METRICS.length);
+        private volatile long version = changes.incrementAndGet();
+
+        private Board() {
+            for (int i = 0; i < METRICS.length; i++) {
+                indexes.add(new RankedIndex<>());
+            }
+        }
+
+        synchronized void load(Player player) {
+            Standing standing = standings.computeIfAbsent(player.getPlayerId(), Standing::new);
+            standing.name = player.getName();
+            standing.kills = player.getKills();
+            standing.deaths = player.getDeaths();
+            standing.suicides = player.getSuicides();
+            standing.longestKillDistance = player.getLongestKillDistance();
+            standing.longestKillVictim = player.getLongestKillVictim();
+            standing.longestKillWeapon = player.getLongestKillWeapon();
+            standing.longestKillStreak = player.getLongestKillStreak();
+            standing.currentKillStreak = player.getCurrentKillStreak();
+            standing.killedByMost = player.getKilledByMost();
+            standing.scoreValue = player.getScoreValue();
+            standing.lastUpdated = player.getLastUpdated();
+            reindex(standing);
+            version = changes.incrementAndGet();
+        }
+
+        synchronized void recordKill(String killerId, String killerName, String victimId, String victimName,
+                                     String weapon, int distance) {
+            long now = System.currentTimeMillis();
+
+            Standing killer = standing(killerId, killerName, now);
+            killer.kills++;
+            killer.currentKillStreak++;
+            killer.longestKillStreak = Math.max(killer.longestKillStreak, killer.currentKillStreak);
+            if (distance > killer.longestKillDistance) {
+                killer.longestKillDistance = distance;
+                killer.longestKillVictim = victimName;
+                killer.longestKillWeapon = weapon != null ? weapon : "";
+            }
+            reindex(killer);
+
+            Standing victim = standing(victimId, victimName, now);
+            victim.deaths++;
+            victim.currentKillStreak = 0;
+            reindex(victim);
+            version = changes.incrementAndGet();
+        }
+
+        synchronized void recordSuicide(String victimId, String victimName) {
+            Standing victim = standing(victimId, victimName, System.currentTimeMillis());
+            victim.deaths++;
+            victim.suicides++;
+            victim.currentKillStreak = 0;
+            reindex(victim);
+            version = changes.incrementAndGet();
+        }
+
+        synchronized List<Player> top(Metric metric, int limit, int minKills, long guildId, String serverId) {
+            List<Standing> found = new ArrayList<>(Math.min(limit, 64));
+            Predicate<Standing> filter = minKills > 0 ? s -> s.kills >= minKills : s -> true;
+            indexes.get(metric.ordinal()).top(limit, filter, found);
+
+            List<Player> players = new ArrayList<>(found.size());
+            for (Standing standing : found) {
+                players.add(standing.toPlayer(guildId, serverId));
+            }
+            return players;
+        }
+
+        synchronized int rank(String playerId, Metric metric) {
+            Standing standing = standings.get(playerId);
+            if (standing == null || Double.isNaN(standing.scores[metric.ordinal()])) {
+                return -1;
+            }
+            return indexes.get(metric.ordinal()).countAbove(standing.scores[metric.ordinal()]) + 1;
+        }
+
+        synchronized int count(Metric metric) {
+            return indexes.get(metric.ordinal()).size();
+        }
+
+        private Standing standing(String playerId, String name, long now) {
+            Standing standing = standings.computeIfAbsent(playerId, Standing::new);
+            if (name != null && !name.isEmpty()) {
+                standing.name = name;
+            }
+            standing.lastUpdated = now;
+            return standing;
+        }
+
+        /**
+         * Move a player to its new position in every index whose score changed
+         */
+        private void reindex(Standing standing) {
+            for (Metric metric : METRICS) {
+                int i = metric.ordinal();
+                double current = standing.scores[i];
+                double updated = standing.hasValidName() ? standing.score(metric) : Double.NaN;
+
+                if (Double.compare(current, updated) == 0) {
+                    continue;
+                }
+                if (!Double.isNaN(current)) {
+                    indexes.get(i).remove(standing.playerId, current);
+                }
+                if (!Double.isNaN(updated)) {
+                    indexes.get(i).insert(standing.playerId, updated, standing);
+                }
+                standing.scores[i] = updated;
+            }
+        }
+    }
+
+    /**
+     * Ranking stats of one player
+     */
+    private static final class Standing {
+        private final String playerId;
+        private final double[] scores = new double[Metric.values().length];
+        private String name;
+        private int kills;
+        private int deaths;
+        private int suicides;
+        private int longestKillDistance;
+        private String longestKillVictim = "";
+        private String longestKillWeapon = "";
+        private int longestKillStreak;
+        private int currentKillStreak;
+        private String killedByMost = "";
+        private int scoreValue;
+        private long lastUpdated;
+
+        private Standing(String playerId) {
+            this.playerId = playerId;
+            Arrays.fill(scores, Double.NaN);
+        }
+
+        private boolean hasValidName() {
+            return name != null && !name.isEmpty() && !"**".equals(name);
+        }
+
+        /**
+         * Score for a metric, or NaN if the player does not qualify for it
+         */
+        private double score(Metric metric) {
+            switch (metric) {
+                case KILLS:
+                    return kills > 0 ? kills : Double.NaN;
+                case KD:
+                    return kills >= MIN_RANKED_KILLS ? LeaderboardEngine.kd(kills, deaths) : Double.NaN;
+                case DEATHS:
+                    return deaths > 0 ? deaths : Double.NaN;
+                case DISTANCE:
+                    return longestKillDistance > 0 ? longestKillDistance : Double.NaN;
+                case STREAK:
+                    return longestKillStreak > 0 ? longestKillStreak : Double.NaN;
+                case SCORE:
+                    return kills >= MIN_RANKED_KILLS ? LeaderboardEngine.score(kills, deaths, suicides, scoreValue) : Double.NaN;
+                default:
+                    return Double.NaN;
+            }
+        }
+
+        private Player toPlayer(long guildId, String serverId) {
+            Player player = new Player(playerId, name, guildId, serverId);
+            player.setKills(kills);
+            player.setDeaths(deaths);
+            player.setSuicides(suicides);
+            player.setLongestKillDistance(longestKillDistance);
+            player.setLongestKillVictim(longestKillVictim);
+            player.setLongestKillWeapon(longestKillWeapon);
+            player.setLongestKillStreak(longestKillStreak);
+            player.setCurrentKillStreak(currentKillStreak);
+            player.setKilledByMost(killedByMost);
+            player.setScoreValue(scoreValue);
+            player.setLastUpdated(lastUpdated);
+            return player;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.deadside.bot.stats;
+
+import com.deadside.bot.db.repositories.MatchupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory head-to-head kill counts per (guildId, serverId)
+ *
+ * Every player keeps two sparse maps: the victims they killed and the killers who killed them,
+ * each with exact counts. A pair lookup is O(1) and "top victims" / "top nemeses" only scan the
+ * player's own opponents. Loaded from the matchups collection at startup and kept current from
+ * the kill stream by {@link PlayerStatsAggregator}, which also persists the counts in bulk.
+ */
+public class MatchupIndex {
+    private static final Logger logger = LoggerFactory.getLogger(MatchupIndex.class);
+    private static MatchupIndex instance;
+
+    private final ConcurrentHashMap<BoardKey, Board> boards = new ConcurrentHashMap<>();
+    private volatile boolean ready = false;
+
+    private MatchupIndex() {
+    }
+
+    public static synchronized MatchupIndex getInstance() {
+        if (instance == null) {
+            instance = new MatchupIndex();
+        }
+        return instance;
+    }
+
+    /**
+     * Load every matchup from the database, replacing what is in memory
+     * Run before ingestion starts; kills recorded while a rebuild runs may be missed.
+     */
+    public void rebuild(MatchupRepository matchupRepository) {
+        long start = System.currentTimeMillis();
+        Map<BoardKey, Board> loaded = new HashMap<>();
+
+        try {
+            int[] count = {0};
+            matchupRepository.forEachMatchup(matchup -> {
+                if (matchup.getServerId() == null || matchup.getKillerId() == null
+                        || matchup.getVictimId() == null || matchup.getKills() <= 0) {
+                    return;
+                }
+                BoardKey key = new BoardKey(matchup.getGuildId(), matchup.getServerId());
+                loaded.computeIfAbsent(key, k -> new Board()).add(matchup.getKillerId(), matchup.getKillerName(),
+                        matchup.getVictimId(), matchup.getVictimName(), matchup.getKills());
+                count[0]++;
+            });
+
+            boards.clear();
+            boards.putAll(loaded);
+            ready = true;
+            logger.info("Loaded {} matchups on {} servers in {} ms",
+                    count[0], loaded.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            ready = false;
+            logger.error("Failed to load matchups, commands will query the database", e);
+        }
+    }
+
+    /**
+     * Reload the matchups of some guilds, leaving every other guild as it is
+     * Used when this node takes over the shard of those guilds from another node.
+     */
+    public void reload(MatchupRepository matchupRepository, Collection<Long> guildIds) {
+        long start = System.currentTimeMillis();
+        Map<BoardKey, Board> loaded = new HashMap<>();
+
+        try {
+            int[] count = {0};
+            matchupRepository.forEachMatchup(guildIds, matchup -> {
+                if (matchup.getServerId() == null || matchup.getKillerId() == null
+                        || matchup.getVictimId() == null || matchup.getKills() <= 0) {
+                    return;
+                }
+                BoardKey key = new BoardKey(matchup.getGuildId(), matchup.getServerId());
+                loaded.computeIfAbsent(key, k -> new Board()).add(matchup.getKillerId(), matchup.getKillerName(),
+                        matchup.getVictimId(), matchup.getVictimName(), matchup.getKills());
+                count[0]++;
+            });
+
+            boards.keySet().removeIf(key -> guildIds.contains(key.getGuildId()));
+            boards.putAll(loaded);
+            logger.info("Reloaded {} matchups of {} guilds in {} ms",
+                    count[0], guildIds.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Failed to reload matchups of guilds {}", guildIds, e);
+        }
+    }
+
+    /**
+     * Whether matchups have been loaded and can answer queries
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Count one kill of the victim by the killer
+     */
+    public void recordKill(long guildId, String serverId, String killerId, String killerName,
+                           String victimId, String victimName) {
+        if (killerId == null || victimId == null || killerId.equals(victimId)) {
+            return;
+        }
+        boards.computeIfAbsent(new BoardKey(guildId, serverId), k -> new Board())
+                .add(killerId, killerName, victimId, victimName, 1);
+    }
+
+    /**
+     * Drop the matchups of a server whose data was deleted
+     */
+    public void removeBoard(long guildId, String serverId) {
+        boards.remove(new BoardKey(guildId, serverId));
+    }
+
+    /**
+     * Number of times the killer killed the victim
+     */
+    public int getKills(long guildId, String serverId, String killerId, String victimId) {
+        Board board = boards.get(new BoardKey(guildId, serverId));
+        return board != null ? board.kills(killerId, victimId) : 0;
+    }
+
+    /**
+     * Players this player killed most, most kills first
+     */
+    public List<Opponent> getTopVictims(long guildId, String serverId, String playerId, int limit) {
+        Board board = boards.get(new BoardKey(guildId, serverId));
+        return board != null ? board.top(playerId, true, limit) : new ArrayList<>();
+    }
+
+    /**
+     * Players who killed this player most, most kills first
+     */
+    public List<Opponent> getTopNemeses(long guildId, String serverId, String playerId, int limit) {
+        Board board = boards.get(new BoardKey(guildId, serverId));
+        return board != null ? board.top(playerId, false, limit) : new ArrayList<>();
+    }
+
+    /**
+     * One side of a matchup as seen from a player
+     */
+    public static final class Opponent {
+        private final String playerId;
+        private final String name;
+        private final int kills;
+
+        public Opponent(String playerId, String name, int kills) {
+            this.playerId = playerId;
+            this.name = name;
+            this.kills = kills;
+        }
+
+        public String getPlayerId() {
+            return playerId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Kills between the two players in the direction that was asked for
+         */
+        public int getKills() {
+            return kills;
+        }
+    }
+
+    /**
+     * Matchups of one game server
+     */
+    private static final class Board {
+        private final Map<String, PlayerMatchups> players = new HashMap<>();
+
+        synchronized void add(String killerId, String killerName, String victimId, String victimName, int kills) {
+            player(killerId, killerName).victims().add(victimId, kills);
+            player(victimId, victimName).nemeses().add(killerId, kills);
+        }
+
+        synchronized int kills(String killerId, String victimId) {
+            PlayerMatchups killer = players.get(killerId);
+            return killer != null && killer.victims != null ? killer.victims.get(victimId) : 0;
+        }
+
+        synchronized List<Opponent> top(String playerId, boolean victims, int limit) {
+            PlayerMatchups player = players.get(playerId);
+            PairCounts counts = player == null ? null : victims ? player.victims : player.nemeses;
+            if (counts == null || limit <= 0) {
+                return new ArrayList<>();
+            }
+
+            // Keep the best `limit` opponents in a min-heap
+            Comparator<Opponent> order = Comparator.comparingInt(Opponent::getKills)
+                    .thenComparing(Opponent::getPlayerId, Comparator.reverseOrder());
+            PriorityQueue<Opponent> best = new PriorityQueue<>(limit + 1, order);
+            counts.forEach((opponentId, kills) -> {
+                PlayerMatchups opponent = players.get(opponentId);
+                String name = opponent != null && opponent.name != null ? opponent.name : opponentId;
+                best.add(new Opponent(opponentId, name, kills));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            });
+
+            List<Opponent> result = new ArrayList<>(best);
+            result.sort(order.reversed());
+            return result;
+        }
+
+        private PlayerMatchups player(String playerId, String name) {
+            PlayerMatchups player = players.computeIfAbsent(playerId, id -> new PlayerMatchups());
+            if (name != null && !name.isEmpty()) {
+                player.name = name;
+            }
+            return player;
+        }
+    }
+
+    /**
+     * Opponents of one player; each side is only allocated once it has an entry
+     */
+    private static final class PlayerMatchups {
+        private String name;
+        private PairCounts victims;
+        private PairCounts nemeses;
+
+        private PairCounts victims() {
+            if (victims == null) {
+                victims = new PairCounts();
+            }
+            return victims;
+        }
+
+        private PairCounts nemeses() {
+            if (nemeses == null) {
+                nemeses = new PairCounts();
+            }
+            return nemeses;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.deadside.bot.stats;
+
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Compact map of player IDs to kill counts
+ * Open addressing over two parallel arrays, sized to the pairs a player actually has, so the
+ * many players with a handful of opponents cost a few dozen bytes instead of a HashMap's
+ * per-entry nodes and boxed counts. Entries are never removed. Not thread-safe; callers synchronise.
+ */
+final class PairCounts {
+    private static final int INITIAL_CAPACITY = 4;
+
+    private String[] keys = new String[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Count for an opponent, 0 if there is none
+     */
+    int get(String id) {
+        int slot = find(keys, id);
+        return keys[slot] != null ? counts[slot] : 0;
+    }
+
+    void add(String id, int amount) {
+        int slot = find(keys, id);
+        if (keys[slot] != null) {
+            counts[slot] += amount;
+            return;
+        }
+
+        keys[slot] = id;
+        counts[slot] = amount;
+        size++;
+        // Keep the load factor at or below 3/4
+        if (size * 4 > keys.length * 3) {
+            grow();
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(ObjIntConsumer<String> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                action.accept(keys[i], counts[i]);
+            }
+        }
+    }
+
+    private void grow() {
+        String[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new String[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = find(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    /**
+     * Slot holding the id, or the empty slot where it belongs (linear probing)
+     */
+    private static int find(String[] keys, String id) {
+        int mask = keys.length - 1;
+        int hash = id.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (keys[slot] != null && !keys[slot].equals(id)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
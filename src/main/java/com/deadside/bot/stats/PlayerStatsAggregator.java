@@ -0,0 +1,732 @@
+package com.deadside.bot.stats;
+
+import com.deadside.bot.config.Config;
+import com.deadside.bot.db.models.Matchup;
+import com.deadside.bot.db.models.Player;
+import com.deadside.bot.db.repositories.MatchupRepository;
+import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.db.repositories.WeaponStatsRepository;
+import com.deadside.bot.faction.FactionStatsSync;
+import com.deadside.bot.utils.NameIndex;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind aggregator for player kill statistics
+ * Kill, death, suicide, weapon, streak and longest-shot deltas are folded in memory per
+ * (guildId, serverId, playerId) and flushed as one unordered bulkWrite of upserts,
+ * either when enough players are pending or on a timer. Head-to-head counts per
+ * (killer, victim) pair go out in the same flush as $inc upserts on the matchups collection.
+ * Deltas recorded inside an ingestion batch carry the batch sequence, and every player, matchup
+ * and weapon document remembers the last sequence applied to it (see {@link IngestStamp}). The
+ * upserts only match documents that have not seen the sequence yet, so a batch that is read again
+ * after a crash, before its checkpoint was committed, is applied exactly once. A crash can land
+ * between the writes of the three collections, so whether a re-read batch was already applied is
+ * decided per collection, and only the in-memory views of collections that lack it are updated.
+ */
+public class PlayerStatsAggregator {
+    private static final Logger logger = LoggerFactory.getLogger(PlayerStatsAggregator.class);
+    private static PlayerStatsAggregator instance;
+
+    private final PlayerRepository playerRepository;
+    private final MatchupRepository matchupRepository;
+    private final WeaponStatsRepository weaponStatsRepository;
+    private final ConcurrentHashMap<PlayerKey, PlayerDelta> pending = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<MatchupKey, MatchupDelta> pendingMatchups = new ConcurrentHashMap<>();
+    // Tasks waiting for a server's deltas to be written, see whenSettled
+    private final ConcurrentHashMap<ServerKey, BooleanSupplier> settleTasks = new ConcurrentHashMap<>();
+    // Ingestion batch the current thread is recording; live polls and backfills run on their own threads
+    private final ThreadLocal<Batch> currentBatch = new ThreadLocal<>();
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+    private final int flushSize;
+
+    // Metrics
+    private final AtomicLong eventsRecorded = new AtomicLong();
+    private final AtomicLong playersFlushed = new AtomicLong();
+    private final AtomicLong matchupsFlushed = new AtomicLong();
+    private final AtomicLong weaponsFlushed = new AtomicLong();
+    private final AtomicLong bulkWrites = new AtomicLong();
+    private final AtomicLong failedBulkWrites = new AtomicLong();
+
+    private PlayerStatsAggregator() {
+        Config config = Config.getInstance();
+        this.playerRepository = new PlayerRepository();
+        this.matchupRepository = new MatchupRepository();
+        this.weaponStatsRepository = new WeaponStatsRepository();
+        this.flushSize = config.getStatsFlushSize();
+        int flushInterval = config.getStatsFlushInterval();
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "stats-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushInterval, flushInterval, TimeUnit.SECONDS);
+
+        logger.info("Player stats aggregator started (flush size: {} players, flush interval: {}s)",
+                flushSize, flushInterval);
+    }
+
+    public static synchronized PlayerStatsAggregator getInstance() {
+        if (instance == null) {
+            instance = new PlayerStatsAggregator();
+        }
+        return instance;
+    }
+
+    /**
+     * Start recording a live ingestion batch for a server on the calling thread
+     * Deltas the thread records for the server until {@link #endBatch} are stamped with the sequence.
+     * @param sequence Sequence of the batch, one higher than the server's last committed batch
+     * @param mayReplay The batch may have been written before a restart without its checkpoint; each
+     *                  collection is checked, and the in-memory views, which were loaded from the
+     *                  database, are not updated again for collections that already have it
+     * @return True if any collection already has the batch
+     */
+    public boolean beginBatch(long guildId, String serverId, long sequence, boolean mayReplay) {
+        Batch batch = new Batch(guildId, serverId, IngestStamp.live(sequence),
+                mayReplay && playerRepository.hasIngestSequence(guildId, serverId, sequence),
+                mayReplay && matchupRepository.hasIngestSequence(guildId, serverId, sequence),
+                mayReplay && weaponStatsRepository.hasIngestSequence(guildId, serverId, sequence));
+        currentBatch.set(batch);
+        return batch.isReplay();
+    }
+
+    /**
+     * Start recording a historical backfill batch for a server on the calling thread
+     * Backfill batches are numbered separately from live ones, see {@link #beginBatch}.
+     */
+    public boolean beginBackfillBatch(long guildId, String serverId, long sequence, boolean mayReplay) {
+        Batch batch = new Batch(guildId, serverId, IngestStamp.backfill(sequence),
+                mayReplay && playerRepository.hasBackfillSequence(guildId, serverId, sequence),
+                mayReplay && matchupRepository.hasBackfillSequence(guildId, serverId, sequence),
+                mayReplay && weaponStatsRepository.hasBackfillSequence(guildId, serverId, sequence));
+        currentBatch.set(batch);
+        return batch.isReplay();
+    }
+
+    /**
+     * Stop stamping the calling thread's deltas with its batch sequence
+     */
+    public void endBatch() {
+        currentBatch.remove();
+    }
+
+    private Batch batchFor(long guildId, String serverId) {
+        Batch batch = currentBatch.get();
+        return batch != null && batch.guildId == guildId && Objects.equals(batch.serverId, serverId) ? batch : null;
+    }
+
+    /**
+     * Whether a server has no unflushed player, matchup or weapon deltas
+     * An ingestion checkpoint is only committed once its batch is settled.
+     */
+    public boolean isSettled(long guildId, String serverId) {
+        for (PlayerKey key : pending.keySet()) {
+            if (key.guildId == guildId && Objects.equals(key.serverId, serverId)) {
+                return false;
+            }
+        }
+        for (MatchupKey key : pendingMatchups.keySet()) {
+            if (key.guildId == guildId && Objects.equals(key.serverId, serverId)) {
+                return false;
+            }
+        }
+        return !WeaponStatsEngine.getInstance().hasPending(guildId, serverId);
+    }
+
+    /**
+     * Run a task once a server has no unflushed deltas left, e.g. to commit an ingestion checkpoint
+     * The task runs on the flushing thread after a flush that leaves the server settled, and is
+     * run again after later flushes until it returns true. It replaces any task already waiting
+     * for the server. A flush is requested right away rather than waiting for the timer.
+     */
+    public void whenSettled(long guildId, String serverId, BooleanSupplier task) {
+        settleTasks.put(new ServerKey(guildId, serverId), task);
+        if (flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * Record a player kill: a kill for the killer and a death for the victim
+     */
+    public void recordKill(long guildId, String serverId, String killerId, String killerName,
+                           String victimId, String victimName, String weapon, int distance) {
+        recordKill(guildId, serverId, killerId, killerName, victimId, victimName, weapon, distance,
+                System.currentTimeMillis());
+    }
+
+    /**
+     * Record a player kill that happened at a known time, e.g. when reading historical logs
+     * @param timestamp When the kill happened, for time-windowed statistics
+     */
+    public void recordKill(long guildId, String serverId, String killerId, String killerName,
+                           String victimId, String victimName, String weapon, int distance, long timestamp) {
+        Batch batch = batchFor(guildId, serverId);
+        IngestStamp stamp = batch != null ? batch.stamp : IngestStamp.NONE;
+
+        // In-memory leaderboards see the kill right away, ahead of the write-behind flush
+        if (batch == null || !batch.replayPlayers) {
+            LeaderboardEngine.getInstance().recordKill(guildId, serverId, killerId, killerName,
+                    victimId, victimName, weapon, distance);
+            FactionStatsSync.getInstance().recordKill(guildId, serverId, killerId, victimId);
+        }
+        if (batch == null || !batch.replayMatchups) {
+            MatchupIndex.getInstance().recordKill(guildId, serverId, killerId, killerName, victimId, victimName);
+        }
+        WeaponStatsEngine.getInstance().recordKill(guildId, serverId, killerId, killerName, weapon, distance,
+                timestamp, stamp, batch == null || !batch.replayWeapons);
+        if (!killerId.equals(victimId)) {
+            pendingMatchups.compute(new MatchupKey(guildId, serverId, killerId, victimId), (k, delta) -> {
+                if (delta == null) {
+                    delta = new MatchupDelta();
+                }
+                delta.add(killerName, victimName, timestamp);
+                delta.stamp = delta.stamp.merge(stamp);
+                return delta;
+            });
+        }
+        update(new PlayerKey(guildId, serverId, killerId), killerName, stamp,
+                delta -> delta.addKill(weapon, distance, victimName));
+        update(new PlayerKey(guildId, serverId, victimId), victimName, stamp, PlayerDelta::addDeath);
+        eventsRecorded.incrementAndGet();
+    }
+
+    /**
+     * Record a suicide, which counts as both a death and a suicide for the victim
+     */
+    public void recordSuicide(long guildId, String serverId, String victimId, String victimName) {
+        Batch batch = batchFor(guildId, serverId);
+        if (batch == null || !batch.replayPlayers) {
+            LeaderboardEngine.getInstance().recordSuicide(guildId, serverId, victimId, victimName);
+            FactionStatsSync.getInstance().recordSuicide(guildId, serverId, victimId);
+        }
+        update(new PlayerKey(guildId, serverId, victimId), victimName, batch != null ? batch.stamp : IngestStamp.NONE,
+                PlayerDelta::addSuicide);
+        eventsRecorded.incrementAndGet();
+    }
+
+    private void update(PlayerKey key, String name, IngestStamp stamp, Consumer<PlayerDelta> change) {
+        NameIndex.getInstance().putPlayer(key.guildId, key.serverId, key.playerId, name);
+        pending.compute(key, (k, delta) -> {
+            if (delta == null) {
+                delta = new PlayerDelta();
+            }
+            delta.name = name;
+            delta.stamp = delta.stamp.merge(stamp);
+            change.accept(delta);
+            return delta;
+        });
+
+        // Flush early from the background thread once enough players are pending
+        if ((pending.size() >= flushSize || pendingMatchups.size() >= flushSize)
+                && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * Write all pending deltas to the database
+     * Flushes are serialised so deltas for the same player are always applied in order.
+     * Deltas from a failed bulk write are merged back and retried on the next flush.
+     * @return Number of players written
+     */
+    public synchronized int flush() {
+        flushRequested.set(false);
+        int written = flushPlayers();
+        runSettleTasks();
+        return written;
+    }
+
+    private int flushPlayers() {
+        flushMatchups();
+        weaponsFlushed.addAndGet(WeaponStatsEngine.getInstance().flush(flushSize));
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        int written = 0;
+        List<PlayerKey> keys = new ArrayList<>(pending.keySet());
+
+        for (int start = 0; start < keys.size(); start += flushSize) {
+            List<PlayerKey> batchKeys = keys.subList(start, Math.min(keys.size(), start + flushSize));
+            Map<PlayerKey, PlayerDelta> batch = new HashMap<>();
+            List<WriteModel<Player>> models = new ArrayList<>(batchKeys.size());
+
+            for (PlayerKey key : batchKeys) {
+                PlayerDelta delta = pending.remove(key);
+                if (delta != null) {
+                    batch.put(key, delta);
+                    models.add(toUpdate(key, delta));
+                }
+            }
+
+            if (models.isEmpty()) {
+                continue;
+            }
+
+            if (playerRepository.bulkWrite(models)) {
+                written += models.size();
+                bulkWrites.incrementAndGet();
+                playersFlushed.addAndGet(models.size());
+            } else {
+                failedBulkWrites.incrementAndGet();
+                // Put the deltas back in front of anything recorded since they were taken
+                batch.forEach((key, delta) -> pending.merge(key, delta, (newer, older) -> older.then(newer)));
+                logger.warn("Player stats bulk write failed, {} players re-queued", batch.size());
+                break;
+            }
+        }
+
+        if (written > 0) {
+            logger.debug("Flushed stats for {} players", written);
+        }
+        return written;
+    }
+
+    /**
+     * Run the tasks of servers whose deltas are all written, keeping the ones that did not complete
+     */
+    private void runSettleTasks() {
+        for (Map.Entry<ServerKey, BooleanSupplier> entry : settleTasks.entrySet()) {
+            ServerKey server = entry.getKey();
+            if (!isSettled(server.guildId, server.serverId)) {
+                continue;
+            }
+            try {
+                if (entry.getValue().getAsBoolean()) {
+                    settleTasks.remove(server, entry.getValue());
+                }
+            } catch (Exception e) {
+                logger.error("Error running settle task for server {} (Guild={}): {}",
+                        server.serverId, server.guildId, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Write pending head-to-head counts as $inc upserts, re-queueing a batch that fails
+     */
+    private void flushMatchups() {
+        if (pendingMatchups.isEmpty()) {
+            return;
+        }
+
+        List<MatchupKey> keys = new ArrayList<>(pendingMatchups.keySet());
+        for (int start = 0; start < keys.size(); start += flushSize) {
+            List<MatchupKey> batchKeys = keys.subList(start, Math.min(keys.size(), start + flushSize));
+            Map<MatchupKey, MatchupDelta> batch = new HashMap<>();
+            List<WriteModel<Matchup>> models = new ArrayList<>(batchKeys.size());
+
+            for (MatchupKey key : batchKeys) {
+                MatchupDelta delta = pendingMatchups.remove(key);
+                if (delta != null) {
+                    batch.put(key, delta);
+                    models.add(toUpdate(key, delta));
+                }
+            }
+
+            if (matchupRepository.bulkWrite(models)) {
+                matchupsFlushed.addAndGet(models.size());
+            } else {
+                batch.forEach((key, delta) -> pendingMatchups.merge(key, delta, MatchupDelta::merge));
+                logger.warn("Matchup bulk write failed, {} matchups re-queued", batch.size());
+                break;
+            }
+        }
+    }
+
+    private UpdateOneModel<Matchup> toUpdate(MatchupKey key, MatchupDelta delta) {
+        Bson filter = delta.stamp.guard(Filters.and(
+                Filters.eq("guildId", key.guildId),
+                Filters.eq("serverId", key.serverId),
+                Filters.eq("killerId", key.killerId),
+                Filters.eq("victimId", key.victimId)));
+
+        List<Bson> updates = new ArrayList<>(Arrays.asList(
+                Updates.inc("kills", delta.kills),
+                Updates.max("lastKill", delta.lastKill),
+                Updates.set("killerName", delta.killerName),
+                Updates.set("victimName", delta.victimName)));
+        delta.stamp.appendTo(updates);
+        return new UpdateOneModel<>(filter, Updates.combine(updates), new UpdateOptions().upsert(true));
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Error flushing player stats: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Build the upsert for one player
+     * A pipeline update is used so streaks and longest shots can be combined with the stored values
+     */
+    private UpdateOneModel<Player> toUpdate(PlayerKey key, PlayerDelta delta) {
+        Bson filter = delta.stamp.guard(Filters.and(
+                Filters.eq("deadsideId", key.playerId),
+                Filters.eq("guildId", key.guildId),
+                Filters.eq("serverId", key.serverId)));
+
+        Document counters = new Document()
+                .append("playerId", literal(key.playerId))
+                .append("deadsideId", literal(key.playerId))
+                .append("name", literal(delta.name))
+                .append("guildId", key.guildId)
+                .append("serverId", literal(key.serverId))
+                .append("lastUpdated", System.currentTimeMillis());
+
+        delta.stamp.appendTo(counters);
+        if (delta.kills > 0) {
+            counters.append("kills", add("kills", delta.kills));
+        }
+        if (delta.deaths > 0) {
+            counters.append("deaths", add("deaths", delta.deaths));
+        }
+        if (delta.suicides > 0) {
+            counters.append("suicides", add("suicides", delta.suicides));
+        }
+        for (Map.Entry<String, Integer> weapon : delta.weaponKills.entrySet()) {
+            String path = "weaponKills." + weapon.getKey();
+            counters.append(path, add(path, weapon.getValue()));
+        }
+
+        // Streak runs: kills carried onto the stored streak, then runs that started after a death
+        if (delta.leadingKills > 0 || delta.died) {
+            Document storedPlusLeading = add("currentKillStreak", delta.leadingKills);
+            counters.append("longestKillStreak", new Document("$max", Arrays.asList(
+                    orZero("longestKillStreak"), storedPlusLeading, delta.peakKills)));
+            counters.append("currentKillStreak", delta.died ? delta.trailingKills : storedPlusLeading);
+        }
+
+        if (delta.longestDistance > 0) {
+            Document longer = new Document("$gt", Arrays.asList(delta.longestDistance, orZero("longestKillDistance")));
+            counters.append("longestKillDistance", new Document("$max",
+                    Arrays.asList(orZero("longestKillDistance"), delta.longestDistance)));
+            counters.append("longestKillVictim", pick(longer, delta.longestVictim, "longestKillVictim"));
+            counters.append("longestKillWeapon", pick(longer, delta.longestWeapon, "longestKillWeapon"));
+        }
+
+        List<Bson> pipeline = new ArrayList<>();
+        pipeline.add(new Document("$set", counters));
+
+        // Most used weapon only moves when a weapon overtakes it, evaluated after the counts above
+        for (String weapon : delta.weaponKills.keySet()) {
+            String path = "$weaponKills." + weapon;
+            Document overtakes = new Document("$gt", Arrays.asList(path, orZero("mostUsedWeaponKills")));
+            pipeline.add(new Document("$set", new Document()
+                    .append("mostUsedWeapon", pick(overtakes, weapon, "mostUsedWeapon"))
+                    .append("mostUsedWeaponKills", new Document("$max",
+                            Arrays.asList(orZero("mostUsedWeaponKills"), path)))));
+        }
+
+        return new UpdateOneModel<>(filter, pipeline, new UpdateOptions().upsert(true));
+    }
+
+    private static Document orZero(String field) {
+        return new Document("$ifNull", Arrays.asList("$" + field, 0));
+    }
+
+    private static Document add(String field, int amount) {
+        return new Document("$add", Arrays.asList(orZero(field), amount));
+    }
+
+    private static Document pick(Document condition, String value, String currentField) {
+        return new Document("$cond", Arrays.asList(condition, literal(value),
+                new Document("$ifNull", Arrays.asList("$" + currentField, ""))));
+    }
+
+    /**
+     * Player-supplied strings are wrapped so a leading '$' is not read as a field path
+     */
+    private static Document literal(String value) {
+        return new Document("$literal", value);
+    }
+
+    /**
+     * Map keys cannot contain dots or start with '$' in update paths
+     */
+    private static String weaponKey(String weapon) {
+        String key = weapon.replace('.', '_');
+        return key.startsWith("$") ? "_" + key.substring(1) : key;
+    }
+
+    /**
+     * Number of players with unflushed stats
+     */
+    public int getPendingCount() {
+        return pending.size() + pendingMatchups.size() + WeaponStatsEngine.getInstance().getPendingCount();
+    }
+
+    /**
+     * Get a one-line summary of aggregator activity since startup
+     */
+    public String getStatusSummary() {
+        return String.format("events=%d, playersFlushed=%d, matchupsFlushed=%d, weaponsFlushed=%d, bulkWrites=%d, failedBulkWrites=%d, pending=%d",
+                eventsRecorded.get(), playersFlushed.get(), matchupsFlushed.get(), weaponsFlushed.get(), bulkWrites.get(),
+                failedBulkWrites.get(), pending.size());
+    }
+
+    /**
+     * Flush remaining stats and stop the timer
+     */
+    public void shutdown() {
+        flusher.shutdown();
+        flushQuietly();
+        logger.info("Player stats aggregator stopped ({})", getStatusSummary());
+    }
+
+    /**
+     * Ingestion batch a thread is recording for one server
+     */
+    private static final class Batch {
+        private final long guildId;
+        private final String serverId;
+        private final IngestStamp stamp;
+        // Collections that already have the batch, whose in-memory views must not count it again
+        private final boolean replayPlayers;
+        private final boolean replayMatchups;
+        private final boolean replayWeapons;
+
+        Batch(long guildId, String serverId, IngestStamp stamp,
+              boolean replayPlayers, boolean replayMatchups, boolean replayWeapons) {
+            this.guildId = guildId;
+            this.serverId = serverId;
+            this.stamp = stamp;
+            this.replayPlayers = replayPlayers;
+            this.replayMatchups = replayMatchups;
+            this.replayWeapons = replayWeapons;
+        }
+
+        boolean isReplay() {
+            return replayPlayers || replayMatchups || replayWeapons;
+        }
+    }
+
+    /**
+     * Identity of a game server within its guild
+     */
+    private static final class ServerKey {
+        private final long guildId;
+        private final String serverId;
+
+        ServerKey(long guildId, String serverId) {
+            this.guildId = guildId;
+            this.serverId = serverId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ServerKey)) return false;
+            ServerKey other = (ServerKey) o;
+            return guildId == other.guildId && Objects.equals(serverId, other.serverId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(guildId, serverId);
+        }
+    }
+
+    /**
+     * Identity of a player's stats document
+     */
+    private static final class PlayerKey {
+        private final long guildId;
+        private final String serverId;
+        private final String playerId;
+
+        PlayerKey(long guildId, String serverId, String playerId) {
+            this.guildId = guildId;
+            this.serverId = serverId;
+            this.playerId = playerId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PlayerKey)) return false;
+            PlayerKey other = (PlayerKey) o;
+            return guildId == other.guildId
+                    && Objects.equals(serverId, other.serverId)
+                    && Objects.equals(playerId, other.playerId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(guildId, serverId, playerId);
+        }
+    }
+
+    /**
+     * Identity of a head-to-head matchup document
+     */
+    private static final class MatchupKey {
+        private final long guildId;
+        private final String serverId;
+        private final String killerId;
+        private final String victimId;
+
+        MatchupKey(long guildId, String serverId, String killerId, String victimId) {
+            this.guildId = guildId;
+            this.serverId = serverId;
+            this.killerId = killerId;
+            this.victimId = victimId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof MatchupKey)) return false;
+            MatchupKey other = (MatchupKey) o;
+            return guildId == other.guildId
+                    && Objects.equals(serverId, other.serverId)
+                    && Objects.equals(killerId, other.killerId)
+                    && Objects.equals(victimId, other.victimId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(guildId, serverId, killerId, victimId);
+        }
+    }
+
+    /**
+     * Unflushed kills of one killer against one victim
+     */
+    private static final class MatchupDelta {
+        private String killerName;
+        private String victimName;
+        private int kills;
+        private long lastKill;
+        private IngestStamp stamp = IngestStamp.NONE;
+
+        void add(String killerName, String victimName, long timestamp) {
+            this.killerName = killerName;
+            this.victimName = victimName;
+            kills++;
+            lastKill = Math.max(lastKill, timestamp);
+        }
+
+        /**
+         * Combine a delta that failed to write with one recorded since
+         */
+        static MatchupDelta merge(MatchupDelta newer, MatchupDelta older) {
+            newer.kills += older.kills;
+            newer.lastKill = Math.max(newer.lastKill, older.lastKill);
+            newer.stamp = newer.stamp.merge(older.stamp);
+            return newer;
+        }
+    }
+
+    /**
+     * Unflushed changes for one player
+     * Kill streaks are tracked as runs: kills before the first death extend the stored streak,
+     * the streak after the last death becomes the new current streak, and peakKills is the
+     * longest run that started after a death within this delta.
+     */
+    private static final class PlayerDelta {
+        private String name;
+        private int kills;
+        private int deaths;
+        private int suicides;
+        private final Map<String, Integer> weaponKills = new HashMap<>();
+        private boolean died;
+        private int leadingKills;
+        private int trailingKills;
+        private int peakKills;
+        private int longestDistance;
+        private String longestVictim = "";
+        private String longestWeapon = "";
+        private IngestStamp stamp = IngestStamp.NONE;
+
+        void addKill(String weapon, int distance, String victimName) {
+            kills++;
+            if (weapon != null && !weapon.isEmpty()) {
+                weaponKills.merge(weaponKey(weapon), 1, Integer::sum);
+            }
+            if (died) {
+                trailingKills++;
+                peakKills = Math.max(peakKills, trailingKills);
+            } else {
+                leadingKills++;
+            }
+            if (distance > longestDistance) {
+                longestDistance = distance;
+                longestVictim = victimName;
+                longestWeapon = weapon != null ? weapon : "";
+            }
+        }
+
+        void addDeath() {
+            deaths++;
+            died = true;
+            trailingKills = 0;
+        }
+
+        void addSuicide() {
+            suicides++;
+            addDeath();
+        }
+
+        /**
+         * Combine this delta with one recorded after it
+         */
+        PlayerDelta then(PlayerDelta newer) {
+            PlayerDelta merged = new PlayerDelta();
+            merged.name = newer.name;
+            merged.stamp = stamp.merge(newer.stamp);
+            merged.kills = kills + newer.kills;
+            merged.deaths = deaths + newer.deaths;
+            merged.suicides = suicides + newer.suicides;
+            merged.weaponKills.putAll(weaponKills);
+            newer.weaponKills.forEach((weapon, count) -> merged.weaponKills.merge(weapon, count, Integer::sum));
+
+            if (!died) {
+                merged.leadingKills = leadingKills + newer.leadingKills;
+                merged.died = newer.died;
+                merged.trailingKills = newer.trailingKills;
+                merged.peakKills = newer.peakKills;
+            } else {
+                merged.leadingKills = leadingKills;
+                merged.died = true;
+                int bridged = trailingKills + newer.leadingKills;
+                merged.trailingKills = newer.died ? newer.trailingKills : bridged;
+                merged.peakKills = Math.max(Math.max(peakKills, bridged), newer.peakKills);
+            }
+
+            boolean newerLonger = newer.longestDistance > longestDistance;
+            merged.longestDistance = newerLonger ? newer.longestDistance : longestDistance;
+            merged.longestVictim = newerLonger ? newer.longestVictim : longestVictim;
+            merged.longestWeapon = newerLonger ? newer.longestWeapon : longestWeapon;
+            return merged;
+        }
+    }
+}
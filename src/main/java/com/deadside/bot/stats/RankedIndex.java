@@ -0,0 +1,152 @@
+package com.deadside.bot.stats;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * Order-statistic tree of values ranked by a score, highest first
+ * A treap with subtree sizes: insert, remove and rank are O(log n) expected, and the top N
+ * are read in O(log n + N). Ties on score are ordered by id so every entry has a unique position.
+ * Not thread-safe; callers synchronise.
+ */
+final class RankedIndex<T> {
+    private Node<T> root;
+
+    /**
+     * Add a value with its score; the id must not already be present with this score
+     */
+    void insert(String id, double score, T value) {
+        Node<T> node = new Node<>(id, score, value);
+        Node<T>[] parts = split(root, id, score, false);
+        root = merge(merge(parts[0], node), parts[1]);
+    }
+
+    /**
+     * Remove the value stored under this id and score
+     */
+    void remove(String id, double score) {
+        Node<T>[] below = split(root, id, score, false);
+        Node<T>[] rest = split(below[1], id, score, true);
+        root = merge(below[0], rest[1]);
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * Number of entries with a score strictly higher than the given one
+     */
+    int countAbove(double score) {
+        int count = 0;
+        Node<T> node = root;
+        while (node != null) {
+            if (node.score > score) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Collect the highest-ranked values that pass a filter, in rank order
+     */
+    void top(int limit, Predicate<T> filter, List<T> into) {
+        Deque<Node<T>> stack = new ArrayDeque<>();
+        Node<T> node = root;
+        int found = 0;
+
+        while ((node != null || !stack.isEmpty()) && found < limit) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+            node = stack.pop();
+            if (filter.test(node.value)) {
+                into.add(node.value);
+                found++;
+            }
+            node = node.right;
+        }
+    }
+
+    /**
+     * Split into entries ordered before the key and the rest
+     * @param inclusive Whether the key itself goes to the left part
+     */
+    private static <T> Node<T>[] split(Node<T> node, String id, double score, boolean inclusive) {
+        if (node == null) {
+            return pair(null, null);
+        }
+
+        int order = compare(node.score, node.id, score, id);
+        if (order < 0 || (inclusive && order == 0)) {
+            Node<T>[] parts = split(node.right, id, score, inclusive);
+            node.right = parts[0];
+            node.update();
+            return pair(node, parts[1]);
+        }
+
+        Node<T>[] parts = split(node.left, id, score, inclusive);
+        node.left = parts[1];
+        node.update();
+        return pair(parts[0], node);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T>[] pair(Node<T> left, Node<T> right) {
+        return (Node<T>[]) new Node<?>[]{left, right};
+    }
+
+    private static <T> Node<T> merge(Node<T> left, Node<T> right) {
+        if (left == null) return right;
+        if (right == null) return left;
+
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    /**
+     * Rank order: higher score first, then id
+     */
+    private static int compare(double scoreA, String idA, double scoreB, String idB) {
+        int order = Double.compare(scoreB, scoreA);
+        return order != 0 ? order : idA.compareTo(idB);
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static final class Node<T> {
+        private final String id;
+        private final double score;
+        private final T value;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private int size = 1;
+        private Node<T> left;
+        private Node<T> right;
+
+        private Node(String id, double score, T value) {
+            this.id = id;
+            this.score = score;
+            this.value = value;
+        }
+
+        private void update() {
+            size = 1 + size(left) + size(right);
+        }
+    }
+}
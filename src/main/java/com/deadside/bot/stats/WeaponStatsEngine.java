@@ -0,0 +1,850 @@
+package com.deadside.bot.stats;
+
+import com.deadside.bot.db.models.WeaponStats;
+import com.deadside.bot.db.repositories.WeaponStatsRepository;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Weapon statistics per (guildId, serverId, weapon), maintained incrementally from the kill stream
+ *
+ * Every weapon keeps its kill count, a fixed set of distance buckets (for percentiles), the longest
+ * shot, kills per player with a running top 10, and kills per day for the last 30 days. Queries
+ * only read these pre-aggregated values, so they cost the same however many kill records exist.
+ * State is loaded from the weapon_stats collection at startup and changes are written back in
+ * bulk from {@link PlayerStatsAggregator}'s flush.
+ */
+public class WeaponStatsEngine {
+    private static final Logger logger = LoggerFactory.getLogger(WeaponStatsEngine.class);
+    private static WeaponStatsEngine instance;
+
+    /**
+     * Upper bounds (exclusive, metres) of the distance buckets; the last bucket is open-ended
+     */
+    static final int[] DISTANCE_BOUNDS = {10, 25, 50, 100, 200, 300, 500, 750, 1000};
+    private static final int BUCKETS = DISTANCE_BOUNDS.length + 1;
+
+    /**
+     * Players kept in each weapon's top users
+     */
+    public static final int TOP_USERS = 10;
+
+    /**
+     * Days of per-day kill counts kept, the longest rolling window that can be queried
+     */
+    public static final int WINDOW_DAYS = 30;
+
+    private static final DateTimeFormatter DAY_KEY = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final ConcurrentHashMap<BoardKey, Board> boards = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<WeaponKey, WeaponDelta> pending = new ConcurrentHashMap<>();
+    private final WeaponStatsRepository repository;
+    private volatile boolean ready = false;
+
+    private WeaponStatsEngine() {
+        this.repository = new WeaponStatsRepository();
+    }
+
+    public static synchronized WeaponStatsEngine getInstance() {
+        if (instance == null) {
+            instance = new WeaponStatsEngine();
+        }
+        return instance;
+    }
+
+    /**
+     * Load every weapon from the database, replacing what is in memory
+     * Run before ingestion starts; kills recorded while a rebuild runs may be missed.
+     */
+    public void rebuild(WeaponStatsRepository weaponStatsRepository) {
+        long start = System.currentTimeMillis();
+        Map<BoardKey, Board> loaded = new HashMap<>();
+
+        try {
+            int[] count = {0};
+            weaponStatsRepository.forEachWeapon(stats -> {
+                if (stats.getServerId() == null || stats.getWeapon() == null || stats.getKills() <= 0) {
+                    return;
+                }
+                BoardKey key = new BoardKey(stats.getGuildId(), stats.getServerId());
+                loaded.computeIfAbsent(key, k -> new Board()).load(stats);
+                count[0]++;
+            });
+
+            boards.clear();
+            boards.putAll(loaded);
+            ready = true;
+            logger.info("Loaded stats for {} weapons on {} servers in {} ms",
+                    count[0], loaded.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            ready = false;
+            logger.error("Failed to load weapon statistics", e);
+        }
+    }
+
+    /**
+     * Reload the weapons of some guilds, leaving every other guild as it is
+     * Used when this node takes over the shard of those guilds from another node.
+     */
+    public void reload(WeaponStatsRepository weaponStatsRepository, Collection<Long> guildIds) {
+        long start = System.currentTimeMillis();
+        Map<BoardKey, Board> loaded = new HashMap<>();
+
+        try {
+            int[] count = {0};
+            weaponStatsRepository.forEachWeapon(guildIds, stats -> {
+                if (stats.getServerId() == null || stats.getWeapon() == null || stats.getKills() <= 0) {
+                    return;
+                }
+                BoardKey key = new BoardKey(stats.getGuildId(), stats.getServerId());
+                loaded.computeIfAbsent(key, k -> new Board()).load(stats);
+                count[0]++;
+            });
+
+            boards.keySet().removeIf(key -> guildIds.contains(key.getGuildId()));
+            boards.putAll(loaded);
+            logger.info("Reloaded stats for {} weapons of {} guilds in {} ms",
+                    count[0], guildIds.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Failed to reload weapons of guilds {}", guildIds, e);
+        }
+    }
+
+    /**
+     * Whether weapon statistics have been loaded and can answer queries
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Apply one kill
+     * @param timestamp When the kill happened, for the rolling windows
+     */
+    public void recordKill(long guildId, String serverId, String killerId, String killerName,
+                           String weapon, int distance, long timestamp) {
+        recordKill(guildId, serverId, killerId, killerName, weapon, distance, timestamp, IngestStamp.NONE, true);
+    }
+
+    /**
+     * Record a kill that is part of an ingestion batch; called from {@link PlayerStatsAggregator}
+     * @param stamp Batch stamped on the weapon document, {@link IngestStamp#NONE} outside a batch
+     * @param updateBoard False when replaying a batch the in-memory board may already contain
+     */
+    void recordKill(long guildId, String serverId, String killerId, String killerName,
+                    String weapon, int distance, long timestamp, IngestStamp stamp, boolean updateBoard) {
+        if (weapon == null || weapon.isEmpty() || killerId == null) {
+            return;
+        }
+
+        int meters = Math.max(0, distance);
+        long day = TimeUnit.MILLISECONDS.toDays(timestamp);
+        if (updateBoard) {
+            boards.computeIfAbsent(new BoardKey(guildId, serverId), k -> new Board())
+                    .recordKill(weapon, killerId, killerName, meters, day);
+        }
+
+        pending.compute(new WeaponKey(guildId, serverId, weapon), (k, delta) -> {
+            if (delta == null) {
+                delta = new WeaponDelta();
+            }
+            delta.add(killerId, killerName, meters, day);
+            delta.stamp = delta.stamp.merge(stamp);
+            return delta;
+        });
+    }
+
+    /**
+     * Drop the statistics of a server whose data was deleted
+     */
+    public void removeBoard(long guildId, String serverId) {
+        boards.remove(new BoardKey(guildId, serverId));
+        pending.keySet().removeIf(key -> key.guildId == guildId && Objects.equals(key.serverId, serverId));
+    }
+
+    /**
+     * Statistics of one weapon (case-insensitive)
+     * @param serverId The game server, or null to combine every server of the guild
+     * @return The statistics, or null if the weapon has no kills there
+     */
+    public WeaponSummary getWeapon(long guildId, String serverId, String weapon) {
+        long today = today();
+        Summarizer summarizer = new Summarizer(today);
+        for (Board board : boardsOf(guildId, serverId)) {
+            board.summarize(weapon.toLowerCase(Locale.ROOT), summarizer);
+        }
+        return summarizer.build();
+    }
+
+    /**
+     * Weapons ordered by total kills, most used first
+     * @param serverId The game server, or null to combine every server of the guild
+     */
+    public List<WeaponSummary> getTopWeapons(long guildId, String serverId, int limit) {
+        List<String> names = getWeaponNames(guildId, serverId);
+        List<WeaponSummary> top = new ArrayList<>(Math.min(limit, names.size()));
+        for (String weapon : names.subList(0, Math.min(limit, names.size()))) {
+            top.add(getWeapon(guildId, serverId, weapon));
+        }
+        return top;
+    }
+
+    /**
+     * Names of every weapon with kills, most used first, for autocomplete
+     * @param serverId The game server, or null for every server of the guild
+     */
+    public List<String> getWeaponNames(long guildId, String serverId) {
+        Map<String, String> names = new HashMap<>();
+        Map<String, Integer> kills = new HashMap<>();
+        for (Board board : boardsOf(guildId, serverId)) {
+            board.weaponKills(names, kills);
+        }
+
+        List<String> weapons = new ArrayList<>(kills.keySet());
+        weapons.sort(Comparator.comparing((String key) -> kills.get(key)).reversed().thenComparing(key -> key));
+        List<String> result = new ArrayList<>(weapons.size());
+        for (String key : weapons) {
+            result.add(names.get(key));
+        }
+        return result;
+    }
+
+    private List<Board> boardsOf(long guildId, String serverId) {
+        List<Board> result = new ArrayList<>();
+        if (serverId != null) {
+            Board board = boards.get(new BoardKey(guildId, serverId));
+            if (board != null) {
+                result.add(board);
+            }
+            return result;
+        }
+
+        boards.forEach((key, board) -> {
+            if (key.getGuildId() == guildId) {
+                result.add(board);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Write pending weapon deltas; called from {@link PlayerStatsAggregator#flush()}
+     * Deltas from a failed bulk write are merged back and retried on the next flush.
+     * @return Number of weapons written
+     */
+    int flush(int batchSize) {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        int written = 0;
+        long today = today();
+        List<WeaponKey> keys = new ArrayList<>(pending.keySet());
+
+        for (int start = 0; start < keys.size(); start += batchSize) {
+            List<WeaponKey> batchKeys = keys.subList(start, Math.min(keys.size(), start + batchSize));
+            Map<WeaponKey, WeaponDelta> batch = new HashMap<>();
+            List<WriteModel<WeaponStats>> models = new ArrayList<>(batchKeys.size());
+
+            for (WeaponKey key : batchKeys) {
+                WeaponDelta delta = pending.remove(key);
+                if (delta != null) {
+                    batch.put(key, delta);
+                    models.add(toUpdate(key, delta, today));
+                }
+            }
+
+            if (repository.bulkWrite(models)) {
+                written += models.size();
+            } else {
+                batch.forEach((key, delta) -> pending.merge(key, delta, WeaponDelta::merge));
+                logger.warn("Weapon stats bulk write failed, {} weapons re-queued", batch.size());
+                break;
+            }
+        }
+        return written;
+    }
+
+    int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Whether a server has unflushed weapon deltas
+     */
+    boolean hasPending(long guildId, String serverId) {
+        for (WeaponKey key : pending.keySet()) {
+            if (key.guildId == guildId && Objects.equals(key.serverId, serverId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Build the upsert for one weapon
+     * A pipeline update is used so the longest shot's player only changes when the shot is longer
+     */
+    private static UpdateOneModel<WeaponStats> toUpdate(WeaponKey key, WeaponDelta delta, long today) {
+        Bson filter = delta.stamp.guard(Filters.and(
+                Filters.eq("guildId", key.guildId),
+                Filters.eq("serverId", key.serverId),
+                Filters.eq("weapon", key.weapon)));
+
+        Document counters = new Document()
+                .append("guildId", key.guildId)
+                .append("serverId", literal(key.serverId))
+                .append("weapon", literal(key.weapon))
+                .append("kills", add("kills", delta.kills))
+                .append("distanceSum", add("distanceSum", delta.distanceSum))
+                .append("lastUpdated", System.currentTimeMillis());
+
+        delta.stamp.appendTo(counters);
+        for (int i = 0; i < BUCKETS; i++) {
+            if (delta.buckets[i] > 0) {
+                String path = "distanceBuckets." + i;
+                counters.append(path, add(path, delta.buckets[i]));
+            }
+        }
+        for (Map.Entry<String, Integer> user : delta.userKills.entrySet()) {
+            String id = fieldKey(user.getKey());
+            counters.append("userKills." + id, add("userKills." + id, user.getValue()));
+            counters.append("userNames." + id, literal(delta.userNames.get(user.getKey())));
+        }
+        for (Map.Entry<Long, Integer> day : delta.dailyKills.entrySet()) {
+            if (day.getKey() > today - WINDOW_DAYS) {
+                String path = "dailyKills." + dayKey(day.getKey());
+                counters.append(path, add(path, day.getValue()));
+            }
+        }
+
+        if (delta.longest > 0) {
+            Document longer = new Document("$gt", Arrays.asList(delta.longest, orZero("longestKill")));
+            counters.append("longestKill", new Document("$max", Arrays.asList(orZero("longestKill"), delta.longest)));
+            counters.append("longestKillPlayerId", new Document("$cond", Arrays.asList(longer,
+                    literal(delta.longestPlayerId), new Document("$ifNull", Arrays.asList("$longestKillPlayerId", "")))));
+        }
+
+        List<Bson> pipeline = new ArrayList<>();
+        pipeline.add(new Document("$set", counters));
+
+        // Drop per-day counts that left the window; yyyyMMdd keys compare in date order
+        Document recentDays = new Document("$filter", new Document()
+                .append("input", new Document("$objectToArray", new Document("$ifNull", Arrays.asList("$dailyKills", new Document()))))
+                .append("cond", new Document("$gte", Arrays.asList("$$this.k", dayKey(today - WINDOW_DAYS + 1)))));
+        pipeline.add(new Document("$set", new Document("dailyKills", new Document("$arrayToObject", recentDays))));
+
+        return new UpdateOneModel<>(filter, pipeline, new UpdateOptions().upsert(true));
+    }
+
+    private static Document orZero(String field) {
+        return new Document("$ifNull", Arrays.asList("$" + field, 0));
+    }
+
+    private static Document add(String field, long amount) {
+        return new Document("$add", Arrays.asList(orZero(field), amount));
+    }
+
+    private static Document literal(String value) {
+        return new Document("$literal", value);
+    }
+
+    /**
+     * Map keys cannot contain dots or start with '$' in update paths
+     */
+    private static String fieldKey(String key) {
+        String safe = key.replace('.', '_');
+        return safe.startsWith("$") ? "_" + safe.substring(1) : safe;
+    }
+
+    private static String dayKey(long epochDay) {
+        return LocalDate.ofEpochDay(epochDay).format(DAY_KEY);
+    }
+
+    private static long today() {
+        return LocalDate.now(ZoneOffset.UTC).toEpochDay();
+    }
+
+    /**
+     * Distance bucket of a kill
+     */
+    static int bucketOf(int meters) {
+        for (int i = 0; i < DISTANCE_BOUNDS.length; i++) {
+            if (meters < DISTANCE_BOUNDS[i]) {
+                return i;
+            }
+        }
+        return DISTANCE_BOUNDS.length;
+    }
+
+    /**
+     * Statistics of one weapon, a snapshot
+     */
+    public static final class WeaponSummary {
+        private String weapon;
+        private int kills;
+        private double averageDistance;
+        private int medianDistance;
+        private int p90Distance;
+        private int longestKill;
+        private String longestKillPlayer;
+        private int kills7d;
+        private int kills30d;
+        private double share7d;
+        private double share30d;
+        private int popularityRank;
+        private int weaponCount;
+        private int[] distanceBuckets;
+        private List<MatchupIndex.Opponent> topUsers;
+
+        public String getWeapon() {
+            return weapon;
+        }
+
+        public int getKills() {
+            return kills;
+        }
+
+        public double getAverageDistance() {
+            return averageDistance;
+        }
+
+        /**
+         * Estimated 50th percentile kill distance in metres
+         */
+        public int getMedianDistance() {
+            return medianDistance;
+        }
+
+        /**
+         * Estimated 90th percentile kill distance in metres
+         */
+        public int getP90Distance() {
+            return p90Distance;
+        }
+
+        public int getLongestKill() {
+            return longestKill;
+        }
+
+        public String getLongestKillPlayer() {
+            return longestKillPlayer;
+        }
+
+        public int getKills7d() {
+            return kills7d;
+        }
+
+        public int getKills30d() {
+            return kills30d;
+        }
+
+        /**
+         * Share of all kills in the last 7 days made with this weapon, 0-100
+         */
+        public double getShare7d() {
+            return share7d;
+        }
+
+        /**
+         * Share of all kills in the last 30 days made with this weapon, 0-100
+         */
+        public double getShare30d() {
+            return share30d;
+        }
+
+        /**
+         * Position among all weapons by total kills, 1 is the most used
+         */
+        public int getPopularityRank() {
+            return popularityRank;
+        }
+
+        public int getWeaponCount() {
+            return weaponCount;
+        }
+
+        /**
+         * Kills per distance bucket, bounded by {@link #getBucketLabel(int)}
+         */
+        public int[] getDistanceBuckets() {
+            return distanceBuckets.clone();
+        }
+
+        /**
+         * Players with the most kills using this weapon (kills counted with this weapon only)
+         */
+        public List<MatchupIndex.Opponent> getTopUsers() {
+            return topUsers;
+        }
+
+        public static String getBucketLabel(int bucket) {
+            if (bucket >= DISTANCE_BOUNDS.length) {
+                return DISTANCE_BOUNDS[DISTANCE_BOUNDS.length - 1] + "m+";
+            }
+            int lower = bucket == 0 ? 0 : DISTANCE_BOUNDS[bucket - 1];
+            return lower + "-" + DISTANCE_BOUNDS[bucket] + "m";
+        }
+    }
+
+    /**
+     * Combines one weapon's tallies across one or more servers into a summary
+     */
+    private static final class Summarizer {
+        private final long today;
+        private final int[] buckets = new int[BUCKETS];
+        private final List<MatchupIndex.Opponent> users = new ArrayList<>();
+        private String weapon;
+        private int kills;
+        private long distanceSum;
+        private int longest;
+        private String longestPlayer;
+        private int kills7d;
+        private int kills30d;
+        private int allKills7d;
+        private int allKills30d;
+        private int weaponsAhead;
+        private int weaponCount;
+
+        private Summarizer(long today) {
+            this.today = today;
+        }
+
+        private WeaponSummary build() {
+            if (weapon == null || kills == 0) {
+                return null;
+            }
+
+            WeaponSummary summary = new WeaponSummary();
+            summary.weapon = weapon;
+            summary.kills = kills;
+            summary.averageDistance = (double) distanceSum / kills;
+            summary.medianDistance = percentile(0.5);
+            summary.p90Distance = percentile(0.9);
+            summary.longestKill = longest;
+            summary.longestKillPlayer = longestPlayer != null ? longestPlayer : "Unknown";
+            summary.kills7d = kills7d;
+            summary.kills30d = kills30d;
+            summary.share7d = allKills7d > 0 ? kills7d * 100.0 / allKills7d : 0;
+            summary.share30d = allKills30d > 0 ? kills30d * 100.0 / allKills30d : 0;
+            summary.popularityRank = weaponsAhead + 1;
+            summary.weaponCount = weaponCount;
+            summary.distanceBuckets = buckets.clone();
+
+            users.sort(Comparator.comparingInt(MatchupIndex.Opponent::getKills).reversed());
+            summary.topUsers = new ArrayList<>(users.subList(0, Math.min(TOP_USERS, users.size())));
+            return summary;
+        }
+
+        /**
+         * Percentile estimate, interpolated linearly inside the bucket that holds it
+         */
+        private int percentile(double fraction) {
+            long target = Math.max(1, (long) Math.ceil(fraction * kills));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                if (buckets[i] > 0 && seen + buckets[i] >= target) {
+                    int lower = i == 0 ? 0 : DISTANCE_BOUNDS[i - 1];
+                    int upper = i < DISTANCE_BOUNDS.length ? DISTANCE_BOUNDS[i] : Math.max(longest, lower);
+                    double position = (double) (target - seen) / buckets[i];
+                    return (int) Math.min(longest, Math.round(lower + position * (upper - lower)));
+                }
+                seen += buckets[i];
+            }
+            return longest;
+        }
+    }
+
+    /**
+     * Weapon statistics of one game server
+     */
+    private static final class Board {
+        private final Map<String, WeaponTally> weapons = new HashMap<>();
+        private final Map<String, String> playerNames = new HashMap<>();
+        private final DayCounts allKills = new DayCounts();
+
+        synchronized void load(WeaponStats stats) {
+            WeaponTally tally = weapons.computeIfAbsent(stats.getWeapon().toLowerCase(Locale.ROOT),
+                    k -> new WeaponTally(stats.getWeapon()));
+            tally.kills += stats.getKills();
+            tally.distanceSum += stats.getDistanceSum();
+            if (stats.getLongestKill() > tally.longest) {
+                tally.longest = stats.getLongestKill();
+                tally.longestPlayerId = stats.getLongestKillPlayerId();
+            }
+            stats.getDistanceBuckets().forEach((bucket, count) -> {
+                try {
+                    int index = Integer.parseInt(bucket);
+                    if (index >= 0 && index < BUCKETS) {
+                        tally.buckets[index] += count;
+                    }
+                } catch (NumberFormatException e) {
+                    // Not a bucket written by this engine
+                }
+            });
+            stats.getUserKills().forEach((playerId, count) -> tally.users.add(playerId, count));
+            stats.getUserNames().forEach(playerNames::putIfAbsent);
+            stats.getDailyKills().forEach((day, count) -> {
+                try {
+                    long epochDay = LocalDate.parse(day, DAY_KEY).toEpochDay();
+                    tally.daily.add(epochDay, count);
+                    allKills.add(epochDay, count);
+                } catch (Exception e) {
+                    // Not a day written by this engine
+                }
+            });
+            tally.rebuildTopUsers();
+        }
+
+        synchronized void recordKill(String weapon, String killerId, String killerName, int meters, long day) {
+            WeaponTally tally = weapons.computeIfAbsent(weapon.toLowerCase(Locale.ROOT), k -> new WeaponTally(weapon));
+            tally.kills++;
+            tally.distanceSum += meters;
+            tally.buckets[bucketOf(meters)]++;
+            if (meters > tally.longest) {
+                tally.longest = meters;
+                tally.longestPlayerId = killerId;
+            }
+            tally.users.add(killerId, 1);
+            tally.userKilled(killerId);
+            tally.daily.add(day, 1);
+            allKills.add(day, 1);
+            if (killerName != null && !killerName.isEmpty()) {
+                playerNames.put(killerId, killerName);
+            }
+        }
+
+        synchronized void summarize(String weaponKey, Summarizer summarizer) {
+            WeaponTally tally = weapons.get(weaponKey);
+            summarizer.allKills7d += allKills.sum(summarizer.today, 7);
+            summarizer.allKills30d += allKills.sum(summarizer.today, WINDOW_DAYS);
+            summarizer.weaponCount = Math.max(summarizer.weaponCount, weapons.size());
+            if (tally == null) {
+                return;
+            }
+
+            // Rank among this server's weapons; with several servers the best rank is kept
+            int ahead = 0;
+            for (WeaponTally other : weapons.values()) {
+                if (other.kills > tally.kills) {
+                    ahead++;
+                }
+            }
+            summarizer.weaponsAhead = summarizer.weapon == null ? ahead : Math.min(summarizer.weaponsAhead, ahead);
+
+            summarizer.weapon = tally.name;
+            summarizer.kills += tally.kills;
+            summarizer.distanceSum += tally.distanceSum;
+            for (int i = 0; i < BUCKETS; i++) {
+                summarizer.buckets[i] += tally.buckets[i];
+            }
+            if (tally.longest > summarizer.longest) {
+                summarizer.longest = tally.longest;
+                summarizer.longestPlayer = nameOf(tally.longestPlayerId);
+            }
+            summarizer.kills7d += tally.daily.sum(summarizer.today, 7);
+            summarizer.kills30d += tally.daily.sum(summarizer.today, WINDOW_DAYS);
+            for (String playerId : tally.topUsers) {
+                summarizer.users.add(new MatchupIndex.Opponent(playerId, nameOf(playerId), tally.users.get(playerId)));
+            }
+        }
+
+        synchronized void weaponKills(Map<String, String> names, Map<String, Integer> kills) {
+            weapons.forEach((key, tally) -> {
+                names.putIfAbsent(key, tally.name);
+                kills.merge(key, tally.kills, Integer::sum);
+            });
+        }
+
+        private String nameOf(String playerId) {
+            if (playerId == null) {
+                return "Unknown";
+            }
+            return playerNames.getOrDefault(playerId, playerId);
+        }
+    }
+
+    /**
+     * Running statistics of one weapon on one server
+     */
+    private static final class WeaponTally {
+        private final String name;
+        private final int[] buckets = new int[BUCKETS];
+        private final PairCounts users = new PairCounts();
+        private final DayCounts daily = new DayCounts();
+        // Best users first; kill counts only grow, so a player can only enter at the bottom
+        private final List<String> topUsers = new ArrayList<>(TOP_USERS + 1);
+        private int kills;
+        private long distanceSum;
+        private int longest;
+        private String longestPlayerId;
+
+        private WeaponTally(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Move a player whose kill count just went up to their place in the top users
+         */
+        private void userKilled(String playerId) {
+            int count = users.get(playerId);
+            int index = topUsers.indexOf(playerId);
+            if (index < 0) {
+                if (topUsers.size() < TOP_USERS) {
+                    topUsers.add(playerId);
+                } else if (count > users.get(topUsers.get(TOP_USERS - 1))) {
+                    topUsers.set(TOP_USERS - 1, playerId);
+                } else {
+                    return;
+                }
+                index = topUsers.size() - 1;
+            }
+
+            while (index > 0 && users.get(topUsers.get(index - 1)) < count) {
+                topUsers.set(index, topUsers.get(index - 1));
+                topUsers.set(index - 1, playerId);
+                index--;
+            }
+        }
+
+        private void rebuildTopUsers() {
+            List<String> all = new ArrayList<>(users.size());
+            users.forEach((playerId, count) -> all.add(playerId));
+            all.sort(Comparator.comparingInt(users::get).reversed());
+            topUsers.clear();
+            topUsers.addAll(all.subList(0, Math.min(TOP_USERS, all.size())));
+        }
+    }
+
+    /**
+     * Kill counts for the last {@link #WINDOW_DAYS} days in a ring indexed by epoch day
+     */
+    private static final class DayCounts {
+        private final long[] days = new long[WINDOW_DAYS];
+        private final int[] counts = new int[WINDOW_DAYS];
+
+        void add(long day, int count) {
+            int slot = (int) Math.floorMod(day, (long) WINDOW_DAYS);
+            if (days[slot] == day) {
+                counts[slot] += count;
+            } else if (days[slot] < day) {
+                days[slot] = day;
+                counts[slot] = count;
+            }
+            // Otherwise the day is older than what the slot already holds and out of the window
+        }
+
+        /**
+         * Kills in the last `window` days, today included
+         */
+        int sum(long today, int window) {
+            int total = 0;
+            for (long day = today - Math.min(window, WINDOW_DAYS) + 1; day <= today; day++) {
+                int slot = (int) Math.floorMod(day, (long) WINDOW_DAYS);
+                if (days[slot] == day) {
+                    total += counts[slot];
+                }
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Identity of a weapon statistics document
+     */
+    private static final class WeaponKey {
+        private final long guildId;
+        private final String serverId;
+        private final String weapon;
+
+        WeaponKey(long guildId, String serverId, String weapon) {
+            this.guildId = guildId;
+            this.serverId = serverId;
+            this.weapon = weapon;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof WeaponKey)) return false;
+            WeaponKey other = (WeaponKey) o;
+            return guildId == other.guildId
+                    && Objects.equals(serverId, other.serverId)
+                    && Objects.equals(weapon, other.weapon);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(guildId, serverId, weapon);
+        }
+    }
+
+    /**
+     * Unflushed kills with one weapon
+     */
+    private static final class WeaponDelta {
+        private final int[] buckets = new int[BUCKETS];
+        private final Map<String, Integer> userKills = new HashMap<>();
+        private final Map<String, String> userNames = new HashMap<>();
+        private final Map<Long, Integer> dailyKills = new HashMap<>();
+        private int kills;
+        private long distanceSum;
+        private int longest;
+        private String longestPlayerId;
+        private IngestStamp stamp = IngestStamp.NONE;
+
+        void add(String killerId, String killerName, int meters, long day) {
+            kills++;
+            distanceSum += meters;
+            buckets[bucketOf(meters)]++;
+            userKills.merge(killerId, 1, Integer::sum);
+            userNames.put(killerId, killerName != null ? killerName : "");
+            dailyKills.merge(day, 1, Integer::sum);
+            if (meters > longest) {
+                longest = meters;
+                longestPlayerId = killerId;
+            }
+        }
+
+        /**
+         * Combine a delta that failed to write with one recorded since
+         */
+        static WeaponDelta merge(WeaponDelta newer, WeaponDelta older) {
+            newer.kills += older.kills;
+            newer.distanceSum += older.distanceSum;
+            newer.stamp = newer.stamp.merge(older.stamp);
+            for (int i = 0; i < BUCKETS; i++) {
+                newer.buckets[i] += older.buckets[i];
+            }
+            older.userKills.forEach((id, count) -> newer.userKills.merge(id, count, Integer::sum));
+            older.userNames.forEach(newer.userNames::putIfAbsent);
+            older.dailyKills.forEach((day, count) -> newer.dailyKills.merge(day, count, Integer::sum));
+            if (older.longest > newer.longest) {
+                newer.longest = older.longest;
+                newer.longestPlayerId = older.longestPlayerId;
+            }
+            return newer;
+        }
+    }
+}
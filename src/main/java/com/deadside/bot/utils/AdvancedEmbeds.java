@@ -27,6 +27,26 @@ public class AdvancedEmbeds {
     // Standard footer text
     private static final String STANDARD_FOOTER = "Powered By Discord.gg/EmeraldServers";
     
+    // Precompiled styling and wording, built once rather than per event
+    private static final EmbedTemplate DEATH_TEMPLATE = new EmbedTemplate(DARK_GRAY, EmbedUtils.KILLFEED_ICON, STANDARD_FOOTER);
+    private static final EmbedTemplate LEADERBOARD_TEMPLATE = new EmbedTemplate(EMERALD_GREEN, EmbedUtils.WEAPON_STATS_ICON, STANDARD_FOOTER);
+    private static final String[] KILL_TITLES = {
+        "SURVIVAL OF THE FITTEST",
+        "FATAL CONFRONTATION",
+        "DEADSIDE ELIMINATION",
+        "WASTELAND JUSTICE",
+        "COMBAT REPORT"
+    };
+    private static final String[] KILL_MESSAGES = {
+        "No mercy in these badlands.",
+        "Another one bites the dust.",
+        "The strong survive, the weak perish.",
+        "Life is cheap in the zone.",
+        "Swift and merciless execution."
+    };
+    private static final java.time.format.DateTimeFormatter KILL_TIME_FORMAT =
+            java.time.format.DateTimeFormatter.ofPattern("MM/dd/yyyy hh:mm a");
+    
     /**
      * Create a sleek, minimalist killfeed embed matching the Deadside aesthetic
      * Design based on the provided screenshot for consistent styling
@@ -41,27 +61,9 @@ public class AdvancedEmbeds {
      */
     public static MessageEmbed advancedKillfeedEmbed(String killer, String victim, String weapon, 
                                                   int distance, boolean isBounty, int killStreak) {
-        // Create random dynamic titles for variety
-        String[] killTitles = {
-            "SURVIVAL OF THE FITTEST",
-            "FATAL CONFRONTATION",
-            "DEADSIDE ELIMINATION",
-            "WASTELAND JUSTICE",
-            "COMBAT REPORT"
-        };
-        
-        // Create random dynamic messages for variety
-        String[] killMessages = {
-            "No mercy in these badlands.",
-            "Another one bites the dust.",
-            "The strong survive, the weak perish.",
-            "Life is cheap in the zone.",
-            "Swift and merciless execution."
-        };
-        
         // Generate dynamic content
-        String title = killTitles[random.nextInt(killTitles.length)];
-        String message = killMessages[random.nextInt(killMessages.length)];
+        String title = KILL_TITLES[random.nextInt(KILL_TITLES.length)];
+        String message = KILL_MESSAGES[random.nextInt(KILL_MESSAGES.length)];
         
         // Base color is always emerald green - consistent with screenshot
         Color embedColor = EMERALD_GREEN;
@@ -107,8 +109,7 @@ public class AdvancedEmbeds {
         description.append("\n\nServer: Emerald EU | discord.gg/EmeraldServers | ");
         
         // Add timestamp for server-side tracking
-        java.time.format.DateTimeFormatter formatter = java.time.format.DateTimeFormatter.ofPattern("MM/dd/yyyy hh:mm a");
-        String timestamp = java.time.LocalDateTime.now().format(formatter);
+        String timestamp = java.time.LocalDateTime.now().format(KILL_TIME_FORMAT);
         description.append(timestamp);
         
         // Build the minimalist embed with the thumbnail on the right side
@@ -149,11 +150,9 @@ public class AdvancedEmbeds {
         }
         
         // Build the embed with enhanced visuals
-        EmbedBuilder embed = new EmbedBuilder()
+        EmbedBuilder embed = LEADERBOARD_TEMPLATE.builder()
                 .setTitle(title)
-                .setDescription(description)
-                .setColor(EMERALD_GREEN)
-                .setThumbnail(EmbedUtils.WEAPON_STATS_ICON);
+                .setDescription(description);
         
         // Add player entries with rank indicators
         int startRank = page * 10;
@@ -193,10 +192,6 @@ public class AdvancedEmbeds {
             embed.addField("", formattedEntry, false);
         }
         
-        // Add timestamp and footer
-        embed.setFooter(STANDARD_FOOTER)
-             .setTimestamp(Instant.now());
-        
         return embed.build();
     }
     
@@ -224,16 +219,12 @@ public class AdvancedEmbeds {
             DynamicTitles.getSuicideDescription(player);
         
         // Build the enhanced embed
-        return new EmbedBuilder()
+        return DEATH_TEMPLATE.builder()
                 .setTitle(title)
                 .setDescription(description)
-                .setColor(DARK_GRAY)
-                .setThumbnail(EmbedUtils.KILLFEED_ICON) // Use killfeed icon instead of helicrash
                 .addField("Player", player, true)
                 .addField("Cause", cause, true)
                 .addField("Location", "Unknown", true)
-                .setFooter(STANDARD_FOOTER)
-                .setTimestamp(Instant.now())
                 .build();
     }
     
@@ -260,17 +251,13 @@ public class AdvancedEmbeds {
         }
         
         // Build the enhanced embed
-        return new EmbedBuilder()
+        return DEATH_TEMPLATE.builder()
                 .setTitle(title)
                 .setDescription(description)
-                .setColor(DARK_GRAY)
-                .setThumbnail(EmbedUtils.KILLFEED_ICON) // Use killfeed icon instead of helicrash
                 .addField("Player", player, true)
                 .addField("Cause", "Falling damage", true)
                 .addField("Height", height + "m", true)
                 .addField("Severity", severity, true)
-                .setFooter(STANDARD_FOOTER)
-                .setTimestamp(Instant.now())
                 .build();
     }
     
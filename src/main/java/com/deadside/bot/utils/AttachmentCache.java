@@ -0,0 +1,206 @@
+package com.deadside.bot.utils;
+
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.utils.FileUpload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reuses the Discord CDN URLs of embed images after their first upload
+ * Embeds reference their thumbnails as attachment://Name.png, which needs the image uploaded with
+ * every message. Once a message carrying an image is sent, the URL Discord assigned to it is kept,
+ * and later embeds point at that URL instead, so the image is uploaded again only when its URL
+ * is about to expire.
+ */
+public class AttachmentCache {
+    private static final Logger logger = LoggerFactory.getLogger(AttachmentCache.class);
+    private static AttachmentCache instance;
+
+    private static final String ATTACHMENT_PREFIX = "attachment://";
+
+    // Signed CDN URLs carry their expiry as hex epoch seconds
+    private static final Pattern EXPIRY_PATTERN = Pattern.compile("[?&]ex=([0-9a-fA-F]+)");
+
+    // Stop using a URL this long before it expires, so embeds never reference a dead link
+    private static final long EXPIRY_MARGIN_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    // How long to trust a URL without an expiry
+    private static final long DEFAULT_LIFETIME_MILLIS = TimeUnit.HOURS.toMillis(12);
+
+    private final ConcurrentHashMap<String, CdnUrl> urls = new ConcurrentHashMap<>();
+
+    // Metrics
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong uploaded = new AtomicLong();
+
+    private AttachmentCache() {
+    }
+
+    public static synchronized AttachmentCache getInstance() {
+        if (instance == null) {
+            instance = new AttachmentCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Point the embeds' attachment images at known CDN URLs and upload the rest
+     * Each image missing from the cache is uploaded once per message however many embeds use it.
+     */
+    public Prepared prepare(List<MessageEmbed> embeds) {
+        List<MessageEmbed> resolved = new ArrayList<>(embeds.size());
+        Set<String> missing = new LinkedHashSet<>();
+        long now = System.currentTimeMillis();
+
+        for (MessageEmbed embed : embeds) {
+            resolved.add(resolve(embed, missing, now));
+        }
+
+        List<FileUpload> uploads = new ArrayList<>(missing.size());
+        for (String filename : missing) {
+            FileUpload upload = ResourceManager.getImageAsFileUpload(filename);
+            if (upload != null) {
+                uploads.add(upload);
+                uploaded.incrementAndGet();
+            } else {
+                logger.warn("Failed to create FileUpload for: {}", filename);
+            }
+        }
+        return new Prepared(resolved, uploads);
+    }
+
+    public Prepared prepare(MessageEmbed embed) {
+        return prepare(List.of(embed));
+    }
+
+    private MessageEmbed resolve(MessageEmbed embed, Set<String> missing, long now) {
+        String thumbnail = embed.getThumbnail() != null ? embed.getThumbnail().getUrl() : null;
+        String image = embed.getImage() != null ? embed.getImage().getUrl() : null;
+        String authorIcon = embed.getAuthor() != null ? embed.getAuthor().getIconUrl() : null;
+        String footerIcon = embed.getFooter() != null ? embed.getFooter().getIconUrl() : null;
+
+        String thumbnailUrl = lookup(thumbnail, missing, now);
+        String imageUrl = lookup(image, missing, now);
+        String authorIconUrl = lookup(authorIcon, missing, now);
+        String footerIconUrl = lookup(footerIcon, missing, now);
+
+        if (thumbnailUrl == null && imageUrl == null && authorIconUrl == null && footerIconUrl == null) {
+            return embed;
+        }
+
+        EmbedBuilder builder = new EmbedBuilder(embed);
+        if (thumbnailUrl != null) {
+            builder.setThumbnail(thumbnailUrl);
+        }
+        if (imageUrl != null) {
+            builder.setImage(imageUrl);
+        }
+        if (authorIconUrl != null) {
+            builder.setAuthor(embed.getAuthor().getName(), embed.getAuthor().getUrl(), authorIconUrl);
+        }
+        if (footerIconUrl != null) {
+            builder.setFooter(embed.getFooter().getText(), footerIconUrl);
+        }
+        return builder.build();
+    }
+
+    /**
+     * The CDN URL to use for an attachment reference, or null to leave it as it is
+     */
+    private String lookup(String url, Set<String> missing, long now) {
+        if (url == null || !url.startsWith(ATTACHMENT_PREFIX)) {
+            return null;
+        }
+
+        String filename = url.substring(ATTACHMENT_PREFIX.length());
+        CdnUrl cached = urls.get(filename);
+        if (cached != null && cached.usableUntil > now) {
+            reused.incrementAndGet();
+            return cached.url;
+        }
+
+        missing.add(filename);
+        return null;
+    }
+
+    /**
+     * Remember the CDN URLs of the images a sent message uploaded
+     */
+    public void remember(Message message) {
+        for (Message.Attachment attachment : message.getAttachments()) {
+            if (attachment.isImage()) {
+                urls.put(attachment.getFileName(), new CdnUrl(attachment.getUrl(), usableUntil(attachment.getUrl())));
+            }
+        }
+    }
+
+    private static long usableUntil(String url) {
+        Matcher matcher = EXPIRY_PATTERN.matcher(url);
+        if (matcher.find()) {
+            try {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(matcher.group(1), 16)) - EXPIRY_MARGIN_MILLIS;
+            } catch (NumberFormatException e) {
+                // Fall through to the default lifetime
+            }
+        }
+        return System.currentTimeMillis() + DEFAULT_LIFETIME_MILLIS;
+    }
+
+    /**
+     * Get a one-line summary of image reuse since startup
+     */
+    public String getStatusSummary() {
+        return String.format("images=%d, reused=%d, uploaded=%d", urls.size(), reused.get(), uploaded.get());
+    }
+
+    /**
+     * Embeds ready to send and the images that still have to be uploaded with them
+     */
+    public static final class Prepared {
+        private final List<MessageEmbed> embeds;
+        private final List<FileUpload> uploads;
+
+        private Prepared(List<MessageEmbed> embeds, List<FileUpload> uploads) {
+            this.embeds = embeds;
+            this.uploads = uploads;
+        }
+
+        public List<MessageEmbed> getEmbeds() {
+            return embeds;
+        }
+
+        public MessageEmbed getEmbed() {
+            return embeds.get(0);
+        }
+
+        public List<FileUpload> getUploads() {
+            return uploads;
+        }
+
+        public boolean hasUploads() {
+            return !uploads.isEmpty();
+        }
+    }
+
+    private static final class CdnUrl {
+        private final String url;
+        private final long usableUntil;
+
+        private CdnUrl(String url, long usableUntil) {
+            this.url = url;
+            this.usableUntil = usableUntil;
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.deadside.bot.utils;
+
+import com.deadside.bot.config.Config;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Batched sender for killfeed and log channel embeds
+ *
+ * Embeds are buffered per channel for a short linger window and sent up to 10 per message.
+ * Each channel has at most one message in flight, so a burst never queues more than one request
+ * on the channel's rate-limit bucket; whatever arrives meanwhile is packed into the next message,
+ * and a backlog above the summary threshold collapses into a single summary embed. Embeds with a
+ * coalesce key replace the pending embed with the same key. When a channel's buffer is full,
+ * {@link #submit} blocks the calling parser until it drains or the backpressure timeout passes.
+ * Embed images are uploaded with the first message that uses them and linked by URL afterwards.
+ */
+public class EmbedDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(EmbedDispatcher.class);
+    private static EmbedDispatcher instance;
+
+    // Characters kept per event in a summary embed
+    private static final int SUMMARY_LINE_LENGTH = 120;
+
+    private final ConcurrentHashMap<Long, ChannelBuffer> buffers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer;
+    private final long lingerMillis;
+    private final int summaryThreshold;
+    private final int maxPending;
+    private final long backpressureMillis;
+
+    // Metrics
+    private final AtomicLong embedsQueued = new AtomicLong();
+    private final AtomicLong embedsCoalesced = new AtomicLong();
+    private final AtomicLong embedsDropped = new AtomicLong();
+    private final AtomicLong messagesSent = new AtomicLong();
+    private final AtomicLong summariesSent = new AtomicLong();
+    private final AtomicLong failedMessages = new AtomicLong();
+
+    private EmbedDispatcher() {
+        Config config = Config.getInstance();
+        this.lingerMillis = config.getDispatchLingerMillis();
+        this.summaryThreshold = config.getDispatchSummaryThreshold();
+        this.maxPending = Math.max(config.getDispatchMaxPending(), summaryThreshold);
+        this.backpressureMillis = TimeUnit.SECONDS.toMillis(config.getDispatchBackpressureTimeout());
+
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "embed-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        logger.info("Embed dispatcher started (linger: {} ms, summary above: {} embeds, max pending per channel: {})",
+                lingerMillis, summaryThreshold, maxPending);
+    }
+
+    public static synchronized EmbedDispatcher getInstance() {
+        if (instance == null) {
+            instance = new EmbedDispatcher();
+        }
+        return instance;
+    }
+
+    /**
+     * Queue an embed for a channel
+     */
+    public void submit(MessageChannel channel, MessageEmbed embed) {
+        submit(channel, null, embed);
+    }
+
+    /**
+     * Queue an embed for a channel, replacing a pending embed with the same key
+     * @param coalesceKey Key of the embed within the channel (e.g. a player's presence), or null
+     */
+    public void submit(MessageChannel channel, String coalesceKey, MessageEmbed embed) {
+        if (channel == null || embed == null) {
+            return;
+        }
+
+        ChannelBuffer buffer = buffers.computeIfAbsent(channel.getIdLong(), id -> new ChannelBuffer());
+        synchronized (buffer) {
+            buffer.channel = channel;
+
+            Object key = coalesceKey != null ? coalesceKey : buffer.nextSequence++;
+            if (coalesceKey != null && buffer.pending.remove(key) != null) {
+                embedsCoalesced.incrementAndGet();
+            } else if (!awaitCapacity(buffer)) {
+                embedsDropped.incrementAndGet();
+                logger.warn("Embed buffer for channel {} is still full after {} ms, dropping embed",
+                        channel.getId(), backpressureMillis);
+                return;
+            }
+
+            buffer.pending.put(key, embed);
+            embedsQueued.incrementAndGet();
+
+            if (!buffer.inFlight && !buffer.scheduled) {
+                buffer.scheduled = true;
+                // A full message's worth goes out right away, otherwise wait for more to batch
+                long delay = buffer.pending.size() >= Message.MAX_EMBED_COUNT ? 0 : lingerMillis;
+                scheduleFlush(buffer, delay);
+            }
+        }
+    }
+
+    /**
+     * Wait for room in a full channel buffer; called holding the buffer's lock
+     * @return False if the buffer is still full when the backpressure timeout runs out
+     */
+    private boolean awaitCapacity(ChannelBuffer buffer) {
+        long deadline = System.currentTimeMillis() + backpressureMillis;
+        while (buffer.pending.size() >= maxPending) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            try {
+                buffer.wait(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Send the next message for a channel unless one is already in flight
+     */
+    private void flush(ChannelBuffer buffer) {
+        MessageChannel channel;
+        List<MessageEmbed> batch;
+
+        synchronized (buffer) {
+            buffer.scheduled = false;
+            if (buffer.inFlight || buffer.pending.isEmpty()) {
+                return;
+            }
+
+            channel = buffer.channel;
+            batch = takeBatch(buffer);
+            buffer.inFlight = true;
+            buffer.notifyAll();
+        }
+
+        try {
+            // Thumbnails go out as CDN links once uploaded; the first message carrying one uploads it
+            AttachmentCache.Prepared prepared = AttachmentCache.getInstance().prepare(batch);
+            channel.sendMessageEmbeds(prepared.getEmbeds()).addFiles(prepared.getUploads()).queue(
+                    message -> {
+                        if (prepared.hasUploads()) {
+                            AttachmentCache.getInstance().remember(message);
+                        }
+                        messagesSent.incrementAndGet();
+                        completed(buffer);
+                    },
+                    error -> {
+                        failedMessages.incrementAndGet();
+                        logger.error("Failed to send {} embeds to channel {}: {}",
+                                batch.size(), channel.getId(), error.getMessage());
+                        completed(buffer);
+                    });
+        } catch (Exception e) {
+            // Missing permissions and the like are thrown before the request is queued
+            failedMessages.incrementAndGet();
+            logger.error("Failed to send {} embeds to channel {}: {}", batch.size(), channel.getId(), e.getMessage());
+            completed(buffer);
+        }
+    }
+
+    /**
+     * The in-flight message finished; send what piled up meanwhile without waiting another linger
+     */
+    private void completed(ChannelBuffer buffer) {
+        synchronized (buffer) {
+            buffer.inFlight = false;
+            if (!buffer.pending.isEmpty() && !buffer.scheduled) {
+                buffer.scheduled = true;
+                scheduleFlush(buffer, 0);
+            }
+        }
+    }
+
+    private void scheduleFlush(ChannelBuffer buffer, long delayMillis) {
+        try {
+            timer.schedule(() -> flush(buffer), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            buffer.scheduled = false;
+            logger.warn("Embed dispatcher is stopped, {} embeds left unsent", buffer.pending.size());
+        }
+    }
+
+    /**
+     * Take the next message's embeds: everything as one summary when over the threshold,
+     * otherwise up to 10 embeds within Discord's combined embed length
+     */
+    private List<MessageEmbed> takeBatch(ChannelBuffer buffer) {
+        List<MessageEmbed> batch = new ArrayList<>(Message.MAX_EMBED_COUNT);
+
+        if (buffer.pending.size() > summaryThreshold) {
+            List<MessageEmbed> all = new ArrayList<>(buffer.pending.values());
+            buffer.pending.clear();
+            batch.add(summarize(all));
+            summariesSent.incrementAndGet();
+            return batch;
+        }
+
+        int length = 0;
+        Iterator<MessageEmbed> iterator = buffer.pending.values().iterator();
+        while (iterator.hasNext() && batch.size() < Message.MAX_EMBED_COUNT) {
+            MessageEmbed embed = iterator.next();
+            int embedLength = embed.getLength();
+            if (!batch.isEmpty() && length + embedLength > MessageEmbed.EMBED_MAX_LENGTH_BOT) {
+                break;
+            }
+            batch.add(embed);
+            length += embedLength;
+            iterator.remove();
+        }
+        return batch;
+    }
+
+    /**
+     * One compact embed listing a backlog of events, oldest first
+     */
+    static MessageEmbed summarize(List<MessageEmbed> embeds) {
+        // Leave room for the "and N more" line
+        int limit = MessageEmbed.DESCRIPTION_MAX_LENGTH - 64;
+        StringBuilder description = new StringBuilder();
+        int shown = 0;
+
+        for (MessageEmbed embed : embeds) {
+            String line = "• " + summaryLine(embed) + "\n";
+            if (description.length() + line.length() > limit) {
+                break;
+            }
+            description.append(line);
+            shown++;
+        }
+        if (shown < embeds.size()) {
+            description.append("…and ").append(embeds.size() - shown).append(" more");
+        }
+
+        MessageEmbed first = embeds.get(0);
+        EmbedBuilder builder = new EmbedBuilder()
+                .setTitle(embeds.size() + " events")
+                .setDescription(description.toString())
+                .setColor(first.getColorRaw())
+                .setTimestamp(Instant.now());
+        if (first.getFooter() != null) {
+            builder.setFooter(first.getFooter().getText(), null);
+        }
+        return builder.build();
+    }
+
+    /**
+     * An event as one line: its description, or its title when it has none
+     */
+    private static String summaryLine(MessageEmbed embed) {
+        String text = embed.getDescription() != null && !embed.getDescription().isBlank()
+                ? embed.getDescription() : embed.getTitle();
+        if (text == null) {
+            return "Event";
+        }
+
+        text = text.replace("\n", " — ").trim();
+        return text.length() > SUMMARY_LINE_LENGTH ? text.substring(0, SUMMARY_LINE_LENGTH - 1) + "…" : text;
+    }
+
+    /**
+     * Number of embeds waiting to be sent across all channels
+     */
+    public int getPendingCount() {
+        int count = 0;
+        for (ChannelBuffer buffer : buffers.values()) {
+            synchronized (buffer) {
+                count += buffer.pending.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get a one-line summary of dispatcher activity since startup
+     */
+    public String getStatusSummary() {
+        return String.format("queued=%d, coalesced=%d, dropped=%d, messages=%d, summaries=%d, failed=%d, pending=%d",
+                embedsQueued.get(), embedsCoalesced.get(), embedsDropped.get(), messagesSent.get(),
+                summariesSent.get(), failedMessages.get(), getPendingCount());
+    }
+
+    /**
+     * Send what is buffered without waiting for the linger window, then stop the timer
+     * Must run before JDA shuts down so the queued messages can still go out.
+     */
+    public void shutdown() {
+        for (ChannelBuffer buffer : buffers.values()) {
+            timer.execute(() -> flush(buffer));
+        }
+        timer.shutdown();
+        try {
+            timer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Embed dispatcher stopped ({}; images: {})", getStatusSummary(),
+                AttachmentCache.getInstance().getStatusSummary());
+    }
+
+    /**
+     * Embeds waiting for one channel, in arrival order
+     */
+    private static final class ChannelBuffer {
+        private final Map<Object, MessageEmbed> pending = new LinkedHashMap<>();
+        private MessageChannel channel;
+        private long nextSequence;
+        private boolean inFlight;
+        private boolean scheduled;
+    }
+}
@@ -2,9 +2,10 @@ package com.deadside.bot.utils;
 
 import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.interactions.InteractionHook;
-import net.dv8tion.jda.api.utils.FileUpload;
 import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
 import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -15,8 +16,10 @@ import java.util.regex.Pattern;
 /**
  * Utility class for sending embeds with file attachments for thumbnails
  * Enhanced with Deadside themed styling enforcement
+ * Thumbnails already uploaded once are referenced by their CDN URL through the {@link AttachmentCache}.
  */
 public class EmbedSender {
+    private static final Logger logger = LoggerFactory.getLogger(EmbedSender.class);
     private static final Pattern ATTACHMENT_PATTERN = Pattern.compile("attachment://([\\w\\d.]+)");
     
     // Standard Deadside footer
@@ -35,11 +38,8 @@ public class EmbedSender {
         // Check thumbnail - critical for right-side display
         if (embed.getThumbnail() != null && embed.getThumbnail().getUrl() != null) {
             String url = embed.getThumbnail().getUrl();
-            // Debug the thumbnail URL to help diagnose issues
-            System.out.println("Thumbnail URL found: " + url);
             if (url.startsWith("attachment://")) {
                 String filename = url.substring("attachment://".length());
-                System.out.println("Extracted thumbnail filename: " + filename);
                 filenames.add(filename);
             }
         }
@@ -91,70 +91,60 @@ public class EmbedSender {
      * @return CompletableFuture for the sent message
      */
     public static CompletableFuture<?> sendEmbed(MessageChannel channel, MessageEmbed embed) {
-        // Apply Deadside themed styling
-        MessageEmbed styledEmbed = ensureDeadsideStyling(embed);
+        AttachmentCache cache = AttachmentCache.getInstance();
+        AttachmentCache.Prepared prepared = cache.prepare(ensureDeadsideStyling(embed));
         
-        // Extract all attachment filenames from the embed's URLs
-        List<String> filenames = extractAttachmentFilenames(styledEmbed);
-        System.out.println("Found " + filenames.size() + " attachments in embed: " + 
-                           (filenames.isEmpty() ? "none" : String.join(", ", filenames)));
-        
-        if (filenames.isEmpty()) {
-            // No attachments needed, just send the embed
-            return channel.sendMessageEmbeds(styledEmbed).submit();
-        } else {
-            // Create file uploads for each attachment
-            List<FileUpload> uploads = new ArrayList<>();
-            
-            for (String filename : filenames) {
-                FileUpload upload = ResourceManager.getImageAsFileUpload(filename);
-                if (upload != null) {
-                    uploads.add(upload);
-                } else {
-                    System.err.println("Failed to create FileUpload for: " + filename);
-                }
-            }
-            
-            if (uploads.isEmpty()) {
-                // If we couldn't create any file uploads, send without attachments
-                System.err.println("No valid file uploads could be created, sending embed without attachments");
-                return channel.sendMessageEmbeds(styledEmbed).submit();
-            } else {
-                // Send the embed with all valid file uploads
-                return channel.sendMessageEmbeds(styledEmbed)
-                        .addFiles(uploads.toArray(new FileUpload[0]))
-                        .submit();
-            }
+        if (!prepared.hasUploads()) {
+            return channel.sendMessageEmbeds(prepared.getEmbed()).submit();
         }
+        
+        // Remember where Discord put the images so the next embeds can link them
+        return channel.sendMessageEmbeds(prepared.getEmbed())
+                .addFiles(prepared.getUploads())
+                .submit()
+                .thenApply(message -> {
+                    cache.remember(message);
+                    return message;
+                });
     }
     
     /**
      * Ensure an embed follows Deadside themed styling
-     * Adds the required Deadside styling elements to any embed that's missing them
+     * Adds the required Deadside styling elements to any embed that's missing them;
+     * embeds that already have them, such as those from an {@link EmbedTemplate}, are returned as they are
      * 
      * @param embed The original embed
      * @return A styled embed with Deadside theming
      */
     public static MessageEmbed ensureDeadsideStyling(MessageEmbed embed) {
+        boolean needsFooter = embed.getFooter() == null || embed.getFooter().getText() == null
+                || !embed.getFooter().getText().contains("EmeraldServers");
+        boolean needsTimestamp = embed.getTimestamp() == null;
+        boolean needsColor = embed.getColorRaw() == net.dv8tion.jda.api.entities.Role.DEFAULT_COLOR_RAW;
+        boolean needsThumbnail = embed.getThumbnail() == null;
+        if (!needsFooter && !needsTimestamp && !needsColor && !needsThumbnail) {
+            return embed;
+        }
+        
         net.dv8tion.jda.api.EmbedBuilder builder = new net.dv8tion.jda.api.EmbedBuilder(embed);
         
         // Ensure footer contains standard text
-        if (embed.getFooter() == null || !embed.getFooter().getText().contains("EmeraldServers")) {
+        if (needsFooter) {
             builder.setFooter(STANDARD_FOOTER);
         }
         
         // Ensure timestamp is set
-        if (embed.getTimestamp() == null) {
+        if (needsTimestamp) {
             builder.setTimestamp(java.time.Instant.now());
         }
         
         // Ensure color is set (default to Deadside emerald green if not)
-        if (embed.getColorRaw() == 0) {
+        if (needsColor) {
             builder.setColor(EmbedUtils.EMERALD_GREEN);
         }
         
         // Ensure thumbnail is set if missing
-        if (embed.getThumbnail() == null) {
+        if (needsThumbnail) {
             builder.setThumbnail(ResourceManager.getAttachmentString(ResourceManager.MAIN_LOGO));
         }
         
@@ -171,42 +161,13 @@ public class EmbedSender {
      * @param ephemeral Whether the reply should be ephemeral
      */
     public static void replyEmbed(IReplyCallback interaction, MessageEmbed embed, boolean ephemeral) {
-        // Apply Deadside themed styling
-        MessageEmbed styledEmbed = ensureDeadsideStyling(embed);
-        
-        // Extract all attachment filenames from the embed's URLs
-        List<String> filenames = extractAttachmentFilenames(styledEmbed);
-        System.out.println("Found " + filenames.size() + " attachments in reply embed: " + 
-                           (filenames.isEmpty() ? "none" : String.join(", ", filenames)));
+        AttachmentCache.Prepared prepared = AttachmentCache.getInstance().prepare(ensureDeadsideStyling(embed));
         
-        if (filenames.isEmpty()) {
-            // No attachments needed, just send the embed
-            interaction.replyEmbeds(styledEmbed).setEphemeral(ephemeral).queue();
-        } else {
-            // Create file uploads for each attachment
-            List<FileUpload> uploads = new ArrayList<>();
-            
-            for (String filename : filenames) {
-                FileUpload upload = ResourceManager.getImageAsFileUpload(filename);
-                if (upload != null) {
-                    uploads.add(upload);
-                } else {
-                    System.err.println("Failed to create FileUpload for: " + filename);
-                }
-            }
-            
-            if (uploads.isEmpty()) {
-                // If we couldn't create any file uploads, send without attachments
-                System.err.println("No valid file uploads could be created, sending embed without attachments");
-                interaction.replyEmbeds(styledEmbed).setEphemeral(ephemeral).queue();
-            } else {
-                // Send the embed with all valid file uploads
-                interaction.replyEmbeds(styledEmbed)
-                        .addFiles(uploads.toArray(new FileUpload[0]))
-                        .setEphemeral(ephemeral)
-                        .queue();
-            }
-        }
+        // Replies return the interaction hook rather than the message, so their uploads are not remembered
+        interaction.replyEmbeds(prepared.getEmbed())
+                .addFiles(prepared.getUploads())
+                .setEphemeral(ephemeral)
+                .queue(null, error -> logger.warn("Failed to reply with embed: {}", error.getMessage()));
     }
     
     /**
@@ -218,40 +179,22 @@ public class EmbedSender {
      * @param embed The embed to send
      */
     public static void sendEmbed(InteractionHook hook, MessageEmbed embed) {
-        // Apply Deadside themed styling
-        MessageEmbed styledEmbed = ensureDeadsideStyling(embed);
-        
-        // Extract all attachment filenames from the embed's URLs
-        List<String> filenames = extractAttachmentFilenames(styledEmbed);
-        System.out.println("Found " + filenames.size() + " attachments in hook embed: " + 
-                           (filenames.isEmpty() ? "none" : String.join(", ", filenames)));
+        AttachmentCache cache = AttachmentCache.getInstance();
+        AttachmentCache.Prepared prepared = cache.prepare(ensureDeadsideStyling(embed));
         
-        if (filenames.isEmpty()) {
-            // No attachments needed, just send the embed
-            hook.sendMessageEmbeds(styledEmbed).queue();
-        } else {
-            // Create file uploads for each attachment
-            List<FileUpload> uploads = new ArrayList<>();
-            
-            for (String filename : filenames) {
-                FileUpload upload = ResourceManager.getImageAsFileUpload(filename);
-                if (upload != null) {
-                    uploads.add(upload);
-                } else {
-                    System.err.println("Failed to create FileUpload for: " + filename);
-                }
-            }
-            
-            if (uploads.isEmpty()) {
-                // If we couldn't create any file uploads, send without attachments
-                System.err.println("No valid file uploads could be created, sending embed without attachments");
-                hook.sendMessageEmbeds(styledEmbed).queue();
-            } else {
-                // Send the embed with all valid file uploads
-                hook.sendMessageEmbeds(styledEmbed)
-                        .addFiles(uploads.toArray(new FileUpload[0]))
-                        .queue();
-            }
+        if (!prepared.hasUploads()) {
+            hook.sendMessageEmbeds(prepared.getEmbed()).queue(null,
+                    error -> logger.warn("Failed to send embed: {}", error.getMessage()));
+            return;
         }
+        
+        hook.sendMessageEmbeds(prepared.getEmbed())
+                .addFiles(prepared.getUploads())
+                .queue(message -> {
+                    // Ephemeral follow-ups are only visible to one user, so their images are not shared
+                    if (!message.isEphemeral()) {
+                        cache.remember(message);
+                    }
+                }, error -> logger.warn("Failed to send embed: {}", error.getMessage()));
     }
-}
\ No newline at end of file
+}
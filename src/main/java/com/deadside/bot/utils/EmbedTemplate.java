@@ -0,0 +1,47 @@
+package com.deadside.bot.utils;
+
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+
+import java.awt.Color;
+import java.time.Instant;
+
+/**
+ * Precompiled styling for one kind of Deadside embed
+ * The color, thumbnail and footer are built into a prototype embed once; each embed made from the
+ * template copies the prototype and only sets its own content and timestamp. Embeds made this way
+ * already carry the full Deadside styling, so {@link EmbedSender#ensureDeadsideStyling} passes them
+ * through without rebuilding them.
+ */
+public final class EmbedTemplate {
+    private final MessageEmbed prototype;
+
+    public EmbedTemplate(Color color, String thumbnailUrl, String footer) {
+        this(color, thumbnailUrl, footer, null);
+    }
+
+    public EmbedTemplate(Color color, String thumbnailUrl, String footer, String footerIconUrl) {
+        this.prototype = new EmbedBuilder()
+                .setColor(color)
+                .setThumbnail(thumbnailUrl)
+                .setFooter(footer, footerIconUrl)
+                .build();
+    }
+
+    /**
+     * A builder with the template's styling and the current timestamp
+     */
+    public EmbedBuilder builder() {
+        return new EmbedBuilder(prototype).setTimestamp(Instant.now());
+    }
+
+    /**
+     * Build an embed with the template's styling
+     */
+    public MessageEmbed build(String title, String description) {
+        return builder()
+                .setTitle(title)
+                .setDescription(description)
+                .build();
+    }
+}
@@ -57,6 +57,41 @@ public class EmbedThemes {
     private static final String TRADER_LOGO = ResourceManager.getAttachmentString(ResourceManager.TRADER_ICON);
     private static final String FACTION_LOGO = ResourceManager.getAttachmentString(ResourceManager.FACTION_ICON);
     private static final String CONNECTIONS_LOGO = ResourceManager.getAttachmentString(ResourceManager.CONNECTIONS_ICON);
+    private static final String AIRDROP_LOGO = ResourceManager.getAttachmentString(ResourceManager.AIRDROP_ICON);
+    private static final String WEAPON_STATS_LOGO = ResourceManager.getAttachmentString(ResourceManager.WEAPON_STATS_ICON);
+    
+    // Precompiled styling for each embed type
+    private static final EmbedTemplate EVENT_TEMPLATE = new EmbedTemplate(EVENT_COLOR, MISSION_LOGO, DEFAULT_FOOTER);
+    private static final EmbedTemplate KILL_TEMPLATE = new EmbedTemplate(KILL_COLOR, KILLFEED_LOGO, DEFAULT_FOOTER);
+    private static final EmbedTemplate DEATH_TEMPLATE = new EmbedTemplate(DEATH_COLOR, HELICRASH_LOGO, DEFAULT_FOOTER);
+    private static final EmbedTemplate JOIN_TEMPLATE = new EmbedTemplate(JOIN_COLOR, CONNECTIONS_LOGO, DEFAULT_FOOTER);
+    private static final EmbedTemplate LEAVE_TEMPLATE = new EmbedTemplate(LEAVE_COLOR, CONNECTIONS_LOGO, DEFAULT_FOOTER);
+    private static final EmbedTemplate SUCCESS_TEMPLATE = new EmbedTemplate(DEADSIDE_SUCCESS, MISSION_LOGO, DEFAULT_FOOTER);
+    private static final EmbedTemplate WARNING_TEMPLATE = new EmbedTemplate(DEADSIDE_WARNING, BOUNTY_LOGO, DEFAULT_FOOTER);
+    private static final EmbedTemplate ERROR_TEMPLATE = new EmbedTemplate(DEADSIDE_ERROR, HELICRASH_LOGO, DEFAULT_FOOTER);
+    private static final EmbedTemplate INFO_TEMPLATE = new EmbedTemplate(DEADSIDE_INFO, CONNECTIONS_LOGO, DEFAULT_FOOTER);
+    private static final EmbedTemplate FACTION_TEMPLATE = new EmbedTemplate(
+            AccessibilityUtils.getAccessibleColor(SECONDARY_COLOR), FACTION_LOGO, DEFAULT_FOOTER);
+    private static final EmbedTemplate STATS_TEMPLATE = new EmbedTemplate(
+            AccessibilityUtils.getAccessibleColor(ACCENT_COLOR), WEAPON_STATS_LOGO, DEFAULT_FOOTER);
+    private static final EmbedTemplate ECONOMY_TEMPLATE = new EmbedTemplate(
+            AccessibilityUtils.getAccessibleColor(new Color(241, 196, 15)), TRADER_LOGO, DEFAULT_FOOTER); // Gold for economy
+    private static final EmbedTemplate PREMIUM_TEMPLATE = new EmbedTemplate(
+            AccessibilityUtils.getAccessibleColor(new Color(156, 89, 182)), MAIN_LOGO, DEFAULT_FOOTER); // Purple for premium
+    private static final EmbedTemplate SERVER_TEMPLATE = new EmbedTemplate(
+            AccessibilityUtils.getAccessibleColor(new Color(52, 152, 219)), CONNECTIONS_LOGO, DEFAULT_FOOTER); // Blue for server info
+    private static final EmbedTemplate AIRDROP_TEMPLATE = new EmbedTemplate(
+            AccessibilityUtils.getAccessibleColor(EVENT_COLOR), AIRDROP_LOGO, DEFAULT_FOOTER);
+    private static final EmbedTemplate MISSION_TEMPLATE = new EmbedTemplate(
+            AccessibilityUtils.getAccessibleColor(EVENT_COLOR), MISSION_LOGO, DEFAULT_FOOTER);
+    private static final EmbedTemplate HELICRASH_TEMPLATE = new EmbedTemplate(
+            AccessibilityUtils.getAccessibleColor(ERROR_COLOR), HELICRASH_LOGO, DEFAULT_FOOTER);
+    private static final EmbedTemplate BOUNTY_TEMPLATE = WARNING_TEMPLATE;
+    private static final EmbedTemplate KILLFEED_TEMPLATE = new EmbedTemplate(DEADSIDE_KILLFEED, KILLFEED_LOGO, DEFAULT_FOOTER);
+    private static final EmbedTemplate HISTORICAL_DATA_TEMPLATE = new EmbedTemplate(DEADSIDE_SUCCESS, KILLFEED_LOGO,
+            "Historical data processing complete", MAIN_LOGO);
+    private static final EmbedTemplate PROGRESS_TEMPLATE = new EmbedTemplate(DEADSIDE_INFO, KILLFEED_LOGO,
+            "Historical data processing in progress...", MAIN_LOGO);
     
     /**
      * Create a base themed embed with Deadside style
@@ -72,109 +107,64 @@ public class EmbedThemes {
      * Create an event embed (mission, airdrop, etc.)
      */
     public static MessageEmbed eventEmbed(String title, String description) {
-        return baseEmbed()
-                .setColor(EVENT_COLOR)
-                .setTitle(title)
-                .setDescription(description)
-                .setThumbnail(MISSION_LOGO)
-                .build();
+        return EVENT_TEMPLATE.build(title, description);
     }
     
     /**
      * Create a kill event embed
      */
     public static MessageEmbed killEmbed(String killer, String victim, String weapon, int distance) {
-        return baseEmbed()
-                .setColor(KILL_COLOR)
-                .setTitle("Kill Feed")
-                .setDescription(String.format("**%s** killed **%s**\nWeapon: **%s**\nDistance: **%dm**", 
-                        killer, victim, weapon, distance))
-                .setThumbnail(ResourceManager.getAttachmentString(ResourceManager.KILLFEED_ICON))
-                .build();
+        return KILL_TEMPLATE.build("Kill Feed",
+                String.format("**%s** killed **%s**\nWeapon: **%s**\nDistance: **%dm**", killer, victim, weapon, distance));
     }
     
     /**
      * Create a death event embed (suicide or environment death)
      */
     public static MessageEmbed deathEmbed(String victim, String cause) {
-        return baseEmbed()
-                .setColor(DEATH_COLOR)
-                .setTitle("Death Feed")
-                .setDescription(String.format("**%s** died from **%s**", victim, cause))
-                .setThumbnail(ResourceManager.getAttachmentString(ResourceManager.HELICRASH_ICON))
-                .build();
+        return DEATH_TEMPLATE.build("Death Feed", String.format("**%s** died from **%s**", victim, cause));
     }
     
     /**
      * Create a player join embed
      */
     public static MessageEmbed joinEmbed(String playerName) {
-        return baseEmbed()
-                .setColor(JOIN_COLOR)
-                .setTitle("Player Joined")
-                .setDescription(String.format("**%s** joined the server", playerName))
-                .setThumbnail(ResourceManager.getAttachmentString(ResourceManager.CONNECTIONS_ICON))
-                .build();
+        return JOIN_TEMPLATE.build("Player Joined", String.format("**%s** joined the server", playerName));
     }
     
     /**
      * Create a player leave embed
      */
     public static MessageEmbed leaveEmbed(String playerName) {
-        return baseEmbed()
-                .setColor(LEAVE_COLOR)
-                .setTitle("Player Left")
-                .setDescription(String.format("**%s** left the server", playerName))
-                .setThumbnail(ResourceManager.getAttachmentString(ResourceManager.CONNECTIONS_ICON))
-                .build();
+        return LEAVE_TEMPLATE.build("Player Left", String.format("**%s** left the server", playerName));
     }
     
     /**
      * Create a success embed
      */
     public static MessageEmbed successEmbed(String title, String description) {
-        return baseEmbed()
-                .setColor(DEADSIDE_SUCCESS)
-                .setTitle("✅ " + title)
-                .setDescription(description)
-                .setThumbnail(MISSION_LOGO)
-                .build();
+        return SUCCESS_TEMPLATE.build("✅ " + title, description);
     }
     
     /**
      * Create a warning embed
      */
     public static MessageEmbed warningEmbed(String title, String description) {
-        return baseEmbed()
-                .setColor(DEADSIDE_WARNING)
-                .setTitle("⚠️ " + title)
-                .setDescription(description)
-                .setThumbnail(BOUNTY_LOGO)
-                .build();
+        return WARNING_TEMPLATE.build("⚠️ " + title, description);
     }
     
     /**
      * Create an error embed
      */
     public static MessageEmbed errorEmbed(String title, String description) {
-        return baseEmbed()
-                .setColor(DEADSIDE_ERROR)
-                .setTitle("❌ " + title)
-                .setDescription(description)
-                .setThumbnail(HELICRASH_LOGO)
-                .build();
+        return ERROR_TEMPLATE.build("❌ " + title, description);
     }
     
     /**
      * Create an info embed
      */
     public static MessageEmbed infoEmbed(String title, String description) {
-        return baseEmbed()
-                .setColor(DEADSIDE_INFO)
-                .setTitle("ℹ️ " + title)
-                .setDescription(description)
-                .setThumbnail(CONNECTIONS_LOGO)
-                .build();
+        return INFO_TEMPLATE.build("ℹ️ " + title, description);
     }
     
     // Note: historicalDataEmbed method is already defined below
@@ -183,57 +173,42 @@ public class EmbedThemes {
      * Create a faction embed with Phase 3 structure enhancements
      */
     public static EmbedBuilder factionEmbed() {
-        return baseEmbed()
-                .setColor(AccessibilityUtils.getAccessibleColor(SECONDARY_COLOR))
-                .setThumbnail(ResourceManager.getAttachmentString(ResourceManager.FACTION_ICON));
+        return FACTION_TEMPLATE.builder();
     }
     
     /**
      * Create a stats embed with Phase 3 structure enhancements
      */
     public static EmbedBuilder statsEmbed() {
-        return baseEmbed()
-                .setColor(AccessibilityUtils.getAccessibleColor(ACCENT_COLOR))
-                .setThumbnail(ResourceManager.getAttachmentString(ResourceManager.WEAPON_STATS_ICON));
+        return STATS_TEMPLATE.builder();
     }
     
     /**
      * Create an economy embed with Phase 3 structure enhancements
      */
     public static EmbedBuilder economyEmbed() {
-        Color goldColor = new Color(241, 196, 15); // Gold color for economy
-        return baseEmbed()
-                .setColor(AccessibilityUtils.getAccessibleColor(goldColor))
-                .setThumbnail(ResourceManager.getAttachmentString(ResourceManager.TRADER_ICON));
+        return ECONOMY_TEMPLATE.builder();
     }
     
     /**
      * Create a premium embed with Phase 3 structure enhancements
      */
     public static EmbedBuilder premiumEmbed() {
-        Color purpleColor = new Color(156, 89, 182); // Purple color for premium
-        return baseEmbed()
-                .setColor(AccessibilityUtils.getAccessibleColor(purpleColor))
-                .setThumbnail(ResourceManager.getAttachmentString(ResourceManager.MAIN_LOGO));
+        return PREMIUM_TEMPLATE.builder();
     }
     
     /**
      * Create a server embed with Phase 3 structure enhancements
      */
     public static EmbedBuilder serverEmbed() {
-        Color blueColor = new Color(52, 152, 219); // Blue color for server info
-        return baseEmbed()
-                .setColor(AccessibilityUtils.getAccessibleColor(blueColor))
-                .setThumbnail(ResourceManager.getAttachmentString(ResourceManager.CONNECTIONS_ICON));
+        return SERVER_TEMPLATE.builder();
     }
     
     /**
      * Create an airdrop embed with Phase 3 structure enhancements
      */
     public static EmbedBuilder airdropEmbed() {
-        return baseEmbed()
-                .setColor(AccessibilityUtils.getAccessibleColor(EVENT_COLOR))
-                .setThumbnail(ResourceManager.getAttachmentString(ResourceManager.AIRDROP_ICON))
+        return AIRDROP_TEMPLATE.builder()
                 .setTitle(DynamicTitles.getAirdropTitle());
     }
     
@@ -241,9 +216,7 @@ public class EmbedThemes {
      * Create a mission embed with Phase 3 structure enhancements
      */
     public static EmbedBuilder missionEmbed() {
-        return baseEmbed()
-                .setColor(AccessibilityUtils.getAccessibleColor(EVENT_COLOR))
-                .setThumbnail(ResourceManager.getAttachmentString(ResourceManager.MISSION_ICON))
+        return MISSION_TEMPLATE.builder()
                 .setTitle(DynamicTitles.getMissionTitle());
     }
     
@@ -251,9 +224,7 @@ public class EmbedThemes {
      * Create a helicrash embed with Phase 3 structure enhancements
      */
     public static EmbedBuilder helicrashEmbed() {
-        return baseEmbed()
-                .setColor(AccessibilityUtils.getAccessibleColor(ERROR_COLOR))
-                .setThumbnail(ResourceManager.getAttachmentString(ResourceManager.HELICRASH_ICON))
+        return HELICRASH_TEMPLATE.builder()
                 .setTitle(DynamicTitles.getHelicrashTitle());
     }
     
@@ -261,51 +232,27 @@ public class EmbedThemes {
      * Create a bounty embed with consistent Phase 3 styling
      */
     public static MessageEmbed bountyEmbed(String title, String description) {
-        return baseEmbed()
-                .setColor(DEADSIDE_WARNING)
-                .setTitle("💰 " + title)
-                .setDescription(description)
-                .setThumbnail(BOUNTY_LOGO)
-                .build();
+        return BOUNTY_TEMPLATE.build("💰 " + title, description);
     }
     
     /**
      * Create a killfeed embed for historical parser
      */
     public static MessageEmbed killfeedEmbed(String title, String description) {
-        return baseEmbed()
-                .setColor(DEADSIDE_KILLFEED)
-                .setTitle("☠️ " + title)
-                .setDescription(description)
-                .setThumbnail(KILLFEED_LOGO)
-                .build();
+        return KILLFEED_TEMPLATE.build("☠️ " + title, description);
     }
     
     /**
      * Create a historical data processing embed with progress stats
      */
     public static MessageEmbed historicalDataEmbed(String title, String description) {
-        return baseEmbed()
-                .setColor(DEADSIDE_SUCCESS)
-                .setTitle("📊 " + title)
-                .setDescription(description)
-                .setThumbnail(ResourceManager.getAttachmentString(ResourceManager.KILLFEED_ICON))
-                .setFooter("Historical data processing complete", ResourceManager.getAttachmentString(ResourceManager.MAIN_LOGO))
-                .setTimestamp(Instant.now())
-                .build();
+        return HISTORICAL_DATA_TEMPLATE.build("📊 " + title, description);
     }
     
     /**
      * Create a historical processing progress embed
      */
     public static MessageEmbed progressEmbed(String title, String description) {
-        return baseEmbed()
-                .setColor(DEADSIDE_INFO)
-                .setTitle("🔄 " + title)
-                .setDescription(description)
-                .setThumbnail(ResourceManager.getAttachmentString(ResourceManager.KILLFEED_ICON))
-                .setFooter("Historical data processing in progress...", ResourceManager.getAttachmentString(ResourceManager.MAIN_LOGO))
-                .setTimestamp(Instant.now())
-                .build();
+        return PROGRESS_TEMPLATE.build("🔄 " + title, description);
     }
 }
\ No newline at end of file
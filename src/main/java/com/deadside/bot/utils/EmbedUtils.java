@@ -44,6 +44,20 @@ public class EmbedUtils {
     // Standard footer text
     public static final String STANDARD_FOOTER = "Powered By Discord.gg/EmeraldServers";
     
+    // Precompiled styling for the standard embed types
+    private static final EmbedTemplate SUCCESS_TEMPLATE = new EmbedTemplate(SUCCESS_COLOR, MAIN_LOGO, STANDARD_FOOTER);
+    private static final EmbedTemplate ERROR_TEMPLATE = new EmbedTemplate(ERROR_COLOR, MAIN_LOGO, STANDARD_FOOTER);
+    private static final EmbedTemplate INFO_TEMPLATE = new EmbedTemplate(INFO_COLOR, CONNECTIONS_ICON, STANDARD_FOOTER);
+    private static final EmbedTemplate WARNING_TEMPLATE = new EmbedTemplate(WARNING_COLOR, HELICRASH_ICON, STANDARD_FOOTER);
+    private static final EmbedTemplate FACTION_TEMPLATE = new EmbedTemplate(EMERALD_GREEN, FACTION_ICON, STANDARD_FOOTER);
+    private static final EmbedTemplate ECONOMY_TEMPLATE = new EmbedTemplate(EMERALD_GREEN, TRADER_ICON, STANDARD_FOOTER);
+    private static final EmbedTemplate EVENT_TEMPLATE = new EmbedTemplate(EMERALD_GREEN, MISSION_ICON, STANDARD_FOOTER);
+    private static final EmbedTemplate AIRDROP_TEMPLATE = new EmbedTemplate(STEEL_BLUE, AIRDROP_ICON, STANDARD_FOOTER);
+    private static final EmbedTemplate HELICRASH_TEMPLATE = new EmbedTemplate(RUST_ACCENT, HELICRASH_ICON, STANDARD_FOOTER);
+    private static final EmbedTemplate STATS_TEMPLATE = new EmbedTemplate(EMERALD_GREEN, WEAPON_STATS_ICON, STANDARD_FOOTER);
+    private static final EmbedTemplate CONNECTED_TEMPLATE = new EmbedTemplate(EMERALD_GREEN, CONNECTIONS_ICON, STANDARD_FOOTER);
+    private static final EmbedTemplate DISCONNECTED_TEMPLATE = new EmbedTemplate(DARK_GRAY, CONNECTIONS_ICON, STANDARD_FOOTER);
+    
     // Random generator for dynamic titles and messages
     private static final Random random = new Random();
     
@@ -51,69 +65,38 @@ public class EmbedUtils {
      * Create a modern success embed with Deadside themed styling
      */
     public static MessageEmbed successEmbed(String title, String description) {
-        return new EmbedBuilder()
-                .setTitle(title)
-                .setDescription(description)
-                .setColor(SUCCESS_COLOR)
-                .setThumbnail(MAIN_LOGO)
-                .setFooter(STANDARD_FOOTER)
-                .setTimestamp(Instant.now())
-                .build();
+        return SUCCESS_TEMPLATE.build(title, description);
     }
     
     /**
      * Create a modern error embed with Deadside themed styling
      */
     public static MessageEmbed errorEmbed(String title, String description) {
-        return new EmbedBuilder()
-                .setTitle(title)
-                .setDescription(description)
-                .setColor(ERROR_COLOR)
-                .setThumbnail(MAIN_LOGO)
-                .setFooter(STANDARD_FOOTER)
-                .setTimestamp(Instant.now())
-                .build();
+        return ERROR_TEMPLATE.build(title, description);
     }
     
     /**
      * Create a modern info embed with Deadside themed styling
      */
     public static MessageEmbed infoEmbed(String title, String description) {
-        return new EmbedBuilder()
-                .setTitle(title)
-                .setDescription(description)
-                .setColor(INFO_COLOR)
-                .setThumbnail(CONNECTIONS_ICON)
-                .setFooter(STANDARD_FOOTER)
-                .setTimestamp(Instant.now())
-                .build();
+        return INFO_TEMPLATE.build(title, description);
     }
     
     /**
      * Create a modern warning embed with Deadside themed styling
      */
     public static MessageEmbed warningEmbed(String title, String description) {
-        return new EmbedBuilder()
-                .setTitle(title)
-                .setDescription(description)
-                .setColor(WARNING_COLOR)
-                .setThumbnail(HELICRASH_ICON)
-                .setFooter(STANDARD_FOOTER)
-                .setTimestamp(Instant.now())
-                .build();
+        return WARNING_TEMPLATE.build(title, description);
     }
     
     /**
      * Create a modern custom colored embed with Deadside themed styling
      */
     public static MessageEmbed customEmbed(String title, String description, Color color) {
-        return new EmbedBuilder()
+        return SUCCESS_TEMPLATE.builder()
                 .setTitle(title)
                 .setDescription(description)
                 .setColor(color)
-                .setThumbnail(MAIN_LOGO)
-                .setFooter(STANDARD_FOOTER)
-                .setTimestamp(Instant.now())
                 .build();
     }
     
@@ -145,12 +128,8 @@ public class EmbedUtils {
      * Create a modern player stats embed with themed styling
      */
     public static EmbedBuilder playerStatsEmbed(String playerName) {
-        return new EmbedBuilder()
-                .setTitle("Stats for " + playerName)
-                .setColor(EMERALD_GREEN)
-                .setThumbnail(WEAPON_STATS_ICON)
-                .setFooter(STANDARD_FOOTER)
-                .setTimestamp(Instant.now());
+        return STATS_TEMPLATE.builder()
+                .setTitle("Stats for " + playerName);
     }
     
     /**
@@ -268,13 +247,13 @@ public class EmbedUtils {
      * Create a modern styled faction embed
      */
     public static MessageEmbed factionEmbed(String title, String description, Color color) {
-        return new EmbedBuilder()
+        if (color == null) {
+            return FACTION_TEMPLATE.build(title, description);
+        }
+        return FACTION_TEMPLATE.builder()
                 .setTitle(title)
                 .setDescription(description)
-                .setColor(color != null ? color : EMERALD_GREEN)
-                .setThumbnail(FACTION_ICON)
-                .setFooter(STANDARD_FOOTER)
-                .setTimestamp(Instant.now())
+                .setColor(color)
                 .build();
     }
     
@@ -282,70 +261,35 @@ public class EmbedUtils {
      * Create a modern styled economy embed
      */
     public static MessageEmbed economyEmbed(String title, String description) {
-        return new EmbedBuilder()
-                .setTitle(title)
-                .setDescription(description)
-                .setColor(EMERALD_GREEN)
-                .setThumbnail(TRADER_ICON)
-                .setFooter(STANDARD_FOOTER)
-                .setTimestamp(Instant.now())
-                .build();
+        return ECONOMY_TEMPLATE.build(title, description);
     }
     
     /**
      * Create a modern styled premium feature embed
      */
     public static MessageEmbed premiumEmbed(String title, String description) {
-        return new EmbedBuilder()
-                .setTitle(title)
-                .setDescription(description)
-                .setColor(EMERALD_GREEN)
-                .setThumbnail(MAIN_LOGO)
-                .setFooter(STANDARD_FOOTER)
-                .setTimestamp(Instant.now())
-                .build();
+        return SUCCESS_TEMPLATE.build(title, description);
     }
     
     /**
      * Create a modern styled server event embed
      */
     public static MessageEmbed eventEmbed(String title, String description) {
-        return new EmbedBuilder()
-                .setTitle(title)
-                .setDescription(description)
-                .setColor(EMERALD_GREEN)
-                .setThumbnail(MISSION_ICON)
-                .setFooter(STANDARD_FOOTER)
-                .setTimestamp(Instant.now())
-                .build();
+        return EVENT_TEMPLATE.build(title, description);
     }
     
     /**
      * Create a modern styled airdrop event embed
      */
     public static MessageEmbed airdropEmbed(String title, String description) {
-        return new EmbedBuilder()
-                .setTitle(title)
-                .setDescription(description)
-                .setColor(STEEL_BLUE)
-                .setThumbnail(AIRDROP_ICON)
-                .setFooter(STANDARD_FOOTER)
-                .setTimestamp(Instant.now())
-                .build();
+        return AIRDROP_TEMPLATE.build(title, description);
     }
     
     /**
      * Create a modern styled helicopter crash event embed
      */
     public static MessageEmbed helicrashEmbed(String title, String description) {
-        return new EmbedBuilder()
-                .setTitle(title)
-                .setDescription(description)
-                .setColor(RUST_ACCENT)
-                .setThumbnail(HELICRASH_ICON)
-                .setFooter(STANDARD_FOOTER)
-                .setTimestamp(Instant.now())
-                .build();
+        return HELICRASH_TEMPLATE.build(title, description);
     }
     
     /**
@@ -356,13 +300,9 @@ public class EmbedUtils {
         String title = getRandomLeaderboardTitle();
         String description = DynamicTitles.getLeaderboardDescription();
         
-        return new EmbedBuilder()
+        return STATS_TEMPLATE.builder()
                 .setTitle(title)
-                .setDescription(description)
-                .setColor(EMERALD_GREEN)
-                .setThumbnail(WEAPON_STATS_ICON)
-                .setFooter(STANDARD_FOOTER)
-                .setTimestamp(Instant.now());
+                .setDescription(description);
     }
     
     /**
@@ -403,15 +343,11 @@ public class EmbedUtils {
                 joinDescriptions.get(random.nextInt(joinDescriptions.size())) : 
                 leaveDescriptions.get(random.nextInt(leaveDescriptions.size()));
         
-        return new EmbedBuilder()
+        return (isJoining ? CONNECTED_TEMPLATE : DISCONNECTED_TEMPLATE).builder()
                 .setTitle(title)
                 .setDescription(description)
-                .setColor(isJoining ? EMERALD_GREEN : DARK_GRAY)
-                .setThumbnail(CONNECTIONS_ICON)
                 .addField("Player", player, true)
                 .addField("Status", isJoining ? "Online" : "Offline", true)
-                .setFooter(STANDARD_FOOTER)
-                .setTimestamp(Instant.now())
                 .build();
     }
     
@@ -419,14 +355,7 @@ public class EmbedUtils {
      * Create a default embed with standard Deadside styling (returns a built MessageEmbed)
      */
     public static MessageEmbed createDefaultEmbed() {
-        return new EmbedBuilder()
-                .setTitle("Deadside Bot")
-                .setDescription("Deadside Discord Bot")
-                .setColor(EMERALD_GREEN)
-                .setThumbnail(MAIN_LOGO)
-                .setFooter(STANDARD_FOOTER)
-                .setTimestamp(Instant.now())
-                .build();
+        return SUCCESS_TEMPLATE.build("Deadside Bot", "Deadside Discord Bot");
     }
     
     /**
@@ -0,0 +1,440 @@
+package com.deadside.bot.utils;
+
+import com.deadside.bot.db.models.GameServer;
+import com.deadside.bot.db.repositories.GameServerRepository;
+import com.deadside.bot.db.repositories.PlayerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory index of player and game server names per guild, for autocomplete and name lookups
+ *
+ * Player names are kept in a sorted map over their lowercased form, so a prefix is a range scan.
+ * When a prefix finds too few names, names containing the query and then names within a small
+ * edit distance are added. Players are loaded at startup and kept current from the kill stream
+ * and the player repository; server names are loaded per guild on first use and dropped whenever
+ * the game server repository changes that guild's servers.
+ */
+public class NameIndex {
+    private static final Logger logger = LoggerFactory.getLogger(NameIndex.class);
+    private static NameIndex instance;
+
+    // Separates the name from the player's identity in sorted keys; sorts before any character
+    private static final char SEPARATOR = '\u0000';
+
+    private final ConcurrentHashMap<Long, GuildPlayers> players = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, List<String>> serverNames = new ConcurrentHashMap<>();
+    private GameServerRepository gameServerRepository;
+    private volatile boolean ready = false;
+
+    private NameIndex() {
+    }
+
+    public static synchronized NameIndex getInstance() {
+        if (instance == null) {
+            instance = new NameIndex();
+        }
+        return instance;
+    }
+
+    /**
+     * Load every named player from the database, replacing what is in memory
+     */
+    public void rebuild(PlayerRepository playerRepository) {
+        long start = System.currentTimeMillis();
+        Map<Long, GuildPlayers> loaded = new HashMap<>();
+
+        try {
+            int[] count = {0};
+            playerRepository.forEachPlayerName(player -> {
+                if (player.getPlayerId() == null || player.getServerId() == null || !isIndexable(player.getName())) {
+                    return;
+                }
+                loaded.computeIfAbsent(player.getGuildId(), id -> new GuildPlayers())
+                        .put(player.getServerId(), player.getPlayerId(), player.getName());
+                count[0]++;
+            });
+
+            players.clear();
+            players.putAll(loaded);
+            ready = true;
+            logger.info("Indexed {} player names in {} guilds in {} ms",
+                    count[0], loaded.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            ready = false;
+            logger.error("Failed to index player names, lookups will query the database", e);
+        }
+    }
+
+    /**
+     * Reload the player names of some guilds, leaving every other guild as it is
+     * Used when this node takes over the shard of those guilds from another node.
+     */
+    public void reload(PlayerRepository playerRepository, Collection<Long> guildIds) {
+        long start = System.currentTimeMillis();
+        Map<Long, GuildPlayers> loaded = new HashMap<>();
+
+        try {
+            int[] count = {0};
+            playerRepository.forEachPlayerName(guildIds, player -> {
+                if (player.getPlayerId() == null || player.getServerId() == null || !isIndexable(player.getName())) {
+                    return;
+                }
+                loaded.computeIfAbsent(player.getGuildId(), id -> new GuildPlayers())
+                        .put(player.getServerId(), player.getPlayerId(), player.getName());
+                count[0]++;
+            });
+
+            players.keySet().removeAll(guildIds);
+            players.putAll(loaded);
+            logger.info("Reindexed {} player names of {} guilds in {} ms",
+                    count[0], guildIds.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Failed to reindex player names of guilds {}", guildIds, e);
+        }
+    }
+
+    /**
+     * Whether player names have been loaded and can answer lookups
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Add a player or update their name
+     */
+    public void putPlayer(long guildId, String serverId, String playerId, String name) {
+        if (playerId == null || serverId == null || !isIndexable(name)) {
+            return;
+        }
+        players.computeIfAbsent(guildId, id -> new GuildPlayers()).put(serverId, playerId, name);
+    }
+
+    public void removePlayer(long guildId, String serverId, String playerId) {
+        GuildPlayers guild = players.get(guildId);
+        if (guild != null) {
+            guild.remove(serverId, playerId);
+        }
+    }
+
+    /**
+     * Drop every player of a game server whose data was deleted
+     */
+    public void removeServerPlayers(long guildId, String serverId) {
+        GuildPlayers guild = players.get(guildId);
+        if (guild != null) {
+            guild.removeServer(serverId);
+        }
+    }
+
+    /**
+     * Find players by name, best matches first
+     * Exact names come first, then names starting with the query, then names containing it, then
+     * names within a small edit distance. Within a group names are in alphabetical order.
+     * @param serverId The game server, or null for every server of the guild
+     */
+    public List<PlayerName> findPlayers(long guildId, String serverId, String query, int limit) {
+        GuildPlayers guild = players.get(guildId);
+        if (guild == null || limit <= 0) {
+            return new ArrayList<>();
+        }
+        return guild.find(serverId, normalize(query), limit);
+    }
+
+    /**
+     * Names of the guild's game servers matching the query, prefix matches first
+     */
+    public List<String> findServers(long guildId, String query, int limit) {
+        String normalized = normalize(query);
+        List<String> names = serverNames.computeIfAbsent(guildId, this::loadServerNames);
+
+        Set<String> result = new LinkedHashSet<>();
+        for (String name : names) {
+            if (normalize(name).startsWith(normalized)) {
+                result.add(name);
+            }
+        }
+        for (String name : names) {
+            if (normalize(name).contains(normalized)) {
+                result.add(name);
+            }
+        }
+
+        List<String> matches = new ArrayList<>(result);
+        return matches.subList(0, Math.min(limit, matches.size()));
+    }
+
+    /**
+     * Forget the guild's server names; called whenever its game servers are saved or deleted
+     */
+    public void invalidateServers(long guildId) {
+        serverNames.remove(guildId);
+    }
+
+    private List<String> loadServerNames(long guildId) {
+        if (gameServerRepository == null) {
+            gameServerRepository = new GameServerRepository();
+        }
+
+        List<String> names = new ArrayList<>();
+        for (GameServer server : gameServerRepository.findAllByGuildId(guildId)) {
+            if (server.getName() != null) {
+                names.add(server.getName());
+            }
+        }
+        names.sort(String.CASE_INSENSITIVE_ORDER);
+        return List.copyOf(names);
+    }
+
+    static String normalize(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Whether a name is a real player name rather than a placeholder
+     */
+    private static boolean isIndexable(String name) {
+        return name != null && !name.isEmpty() && !name.equals("**");
+    }
+
+    /**
+     * Edit distance between two strings, or max + 1 once it is known to exceed max
+     */
+    static int boundedDistance(String a, String b, int max) {
+        return boundedDistance(a, b, max, new int[2][]);
+    }
+
+    /**
+     * @param rows Two reusable DP rows, grown as needed
+     */
+    private static int boundedDistance(String a, String b, int max, int[][] rows) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+
+        if (rows[0] == null || rows[0].length <= b.length()) {
+            rows[0] = new int[b.length() + 8];
+            rows[1] = new int[b.length() + 8];
+        }
+        int[] previous = rows[0];
+        int[] current = rows[1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    /**
+     * Set of characters in a string, folded into 64 bits (characters may share a bit)
+     */
+    static long charMask(String s) {
+        long mask = 0;
+        for (int i = 0; i < s.length(); i++) {
+            mask |= 1L << s.charAt(i);
+        }
+        return mask;
+    }
+
+    /**
+     * One indexed player
+     */
+    public static final class PlayerName {
+        private final String serverId;
+        private final String playerId;
+        private final String name;
+
+        PlayerName(String serverId, String playerId, String name) {
+            this.serverId = serverId;
+            this.playerId = playerId;
+            this.name = name;
+        }
+
+        public String getServerId() {
+            return serverId;
+        }
+
+        public String getPlayerId() {
+            return playerId;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * Player names of one guild
+     * Prefix lookups read the live sorted map. The contains and near-miss scans read flat arrays
+     * copied from it, refreshed at most every few seconds while players are being added, so a new
+     * name shows up in prefix results right away and in the scans shortly after.
+     */
+    private static final class GuildPlayers {
+        private static final long SNAPSHOT_MAX_AGE_MS = 5000;
+
+        // "<lowercased name>\0<serverId>\0<playerId>" -> player, in name order
+        private final ConcurrentSkipListMap<String, PlayerName> byName = new ConcurrentSkipListMap<>();
+        // "<serverId>\0<playerId>" -> current key in byName
+        private final ConcurrentHashMap<String, String> keys = new ConcurrentHashMap<>();
+        private volatile Snapshot snapshot;
+        private volatile boolean dirty = true;
+
+        synchronized void put(String serverId, String playerId, String name) {
+            String identity = serverId + SEPARATOR + playerId;
+            String key = normalize(name) + SEPARATOR + identity;
+            PlayerName current = byName.get(key);
+            if (current != null && current.name.equals(name)) {
+                return;
+            }
+
+            String previous = keys.put(identity, key);
+            if (previous != null) {
+                byName.remove(previous);
+            }
+            byName.put(key, new PlayerName(serverId, playerId, name));
+            dirty = true;
+        }
+
+        synchronized void remove(String serverId, String playerId) {
+            String previous = keys.remove(serverId + SEPARATOR + playerId);
+            if (previous != null) {
+                byName.remove(previous);
+                dirty = true;
+            }
+        }
+
+        synchronized void removeServer(String serverId) {
+            byName.values().removeIf(player -> player.serverId.equals(serverId));
+            keys.keySet().removeIf(identity -> identity.startsWith(serverId + SEPARATOR));
+            // Deleted players must not linger in the scans
+            snapshot = null;
+            dirty = true;
+        }
+
+        /**
+         * Reads are lock-free; a name changed during a lookup may be found under either name
+         */
+        List<PlayerName> find(String serverId, String query, int limit) {
+            Map<String, PlayerName> result = new LinkedHashMap<>();
+
+            // Exact names, then the rest of the prefix range
+            if (!query.isEmpty()) {
+                collect(byName.subMap(query + SEPARATOR, query + SEPARATOR + '\uffff').values(), serverId, limit, result);
+            }
+            collect(byName.subMap(query, query + '\uffff').values(), serverId, limit, result);
+            if (result.size() >= limit || query.isEmpty()) {
+                return new ArrayList<>(result.values());
+            }
+
+            Snapshot names = snapshot();
+            for (int i = 0; i < names.names.length && result.size() < limit; i++) {
+                if (names.names[i].contains(query)) {
+                    add(names.players[i], serverId, result);
+                }
+            }
+
+            // Typos: one edit for short names, two for longer ones
+            if (result.size() < limit && query.length() >= 3) {
+                int maxEdits = query.length() <= 5 ? 1 : 2;
+                long queryChars = charMask(query);
+                int[][] rows = new int[2][];
+                for (int i = 0; i < names.names.length && result.size() < limit; i++) {
+                    // Every character one string has and the other lacks costs at least one edit
+                    if (Math.abs(names.names[i].length() - query.length()) <= maxEdits
+                            && Long.bitCount(names.chars[i] & ~queryChars) <= maxEdits
+                            && Long.bitCount(queryChars & ~names.chars[i]) <= maxEdits
+                            && boundedDistance(query, names.names[i], maxEdits, rows) <= maxEdits) {
+                        add(names.players[i], serverId, result);
+                    }
+                }
+            }
+            return new ArrayList<>(result.values());
+        }
+
+        private Snapshot snapshot() {
+            Snapshot current = snapshot;
+            if (current != null && (!dirty || System.currentTimeMillis() - current.builtAt < SNAPSHOT_MAX_AGE_MS)) {
+                return current;
+            }
+
+            synchronized (this) {
+                if (snapshot == null || dirty) {
+                    dirty = false;
+                    snapshot = new Snapshot(byName);
+                }
+                return snapshot;
+            }
+        }
+
+        private static void collect(Iterable<PlayerName> players, String serverId, int limit,
+                                    Map<String, PlayerName> result) {
+            for (PlayerName player : players) {
+                if (result.size() >= limit) {
+                    return;
+                }
+                add(player, serverId, result);
+            }
+        }
+
+        private static void add(PlayerName player, String serverId, Map<String, PlayerName> result) {
+            if (serverId == null || Objects.equals(serverId, player.serverId)) {
+                result.putIfAbsent(player.serverId + SEPARATOR + player.playerId, player);
+            }
+        }
+    }
+
+    /**
+     * Lowercased names, their character masks and their players in name order, for scanning
+     */
+    private static final class Snapshot {
+        private final String[] names;
+        private final long[] chars;
+        private final PlayerName[] players;
+        private final long builtAt;
+
+        Snapshot(ConcurrentSkipListMap<String, PlayerName> byName) {
+            List<String> nameList = new ArrayList<>(byName.size());
+            List<PlayerName> playerList = new ArrayList<>(byName.size());
+            byName.forEach((key, player) -> {
+                nameList.add(key.substring(0, key.indexOf(SEPARATOR)));
+                playerList.add(player);
+            });
+            this.names = nameList.toArray(new String[0]);
+            this.players = playerList.toArray(new PlayerName[0]);
+            this.chars = new long[names.length];
+            for (int i = 0; i < names.length; i++) {
+                chars[i] = charMask(names[i]);
+            }
+            this.builtAt = System.currentTimeMillis();
+        }
+    }
+}
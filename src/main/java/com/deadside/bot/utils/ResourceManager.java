@@ -11,9 +11,9 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages resources for the Deadside Bot including logos and images
@@ -42,8 +42,8 @@ public class ResourceManager {
     public static final String WEAPON_STATS_ICON = "WeaponStats.png";
     public static final String HELICRASH_ICON = "Helicrash.png";
     
-    // Cache for FileUpload objects
-    private static final Map<String, FileUpload> fileUploadCache = new HashMap<>();
+    // Image bytes, read once per image; a FileUpload is single use, so one is made per message from these
+    private static final Map<String, byte[]> imageCache = new ConcurrentHashMap<>();
     
     /**
      * Initialize the ResourceManager
@@ -99,14 +99,7 @@ public class ResourceManager {
      * @param imageName The name of the image to preload
      */
     private static void preloadResource(String imageName) {
-        try {
-            FileUpload upload = getImageAsFileUpload(imageName);
-            if (upload != null) {
-                fileUploadCache.put(imageName, upload);
-            }
-        } catch (Exception e) {
-            LOGGER.error("Failed to preload resource: " + imageName, e);
-        }
+        getImageBytes(imageName);
     }
     
     /**
@@ -115,36 +108,45 @@ public class ResourceManager {
      * @return FileUpload object for the image
      */
     public static FileUpload getImageAsFileUpload(String imageName) {
+        // For attachment:// URLs, extract just the filename
+        if (imageName.startsWith("attachment://")) {
+            imageName = imageName.substring("attachment://".length());
+        }
+        
+        byte[] bytes = getImageBytes(imageName);
+        return bytes != null ? FileUpload.fromData(bytes, imageName) : null;
+    }
+    
+    /**
+     * Get the bytes of an image resource, reading it only the first time
+     * @param imageName The name of the image file
+     * @return The image's bytes, or null if it could not be found
+     */
+    public static byte[] getImageBytes(String imageName) {
+        byte[] cached = imageCache.get(imageName);
+        if (cached != null) {
+            return cached;
+        }
+        
+        byte[] bytes = readImage(imageName);
+        if (bytes != null) {
+            imageCache.put(imageName, bytes);
+        }
+        return bytes;
+    }
+    
+    /**
+     * Read an image from the first location it is found in
+     */
+    private static byte[] readImage(String imageName) {
         try {
-            // For attachment:// URLs, extract just the filename
-            if (imageName.startsWith("attachment://")) {
-                imageName = imageName.substring("attachment://".length());
-            }
-            
-            // Create FileUpload from attached_assets directory (highest priority)
-            File attachedFile = new File("attached_assets/" + imageName);
-            if (attachedFile.exists() && attachedFile.isFile() && attachedFile.canRead()) {
-                LOGGER.debug("Found image in attached_assets: {}", attachedFile.getAbsolutePath());
-                return FileUpload.fromData(attachedFile, imageName);
-            }
-            
-            // Try resources/images folder
-            File resourcesFile = new File("src/main/resources/images/" + imageName);
-            if (resourcesFile.exists() && resourcesFile.isFile() && resourcesFile.canRead()) {
-                LOGGER.debug("Found image in resources: {}", resourcesFile.getAbsolutePath());
-                return FileUpload.fromData(resourcesFile, imageName);
-            }
-            
-            // Try target/classes/images folder (for compiled resources)
-            File targetFile = new File("target/classes/images/" + imageName);
-            if (targetFile.exists() && targetFile.isFile() && targetFile.canRead()) {
-                LOGGER.debug("Found image in target: {}", targetFile.getAbsolutePath());
-                return FileUpload.fromData(targetFile, imageName);
-            }
-            
-            // Try absolute paths for other resources directories
+            // attached_assets directory (highest priority), then the resources folders
             File[] possibleLocations = {
-                // Try various common locations
+                new File("attached_assets/" + imageName),
+                new File("src/main/resources/images/" + imageName),
+                // Compiled resources
+                new File("target/classes/images/" + imageName),
+                // Various other common locations
                 new File(System.getProperty("user.dir") + "/resources/images/" + imageName),
                 new File(System.getProperty("user.dir") + "/images/" + imageName),
                 new File(System.getProperty("user.dir") + "/" + imageName),
@@ -154,19 +156,16 @@ public class ResourceManager {
             
             for (File possibleFile : possibleLocations) {
                 if (possibleFile.exists() && possibleFile.isFile() && possibleFile.canRead()) {
-                    LOGGER.debug("Found image in alternative location: {}", possibleFile.getAbsolutePath());
-                    return FileUpload.fromData(possibleFile, imageName);
+                    LOGGER.debug("Found image {} at {}", imageName, possibleFile.getAbsolutePath());
+                    return Files.readAllBytes(possibleFile.toPath());
                 }
             }
             
             // Use classpath resource loading as last resort
             try (InputStream is = ResourceManager.class.getClassLoader().getResourceAsStream("images/" + imageName)) {
                 if (is != null) {
-                    // Create temporary file from stream
-                    Path tempFile = Files.createTempFile("discord-image-", imageName);
-                    Files.copy(is, tempFile, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
-                    LOGGER.debug("Created temp file from classpath resource: {}", tempFile);
-                    return FileUpload.fromData(tempFile.toFile(), imageName);
+                    LOGGER.debug("Found image {} on the classpath", imageName);
+                    return is.readAllBytes();
                 }
             }
             
@@ -2,8 +2,14 @@ package com.deadside.bot.utils;
 
 import com.deadside.bot.db.models.GameServer;
 import com.deadside.bot.db.repositories.KillRecordRepository;
+import com.deadside.bot.db.repositories.MatchupRepository;
 import com.deadside.bot.db.repositories.PlayerRepository;
+import com.deadside.bot.db.repositories.WeaponStatsRepository;
 import com.deadside.bot.db.repositories.FactionRepository;
+import com.deadside.bot.db.repositories.IngestionCheckpointRepository;
+import com.deadside.bot.stats.LeaderboardEngine;
+import com.deadside.bot.stats.MatchupIndex;
+import com.deadside.bot.stats.WeaponStatsEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,7 +22,10 @@ public class ServerDataCleanupUtil {
     // Initialize repositories
     private static final KillRecordRepository killRecordRepository = new KillRecordRepository();
     private static final PlayerRepository playerRepository = new PlayerRepository();
+    private static final MatchupRepository matchupRepository = new MatchupRepository();
+    private static final WeaponStatsRepository weaponStatsRepository = new WeaponStatsRepository();
     private static final FactionRepository factionRepository = new FactionRepository();
+    private static final IngestionCheckpointRepository checkpointRepository = new IngestionCheckpointRepository();
     
     /**
      * Clean up all data associated with a game server
@@ -34,6 +43,12 @@ public class ServerDataCleanupUtil {
             long playerRecordsDeleted = playerRepository.deleteAllByGuildIdAndServerId(
                     server.getGuildId(), server.getName());
             summary.setPlayerRecordsDeleted((int)playerRecordsDeleted); // Safe cast - unlikely to exceed Integer.MAX_VALUE
+            LeaderboardEngine.getInstance().removeBoard(server.getGuildId(), server.getName());
+            matchupRepository.deleteAllByGuildIdAndServerId(server.getGuildId(), server.getName());
+            MatchupIndex.getInstance().removeBoard(server.getGuildId(), server.getName());
+            weaponStatsRepository.deleteAllByGuildIdAndServerId(server.getGuildId(), server.getName());
+            WeaponStatsEngine.getInstance().removeBoard(server.getGuildId(), server.getName());
+            checkpointRepository.deleteByServer(server.getGuildId(), server.getName());
             
             // 3. Handle factions - Delete factions associated with this server
             // Currently factions are guild-specific, so we only delete if this is the primary server